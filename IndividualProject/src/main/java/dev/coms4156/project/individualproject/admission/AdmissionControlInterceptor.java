@@ -0,0 +1,234 @@
+package dev.coms4156.project.individualproject.admission;
+
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Admission control for the mutation endpoints.
+ * Each client key gets its own token bucket (HTTP 429 when exhausted), each route has a cap on
+ * requests in flight, and requests that would queue for a route longer than the configured
+ * delay are shed with HTTP 503. Reads on the same paths are never limited. The client key is
+ * the remote address, so a client cannot get a fresh burst by changing a header. The one
+ * exception is a request another shard forwarded, which comes from that shard's address: its
+ * {@code X-Client-Id} header, when at most {@value #MAX_CLIENT_ID_LENGTH} characters long,
+ * carries the key the first shard resolved for the original client.
+ *
+ * <p>A request whose {@code Idempotency-Key} the {@link IdempotencyCache} already holds for
+ * its client is let through without a token or a route permit: it will be answered from the
+ * cache, so a client retrying a mutation that already ran gets its response rather than
+ * HTTP 429.
+ *
+ * <p>Buckets are kept in access-ordered segments with a hard cap on their total, so a flood of
+ * new addresses costs O(1) per request and cannot grow the table: once
+ * a segment is full, its least recently used bucket is dropped. A dropped client starts again
+ * with a full burst.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+  public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+  public static final int MAX_CLIENT_ID_LENGTH = 128;
+
+  private static final int SEGMENTS = 16;
+
+  private static final String PERMIT_ATTRIBUTE =
+      AdmissionControlInterceptor.class.getName() + ".permit";
+
+  private final boolean enabled;
+  private final double ratePerSecond;
+  private final int burst;
+  private final int maxConcurrentPerRoute;
+  private final long maxQueueDelayNanos;
+  private final List<Map<String, TokenBucket>> segments;
+  private final ConcurrentHashMap<String, ConcurrencyLimit> routeLimits =
+      new ConcurrentHashMap<>();
+  private final IdempotencyCache idempotencyCache;
+  private final ShardRouter shardRouter;
+
+  /**
+   * Creates an interceptor that keys every client by its remote address.
+   *
+   * @param enabled Whether admission control is applied at all.
+   * @param ratePerSecond Sustained requests per second allowed per client key.
+   * @param burst Requests a client may send back-to-back before being limited.
+   * @param maxConcurrentPerRoute Requests allowed in flight per route.
+   * @param maxQueueDelayMs Longest time a request may wait for a route permit before shedding.
+   * @param maxClients Most client buckets tracked at once.
+   * @param idempotencyCache The cache whose known keys skip admission, or {@code null}.
+   */
+  public AdmissionControlInterceptor(boolean enabled, double ratePerSecond, int burst,
+                                     int maxConcurrentPerRoute, long maxQueueDelayMs,
+                                     int maxClients, IdempotencyCache idempotencyCache) {
+    this(enabled, ratePerSecond, burst, maxConcurrentPerRoute, maxQueueDelayMs, maxClients,
+        idempotencyCache, null);
+  }
+
+  /**
+   * Creates the interceptor from the {@code catalog.admission.*} properties.
+   *
+   * @param enabled Whether admission control is applied at all.
+   * @param ratePerSecond Sustained requests per second allowed per client key.
+   * @param burst Requests a client may send back-to-back before being limited.
+   * @param maxConcurrentPerRoute Requests allowed in flight per route.
+   * @param maxQueueDelayMs Longest time a request may wait for a route permit before shedding.
+   * @param maxClients Most client buckets tracked at once; the least recently used are
+   *                   dropped beyond it.
+   * @param idempotencyCache The cache whose known keys skip admission, or {@code null}.
+   * @param shardRouter The router that tells forwarded requests apart, or {@code null} to
+   *                    never trust {@value #CLIENT_ID_HEADER}.
+   */
+  @Autowired
+  public AdmissionControlInterceptor(
+      @Value("${catalog.admission.enabled:false}") boolean enabled,
+      @Value("${catalog.admission.rate-per-second:20}") double ratePerSecond,
+      @Value("${catalog.admission.burst:40}") int burst,
+      @Value("${catalog.admission.max-concurrent-per-route:64}") int maxConcurrentPerRoute,
+      @Value("${catalog.admission.max-queue-delay-ms:50}") long maxQueueDelayMs,
+      @Value("${catalog.admission.max-clients:10000}") int maxClients,
+      IdempotencyCache idempotencyCache,
+      ShardRouter shardRouter) {
+    this.enabled = enabled;
+    this.idempotencyCache = idempotencyCache;
+    this.shardRouter = shardRouter;
+    this.ratePerSecond = ratePerSecond;
+    this.burst = burst;
+    this.maxConcurrentPerRoute = maxConcurrentPerRoute;
+    this.maxQueueDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueDelayMs);
+    if (maxClients < 1) {
+      throw new IllegalArgumentException("catalog.admission.max-clients must be positive.");
+    }
+    int segmentCount = Math.min(SEGMENTS, maxClients);
+    int perSegment = maxClients / segmentCount;
+    this.segments = new ArrayList<>(segmentCount);
+    for (int i = 0; i < segmentCount; i++) {
+      // The first maxClients % segmentCount segments take one extra bucket
+      int capacity = perSegment + (i < maxClients % segmentCount ? 1 : 0);
+      segments.add(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+          return size() > capacity;
+        }
+      });
+    }
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) throws IOException {
+    if (!enabled || "GET".equals(request.getMethod())) {
+      return true;
+    }
+
+    String clientKey = clientKey(request, shardRouter);
+    if (idempotencyCache != null
+        && idempotencyCache.contains(clientKey, request.getHeader(IdempotencyCache.HEADER))) {
+      return true;
+    }
+
+    long now = System.nanoTime();
+    long waitNanos = bucketFor(clientKey).tryAcquire(now);
+    if (waitNanos > 0) {
+      long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+          "Rate limit exceeded, please slow down.");
+      return false;
+    }
+
+    ConcurrencyLimit limit = routeLimits.computeIfAbsent(routeKey(request),
+        key -> new ConcurrencyLimit(maxConcurrentPerRoute));
+    if (!limit.tryAcquire(maxQueueDelayNanos)) {
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1,
+          "Server is busy, please retry.");
+      return false;
+    }
+    request.setAttribute(PERMIT_ATTRIBUTE, limit);
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                              Object handler, Exception ex) {
+    Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+    if (permit instanceof ConcurrencyLimit) {
+      request.removeAttribute(PERMIT_ATTRIBUTE);
+      ((ConcurrencyLimit) permit).release();
+    }
+  }
+
+  /**
+   * Returns the number of client buckets currently tracked.
+   *
+   * @return The number of buckets, never more than the configured maximum.
+   */
+  public int getTrackedClients() {
+    int total = 0;
+    for (Map<String, TokenBucket> segment : segments) {
+      synchronized (segment) {
+        total += segment.size();
+      }
+    }
+    return total;
+  }
+
+  private TokenBucket bucketFor(String clientKey) {
+    int hash = clientKey.hashCode();
+    Map<String, TokenBucket> segment =
+        segments.get(Math.floorMod(hash ^ (hash >>> 16), segments.size()));
+    synchronized (segment) {
+      TokenBucket bucket = segment.get(clientKey);
+      if (bucket == null) {
+        bucket = new TokenBucket(ratePerSecond, burst);
+        segment.put(clientKey, bucket);
+      }
+      return bucket;
+    }
+  }
+
+  /**
+   * Returns the key a request's client is limited and identified by.
+   *
+   * @param request The request.
+   * @param shardRouter The shard router, or {@code null} if sharding is not in use.
+   * @return The {@value #CLIENT_ID_HEADER} header of a request forwarded by another shard, if
+   *         present and not too long, otherwise the remote address.
+   */
+  public static String clientKey(HttpServletRequest request, ShardRouter shardRouter) {
+    if (shardRouter != null && shardRouter.isForwarded(request)) {
+      String clientId = request.getHeader(CLIENT_ID_HEADER);
+      if (clientId != null && !clientId.isBlank()
+          && clientId.length() <= MAX_CLIENT_ID_LENGTH) {
+        return clientId;
+      }
+    }
+    return request.getRemoteAddr();
+  }
+
+  private static String routeKey(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String path = pattern != null ? pattern.toString() : request.getRequestURI();
+    return request.getMethod() + " " + path;
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, long retryAfter,
+                             String message) throws IOException {
+    response.setStatus(status.value());
+    response.setHeader("Retry-After", Long.toString(retryAfter));
+    response.setContentType("text/plain");
+    response.getWriter().write(message);
+  }
+}
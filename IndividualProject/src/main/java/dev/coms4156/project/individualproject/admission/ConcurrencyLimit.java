@@ -0,0 +1,56 @@
+package dev.coms4156.project.individualproject.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free cap on the number of requests in flight for one route.
+ * Callers that find the route saturated back off briefly and give up once they have waited
+ * longer than the configured queueing delay, so excess load is shed instead of piling up.
+ */
+public class ConcurrencyLimit {
+
+  private static final long BACKOFF_NANOS = 100_000L;
+
+  private final int maxConcurrent;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public ConcurrencyLimit(int maxConcurrent) {
+    this.maxConcurrent = Math.max(1, maxConcurrent);
+  }
+
+  /**
+   * Takes a permit, waiting at most {@code maxWaitNanos} for one to free up.
+   *
+   * @param maxWaitNanos The longest queueing delay tolerated before shedding.
+   * @return {@code true} if a permit was taken and must later be released.
+   */
+  public boolean tryAcquire(long maxWaitNanos) {
+    long deadline = 0;
+    while (true) {
+      int current = inFlight.get();
+      if (current < maxConcurrent) {
+        if (inFlight.compareAndSet(current, current + 1)) {
+          return true;
+        }
+        continue;
+      }
+      long now = System.nanoTime();
+      if (deadline == 0) {
+        deadline = now + maxWaitNanos;
+      }
+      if (now - deadline >= 0) {
+        return false;
+      }
+      LockSupport.parkNanos(Math.min(BACKOFF_NANOS, deadline - now));
+    }
+  }
+
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
@@ -0,0 +1,259 @@
+package dev.coms4156.project.individualproject.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, time-expiring cache of the responses to mutations sent with an
+ * {@value #HEADER} header, so a client can retry a request without applying it twice.
+ * The first request with a key runs and its response is kept for the configured time; a
+ * retry with the same key gets that response back, marked with {@value #REPLAYED_HEADER},
+ * without running again or touching the book. A retry that arrives while the first request is
+ * still running waits for its response. A key reused for a different request is rejected
+ * with HTTP 422. Keys are scoped to the client that sent them, so two clients choosing the
+ * same key never see each other's responses.
+ *
+ * <p>Responses with HTTP 503 are not kept, so a request that was shed or withdrawn can be
+ * retried with the same key; the mutation endpoints only answer 503 when nothing was applied.
+ * Every other response is kept, including HTTP 500, since the request may have changed the
+ * book before it failed and running it again could apply it twice. Entries leave in the order
+ * they were added, once they expire or the cache holds more than its maximum, so the cache
+ * never grows past that bound however many keys clients send.
+ */
+@Component
+public class IdempotencyCache {
+
+  public static final String HEADER = "Idempotency-Key";
+
+  /**
+   * Response header set on responses replayed from the cache.
+   */
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final boolean enabled;
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final long waitMillis;
+  private final ObjectMapper mapper;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder replays = new LongAdder();
+
+  /**
+   * A request seen with a key, and its response once it has completed.
+   */
+  private static final class Entry {
+    private final String scopedKey;
+    private final String key;
+    private final String request;
+    private final long createdNanos;
+    private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+    private Entry(String scopedKey, String key, String request, long createdNanos) {
+      this.scopedKey = scopedKey;
+      this.key = key;
+      this.request = request;
+      this.createdNanos = createdNanos;
+    }
+  }
+
+  /**
+   * Creates the cache from the {@code catalog.idempotency.*} properties.
+   *
+   * @param mapper The mapper used to keep a copy of each response body.
+   * @param enabled Whether keys are honored at all.
+   * @param maxEntries The most keys remembered at once.
+   * @param ttlSeconds How long a response is kept for retries.
+   * @param waitMs How long a retry waits for the first request with its key to finish.
+   */
+  public IdempotencyCache(ObjectMapper mapper,
+                          @Value("${catalog.idempotency.enabled:true}") boolean enabled,
+                          @Value("${catalog.idempotency.max-entries:10000}") int maxEntries,
+                          @Value("${catalog.idempotency.ttl-seconds:600}") long ttlSeconds,
+                          @Value("${catalog.idempotency.wait-ms:5000}") long waitMs) {
+    if (maxEntries < 1 || ttlSeconds < 1) {
+      throw new IllegalArgumentException("Idempotency entries and TTL must be positive.");
+    }
+    this.mapper = mapper;
+    this.enabled = enabled;
+    this.maxEntries = maxEntries;
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.waitMillis = waitMs;
+  }
+
+  /**
+   * Returns whether a client's key is remembered, so a request with it will be answered from
+   * the cache rather than run.
+   *
+   * @param client The client key, e.g. its {@code X-Client-Id} or remote address.
+   * @param key The request's {@value #HEADER} header, or {@code null} if it has none.
+   * @return {@code true} if the key has an unexpired entry, even one still running.
+   */
+  public boolean contains(String client, String key) {
+    if (!enabled || key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      return false;
+    }
+    Entry existing = entries.get(scoped(client, key));
+    return existing != null && System.nanoTime() - existing.createdNanos <= ttlNanos;
+  }
+
+  /**
+   * Runs a request at most once per client and key.
+   *
+   * @param client The client key, e.g. its {@code X-Client-Id} or remote address.
+   * @param key The request's {@value #HEADER} header, or {@code null} if it has none.
+   * @param request A description of the request, e.g. its route and parameters, that a retry
+   *                must match.
+   * @param action Runs the request.
+   * @return The action's response, the response of an earlier request with the same key,
+   *         HTTP 400 for a malformed key, HTTP 409 if the earlier request is still running
+   *         after the wait, or HTTP 422 if the key was used for a different request.
+   */
+  public ResponseEntity<?> execute(String client, String key, String request,
+                                   Supplier<ResponseEntity<?>> action) {
+    if (!enabled || key == null) {
+      return action.get();
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      return ResponseEntity.badRequest()
+          .body(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+    }
+    long now = System.nanoTime();
+    String scopedKey = scoped(client, key);
+    Entry entry = new Entry(scopedKey, key, request, now);
+    while (true) {
+      Entry existing = entries.putIfAbsent(scopedKey, entry);
+      if (existing == null) {
+        break;
+      }
+      if (now - existing.createdNanos <= ttlNanos) {
+        return replay(existing, request);
+      }
+      if (entries.replace(scopedKey, existing, entry)) {
+        break;
+      }
+    }
+    order.add(entry);
+    queued.incrementAndGet();
+    evict(now);
+
+    ResponseEntity<?> response;
+    try {
+      response = action.get();
+    } catch (RuntimeException | Error e) {
+      entries.remove(scopedKey, entry);
+      entry.response.completeExceptionally(e);
+      throw e;
+    }
+    if (response.getStatusCode().isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+      entries.remove(scopedKey, entry);
+      entry.response.complete(response);
+    } else {
+      entry.response.complete(snapshot(response));
+    }
+    return response;
+  }
+
+  /**
+   * Joins a client and a key into the map key. The client's length comes first, so no two
+   * pairs give the same string.
+   */
+  private static String scoped(String client, String key) {
+    String scope = client == null ? "" : client;
+    return scope.length() + ":" + scope + key;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns how many retries were answered from the cache.
+   *
+   * @return The number of replayed responses.
+   */
+  public long getReplays() {
+    return replays.sum();
+  }
+
+  private ResponseEntity<?> replay(Entry existing, String request) {
+    if (!existing.request.equals(request)) {
+      return ResponseEntity.unprocessableEntity()
+          .body(HEADER + " " + existing.key + " was used for a different request.");
+    }
+    ResponseEntity<?> response;
+    try {
+      response = existing.response.get(waitMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body("A request with " + HEADER + " " + existing.key + " is still in progress.");
+    } catch (ExecutionException e) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("The request with " + HEADER + " " + existing.key + " failed.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body("Interrupted while waiting for the request with " + HEADER + " "
+              + existing.key + ".");
+    }
+    replays.increment();
+    return ResponseEntity.status(response.getStatusCode())
+        .headers(response.getHeaders())
+        .header(REPLAYED_HEADER, "true")
+        .body(response.getBody());
+  }
+
+  /**
+   * Copies a response so that a replay shows the result as it was, not the current state of
+   * a book that has since changed. Text bodies are kept; others are serialized to JSON.
+   */
+  private ResponseEntity<?> snapshot(ResponseEntity<?> response) {
+    Object body = response.getBody();
+    if (body == null || body instanceof String) {
+      return response;
+    }
+    try {
+      return ResponseEntity.status(response.getStatusCode())
+          .headers(response.getHeaders())
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(mapper.writeValueAsBytes(body));
+    } catch (JsonProcessingException e) {
+      System.err.println("Failed to snapshot response for replay: " + e);
+      return response;
+    }
+  }
+
+  /**
+   * Drops the oldest entries while the oldest has expired or the cache is over its maximum.
+   */
+  private void evict(long now) {
+    while (true) {
+      Entry oldest = order.peek();
+      if (oldest == null
+          || (queued.get() <= maxEntries && now - oldest.createdNanos <= ttlNanos)) {
+        return;
+      }
+      if (order.remove(oldest)) {
+        queued.decrementAndGet();
+        entries.remove(oldest.scopedKey, oldest);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package dev.coms4156.project.individualproject.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm.
+ * The whole bucket state is a single "theoretical arrival time", so acquiring a token is one
+ * compare-and-set on the hot path with no allocation.
+ */
+public class TokenBucket {
+
+  private final long intervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * Creates a bucket refilling at {@code ratePerSecond} with room for {@code burst} tokens.
+   *
+   * @param ratePerSecond Sustained number of tokens granted per second.
+   * @param burst Maximum number of tokens that can be taken back-to-back.
+   */
+  public TokenBucket(double ratePerSecond, int burst) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Rate and burst must be positive.");
+    }
+    this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+    this.burstToleranceNanos = intervalNanos * (burst - 1);
+  }
+
+  /**
+   * Takes one token if available.
+   *
+   * @param nowNanos The current {@link System#nanoTime()}.
+   * @return {@code 0} if a token was taken, otherwise the number of nanoseconds until the next
+   *         token becomes available.
+   */
+  public long tryAcquire(long nowNanos) {
+    while (true) {
+      long stored = theoreticalArrival.get();
+      long arrival = stored == Long.MIN_VALUE || stored - nowNanos < 0 ? nowNanos : stored;
+      long waitNanos = arrival - nowNanos - burstToleranceNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+      if (theoreticalArrival.compareAndSet(stored, arrival + intervalNanos)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package dev.coms4156.project.individualproject.config;
+
+import dev.coms4156.project.individualproject.admission.AdmissionControlInterceptor;
+import dev.coms4156.project.individualproject.replication.ReplicaGuardInterceptor;
+import dev.coms4156.project.individualproject.sharding.ShardRoutingInterceptor;
+import dev.coms4156.project.individualproject.timing.StageTimingInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the request interceptors that sit in front of {@code RouteController}.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  private final AdmissionControlInterceptor admissionControlInterceptor;
+  private final ReplicaGuardInterceptor replicaGuardInterceptor;
+  private final ShardRoutingInterceptor shardRoutingInterceptor;
+  private final StageTimingInterceptor stageTimingInterceptor;
+
+  /**
+   * Creates the web configuration.
+   *
+   * @param admissionControlInterceptor Rate limiting and load shedding for mutations.
+   * @param replicaGuardInterceptor Read-only and staleness enforcement on replicas.
+   * @param shardRoutingInterceptor Forwarding of single-book requests to the owning shard.
+   * @param stageTimingInterceptor Per-request stage timing, JFR events and slow-request logs.
+   */
+  public WebConfig(AdmissionControlInterceptor admissionControlInterceptor,
+                   ReplicaGuardInterceptor replicaGuardInterceptor,
+                   ShardRoutingInterceptor shardRoutingInterceptor,
+                   StageTimingInterceptor stageTimingInterceptor) {
+    this.admissionControlInterceptor = admissionControlInterceptor;
+    this.replicaGuardInterceptor = replicaGuardInterceptor;
+    this.shardRoutingInterceptor = shardRoutingInterceptor;
+    this.stageTimingInterceptor = stageTimingInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    // First, so rejected and forwarded requests are timed too
+    registry.addInterceptor(stageTimingInterceptor).addPathPatterns("/**");
+    registry.addInterceptor(replicaGuardInterceptor)
+        .addPathPatterns("/**")
+        .excludePathPatterns("/replication/**", "/", "/index");
+    registry.addInterceptor(admissionControlInterceptor)
+        .addPathPatterns("/checkout", "/return", "/book/*/add", "/book/*/hold",
+            "/patrons", "/branch/*/book/*/checkout", "/branch/*/book/*/add");
+    registry.addInterceptor(shardRoutingInterceptor)
+        .addPathPatterns("/book/**", "/checkout", "/return", "/branch/*/book/**");
+  }
+}
@@ -0,0 +1,59 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.CirculationAnalytics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for live circulation statistics.
+ */
+@RestController
+public class AnalyticsController {
+
+  private final CirculationAnalytics circulationAnalytics;
+
+  public AnalyticsController(CirculationAnalytics circulationAnalytics) {
+    this.circulationAnalytics = circulationAnalytics;
+  }
+
+  /**
+   * Returns checkout and availability totals grouped by catalog attributes.
+   *
+   * @param dimension {@code language}, {@code subjects}, {@code publisher} or
+   *                  {@code shelvingLocation} to return only that grouping; all by default.
+   * @param limit The maximum number of groups per dimension, most checked out first.
+   * @return A {@code ResponseEntity} containing the catalog total and the groups of each
+   *         dimension with an HTTP 200 response, or HTTP 400 for an unknown dimension or a
+   *         non-positive limit.
+   */
+  @GetMapping({"/analytics/circulation"})
+  public ResponseEntity<?> getCirculation(
+      @RequestParam(value = "dimension", required = false) String dimension,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    CirculationAnalytics.Dimension groupBy = null;
+    if (dimension != null) {
+      groupBy = CirculationAnalytics.Dimension.parse(dimension);
+      if (groupBy == null) {
+        return ResponseEntity.badRequest().body("Unknown analytics dimension.");
+      }
+    }
+    if (limit <= 0) {
+      return ResponseEntity.badRequest().body("Limit must be positive.");
+    }
+    return new ResponseEntity<>(circulationAnalytics.snapshot(groupBy, limit), HttpStatus.OK);
+  }
+
+  /**
+   * Recomputes the statistics from the full catalog and compares them with the live ones.
+   *
+   * @return A {@code ResponseEntity} containing the verification report with an HTTP 200
+   *         response.
+   */
+  @GetMapping({"/analytics/circulation/verify"})
+  public ResponseEntity<?> verifyCirculation() {
+    return new ResponseEntity<>(circulationAnalytics.verify(), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,48 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.AuthorIndex;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for browsing books by author.
+ */
+@RestController
+public class AuthorController {
+
+  private final AuthorIndex authorIndex;
+
+  public AuthorController(AuthorIndex authorIndex) {
+    this.authorIndex = authorIndex;
+  }
+
+  /**
+   * Returns the books of an author. Names match ignoring case and trailing punctuation, so
+   * {@code /authors/thomas, ambroise/books} finds books by {@code "Thomas, Ambroise,"}.
+   *
+   * @param name The author's name.
+   * @param limit The maximum number of books to return.
+   * @return A {@code ResponseEntity} containing the list of the author's {@code Book} objects
+   *         with an HTTP 200 response, HTTP 404 if no book has this author, or HTTP 400 for a
+   *         non-positive limit.
+   */
+  @GetMapping({"/authors/{name}/books"})
+  public ResponseEntity<?> getBooksByAuthor(
+      @PathVariable String name,
+      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+    if (limit <= 0) {
+      return ResponseEntity.badRequest().body("Limit must be positive.");
+    }
+    List<Book> books = authorIndex.booksBy(name, limit);
+    if (books == null) {
+      return new ResponseEntity<>("Author not found.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(books, HttpStatus.OK);
+  }
+}
@@ -0,0 +1,59 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.PublicationYearIndex;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for querying books by publication year.
+ */
+@RestController
+public class BookQueryController {
+
+  private final PublicationYearIndex publicationYearIndex;
+
+  public BookQueryController(PublicationYearIndex publicationYearIndex) {
+    this.publicationYearIndex = publicationYearIndex;
+  }
+
+  /**
+   * Returns a page of books published within a range of years, ordered by year, then id.
+   * Books whose publication date has no year are only listed when neither bound is given.
+   *
+   * @param publishedFrom The first year of the range, inclusive.
+   * @param publishedTo The last year of the range, inclusive.
+   * @param available Whether to list only books with a copy available.
+   * @param size The maximum number of books in the page.
+   * @param after The {@code nextCursor} of the previous page.
+   * @return A {@code ResponseEntity} containing the page with an HTTP 200 response, or
+   *         HTTP 400 for an empty range, a non-positive size or a malformed cursor.
+   */
+  @GetMapping({"/books"})
+  public ResponseEntity<?> getBooksByYear(
+      @RequestParam(value = "publishedFrom", required = false) Integer publishedFrom,
+      @RequestParam(value = "publishedTo", required = false) Integer publishedTo,
+      @RequestParam(value = "available", defaultValue = "false") boolean available,
+      @RequestParam(value = "size", defaultValue = "50") int size,
+      @RequestParam(value = "after", required = false) String after) {
+    if (size <= 0) {
+      return ResponseEntity.badRequest().body("Size must be positive.");
+    }
+    boolean bounded = publishedFrom != null || publishedTo != null;
+    int from = publishedFrom != null ? publishedFrom
+        : bounded ? Book.UNKNOWN_YEAR + 1 : Book.UNKNOWN_YEAR;
+    int to = publishedTo != null ? publishedTo : Integer.MAX_VALUE;
+    if (from > to) {
+      return ResponseEntity.badRequest().body("publishedFrom must not be after publishedTo.");
+    }
+    try {
+      return new ResponseEntity<>(
+          publicationYearIndex.query(from, to, available, size, after), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body("Malformed cursor.");
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.BranchRegistry;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.PatronService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for the copies each library branch holds. Only the branches configured in
+ * {@link BranchRegistry} can be queried or mutated.
+ */
+@RestController
+public class BranchController {
+
+  private final MockApiService mockApiService;
+  private final PatronService patronService;
+  private final BranchRegistry branchRegistry;
+
+  /**
+   * Creates the controller.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param patronService The service holding the patrons.
+   * @param branchRegistry The configured branches.
+   */
+  public BranchController(MockApiService mockApiService, PatronService patronService,
+                          BranchRegistry branchRegistry) {
+    this.mockApiService = mockApiService;
+    this.patronService = patronService;
+    this.branchRegistry = branchRegistry;
+  }
+
+  /**
+   * Returns the available and total copies of a book at each branch.
+   *
+   * @param bookId The book's id.
+   * @return A {@code ResponseEntity} containing the branches with a copy available and the
+   *         counts per branch with an HTTP 200 response, or HTTP 404 if the book is not found.
+   */
+  @GetMapping({"/book/{bookId}/branches"})
+  public ResponseEntity<?> getBranches(@PathVariable int bookId) {
+    Book book = mockApiService.findBook(bookId);
+    if (book == null) {
+      return new ResponseEntity<>("No book with id " + bookId + " found.",
+          HttpStatus.NOT_FOUND);
+    }
+    Map<String, Map<String, Integer>> branches = new LinkedHashMap<>();
+    List<String> availableAt = new ArrayList<>();
+    for (Map.Entry<String, int[]> entry : book.getCopiesByBranch().entrySet()) {
+      Map<String, Integer> counts = new LinkedHashMap<>();
+      counts.put("available", entry.getValue()[0]);
+      counts.put("total", entry.getValue()[1]);
+      branches.put(entry.getKey(), counts);
+      if (entry.getValue()[0] > 0) {
+        availableAt.add(entry.getKey());
+      }
+    }
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("id", bookId);
+    body.put("availableAt", availableAt);
+    body.put("branches", branches);
+    return new ResponseEntity<>(body, HttpStatus.OK);
+  }
+
+  /**
+   * Returns books with a copy available at any of the given branches. Each book is matched
+   * with a single test of its branch availability bits against those of the branches.
+   *
+   * @param branches Comma-separated branch codes.
+   * @param limit The maximum number of books to return.
+   * @return A {@code ResponseEntity} containing the books in catalog order with an HTTP 200
+   *         response, HTTP 400 for a non-positive limit or no branches, or HTTP 404 if a
+   *         branch is unknown.
+   */
+  @GetMapping({"/branches/available"})
+  public ResponseEntity<?> getAvailableAt(@RequestParam("branches") String branches,
+                                          @RequestParam(value = "limit", defaultValue = "50")
+                                          int limit) {
+    if (limit <= 0) {
+      return ResponseEntity.badRequest().body("Limit must be positive.");
+    }
+    long wanted = 0;
+    for (String code : branches.split(",")) {
+      if (code.isBlank()) {
+        continue;
+      }
+      int branch = branchRegistry.find(code);
+      if (branch < 0) {
+        return new ResponseEntity<>("Unknown branch " + code.trim() + ".",
+            HttpStatus.NOT_FOUND);
+      }
+      wanted |= 1L << branch;
+    }
+    if (wanted == 0) {
+      return ResponseEntity.badRequest().body("At least one branch is required.");
+    }
+    long mask = wanted;
+    List<Book> books = mockApiService.streamBooks()
+        .filter(book -> (branchRegistry.availableMask(book) & mask) != 0)
+        .limit(limit)
+        .collect(Collectors.toList());
+    return new ResponseEntity<>(books, HttpStatus.OK);
+  }
+
+  /**
+   * Checks out a copy of a book from a branch, optionally as a loan to a patron.
+   *
+   * @param code The branch's code.
+   * @param bookId The book's id.
+   * @param patronId The borrowing patron's id, or {@code null} for an anonymous checkout.
+   * @return A {@code ResponseEntity} containing the updated {@code Book} with an HTTP 200
+   *         response, HTTP 404 if the branch, book or patron is not found, HTTP 409 if the
+   *         branch has no copy available, or HTTP 500 if an error occurred.
+   */
+  @PatchMapping({"/branch/{code}/book/{bookId}/checkout"})
+  public ResponseEntity<?> checkout(@PathVariable String code, @PathVariable int bookId,
+                                    @RequestParam(value = "patronId", required = false)
+                                    Integer patronId) {
+    if (branchRegistry.find(code) < 0) {
+      return new ResponseEntity<>("Unknown branch " + code + ".", HttpStatus.NOT_FOUND);
+    }
+    if (patronId != null && patronService.getPatron(patronId) == null) {
+      return new ResponseEntity<>("No patron with id " + patronId + " found.",
+          HttpStatus.NOT_FOUND);
+    }
+    try {
+      MutationResult result = mockApiService.checkoutBook(bookId,
+          patronId == null ? MockApiService.ANONYMOUS_PATRON : patronId, code);
+      if (result.getStatus() == MutationResult.Status.NOT_FOUND) {
+        return new ResponseEntity<>("No book with id " + bookId + " found.",
+            HttpStatus.NOT_FOUND);
+      }
+      if (result.getStatus() == MutationResult.Status.UNAVAILABLE) {
+        return new ResponseEntity<>("No copy of book with id " + bookId
+            + " available at branch " + code + ".", HttpStatus.CONFLICT);
+      }
+      return ResponseEntity.ok(result.getBook());
+    } catch (Exception e) {
+      System.err.println(e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error occurred for check out of book with id " + bookId + ".");
+    }
+  }
+
+  /**
+   * Adds a copy of a book at a branch.
+   *
+   * @param code The branch's code.
+   * @param bookId The book's id.
+   * @return A {@code ResponseEntity} containing the updated {@code Book} with an HTTP 200
+   *         response, HTTP 404 if the branch or book is not found, or HTTP 500 if an error
+   *         occurred.
+   */
+  @PatchMapping({"/branch/{code}/book/{bookId}/add"})
+  public ResponseEntity<?> addCopy(@PathVariable String code, @PathVariable int bookId) {
+    if (branchRegistry.find(code) < 0) {
+      return new ResponseEntity<>("Unknown branch " + code + ".", HttpStatus.NOT_FOUND);
+    }
+    try {
+      MutationResult result = mockApiService.addCopy(bookId, code);
+      if (result.getStatus() == MutationResult.Status.NOT_FOUND) {
+        return new ResponseEntity<>("No book with id " + bookId + " found.",
+            HttpStatus.NOT_FOUND);
+      }
+      return ResponseEntity.ok(result.getBook());
+    } catch (Exception e) {
+      System.err.println(e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error occurred when adding book.");
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.CatalogExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for streaming catalog exports.
+ */
+@RestController
+public class ExportController {
+
+  /**
+   * Media type of the export.
+   */
+  public static final String NDJSON = "application/x-ndjson";
+
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  private final CatalogExporter catalogExporter;
+
+  public ExportController(CatalogExporter catalogExporter) {
+    this.catalogExporter = catalogExporter;
+  }
+
+  /**
+   * Streams every book, including its live inventory state, as newline-delimited JSON with
+   * chunked transfer encoding. The response is written on the request thread through a
+   * fixed-size buffer, so a slow client slows the export down instead of growing the heap.
+   *
+   * @param gzip Whether to compress the response, sent with {@code Content-Encoding: gzip}.
+   * @param response The response to stream the books to.
+   * @throws IOException If writing fails, e.g. because the client disconnected.
+   */
+  @GetMapping({"/books/export"})
+  public void exportBooks(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                          HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON);
+    response.setCharacterEncoding("UTF-8");
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    OutputStream out = gzip
+        ? new GZIPOutputStream(response.getOutputStream(), BUFFER_BYTES)
+        : new BufferedOutputStream(response.getOutputStream(), BUFFER_BYTES);
+    try (out) {
+      catalogExporter.export(out);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.HoldService;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.PatronService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for hold (reservation) operations on books with no available copies.
+ */
+@RestController
+public class HoldController {
+
+  private final MockApiService mockApiService;
+  private final HoldService holdService;
+  private final PatronService patronService;
+
+  /**
+   * Creates the controller.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param holdService The service holding the hold queues.
+   * @param patronService The service holding the patrons who may place holds.
+   */
+  public HoldController(MockApiService mockApiService, HoldService holdService,
+                        PatronService patronService) {
+    this.mockApiService = mockApiService;
+    this.holdService = holdService;
+    this.patronService = patronService;
+  }
+
+  /**
+   * Places a hold on a book for a patron.
+   *
+   * @param bookId An {@code int} representing the id of the book to hold.
+   * @param patronId An {@code int} representing the id of the patron placing the hold.
+   * @return A {@code ResponseEntity} containing the patron's queue position with an HTTP 201
+   *         response, HTTP 400 for an invalid patron id, HTTP 404 if the book or patron is
+   *         not found, HTTP 409 if the book has copies available, or a message indicating an error
+   *         occurred with an HTTP 500 response.
+   */
+  @PostMapping({"/book/{bookId}/hold"})
+  public ResponseEntity<?> placeHold(@PathVariable int bookId,
+                                     @RequestParam("patronId") int patronId) {
+    try {
+      if (patronId <= 0) {
+        return ResponseEntity.badRequest().body("Patron id must be positive.");
+      }
+      if (patronService.getPatron(patronId) == null) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("No patron with id " + patronId + " found.");
+      }
+
+      Book book = mockApiService.findBook(bookId);
+      if (book == null) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("No book with id " + bookId + " found.");
+      }
+
+      int position = holdService.placeHold(book, patronId);
+      if (position == 0) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("Book with id " + bookId + " has copies available, check out instead.");
+      }
+
+      return ResponseEntity.status(HttpStatus.CREATED).body(holdBody(bookId, patronId, position));
+    } catch (Exception e) {
+      System.err.println(e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error occurred when placing hold on book with id " + bookId + ".");
+    }
+  }
+
+  /**
+   * Returns the status of a patron's hold on a book.
+   *
+   * @param bookId An {@code int} representing the id of the held book.
+   * @param patronId An {@code int} representing the id of the patron.
+   * @return A {@code ResponseEntity} containing either the patron's queue position or the due
+   *         date of the copy allocated to them with an HTTP 200 response, or HTTP 404 if the
+   *         patron has no hold on the book.
+   */
+  @GetMapping({"/book/{bookId}/hold"})
+  public ResponseEntity<?> getHold(@PathVariable int bookId,
+                                   @RequestParam("patronId") int patronId) {
+    int position = holdService.getPosition(bookId, patronId);
+    if (position > 0) {
+      return ResponseEntity.ok(holdBody(bookId, patronId, position));
+    }
+
+    String dueDate = holdService.getAllocation(bookId, patronId);
+    if (dueDate != null) {
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("bookId", bookId);
+      body.put("patronId", patronId);
+      body.put("status", "ALLOCATED");
+      body.put("dueDate", dueDate);
+      return ResponseEntity.ok(body);
+    }
+
+    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+        .body("Patron " + patronId + " has no hold on book with id " + bookId + ".");
+  }
+
+  private Map<String, Object> holdBody(int bookId, int patronId, int position) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("bookId", bookId);
+    body.put("patronId", patronId);
+    body.put("status", "WAITING");
+    body.put("position", position);
+    body.put("queueLength", holdService.getQueueLength(bookId));
+    return body;
+  }
+}
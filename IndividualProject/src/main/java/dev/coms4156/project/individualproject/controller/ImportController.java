@@ -0,0 +1,60 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.BulkImportService;
+import dev.coms4156.project.individualproject.service.ImportReport;
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import java.io.InputStream;
+import java.util.function.IntPredicate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for bulk catalog imports.
+ */
+@RestController
+public class ImportController {
+
+  private final BulkImportService bulkImportService;
+  private final ShardRouter shardRouter;
+
+  /**
+   * Creates the controller.
+   *
+   * @param bulkImportService The service that parses and applies the records.
+   * @param shardRouter The shard router, used to skip records owned by other shards, or
+   *                    {@code null} to accept every record.
+   */
+  public ImportController(BulkImportService bulkImportService, ShardRouter shardRouter) {
+    this.bulkImportService = bulkImportService;
+    this.shardRouter = shardRouter;
+  }
+
+  /**
+   * Inserts or replaces books from a stream of newline-delimited JSON {@code Book} records.
+   * All valid records are published together once the stream has been read; invalid records
+   * are reported by line number and do not stop the import.
+   *
+   * @param body The request body, one {@code Book} JSON object per line.
+   * @return A {@code ResponseEntity} containing the {@code ImportReport} with an HTTP 200
+   *         response, HTTP 400 if every record failed, or a message indicating an error
+   *         occurred with an HTTP 500 response.
+   */
+  @PostMapping({"/books/import"})
+  public ResponseEntity<?> importBooks(InputStream body) {
+    try {
+      IntPredicate accept = shardRouter != null && shardRouter.isEnabled()
+          ? shardRouter::isLocal : id -> true;
+      ImportReport report = bulkImportService.importNdjson(body, accept);
+      if (report.getFailed() > 0 && report.getFailed() == report.getReceived()) {
+        return ResponseEntity.badRequest().body(report);
+      }
+      return new ResponseEntity<>(report, HttpStatus.OK);
+    } catch (Exception e) {
+      System.err.println(e);
+      return new ResponseEntity<>("Error occurred when importing books.",
+          HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+}
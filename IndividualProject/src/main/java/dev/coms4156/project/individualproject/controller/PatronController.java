@@ -0,0 +1,82 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.model.Patron;
+import dev.coms4156.project.individualproject.service.PatronService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for patron and loan operations.
+ */
+@RestController
+public class PatronController {
+
+  private final PatronService patronService;
+
+  public PatronController(PatronService patronService) {
+    this.patronService = patronService;
+  }
+
+  /**
+   * Registers a new patron.
+   *
+   * @param name A {@code String} representing the name of the patron.
+   * @return A {@code ResponseEntity} containing the new {@code Patron} with an HTTP 201
+   *         response, or HTTP 400 if the name is blank.
+   */
+  @PostMapping({"/patrons"})
+  public ResponseEntity<?> registerPatron(@RequestParam("name") String name) {
+    if (name == null || name.isBlank()) {
+      return ResponseEntity.badRequest().body("Patron name must not be blank.");
+    }
+    return ResponseEntity.status(HttpStatus.CREATED).body(patronService.registerPatron(name));
+  }
+
+  /**
+   * Returns the details of the specified patron.
+   *
+   * @param patronId An {@code int} representing the id of the patron.
+   * @return A {@code ResponseEntity} containing the {@code Patron} with an HTTP 200 response,
+   *         or HTTP 404 if the patron is not found.
+   */
+  @GetMapping({"/patron/{patronId}"})
+  public ResponseEntity<?> getPatron(@PathVariable int patronId) {
+    Patron patron = patronService.getPatron(patronId);
+    if (patron == null) {
+      return new ResponseEntity<>("Patron not found.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(patron, HttpStatus.OK);
+  }
+
+  /**
+   * Returns the books a patron currently has checked out.
+   *
+   * @param patronId An {@code int} representing the id of the patron.
+   * @return A {@code ResponseEntity} containing the patron's list of {@code Loan} objects with
+   *         an HTTP 200 response, or HTTP 404 if the patron is not found.
+   */
+  @GetMapping({"/patron/{patronId}/loans"})
+  public ResponseEntity<?> getPatronLoans(@PathVariable int patronId) {
+    if (patronService.getPatron(patronId) == null) {
+      return new ResponseEntity<>("Patron not found.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(patronService.getLoans(patronId), HttpStatus.OK);
+  }
+
+  /**
+   * Returns the patron loans currently outstanding for a book.
+   *
+   * @param bookId An {@code int} representing the id of the book.
+   * @return A {@code ResponseEntity} containing the list of {@code Loan} objects for the book
+   *         with an HTTP 200 response. Anonymous checkouts are not listed.
+   */
+  @GetMapping({"/book/{bookId}/loans"})
+  public ResponseEntity<?> getBookLoans(@PathVariable int bookId) {
+    return new ResponseEntity<>(patronService.getBookLoans(bookId), HttpStatus.OK);
+  }
+}
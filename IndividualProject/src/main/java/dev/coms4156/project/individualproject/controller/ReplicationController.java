@@ -0,0 +1,131 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.replication.InventoryEvent;
+import dev.coms4156.project.individualproject.replication.MutationLog;
+import dev.coms4156.project.individualproject.replication.ReplicaSync;
+import dev.coms4156.project.individualproject.service.CatalogExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for primary/replica catalog replication.
+ */
+@RestController
+public class ReplicationController {
+
+  private static final long MAX_WAIT_MS = 30_000;
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  private final CatalogExporter catalogExporter;
+  private final MutationLog mutationLog;
+  private final ReplicaSync replicaSync;
+
+  /**
+   * Creates the replication controller.
+   *
+   * @param catalogExporter Writes the catalog for snapshots.
+   * @param mutationLog The mutation log served to replicas when this node is a primary.
+   * @param replicaSync The synchronizer used when this node is a replica.
+   */
+  public ReplicationController(CatalogExporter catalogExporter, MutationLog mutationLog,
+                               ReplicaSync replicaSync) {
+    this.catalogExporter = catalogExporter;
+    this.mutationLog = mutationLog;
+    this.replicaSync = replicaSync;
+  }
+
+  /**
+   * Returns the inventory events following a sequence number, waiting briefly for new ones.
+   *
+   * @param after A {@code long}, the last sequence number the replica has applied.
+   * @param limit An {@code int}, the maximum number of events to return.
+   * @param waitMs A {@code long}, how long to wait for a new event when there is none.
+   * @return A {@code ResponseEntity} containing the primary's last sequence number and the
+   *         events with an HTTP 200 response, HTTP 404 if this node is not a primary, or
+   *         HTTP 410 if the requested events are no longer retained.
+   */
+  @GetMapping({"/replication/events"})
+  public ResponseEntity<?> getEvents(@RequestParam(value = "after", defaultValue = "0") long after,
+                                     @RequestParam(value = "limit", defaultValue = "1000")
+                                     int limit,
+                                     @RequestParam(value = "waitMs", defaultValue = "0")
+                                     long waitMs) {
+    if (!mutationLog.isEnabled()) {
+      return new ResponseEntity<>("This node is not a replication primary.",
+          HttpStatus.NOT_FOUND);
+    }
+    try {
+      List<InventoryEvent> events =
+          mutationLog.readAfter(after, limit, Math.min(Math.max(0, waitMs), MAX_WAIT_MS));
+      if (events == null) {
+        return new ResponseEntity<>("Events after " + after + " are no longer retained.",
+            HttpStatus.GONE);
+      }
+      Map<String, Object> body = new LinkedHashMap<>();
+      body.put("lastSequence", mutationLog.getLastSequence());
+      body.put("events", events);
+      return new ResponseEntity<>(body, HttpStatus.OK);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new ResponseEntity<>("Interrupted while waiting for events.",
+          HttpStatus.SERVICE_UNAVAILABLE);
+    }
+  }
+
+  /**
+   * Streams a full snapshot of the catalog for bootstrapping a replica. Books are written one
+   * at a time by {@link CatalogExporter}, each serialized under its own lock, so a tiered
+   * catalog is never loaded into memory at once.
+   *
+   * @param response The response to write the snapshot to: the last sequence number reflected
+   *                 in the snapshot and all books with HTTP 200, or HTTP 404 if this node is
+   *                 not a primary.
+   * @throws IOException If writing fails, e.g. because the replica disconnected.
+   */
+  @GetMapping({"/replication/snapshot"})
+  public void getSnapshot(HttpServletResponse response) throws IOException {
+    if (!mutationLog.isEnabled()) {
+      response.setStatus(HttpStatus.NOT_FOUND.value());
+      response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+      response.getWriter().write("This node is not a replication primary.");
+      return;
+    }
+    // Read the sequence first: every event up to it is already reflected in the books
+    long sequence = mutationLog.getLastSequence();
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    try (OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_BYTES)) {
+      out.write(("{\"sequence\":" + sequence + ",\"books\":")
+          .getBytes(StandardCharsets.US_ASCII));
+      catalogExporter.exportArray(out);
+      out.write('}');
+    }
+  }
+
+  /**
+   * Returns the replication role and lag of this node.
+   *
+   * @return A {@code ResponseEntity} containing replication metrics with an HTTP 200 response.
+   */
+  @GetMapping({"/replication/status"})
+  public ResponseEntity<?> getStatus() {
+    if (replicaSync.isEnabled()) {
+      return new ResponseEntity<>(replicaSync.getStatus(), HttpStatus.OK);
+    }
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("role", mutationLog.isEnabled() ? "primary" : "none");
+    status.put("lastSequence", mutationLog.getLastSequence());
+    return new ResponseEntity<>(status, HttpStatus.OK);
+  }
+}
@@ -1,21 +1,46 @@
 package dev.coms4156.project.individualproject.controller;
 
+import dev.coms4156.project.individualproject.admission.AdmissionControlInterceptor;
+import dev.coms4156.project.individualproject.admission.IdempotencyCache;
 import dev.coms4156.project.individualproject.model.Book;
 import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationPipeline;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.MutationType;
+import dev.coms4156.project.individualproject.service.PatronService;
+import dev.coms4156.project.individualproject.service.RecommendationSampler;
+import dev.coms4156.project.individualproject.service.TrendingService;
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import dev.coms4156.project.individualproject.timing.StageTimings;
+import dev.coms4156.project.individualproject.timing.StageTimings.Stage;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
  * Controller for book operations.
@@ -23,10 +48,65 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class RouteController {
 
+  /**
+   * Response header set on list results computed from a partially hydrated catalog.
+   */
+  public static final String PARTIAL_HEADER = "X-Catalog-Partial";
+
+  private static final long MUTATION_TIMEOUT_MS = 5000;
+
   private final MockApiService mockApiService;
+  private final MutationPipeline mutationPipeline;
+  private final PatronService patronService;
+  private final ShardRouter shardRouter;
+  private final TrendingService trendingService;
+  private final IdempotencyCache idempotencyCache;
 
   public RouteController(MockApiService mockApiService) {
+    this(mockApiService, null, null, null, null);
+  }
+
+  /**
+   * Creates a controller that does not deduplicate retried mutations.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param mutationPipeline The single-writer pipeline, or {@code null}.
+   * @param patronService The patron registry, or {@code null}.
+   * @param shardRouter The shard router, or {@code null}.
+   * @param trendingService The recent checkout counts, or {@code null}.
+   */
+  public RouteController(MockApiService mockApiService, MutationPipeline mutationPipeline,
+                         PatronService patronService, ShardRouter shardRouter,
+                         TrendingService trendingService) {
+    this(mockApiService, mutationPipeline, patronService, shardRouter, trendingService, null);
+  }
+
+  /**
+   * Creates a controller that routes mutations through the given pipeline when it is enabled.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param mutationPipeline The single-writer pipeline, or {@code null} to always mutate
+   *                         books directly on the request thread.
+   * @param patronService The patron registry used to attribute loans, or {@code null} to
+   *                      reject patron-attributed checkouts and returns.
+   * @param shardRouter The router used to gather catalog-wide results from other shards, or
+   *                    {@code null} to only ever serve local books.
+   * @param trendingService The recent checkout counts used for trending recommendations, or
+   *                        {@code null} to only rank by all-time checkouts.
+   * @param idempotencyCache The responses to recent mutations sent with an
+   *                         {@value IdempotencyCache#HEADER}, or {@code null} to run every
+   *                         request.
+   */
+  @Autowired
+  public RouteController(MockApiService mockApiService, MutationPipeline mutationPipeline,
+                         PatronService patronService, ShardRouter shardRouter,
+                         TrendingService trendingService, IdempotencyCache idempotencyCache) {
     this.mockApiService = mockApiService;
+    this.mutationPipeline = mutationPipeline;
+    this.patronService = patronService;
+    this.shardRouter = shardRouter;
+    this.trendingService = trendingService;
+    this.idempotencyCache = idempotencyCache;
   }
 
   @GetMapping({"/", "/index"})
@@ -46,10 +126,11 @@ public class RouteController {
    */
   @GetMapping({"/book/{id}"})
   public ResponseEntity<?> getBook(@PathVariable int id) {
-    for (Book book : mockApiService.getBooks()) {
-      if (book.getId() == id) {
-        return new ResponseEntity<>(book, HttpStatus.OK);
-      }
+    long t = StageTimings.start();
+    Book book = mockApiService.findBook(id);
+    StageTimings.stop(Stage.LOOKUP, t);
+    if (book != null) {
+      return new ResponseEntity<>(book, HttpStatus.OK);
     }
 
     return new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
@@ -57,6 +138,8 @@ public class RouteController {
 
   /**
    * Get and return a list of all the books with available copies.
+   * While the catalog is still hydrating in {@code partial} list mode, only the books parsed
+   * so far are considered and the response carries {@value #PARTIAL_HEADER}{@code : true}.
    *
    * @return A {@code ResponseEntity} containing a list of available {@code Book} objects with an
    *         HTTP 200 response if sucessful, or a message indicating an error occurred with an
@@ -65,14 +148,30 @@ public class RouteController {
   @PutMapping({"/books/available"})
   public ResponseEntity<?> getAvailableBooks() {
     try {
-      List<Book> availableBooks = new ArrayList<>();
-
-      for (Book book : mockApiService.getBooks()) {
+      long t = StageTimings.start();
+      List<Book> available = new ArrayList<>();
+      Consumer<Book> collect = book -> {
         if (book.hasCopies()) {
-          availableBooks.add(book);
+          available.add(book);
         }
+      };
+      boolean partial = mockApiService.isServingPartial();
+      if (partial) {
+        mockApiService.getHydratedBooks().forEach(collect);
+      } else if (!mockApiService.forEachBook(collect)) {
+        return new ResponseEntity<>("Error occurred when getting all available books",
+            HttpStatus.OK);
+      }
+      List<Book> availableBooks = available;
+
+      if (isScatterGather()) {
+        availableBooks = shardRouter.gather(availableBooks, "PUT", "/books/available");
       }
+      StageTimings.stop(Stage.LOOKUP, t);
 
+      if (partial) {
+        return ResponseEntity.ok().header(PARTIAL_HEADER, "true").body(availableBooks);
+      }
       return new ResponseEntity<>(availableBooks, HttpStatus.OK);
     } catch (Exception e) {
       System.err.println(e);
@@ -81,25 +180,40 @@ public class RouteController {
     }
   }
 
+  public ResponseEntity<?> addCopy(Integer bookId) {
+    return addCopy(bookId, null);
+  }
+
   /**
-   * Adds a copy to the {@code} Book object if it exists.
+   * Adds a copy to the {@code} Book object if it exists. A retry sent with the same
+   * {@value IdempotencyCache#HEADER} gets the first response back without adding another copy.
    *
    * @param bookId An {@code Integer} representing the unique id of the book.
+   * @param idempotencyKey A {@code String} identifying the request across retries, or
+   *                       {@code null}.
    * @return A {@code ResponseEntity} containing the updated {@code Book} object with an
    *         HTTP 200 response if successful or HTTP 404 if the book is not found,
    *         or a message indicating an error occurred with an HTTP 500 code.
    */
   @PatchMapping({"/book/{bookId}/add"})
-  public ResponseEntity<?> addCopy(@PathVariable Integer bookId) {
+  public ResponseEntity<?> addCopy(@PathVariable Integer bookId,
+                                   @RequestHeader(value = IdempotencyCache.HEADER,
+                                       required = false) String idempotencyKey) {
+    return idempotent(idempotencyKey, "PATCH /book/" + bookId + "/add",
+        () -> addCopyOnce(bookId));
+  }
+
+  private ResponseEntity<?> addCopyOnce(Integer bookId) {
     try {
-      for (Book book : mockApiService.getBooks()) {
-        if (bookId.equals(book.getId())) {
-          book.addCopy();
-          return new ResponseEntity<>(book, HttpStatus.OK);
-        }
+      MutationResult result = mutate(MutationType.ADD_COPY, bookId,
+          MockApiService.ANONYMOUS_PATRON);
+      if (result.getStatus() == MutationResult.Status.OK) {
+        return new ResponseEntity<>(result.getBook(), HttpStatus.OK);
       }
 
       return new ResponseEntity<>("Book not found.", HttpStatus.I_AM_A_TEAPOT);
+    } catch (RejectedExecutionException | TimeoutException e) {
+      return busy();
     } catch (Exception e) {
       System.err.println(e);
       return new ResponseEntity<>("Error occurred when adding book.",
@@ -109,55 +223,94 @@ public class RouteController {
 
   /**
    * Returns 10 unique recommended books (5 most popular by number of checkouts, 5 random books).
+   * In {@code partial} list mode, a catalog with at least 10 books hydrated is recommended from
+   * as it stands and the response carries {@value #PARTIAL_HEADER}{@code : true}.
    *
    * @return A {@code ResponseEntity} containing list of 10 unique {@code Book} objects with an
    *         HTTP 200 if successful or HTTP status and error message indicating an error occurred.
    */
-  @GetMapping({"/books/recommendation"})
   public ResponseEntity<?> getRecommendations() {
+    return getRecommendations(null);
+  }
+
+  /**
+   * Returns 10 unique recommended books, optionally taking the popular half from the books
+   * trending over a recent window instead of all-time checkouts. If fewer than 5 books have
+   * been checked out in the window, the rest are filled by all-time checkouts.
+   *
+   * @param window {@code hour}, {@code day} or {@code week} to rank popular books by recent
+   *               checkouts, or {@code null} to rank them by all-time checkouts.
+   * @return A {@code ResponseEntity} containing list of 10 unique {@code Book} objects with an
+   *         HTTP 200 if successful, HTTP 400 for an unknown window, or HTTP status and error
+   *         message indicating an error occurred.
+   */
+  @GetMapping({"/books/recommendation"})
+  public ResponseEntity<?> getRecommendations(
+      @RequestParam(value = "window", required = false) String window) {
     final int recommendedBooksCount = 10;
     final int popularBooksCount = 5;
     try {
+      long t = StageTimings.start();
+      TrendingService.Window trendingWindow = null;
+      if (window != null) {
+        trendingWindow = TrendingService.Window.parse(window);
+        if (trendingWindow == null || trendingService == null) {
+          return ResponseEntity.badRequest().body("Unknown trending window.");
+        }
+      }
 
-      List<Book> books = mockApiService.getBooks();
-      if (books == null) {
+      boolean partial = mockApiService.isServingPartial();
+      RecommendationSampler sampler =
+          new RecommendationSampler(popularBooksCount, recommendedBooksCount);
+      boolean loaded = true;
+      List<Book> hydrated = partial ? mockApiService.getHydratedBooks() : null;
+      if (hydrated != null && hydrated.size() >= recommendedBooksCount) {
+        hydrated.forEach(sampler);
+      } else {
+        partial = false;
+        loaded = mockApiService.forEachBook(sampler);
+      }
+      if (!loaded) {
         return new ResponseEntity<>("Getting books failed.",
             HttpStatus.INTERNAL_SERVER_ERROR);
       }
 
+      if (isScatterGather()) {
+        // Every shard's top books are among its candidates, so the global top 5 survive
+        List<Book> candidates = shardRouter.gather(
+            sampler.candidates(recommendedBooksCount - popularBooksCount),
+            "GET", "/shard/candidates?popular=" + popularBooksCount
+                + "&random=" + (recommendedBooksCount - popularBooksCount));
+        sampler = new RecommendationSampler(popularBooksCount, recommendedBooksCount);
+        candidates.forEach(sampler);
+      }
+
       // Make sure there are at least 10 unique books
-      long uniqueBooks = books.stream()
-          .map(Book::getId)
-          .distinct()
-          .count();
-  
-      if (uniqueBooks < recommendedBooksCount) {
+      if (sampler.getCount() < recommendedBooksCount) {
         return new ResponseEntity<>(
             "Not enough unique books (need at least 10).",
             HttpStatus.INTERNAL_SERVER_ERROR
         );
       }
   
-      // Copy of original list
-      List<Book> originalListCopy = new ArrayList<>(books);
+      StageTimings.stop(Stage.LOOKUP, t);
+      t = StageTimings.start();
+
       // List of popular books
       List<Book> popularBooks = new ArrayList<>();
       // Set of selected ids for popular books
       Set<Integer> selectedIds = new HashSet<>();
 
-      // Sort list of items by the number of times checked out in descending order
-      // If number of times checked out is same, sort by id in ascending order
-      originalListCopy.sort((b1, b2) -> {
-        int numCheckoutsCompare = Integer.compare(b2.getAmountOfTimesCheckedOut(),
-            b1.getAmountOfTimesCheckedOut());
-        if (numCheckoutsCompare != 0) {
-          return numCheckoutsCompare;
+      if (trendingWindow != null) {
+        for (Book b : trendingService.trending(trendingWindow, popularBooksCount)) {
+          if (selectedIds.add(b.getId())) {
+            popularBooks.add(b);
+          }
         }
-        return Integer.compare(b1.getId(), b2.getId());
-      });
+      }
 
-      // Add top 5 popular books to list
-      for (Book b : originalListCopy) {
+      // Add top 5 popular books to list, most checked out first and ties by ascending id
+      for (Book b : sampler.getPopular()) {
         if (popularBooks.size() >= popularBooksCount) {
           break;
         }
@@ -167,8 +320,8 @@ public class RouteController {
         }
       }
 
-      // Filter out selected popular books and shuffle and collect to a list
-      List<Book> randomBooks = books.stream()
+      // Filter out selected popular books from a uniform sample of the catalog and shuffle
+      List<Book> randomBooks = sampler.getSample().stream()
           .filter(b -> !selectedIds.contains(b.getId()))
           .collect(Collectors.toList());
   
@@ -194,7 +347,11 @@ public class RouteController {
       List<Book> result = new ArrayList<>(recommendedBooksCount);
       result.addAll(popularBooks);
       result.addAll(selectedRandomBooks);
+      StageTimings.stop(Stage.SORT, t);
 
+      if (partial) {
+        return ResponseEntity.ok().header(PARTIAL_HEADER, "true").body(result);
+      }
       return new ResponseEntity<>(result, HttpStatus.OK);
     } catch (Exception e) {
       System.err.println(e);
@@ -203,35 +360,61 @@ public class RouteController {
     }
   }
 
+  public ResponseEntity<?> checkout(int bookId) {
+    return checkout(bookId, null);
+  }
+
+  public ResponseEntity<?> checkout(int bookId, Integer patronId) {
+    return checkout(bookId, patronId, null);
+  }
+
   /**
-   * Check out copy of book.
+   * Check out copy of book, optionally as a loan to a patron. A retry sent with the same
+   * {@value IdempotencyCache#HEADER} gets the first response back without checking out
+   * another copy.
    *
    * @param bookId An {@code int}, id of the book to check out.
+   * @param patronId An {@code Integer}, id of the borrowing patron, or {@code null} for an
+   *                 anonymous checkout.
+   * @param idempotencyKey A {@code String} identifying the request across retries, or
+   *                       {@code null}.
    * @return A {@code ResponseEntity} containing updated {@code Book} with an
-   *         HTTP 200 if successful, HTTP 404 if book is not found,
+   *         HTTP 200 if successful, HTTP 404 if book or patron is not found,
    *         HTTP 409 if no copy available, or a message indicating an error occurred with an
    *         HTTP 500 code.
    */
   @PatchMapping("/checkout")
-  public ResponseEntity<?> checkout(@RequestParam("id") int bookId) {
+  public ResponseEntity<?> checkout(@RequestParam("id") int bookId,
+                                    @RequestParam(value = "patronId", required = false)
+                                    Integer patronId,
+                                    @RequestHeader(value = IdempotencyCache.HEADER,
+                                        required = false) String idempotencyKey) {
+    return idempotent(idempotencyKey, "PATCH /checkout?id=" + bookId + "&patronId=" + patronId,
+        () -> checkoutOnce(bookId, patronId));
+  }
+
+  private ResponseEntity<?> checkoutOnce(int bookId, Integer patronId) {
     try {
-      Book book = mockApiService.getBooks().stream()
-          .filter(b -> b.getId() == bookId)
-          .findFirst()
-          .orElse(null);
+      if (patronId != null && !isRegisteredPatron(patronId)) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("No patron with id " + patronId + " found.");
+      }
 
-      if (book == null) {
+      MutationResult result = mutate(MutationType.CHECKOUT, bookId, patronOrAnonymous(patronId));
+
+      if (result.getStatus() == MutationResult.Status.NOT_FOUND) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body("No book with id " + bookId + " found.");
       }
 
-      String dueDate = book.checkoutCopy();
-      if (dueDate == null) {
+      if (result.getStatus() == MutationResult.Status.UNAVAILABLE) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
             .body("No copy available to checkout for book with id " + bookId + ".");
       }
 
-      return ResponseEntity.ok(book);
+      return ResponseEntity.ok(result.getBook());
+    } catch (RejectedExecutionException | TimeoutException e) {
+      return busy();
     } catch (Exception e) {
       System.err.println(e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -239,4 +422,151 @@ public class RouteController {
     }
   }
 
+  public ResponseEntity<?> returnBook(int bookId, String dueDate) {
+    return returnBook(bookId, dueDate, null);
+  }
+
+  public ResponseEntity<?> returnBook(int bookId, String dueDate, Integer patronId) {
+    return returnBook(bookId, dueDate, patronId, null);
+  }
+
+  /**
+   * Return a checked-out copy of a book. If patrons hold the book, the returned copy is
+   * immediately allocated to the head of its hold queue. A retry sent with the same
+   * {@value IdempotencyCache#HEADER} gets the first response back without returning another
+   * copy.
+   *
+   * @param bookId An {@code int}, id of the book being returned.
+   * @param dueDate A {@code String}, due date of the copy being returned.
+   * @param patronId An {@code Integer}, id of the patron whose loan is returned, or
+   *                 {@code null} for an anonymous checkout.
+   * @param idempotencyKey A {@code String} identifying the request across retries, or
+   *                       {@code null}.
+   * @return A {@code ResponseEntity} containing updated {@code Book} with an
+   *         HTTP 200 if successful, HTTP 404 if book is not found,
+   *         HTTP 400 if the due date is malformed, HTTP 409 if no matching copy is
+   *         checked out (for an anonymous return, one that is not a patron's loan), or a
+   *         message indicating an error occurred with an HTTP 500 code.
+   */
+  @PatchMapping("/return")
+  public ResponseEntity<?> returnBook(@RequestParam("id") int bookId,
+                                      @RequestParam("date") String dueDate,
+                                      @RequestParam(value = "patronId", required = false)
+                                      Integer patronId,
+                                      @RequestHeader(value = IdempotencyCache.HEADER,
+                                          required = false) String idempotencyKey) {
+    return idempotent(idempotencyKey,
+        "PATCH /return?id=" + bookId + "&date=" + dueDate + "&patronId=" + patronId,
+        () -> returnOnce(bookId, dueDate, patronId));
+  }
+
+  private ResponseEntity<?> returnOnce(int bookId, String dueDate, Integer patronId) {
+    try {
+      try {
+        LocalDate.parse(dueDate);
+      } catch (DateTimeParseException e) {
+        return ResponseEntity.badRequest()
+            .body("Due date " + dueDate + " is not a date in yyyy-MM-dd format.");
+      }
+      // The patron's loan is checked and cleared under the book's lock by PatronService
+      if (patronId != null && patronService == null) {
+        return noLoan(bookId, dueDate, patronId);
+      }
+
+      MutationResult result = mockApiService.returnBook(bookId, patronOrAnonymous(patronId),
+          dueDate);
+
+      if (result.getStatus() == MutationResult.Status.NOT_FOUND) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("No book with id " + bookId + " found.");
+      }
+
+      if (result.getStatus() == MutationResult.Status.UNAVAILABLE) {
+        if (patronId != null) {
+          return noLoan(bookId, dueDate, patronId);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("No copy of book with id " + bookId + " is due on " + dueDate
+                + " without a patron's loan.");
+      }
+
+      return ResponseEntity.ok(result.getBook());
+    } catch (Exception e) {
+      System.err.println(e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error occurred for return of book with id " + bookId + ".");
+    }
+  }
+
+  private static ResponseEntity<?> noLoan(int bookId, String dueDate, int patronId) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body("Patron " + patronId + " has no copy of book with id " + bookId
+            + " due on " + dueDate + ".");
+  }
+
+  /**
+   * Runs a mutation through the idempotency cache, if there is one, so that a retry with the
+   * same key from the same client is answered from the first attempt's response.
+   */
+  private ResponseEntity<?> idempotent(String key, String request,
+                                       Supplier<ResponseEntity<?>> action) {
+    if (idempotencyCache == null) {
+      return action.get();
+    }
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    String client = attributes instanceof ServletRequestAttributes
+        ? AdmissionControlInterceptor.clientKey(((ServletRequestAttributes) attributes)
+            .getRequest(), shardRouter)
+        : null;
+    return idempotencyCache.execute(client, key, request, action);
+  }
+
+  /**
+   * Applies a mutation either through the single-writer pipeline, when enabled, or directly on
+   * the calling thread. A {@code TimeoutException} means the queued command was withdrawn
+   * and never applied; once the apply thread has taken it, its result is always awaited.
+   */
+  private MutationResult mutate(MutationType type, int bookId, int patronId) throws Exception {
+    if (mutationPipeline == null || !mutationPipeline.isEnabled()) {
+      return mockApiService.apply(type, bookId, patronId);
+    }
+    // The apply thread is not timing this request, so the wait for it counts as mutate
+    long t = StageTimings.start();
+    CompletableFuture<MutationResult> pending = mutationPipeline.submit(type, bookId, patronId);
+    try {
+      try {
+        return pending.get(MUTATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        if (pending.cancel(false)) {
+          throw e;
+        }
+        return pending.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    } finally {
+      StageTimings.stop(Stage.MUTATE, t);
+    }
+  }
+
+  private boolean isScatterGather() {
+    return shardRouter != null && shardRouter.shouldGather();
+  }
+
+  private boolean isRegisteredPatron(int patronId) {
+    return patronService != null && patronService.getPatron(patronId) != null;
+  }
+
+  private static int patronOrAnonymous(Integer patronId) {
+    return patronId == null ? MockApiService.ANONYMOUS_PATRON : patronId;
+  }
+
+  private ResponseEntity<?> busy() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body("Too many pending updates, please retry.");
+  }
+
 }
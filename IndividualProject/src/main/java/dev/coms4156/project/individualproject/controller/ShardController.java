@@ -0,0 +1,60 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.RecommendationSampler;
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for the endpoints shards use to talk to each other.
+ */
+@RestController
+public class ShardController {
+
+  private final MockApiService mockApiService;
+  private final ShardRouter shardRouter;
+
+  public ShardController(MockApiService mockApiService, ShardRouter shardRouter) {
+    this.mockApiService = mockApiService;
+    this.shardRouter = shardRouter;
+  }
+
+  /**
+   * Returns this shard's candidates for a global recommendation.
+   *
+   * @param popular An {@code int}, the number of most popular local books to include.
+   * @param random An {@code int}, the number of random other local books to include.
+   * @return A {@code ResponseEntity} containing the candidate {@code Book} objects with an
+   *         HTTP 200 response.
+   */
+  @GetMapping({"/shard/candidates"})
+  public ResponseEntity<?> getCandidates(
+      @RequestParam(value = "popular", defaultValue = "5") int popular,
+      @RequestParam(value = "random", defaultValue = "5") int random) {
+    RecommendationSampler sampler = new RecommendationSampler(popular, popular + random);
+    mockApiService.forEachBook(sampler);
+    return new ResponseEntity<>(sampler.candidates(random), HttpStatus.OK);
+  }
+
+  /**
+   * Returns this node's view of the shard layout.
+   *
+   * @return A {@code ResponseEntity} containing the node list, this node's index and the
+   *         number of locally owned books with an HTTP 200 response.
+   */
+  @GetMapping({"/shard/info"})
+  public ResponseEntity<?> getInfo() {
+    Map<String, Object> info = new LinkedHashMap<>();
+    info.put("enabled", shardRouter.isEnabled());
+    info.put("nodes", shardRouter.getNodes());
+    info.put("selfIndex", shardRouter.getSelfIndex());
+    info.put("localBooks", mockApiService.size());
+    return new ResponseEntity<>(info, HttpStatus.OK);
+  }
+}
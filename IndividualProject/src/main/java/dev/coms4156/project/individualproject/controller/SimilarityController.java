@@ -0,0 +1,47 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.SimilarityService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for item-to-item "patrons also borrowed" recommendations.
+ */
+@RestController
+public class SimilarityController {
+
+  private final MockApiService mockApiService;
+  private final SimilarityService similarityService;
+
+  public SimilarityController(MockApiService mockApiService,
+                              SimilarityService similarityService) {
+    this.mockApiService = mockApiService;
+    this.similarityService = similarityService;
+  }
+
+  /**
+   * Returns the books most often borrowed by patrons who also borrowed the given book.
+   *
+   * @param id An {@code int} representing the id of the book.
+   * @param limit The maximum number of books to return.
+   * @return A {@code ResponseEntity} containing the list of similar {@code Book} objects with an
+   *         HTTP 200 response (empty if no patron has borrowed it alongside another book),
+   *         HTTP 400 if the limit is not positive, or HTTP 404 if the book is not found.
+   */
+  @GetMapping({"/book/{id}/similar"})
+  public ResponseEntity<?> getSimilarBooks(@PathVariable int id,
+      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    if (limit <= 0) {
+      return ResponseEntity.badRequest().body("Limit must be positive.");
+    }
+    if (mockApiService.findBook(id) == null) {
+      return new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(similarityService.similarBooks(id, limit), HttpStatus.OK);
+  }
+}
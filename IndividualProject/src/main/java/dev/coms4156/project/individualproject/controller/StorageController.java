@@ -0,0 +1,36 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.TieredBookStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for tiered storage metrics.
+ */
+@RestController
+public class StorageController {
+
+  private final MockApiService mockApiService;
+
+  public StorageController(MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+  }
+
+  /**
+   * Returns the tiered store's residency, hit and eviction counters.
+   *
+   * @return A {@code ResponseEntity} containing the counters with an HTTP 200 response, or
+   *         HTTP 404 if tiered storage is disabled.
+   */
+  @GetMapping({"/storage/tiered"})
+  public ResponseEntity<?> getTieredStats() {
+    TieredBookStore store = mockApiService.getTieredStore();
+    if (store == null) {
+      return new ResponseEntity<>("Tiered storage is disabled.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(store.stats(), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,43 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.TrendingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for books trending over recent checkout windows.
+ */
+@RestController
+public class TrendingController {
+
+  private final TrendingService trendingService;
+
+  public TrendingController(TrendingService trendingService) {
+    this.trendingService = trendingService;
+  }
+
+  /**
+   * Returns the books checked out most within a recent window.
+   *
+   * @param window {@code hour}, {@code day} or {@code week}.
+   * @param limit The maximum number of books to return.
+   * @return A {@code ResponseEntity} containing the list of trending {@code Book} objects with
+   *         an HTTP 200 response, or HTTP 400 for an unknown window or a non-positive limit.
+   */
+  @GetMapping({"/books/trending"})
+  public ResponseEntity<?> getTrendingBooks(
+      @RequestParam(value = "window", defaultValue = "day") String window,
+      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    TrendingService.Window trendingWindow = TrendingService.Window.parse(window);
+    if (trendingWindow == null) {
+      return ResponseEntity.badRequest().body("Unknown trending window.");
+    }
+    if (limit <= 0) {
+      return ResponseEntity.badRequest().body("Limit must be positive.");
+    }
+    return new ResponseEntity<>(trendingService.trending(trendingWindow, limit), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,36 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.startup.StartupWarmup;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for the startup warm-up report.
+ */
+@RestController
+public class WarmupController {
+
+  private final StartupWarmup startupWarmup;
+
+  public WarmupController(StartupWarmup startupWarmup) {
+    this.startupWarmup = startupWarmup;
+  }
+
+  /**
+   * Returns the timings of the warm-up run at startup.
+   *
+   * @return A {@code ResponseEntity} containing the report with an HTTP 200 response, or
+   *         HTTP 404 if the warm-up is disabled or did not complete.
+   */
+  @GetMapping({"/startup/warmup"})
+  public ResponseEntity<?> getWarmupReport() {
+    Map<String, Object> report = startupWarmup.getReport();
+    if (report.isEmpty()) {
+      return new ResponseEntity<>("No warm-up report is available.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(report, HttpStatus.OK);
+  }
+}
@@ -0,0 +1,386 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Drives a running instance with a weighted mix of catalog requests and reports throughput and
+ * latency percentiles. Books are picked with Zipfian popularity, so a few titles receive most
+ * lookups, checkouts and added copies, as in a real library.
+ *
+ * <p>By default the test is closed-loop: each worker sends its next request as soon as the
+ * previous one finishes. With {@code --rate} it is open-loop: requests are due at a fixed
+ * rate, and latency is measured from when each was due rather than when it was sent, so a
+ * server stall shows up in the percentiles instead of silently lowering the request rate.
+ *
+ * <pre>
+ *   java -cp target/classes dev.coms4156.project.individualproject.loadgen.LoadGenerator \
+ *       --url=http://localhost:8080 --duration=30 --concurrency=64 \
+ *       --mix=get:60,available:5,recommendation:5,checkout:20,add:10
+ * </pre>
+ */
+public class LoadGenerator {
+
+  private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+  /**
+   * Settings of a load test, parsed from {@code --name=value} arguments.
+   */
+  public static class Options {
+    private String url = "http://localhost:8080";
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration timeout = Duration.ofSeconds(10);
+    private int concurrency = 64;
+    private int rate;
+    private Map<Operation, Integer> mix = parseMix(
+        "get:60,available:5,recommendation:5,checkout:20,add:10");
+    private double zipfExponent = 0.99;
+    private int seedBooks;
+    private int seedStartId = 1_000_000;
+    private long randomSeed = 42L;
+
+    /**
+     * Parses command-line arguments.
+     *
+     * @param args Arguments such as {@code --duration=60}; durations are in seconds.
+     * @return The options, with defaults for anything not given.
+     * @throws IllegalArgumentException If an argument is unknown or malformed.
+     */
+    public static Options parse(String... args) {
+      Options options = new Options();
+      for (String arg : args) {
+        int eq = arg.indexOf('=');
+        if (!arg.startsWith("--") || eq < 0) {
+          throw new IllegalArgumentException("Expected --name=value but got " + arg);
+        }
+        String value = arg.substring(eq + 1);
+        switch (arg.substring(2, eq)) {
+          case "url":
+            options.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+            break;
+          case "duration":
+            options.duration = Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+            break;
+          case "warmup":
+            options.warmup = Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+            break;
+          case "timeout":
+            options.timeout = Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+            break;
+          case "concurrency":
+            options.concurrency = Math.max(1, Integer.parseInt(value));
+            break;
+          case "rate":
+            options.rate = Math.max(0, Integer.parseInt(value));
+            break;
+          case "mix":
+            options.mix = parseMix(value);
+            break;
+          case "zipf":
+            options.zipfExponent = Double.parseDouble(value);
+            break;
+          case "seed-books":
+            options.seedBooks = Math.max(0, Integer.parseInt(value));
+            break;
+          case "seed-start-id":
+            options.seedStartId = Integer.parseInt(value);
+            break;
+          case "random-seed":
+            options.randomSeed = Long.parseLong(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option " + arg);
+        }
+      }
+      return options;
+    }
+
+    /**
+     * Parses a traffic mix such as {@code get:80,checkout:20}.
+     *
+     * @param spec Comma-separated {@code operation:weight} pairs.
+     * @return The positive weight of each listed operation.
+     * @throws IllegalArgumentException If an operation is unknown or no weight is positive.
+     */
+    public static Map<Operation, Integer> parseMix(String spec) {
+      Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+      for (String part : spec.split(",")) {
+        String[] pair = part.split(":");
+        Operation operation = pair.length == 2 ? Operation.parse(pair[0]) : null;
+        if (operation == null) {
+          throw new IllegalArgumentException("Invalid mix entry " + part);
+        }
+        int weight = Integer.parseInt(pair[1].trim());
+        if (weight > 0) {
+          mix.put(operation, weight);
+        }
+      }
+      if (mix.isEmpty()) {
+        throw new IllegalArgumentException("The mix has no operation with a positive weight");
+      }
+      return mix;
+    }
+
+    public Map<Operation, Integer> getMix() {
+      return mix;
+    }
+
+    public Duration getDuration() {
+      return duration;
+    }
+
+    public int getConcurrency() {
+      return concurrency;
+    }
+  }
+
+  private final Options options;
+  private final HttpClient client;
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+
+  /**
+   * Creates a load generator.
+   *
+   * @param options The settings of the test.
+   */
+  public LoadGenerator(Options options) {
+    this.options = options;
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(options.timeout)
+        .build();
+    this.operations = options.mix.keySet().toArray(new Operation[0]);
+    this.cumulativeWeights = new int[operations.length];
+    int total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += options.mix.get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  /**
+   * Returns the ids of the books to target, most popular first. With {@code --seed-books}
+   * a synthetic catalog is first imported through {@code POST /books/import}; otherwise the
+   * ids are read from {@code GET /books/export}. Popularity ranks are shuffled across ids.
+   *
+   * @return The book ids ordered by Zipfian rank.
+   * @throws IOException If the instance cannot be reached or has no books.
+   * @throws InterruptedException If interrupted while waiting for a response.
+   */
+  public int[] loadCatalog() throws IOException, InterruptedException {
+    int[] ids;
+    if (options.seedBooks > 0) {
+      ids = seedCatalog();
+    } else {
+      HttpResponse<Stream<String>> response = client.send(
+          HttpRequest.newBuilder(URI.create(options.url + "/books/export"))
+              .timeout(options.timeout).GET().build(),
+          HttpResponse.BodyHandlers.ofLines());
+      if (response.statusCode() != 200) {
+        throw new IOException("GET /books/export returned " + response.statusCode());
+      }
+      try (Stream<String> lines = response.body()) {
+        ids = lines.map(ID::matcher).filter(Matcher::find)
+            .mapToInt(m -> Integer.parseInt(m.group(1))).toArray();
+      }
+    }
+    if (ids.length == 0) {
+      throw new IOException("No books found at " + options.url);
+    }
+    Random random = new Random(options.randomSeed);
+    for (int i = ids.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = ids[i];
+      ids[i] = ids[j];
+      ids[j] = swap;
+    }
+    return ids;
+  }
+
+  private int[] seedCatalog() throws IOException, InterruptedException {
+    int[] ids = new int[options.seedBooks];
+    StringBuilder ndjson = new StringBuilder(options.seedBooks * 200);
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = options.seedStartId + i;
+      int copies = 1 + i % 5;
+      ndjson.append("{\"title\":\"Synthetic Book ").append(ids[i])
+          .append("\",\"authors\":[\"Author ").append(i % 997)
+          .append("\"],\"language\":\"eng\",\"shelvingLocation\":\"syn\"")
+          .append(",\"publisher\":\"Load Test Press\",\"subjects\":[\"Subject ")
+          .append(i % 101).append("\"],\"id\":").append(ids[i])
+          .append(",\"publicationDate\":\"").append(1900 + i % 125)
+          .append("\",\"amountOfTimesCheckedOut\":0,\"copiesAvailable\":").append(copies)
+          .append(",\"returnDates\":[],\"totalCopies\":").append(copies).append("}\n");
+    }
+    HttpResponse<String> response = client.send(
+        HttpRequest.newBuilder(URI.create(options.url + "/books/import"))
+            .timeout(options.timeout.multipliedBy(6))
+            .header("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString())).build(),
+        HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException("POST /books/import returned " + response.statusCode() + ": "
+          + response.body());
+    }
+    return ids;
+  }
+
+  /**
+   * Runs the warm-up and the measured interval against the given books.
+   *
+   * @param bookIds The target book ids, most popular first.
+   * @return The latencies and outcomes of requests due within the measured interval.
+   * @throws InterruptedException If interrupted while waiting for the workers.
+   */
+  public LoadReport run(int[] bookIds) throws InterruptedException {
+    ZipfianSampler sampler = new ZipfianSampler(bookIds.length, options.zipfExponent);
+    LoadReport report = new LoadReport(options.duration.toNanos());
+    long start = System.nanoTime();
+    long measureStart = start + options.warmup.toNanos();
+    long end = measureStart + options.duration.toNanos();
+    AtomicLong slots = new AtomicLong();
+    long interval = options.rate > 0 ? 1_000_000_000L / options.rate : 0L;
+
+    SplittableRandom seeds = new SplittableRandom(options.randomSeed);
+    ExecutorService workers = newWorkerExecutor(options.concurrency);
+    try {
+      for (int w = 0; w < options.concurrency; w++) {
+        SplittableRandom random = seeds.split();
+        workers.execute(() -> {
+          while (true) {
+            long due;
+            if (interval > 0) {
+              due = start + slots.getAndIncrement() * interval;
+              if (due >= end) {
+                return;
+              }
+              long wait = due - System.nanoTime();
+              if (wait > 0) {
+                LockSupport.parkNanos(wait);
+              }
+            } else {
+              due = System.nanoTime();
+              if (due >= end) {
+                return;
+              }
+            }
+            Operation operation = pick(random);
+            int bookId = operation.usesBook() ? bookIds[sampler.next(random)] : 0;
+            LoadReport.Outcome outcome = send(operation, bookId);
+            if (due >= measureStart) {
+              report.record(operation, outcome, System.nanoTime() - due);
+            }
+          }
+        });
+      }
+    } finally {
+      workers.shutdown();
+    }
+    long grace = options.timeout.toNanos() + end - System.nanoTime();
+    if (!workers.awaitTermination(grace, TimeUnit.NANOSECONDS)) {
+      workers.shutdownNow();
+    }
+    return report;
+  }
+
+  private Operation pick(SplittableRandom random) {
+    int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    int i = 0;
+    while (cumulativeWeights[i] <= r) {
+      i++;
+    }
+    return operations[i];
+  }
+
+  private LoadReport.Outcome send(Operation operation, int bookId) {
+    try {
+      HttpResponse<Void> response = client.send(
+          operation.request(options.url, bookId, options.timeout),
+          HttpResponse.BodyHandlers.discarding());
+      return LoadReport.Outcome.of(response.statusCode());
+    } catch (IOException e) {
+      return LoadReport.Outcome.FAILED;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return LoadReport.Outcome.FAILED;
+    }
+  }
+
+  /**
+   * Returns an executor with a virtual thread per task on Java 21 and later, or a pool of
+   * {@code workers} daemon platform threads on older runtimes.
+   *
+   * @param workers The number of concurrent worker loops.
+   * @return The executor for the worker loops.
+   */
+  static ExecutorService newWorkerExecutor(int workers) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(workers, r -> {
+        Thread thread = new Thread(r, "loadgen-worker");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Describes the test about to run.
+   *
+   * @param books The number of target books.
+   * @return A one-line summary of the settings.
+   */
+  public String describe(int books) {
+    List<String> mix = new ArrayList<>();
+    options.mix.forEach((operation, weight) -> mix.add(operation.getOptionName() + ":" + weight));
+    return String.format(Locale.ROOT,
+        "%s: %d s after %d s warm-up, %d workers, %s, %d books (zipf %.2f), mix %s",
+        options.url, options.duration.toSeconds(), options.warmup.toSeconds(),
+        options.concurrency,
+        options.rate > 0 ? "open loop at " + options.rate + " req/s" : "closed loop",
+        books, options.zipfExponent, String.join(",", mix));
+  }
+
+  /**
+   * Runs a load test from the command line and prints the report.
+   *
+   * @param args Options as described by {@link Options#parse(String...)}.
+   */
+  public static void main(String[] args) {
+    try {
+      LoadGenerator generator = new LoadGenerator(Options.parse(args));
+      int[] bookIds = generator.loadCatalog();
+      System.out.println("Load test against " + generator.describe(bookIds.length));
+      System.out.print(generator.run(bookIds).format());
+    } catch (IllegalArgumentException | IOException e) {
+      System.err.println("Load test failed: " + e.getMessage());
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      System.exit(1);
+    }
+  }
+}
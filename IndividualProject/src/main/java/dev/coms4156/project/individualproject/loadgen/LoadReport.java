@@ -0,0 +1,152 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import dev.coms4156.project.individualproject.util.LatencyHistogram;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies and response outcomes of a load test, per {@link Operation}.
+ * Safe to record into from many worker threads at once.
+ */
+public class LoadReport {
+
+  /**
+   * How a request ended.
+   */
+  public enum Outcome {
+    /** Any status below 400. */
+    SUCCESS("2xx"),
+    /** A 4xx status, such as 409 when no copy is left or 429 from admission control. */
+    CLIENT_ERROR("4xx"),
+    /** A 5xx status, including 503 when admission control sheds load. */
+    SERVER_ERROR("5xx"),
+    /** No response: a connection failure or timeout. */
+    FAILED("error");
+
+    private final String label;
+
+    Outcome(String label) {
+      this.label = label;
+    }
+
+    /**
+     * Classifies an HTTP status code.
+     *
+     * @param status The status code.
+     * @return The outcome the status belongs to.
+     */
+    public static Outcome of(int status) {
+      if (status >= 500) {
+        return SERVER_ERROR;
+      }
+      return status >= 400 ? CLIENT_ERROR : SUCCESS;
+    }
+  }
+
+  private static final int OUTCOMES = Outcome.values().length;
+
+  private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+  private final AtomicLongArray outcomes =
+      new AtomicLongArray(Operation.values().length * OUTCOMES);
+  private final long durationNanos;
+
+  /**
+   * Creates an empty report.
+   *
+   * @param durationNanos The length of the measured interval, used for throughput.
+   */
+  public LoadReport(long durationNanos) {
+    this.durationNanos = durationNanos;
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Records one finished request.
+   *
+   * @param operation The kind of request.
+   * @param outcome How it ended.
+   * @param latencyNanos The time from when it was due to be sent until it finished.
+   */
+  public void record(Operation operation, Outcome outcome, long latencyNanos) {
+    histograms.get(operation).record(latencyNanos);
+    outcomes.incrementAndGet(operation.ordinal() * OUTCOMES + outcome.ordinal());
+  }
+
+  public LatencyHistogram getHistogram(Operation operation) {
+    return histograms.get(operation);
+  }
+
+  /**
+   * Returns the latencies of every operation combined.
+   *
+   * @return A new histogram holding all recorded requests.
+   */
+  public LatencyHistogram getTotal() {
+    LatencyHistogram total = new LatencyHistogram();
+    for (LatencyHistogram histogram : histograms.values()) {
+      total.add(histogram);
+    }
+    return total;
+  }
+
+  public long getCount(Operation operation, Outcome outcome) {
+    return outcomes.get(operation.ordinal() * OUTCOMES + outcome.ordinal());
+  }
+
+  /**
+   * Returns the throughput of all operations over the measured interval.
+   *
+   * @return Completed requests per second.
+   */
+  public double getThroughput() {
+    return getTotal().getCount() * 1e9 / durationNanos;
+  }
+
+  /**
+   * Formats the report as a table with one row per operation and a total row. Latencies are
+   * in milliseconds.
+   *
+   * @return The table, ending with a newline.
+   */
+  public String format() {
+    StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+        "%-15s %9s %9s %9s %9s %9s %9s %9s %9s", "operation", "count", "req/s", "mean",
+        "p50", "p90", "p99", "p99.9", "max"));
+    for (Outcome outcome : Outcome.values()) {
+      table.append(String.format(Locale.ROOT, " %8s", outcome.label));
+    }
+    table.append('\n');
+    long[] totals = new long[OUTCOMES];
+    for (Operation operation : Operation.values()) {
+      LatencyHistogram histogram = histograms.get(operation);
+      if (histogram.getCount() == 0) {
+        continue;
+      }
+      long[] counts = new long[OUTCOMES];
+      for (Outcome outcome : Outcome.values()) {
+        counts[outcome.ordinal()] = getCount(operation, outcome);
+        totals[outcome.ordinal()] += counts[outcome.ordinal()];
+      }
+      appendRow(table, operation.getOptionName(), histogram, counts);
+    }
+    appendRow(table, "all", getTotal(), totals);
+    return table.toString();
+  }
+
+  private void appendRow(StringBuilder table, String name, LatencyHistogram histogram,
+                         long[] counts) {
+    table.append(String.format(Locale.ROOT, "%-15s %9d %9.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+        name, histogram.getCount(), histogram.getCount() * 1e9 / durationNanos,
+        histogram.getMean() / 1e6, histogram.valueAtPercentile(50) / 1e6,
+        histogram.valueAtPercentile(90) / 1e6, histogram.valueAtPercentile(99) / 1e6,
+        histogram.valueAtPercentile(99.9) / 1e6, histogram.getMax() / 1e6));
+    for (long count : counts) {
+      table.append(String.format(Locale.ROOT, " %8d", count));
+    }
+    table.append('\n');
+  }
+}
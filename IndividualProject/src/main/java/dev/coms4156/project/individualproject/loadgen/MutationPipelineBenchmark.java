@@ -0,0 +1,178 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationPipeline;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.MutationType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares mutation throughput with per-book locking and with the single-writer
+ * {@link MutationPipeline}, in-process and without HTTP. Each caller thread alternates
+ * checkouts and added copies on a few hot books for a fixed time, so copies never run out;
+ * each mode reports the best of several runs in operations per second.
+ *
+ * <pre>
+ *   java -cp target/classes:... \
+ *       dev.coms4156.project.individualproject.loadgen.MutationPipelineBenchmark \
+ *       --callers=4,32 --books=4 --seconds=2 --runs=3
+ * </pre>
+ */
+public class MutationPipelineBenchmark {
+
+  private List<Integer> callers = List.of(4, 32);
+  private int books = 4;
+  private double seconds = 2;
+  private int runs = 3;
+  private int ringSize = 4096;
+  private int batchSize = 256;
+
+  /**
+   * Parses command-line arguments.
+   *
+   * @param args Arguments such as {@code --callers=4,32}.
+   * @return The benchmark, with defaults for anything not given.
+   * @throws IllegalArgumentException If an argument is unknown or malformed.
+   */
+  public static MutationPipelineBenchmark parse(String... args) {
+    MutationPipelineBenchmark benchmark = new MutationPipelineBenchmark();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      String value = arg.substring(eq + 1);
+      switch (arg.substring(2, eq)) {
+        case "callers":
+          List<Integer> counts = new ArrayList<>();
+          for (String count : value.split(",")) {
+            counts.add(Math.max(1, Integer.parseInt(count.trim())));
+          }
+          benchmark.callers = counts;
+          break;
+        case "books":
+          benchmark.books = Math.max(1, Integer.parseInt(value));
+          break;
+        case "seconds":
+          benchmark.seconds = Double.parseDouble(value);
+          break;
+        case "runs":
+          benchmark.runs = Math.max(1, Integer.parseInt(value));
+          break;
+        case "ring-size":
+          benchmark.ringSize = Integer.parseInt(value);
+          break;
+        case "batch-size":
+          benchmark.batchSize = Integer.parseInt(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + arg);
+      }
+    }
+    return benchmark;
+  }
+
+  /**
+   * Measures one mode with a number of caller threads.
+   *
+   * @param singleWriter Whether mutations go through the pipeline rather than the locks.
+   * @param callerCount The number of caller threads.
+   * @return The best throughput of the runs, in operations per second.
+   * @throws InterruptedException If interrupted while waiting for the callers.
+   */
+  public double measure(boolean singleWriter, int callerCount) throws InterruptedException {
+    double best = 0;
+    for (int run = 0; run < runs; run++) {
+      best = Math.max(best, runOnce(singleWriter, callerCount));
+    }
+    return best;
+  }
+
+  private double runOnce(boolean singleWriter, int callerCount) throws InterruptedException {
+    MockApiService service = new MockApiService(false, "wait", false, 0, "", "memory", "",
+        false);
+    List<Book> catalog = new ArrayList<>(books);
+    for (int i = 0; i < books; i++) {
+      catalog.add(new Book("Hot Book " + i, i));
+    }
+    service.replaceCatalog(catalog);
+    MutationPipeline pipeline = new MutationPipeline(service, singleWriter, ringSize, batchSize);
+
+    long durationNanos = (long) (seconds * 1e9);
+    LongAdder operations = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>(callerCount);
+    for (int t = 0; t < callerCount; t++) {
+      int caller = t;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long deadline = System.nanoTime() + durationNanos;
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+          int bookId = (int) ((caller + count) % books);
+          // Adding first keeps a copy available for the checkout that follows
+          MutationType type = count % 2 == 0 ? MutationType.ADD_COPY : MutationType.CHECKOUT;
+          if (singleWriter) {
+            CompletableFuture<MutationResult> future = pipeline.submit(type, bookId);
+            if (future.isCompletedExceptionally()) {
+              // The ring is full; retry without counting the operation
+              Thread.onSpinWait();
+              continue;
+            }
+            future.join();
+          } else {
+            service.apply(type, bookId, MockApiService.ANONYMOUS_PATRON);
+          }
+          count++;
+        }
+        operations.add(count);
+      }, "benchmark-caller-" + t);
+      threads.add(thread);
+      thread.start();
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - begin;
+    pipeline.shutdown();
+    return operations.sum() * 1e9 / elapsed;
+  }
+
+  /**
+   * Runs the benchmark from the command line and prints a table of throughputs.
+   *
+   * @param args Options as described by {@link #parse(String...)}.
+   */
+  public static void main(String[] args) {
+    try {
+      MutationPipelineBenchmark benchmark = parse(args);
+      System.out.printf(Locale.ROOT,
+          "%d hot books, alternating checkout/addCopy, best of %d runs of %.1f s, %d cores%n",
+          benchmark.books, benchmark.runs, benchmark.seconds,
+          Runtime.getRuntime().availableProcessors());
+      System.out.printf(Locale.ROOT, "%-8s %14s %14s%n", "callers", "locking ops/s",
+          "single ops/s");
+      for (int callerCount : benchmark.callers) {
+        System.out.printf(Locale.ROOT, "%-8d %14.0f %14.0f%n", callerCount,
+            benchmark.measure(false, callerCount), benchmark.measure(true, callerCount));
+      }
+    } catch (IllegalArgumentException e) {
+      System.err.println("Benchmark failed: " + e.getMessage());
+      System.exit(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A kind of request the load generator sends, named as in the {@code --mix} option.
+ */
+public enum Operation {
+  GET_BOOK("get", true),
+  AVAILABLE("available", false),
+  RECOMMENDATION("recommendation", false),
+  CHECKOUT("checkout", true),
+  ADD_COPY("add", true);
+
+  private final String optionName;
+  private final boolean usesBook;
+
+  Operation(String optionName, boolean usesBook) {
+    this.optionName = optionName;
+    this.usesBook = usesBook;
+  }
+
+  public String getOptionName() {
+    return optionName;
+  }
+
+  /**
+   * Returns whether the request targets a single book chosen by popularity.
+   *
+   * @return {@code true} for book lookups, checkouts and added copies.
+   */
+  public boolean usesBook() {
+    return usesBook;
+  }
+
+  /**
+   * Builds the request against a running instance.
+   *
+   * @param baseUrl The instance's base URL without a trailing slash.
+   * @param bookId The book to target; ignored by list endpoints.
+   * @param timeout The request timeout.
+   * @return The HTTP request, using the same method and path as {@code RouteController}.
+   */
+  public HttpRequest request(String baseUrl, int bookId, Duration timeout) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(timeout);
+    switch (this) {
+      case GET_BOOK:
+        return builder.uri(URI.create(baseUrl + "/book/" + bookId)).GET().build();
+      case AVAILABLE:
+        return builder.uri(URI.create(baseUrl + "/books/available"))
+            .PUT(HttpRequest.BodyPublishers.noBody()).build();
+      case RECOMMENDATION:
+        return builder.uri(URI.create(baseUrl + "/books/recommendation")).GET().build();
+      case CHECKOUT:
+        return builder.uri(URI.create(baseUrl + "/checkout?id=" + bookId))
+            .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+      default:
+        return builder.uri(URI.create(baseUrl + "/book/" + bookId + "/add"))
+            .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+  }
+
+  /**
+   * Parses an operation name such as {@code checkout}, ignoring case.
+   *
+   * @param name The option name of the operation.
+   * @return The operation, or {@code null} if the name is unknown.
+   */
+  public static Operation parse(String name) {
+    String key = name.trim().toLowerCase(Locale.ROOT);
+    for (Operation operation : values()) {
+      if (operation.optionName.equals(key)) {
+        return operation;
+      }
+    }
+    return null;
+  }
+}
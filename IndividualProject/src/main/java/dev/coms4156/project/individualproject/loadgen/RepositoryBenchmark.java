@@ -0,0 +1,225 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.TieredBookStore;
+import dev.coms4156.project.individualproject.util.LatencyHistogram;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Compares lookup and checkout latency across book repositories in-process, without HTTP.
+ * Each backend gets a fresh {@link MockApiService} holding the same synthetic catalog, then a
+ * single thread looks up, checks out and adds copies to books picked with Zipfian popularity.
+ * The backends are:
+ * <ul>
+ *   <li>{@code memory}: every book on the heap.</li>
+ *   <li>{@code tiered}: a bounded resident set over a temporary spill file.</li>
+ *   <li>{@code disk}: a bounded resident set over a durable file, written through on every
+ *       mutation.</li>
+ *   <li>{@code disk-sync}: {@code disk}, forcing every write to the storage device.</li>
+ * </ul>
+ *
+ * <pre>
+ *   java -cp target/classes:... \
+ *       dev.coms4156.project.individualproject.loadgen.RepositoryBenchmark \
+ *       --books=100000 --operations=200000 --max-resident-bytes=1048576
+ * </pre>
+ */
+public class RepositoryBenchmark {
+
+  private static final String[] OPERATIONS = {"get", "checkout", "add"};
+
+  private int books = 100_000;
+  private int operations = 200_000;
+  private double zipfExponent = 0.99;
+  private int checkoutPercent = 10;
+  private int addPercent = 10;
+  private long maxResidentBytes = 1 << 20;
+  private long randomSeed = 42L;
+  private List<String> backends = List.of("memory", "tiered", "disk", "disk-sync");
+
+  /**
+   * Parses command-line arguments.
+   *
+   * @param args Arguments such as {@code --books=50000}.
+   * @return The benchmark, with defaults for anything not given.
+   * @throws IllegalArgumentException If an argument is unknown or malformed.
+   */
+  public static RepositoryBenchmark parse(String... args) {
+    RepositoryBenchmark benchmark = new RepositoryBenchmark();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      String value = arg.substring(eq + 1);
+      switch (arg.substring(2, eq)) {
+        case "books":
+          benchmark.books = Math.max(1, Integer.parseInt(value));
+          break;
+        case "operations":
+          benchmark.operations = Math.max(1, Integer.parseInt(value));
+          break;
+        case "zipf":
+          benchmark.zipfExponent = Double.parseDouble(value);
+          break;
+        case "checkout-percent":
+          benchmark.checkoutPercent = Integer.parseInt(value);
+          break;
+        case "add-percent":
+          benchmark.addPercent = Integer.parseInt(value);
+          break;
+        case "max-resident-bytes":
+          benchmark.maxResidentBytes = Long.parseLong(value);
+          break;
+        case "random-seed":
+          benchmark.randomSeed = Long.parseLong(value);
+          break;
+        case "backends":
+          benchmark.backends = List.of(value.split(","));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + arg);
+      }
+    }
+    if (benchmark.checkoutPercent < 0 || benchmark.addPercent < 0
+        || benchmark.checkoutPercent + benchmark.addPercent > 100) {
+      throw new IllegalArgumentException("Checkout and add percentages must sum to at most 100");
+    }
+    return benchmark;
+  }
+
+  /**
+   * Runs the benchmark against one backend.
+   *
+   * @param backend The backend's name.
+   * @return The table rows for the backend, ending with a newline.
+   * @throws IOException If the backend's files cannot be created.
+   * @throws IllegalArgumentException If the backend is unknown.
+   */
+  public String run(String backend) throws IOException {
+    MockApiService service = create(backend);
+    List<Book> catalog = new ArrayList<>(books);
+    for (int i = 0; i < books; i++) {
+      int copies = 1 + i % 5;
+      catalog.add(new Book("Synthetic Book " + i, List.of("Author " + i % 997), "eng", "syn",
+          String.valueOf(1900 + i % 125), "Load Test Press", List.of("Subject " + i % 101), i,
+          copies, copies));
+    }
+    long loadStart = System.nanoTime();
+    service.replaceCatalog(catalog);
+    long loadNanos = System.nanoTime() - loadStart;
+    catalog = null;
+
+    ZipfianSampler sampler = new ZipfianSampler(books, zipfExponent);
+    SplittableRandom random = new SplittableRandom(randomSeed);
+    run(service, sampler, random, operations / 5, null);
+    LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+    long start = System.nanoTime();
+    run(service, sampler, random, operations, histograms);
+    long elapsed = System.nanoTime() - start;
+
+    StringBuilder rows = new StringBuilder();
+    for (int i = 0; i < OPERATIONS.length; i++) {
+      LatencyHistogram histogram = histograms[i];
+      if (histogram.getCount() == 0) {
+        continue;
+      }
+      rows.append(String.format(Locale.ROOT,
+          "%-10s %-9s %9d %10.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n", backend, OPERATIONS[i],
+          histogram.getCount(), histogram.getCount() * 1e9 / elapsed, histogram.getMean() / 1e3,
+          histogram.valueAtPercentile(50) / 1e3, histogram.valueAtPercentile(99) / 1e3,
+          histogram.valueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+    }
+    rows.append(String.format(Locale.ROOT, "%-10s loaded %d books in %d ms", backend, books,
+        loadNanos / 1_000_000));
+    TieredBookStore store = service.getTieredStore();
+    if (store != null) {
+      rows.append(String.format(Locale.ROOT, ", hit ratio %.2f, %d books resident",
+          (double) store.stats().get("hitRatio"), (int) store.stats().get("residentBooks")));
+    }
+    return rows.append(System.lineSeparator()).toString();
+  }
+
+  private void run(MockApiService service, ZipfianSampler sampler, SplittableRandom random,
+                   int count, LatencyHistogram[] histograms) {
+    for (int i = 0; i < count; i++) {
+      int id = sampler.next(random);
+      int roll = random.nextInt(100);
+      int operation = roll < checkoutPercent ? 1 : roll < checkoutPercent + addPercent ? 2 : 0;
+      long start = System.nanoTime();
+      if (operation == 1) {
+        MutationResult result = service.checkoutBook(id);
+        if (result.getStatus() == MutationResult.Status.NOT_FOUND) {
+          throw new IllegalStateException("Book " + id + " is missing");
+        }
+      } else if (operation == 2) {
+        service.addCopy(id);
+      } else if (service.findBook(id) == null) {
+        throw new IllegalStateException("Book " + id + " is missing");
+      }
+      if (histograms != null) {
+        histograms[operation].record(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private MockApiService create(String backend) throws IOException {
+    Path directory = Files.createTempDirectory("repository-benchmark");
+    directory.toFile().deleteOnExit();
+    String file = directory.resolve("catalog.jsonl").toString();
+    Path.of(file).toFile().deleteOnExit();
+    switch (backend) {
+      case "memory":
+        return new MockApiService(false, "wait", false, 0, "", "memory", "", false);
+      case "tiered":
+        return new MockApiService(false, "wait", true, maxResidentBytes, directory.toString(),
+            "memory", "", false);
+      case "disk":
+        return new MockApiService(false, "wait", false, maxResidentBytes, "", "disk", file,
+            false);
+      case "disk-sync":
+        return new MockApiService(false, "wait", false, maxResidentBytes, "", "disk", file,
+            true);
+      default:
+        throw new IllegalArgumentException("Unknown backend " + backend);
+    }
+  }
+
+  /**
+   * Runs the benchmark from the command line and prints a table of latencies in
+   * microseconds.
+   *
+   * @param args Options as described by {@link #parse(String...)}.
+   */
+  public static void main(String[] args) {
+    try {
+      RepositoryBenchmark benchmark = parse(args);
+      System.out.printf(Locale.ROOT,
+          "%d books (zipf %.2f), %d operations (%d%% checkout, %d%% add), "
+              + "%d resident bytes%n", benchmark.books, benchmark.zipfExponent,
+          benchmark.operations, benchmark.checkoutPercent, benchmark.addPercent,
+          benchmark.maxResidentBytes);
+      StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+          "%-10s %-9s %9s %10s %9s %9s %9s %9s %9s%n", "backend", "operation", "count",
+          "ops/s", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+      for (String backend : benchmark.backends) {
+        table.append(benchmark.run(backend.trim()));
+      }
+      System.out.print(table);
+    } catch (IllegalArgumentException | IOException e) {
+      System.err.println("Benchmark failed: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+}
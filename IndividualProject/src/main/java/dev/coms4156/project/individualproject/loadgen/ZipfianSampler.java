@@ -0,0 +1,52 @@
+package dev.coms4156.project.individualproject.loadgen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks from a Zipf distribution, where rank {@code k} (from 0) is chosen with
+ * probability proportional to {@code 1 / (k + 1)^exponent}. The cumulative distribution is
+ * precomputed once, so each draw is a binary search over {@code n} doubles. An exponent near 1
+ * gives the long-tailed popularity typical of library circulation: a few titles get most of
+ * the traffic.
+ */
+public class ZipfianSampler {
+
+  private final double[] cumulative;
+
+  /**
+   * Creates a sampler over {@code n} ranks.
+   *
+   * @param n The number of ranks, at least 1.
+   * @param exponent The skew; 0 is uniform, larger values concentrate on the lowest ranks.
+   */
+  public ZipfianSampler(int n, double exponent) {
+    if (n < 1) {
+      throw new IllegalArgumentException("n must be at least 1");
+    }
+    cumulative = new double[n];
+    double total = 0.0;
+    for (int k = 0; k < n; k++) {
+      total += 1.0 / Math.pow(k + 1, exponent);
+      cumulative[k] = total;
+    }
+    for (int k = 0; k < n; k++) {
+      cumulative[k] /= total;
+    }
+  }
+
+  /**
+   * Draws one rank.
+   *
+   * @param random The source of randomness; callers on different threads pass their own.
+   * @return A rank from 0 to {@code n - 1}.
+   */
+  public int next(SplittableRandom random) {
+    int i = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+  }
+
+  public int size() {
+    return cumulative.length;
+  }
+}
@@ -1,26 +1,121 @@
 package dev.coms4156.project.individualproject.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.coms4156.project.individualproject.util.CatalogText;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToIntFunction;
 
 /**
  * This class defines the Book entry model.
  */
 public class Book implements Comparable<Book> {
+
+  /**
+   * {@link #getPublicationYear()} of a book whose publication date has no recognizable year.
+   */
+  public static final int UNKNOWN_YEAR = 0;
+
+  /**
+   * Copies per branch: the branch codes in order, and for the branch at index {@code i} the
+   * available and total copies at {@code copies[2 * i]} and {@code copies[2 * i + 1]}. Counts
+   * change in place under the book's lock; adding a branch replaces the stock.
+   *
+   * <p>The stock also caches the branches with a copy available as a bit set. The bit of each
+   * branch is looked up once, under the book's lock, the first time the mask is asked for with
+   * a given lookup; from then on every change of a branch's available copies updates the mask
+   * in place, so reading it is a field read.
+   */
+  private static final class BranchStock {
+    private final String[] codes;
+    private final int[] copies;
+    // What a derived stock was derived from; unused once the stock is stored
+    private final String derivedFrom;
+    private final int derivedTotal;
+    private final int derivedAvailable;
+    private int[] bits;
+    private volatile long mask;
+    private volatile ToIntFunction<String> maskedBy;
+
+    private BranchStock(String[] codes, int[] copies) {
+      this(codes, copies, null, 0, 0);
+    }
+
+    private BranchStock(String[] codes, int[] copies, String derivedFrom, int derivedTotal,
+                        int derivedAvailable) {
+      this.codes = codes;
+      this.copies = copies;
+      this.derivedFrom = derivedFrom;
+      this.derivedTotal = derivedTotal;
+      this.derivedAvailable = derivedAvailable;
+    }
+
+    /**
+     * Changes the available copies at a branch and keeps the mask in step. The caller holds
+     * the book's lock.
+     */
+    private void addAvailable(int index, int delta) {
+      copies[2 * index] += delta;
+      int[] resolved = bits;
+      if (resolved != null && resolved[index] >= 0) {
+        long bit = 1L << resolved[index];
+        mask = copies[2 * index] > 0 ? mask | bit : mask & ~bit;
+      }
+    }
+
+    /**
+     * Looks up the bit of every branch and computes the mask. The caller holds the book's lock.
+     */
+    private long resolve(ToIntFunction<String> ordinals) {
+      int[] resolved = new int[codes.length];
+      long available = 0;
+      for (int i = 0; i < codes.length; i++) {
+        int ordinal = ordinals.applyAsInt(codes[i]);
+        resolved[i] = ordinal >= 0 && ordinal < Long.SIZE ? ordinal : -1;
+        if (resolved[i] >= 0 && copies[2 * i] > 0) {
+          available |= 1L << resolved[i];
+        }
+      }
+      bits = resolved;
+      mask = available;
+      maskedBy = ordinals;
+      return available;
+    }
+
+    private int indexOf(String code) {
+      for (int i = 0; i < codes.length; i++) {
+        if (codes[i].equals(code)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
   private String title;
   private List<String> authors;
   private String language;
   private String shelvingLocation;
   private String publicationDate;
+  private int publicationYear;
   private String publisher;
   private List<String> subjects;
   private int id;
   private int amountOfTimesCheckedOut;
   private int copiesAvailable;
   private List<String> returnDates;
+  private List<String> loanBranches;
   private int totalCopies;
+  private volatile int[] authorIds = new int[0];
+  private volatile BranchStock branchStock;
+  private volatile BranchStock derivedStock;
 
   /**
    * Very basic Book constructor.
@@ -40,6 +135,7 @@ public class Book implements Comparable<Book> {
     this.amountOfTimesCheckedOut = 0;
     this.copiesAvailable = 1;
     this.returnDates = new ArrayList<>();
+    this.loanBranches = new ArrayList<>();
     this.totalCopies = 1;
   }
 
@@ -63,14 +159,15 @@ public class Book implements Comparable<Book> {
     this.title = title;
     this.authors = authors;
     this.language = language;
-    this.shelvingLocation = shelvingLocation;
-    this.publicationDate = publicationDate;
+    setShelvingLocation(shelvingLocation);
+    setPublicationDate(publicationDate);
     this.publisher = publisher;
     this.subjects = subjects;
     this.id = id;
     this.amountOfTimesCheckedOut = 0;
     this.copiesAvailable = copiesAvailable;
     this.returnDates = new ArrayList<>();
+    this.loanBranches = new ArrayList<>();
     this.totalCopies = totalCopies;
   }
 
@@ -81,6 +178,7 @@ public class Book implements Comparable<Book> {
     this.authors = new ArrayList<>();
     this.subjects = new ArrayList<>();
     this.returnDates = new ArrayList<>();
+    this.loanBranches = new ArrayList<>();
     this.language = "";
     this.shelvingLocation = "";
     this.publicationDate = "";
@@ -109,6 +207,12 @@ public class Book implements Comparable<Book> {
 
   public boolean deleteCopy() {
     if (totalCopies > 0 && copiesAvailable > 0) {
+      BranchStock stock = mutableStock();
+      int branch = firstAvailable(stock);
+      if (branch >= 0) {
+        stock.addAvailable(branch, -1);
+        stock.copies[2 * branch + 1]--;
+      }
       totalCopies--;
       copiesAvailable--;
       return true; 
@@ -117,8 +221,40 @@ public class Book implements Comparable<Book> {
   }
 
   public void addCopy() {
+    addCopy(null);
+  }
+
+  /**
+   * Adds an available copy of the book at a branch. A branch that is not yet in the shelving
+   * location is added to it.
+   *
+   * @param branch The branch's code, or {@code null} for the first branch that already holds
+   *               the book, if any.
+   * @throws IllegalArgumentException If the branch code is blank.
+   */
+  public void addCopy(String branch) {
+    BranchStock stock = mutableStock();
+    int index = -1;
+    if (branch == null) {
+      for (int i = 0; i < stock.codes.length && index < 0; i++) {
+        if (stock.copies[2 * i + 1] > 0) {
+          index = i;
+        }
+      }
+    } else {
+      String code = branchCode(branch);
+      index = stock.indexOf(code);
+      if (index < 0) {
+        stock = addBranch(stock, code);
+        index = stock.codes.length - 1;
+      }
+    }
     totalCopies++;
     copiesAvailable++;
+    if (index >= 0) {
+      stock.addAvailable(index, 1);
+      stock.copies[2 * index + 1]++;
+    }
   }
 
   /**
@@ -129,21 +265,51 @@ public class Book implements Comparable<Book> {
    */
 
   public String checkoutCopy() {
-    if (copiesAvailable > 0) {
-      copiesAvailable--;
-      amountOfTimesCheckedOut++; 
-      LocalDate today = LocalDate.now();
-      LocalDate dueDate = today.plusWeeks(2);
-      String dueDateStr = dueDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
-      returnDates.add(dueDateStr);
-      return dueDateStr;
-    }
+    return checkoutCopy(null);
+  }
 
-    return null;
+  /**
+   * Checks out a copy of the book from a branch if one is available there and generates a due
+   * date two weeks from today.
+   *
+   * @param branch The branch's code, or {@code null} for any copy, taken from the first branch
+   *               with one available.
+   * @return A {@code String} representing the due date if the checkout is successful;
+   *         otherwise, {@code null} if no copies are available at the branch.
+   */
+  public String checkoutCopy(String branch) {
+    if (copiesAvailable <= 0) {
+      return null;
+    }
+    BranchStock stock = mutableStock();
+    int index;
+    if (branch == null) {
+      index = firstAvailable(stock);
+    } else {
+      index = stock.indexOf(branchCode(branch));
+      if (index < 0 || stock.copies[2 * index] <= 0) {
+        return null;
+      }
+    }
+    if (index >= 0) {
+      stock.addAvailable(index, -1);
+    }
+    copiesAvailable--;
+    amountOfTimesCheckedOut++; 
+    LocalDate today = LocalDate.now();
+    LocalDate dueDate = today.plusWeeks(2);
+    String dueDateStr = dueDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+    alignLoanBranches();
+    returnDates.add(dueDateStr);
+    loanBranches.add(index >= 0 ? stock.codes[index] : null);
+    return dueDateStr;
   }
 
   /**
    * Returns a previously checked-out copy of the book corresponding to the given due date.
+   * The copy goes back to the branch it was checked out from. If that is not known, e.g. for a
+   * loan recorded before branches were, or the branch no longer lends copies, it goes to the
+   * first branch with a copy checked out.
    *
    * @param date A {@code String} representing the due date of the book being returned.
    * @return {@code true} if the return was successful and a matching date was removed;
@@ -153,8 +319,18 @@ public class Book implements Comparable<Book> {
     if (!returnDates.isEmpty()) {
       for (int i = 0; i < returnDates.size(); i++) {
         if (returnDates.get(i).equals(date)) {
+          BranchStock stock = mutableStock();
+          alignLoanBranches();
+          String lentFrom = loanBranches.remove(i);
           returnDates.remove(i);
           copiesAvailable++;
+          int branch = lentFrom == null ? -1 : stock.indexOf(lentFrom);
+          if (branch < 0 || stock.copies[2 * branch] >= stock.copies[2 * branch + 1]) {
+            branch = firstLent(stock);
+          }
+          if (branch >= 0) {
+            stock.addAvailable(branch, 1);
+          }
           return true; 
         }
       }
@@ -163,6 +339,148 @@ public class Book implements Comparable<Book> {
     return false; 
   }
 
+  /**
+   * Returns whether a copy of the book is available at a branch.
+   *
+   * @param branch The branch's code.
+   * @return {@code true} if the branch has an available copy.
+   */
+  public boolean hasCopiesAt(String branch) {
+    return getCopiesAt(branch)[0] > 0;
+  }
+
+  /**
+   * Returns the branches with an available copy of the book as a bit set. Whether a book is
+   * available at any of several branches is then one {@code AND} with their bits. The set is
+   * cached and kept up to date by mutations, so a caller that passes the same lookup every
+   * time, as {@code BranchRegistry} does, pays for the lookup once per book.
+   *
+   * @param ordinals Maps a branch code to its bit, or to a negative number for a branch that
+   *                 has none.
+   * @return The bit set, zero if no branch with a bit has a copy available.
+   */
+  public long availableBranchMask(ToIntFunction<String> ordinals) {
+    BranchStock stock = stock();
+    if (stock.maskedBy == ordinals) {
+      return stock.mask;
+    }
+    synchronized (this) {
+      return stock.maskedBy == ordinals ? stock.mask : stock.resolve(ordinals);
+    }
+  }
+
+  /**
+   * Returns the number of available and total copies at a branch.
+   *
+   * @param branch The branch's code.
+   * @return A new array of the available and total copies, zeros if the branch has none.
+   */
+  public int[] getCopiesAt(String branch) {
+    BranchStock stock = stock();
+    int index = branch == null || branch.isBlank() ? -1 : stock.indexOf(branchCode(branch));
+    if (index < 0) {
+      return new int[2];
+    }
+    return new int[] {stock.copies[2 * index], stock.copies[2 * index + 1]};
+  }
+
+  /**
+   * Returns the book's copies per branch. Until they are set or a copy is checked out, added or
+   * returned, the copies are split evenly across the branches listed in the shelving location,
+   * with the checked-out copies taken from the last ones listed. Copies that are not at any
+   * branch are only counted in the book's totals. Not part of the JSON representation; see
+   * {@link #getBranches()}.
+   *
+   * @return A new map from branch code to the available and total copies there, in shelving
+   *         order; branches without copies are left out.
+   */
+  @JsonIgnore
+  public Map<String, int[]> getCopiesByBranch() {
+    return toMap(stock());
+  }
+
+  /**
+   * Returns the copies per branch once they differ from the split of the shelving location,
+   * i.e. once they have been set or changed by a checkout, added copy or return.
+   *
+   * @return The copies as for {@link #getCopiesByBranch()}, or {@code null} while they are
+   *         still derived from the shelving location, in which case JSON leaves them out.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Map<String, int[]> getBranches() {
+    BranchStock stock = branchStock;
+    return stock == null ? null : toMap(stock);
+  }
+
+  /**
+   * Sets the book's copies per branch.
+   *
+   * @param branches A map from branch code to the available and total copies there, or
+   *                 {@code null} to derive them from the shelving location again.
+   * @throws IllegalArgumentException If a code is blank or repeated, or an entry does not
+   *         hold two counts with {@code 0 <= available <= total}.
+   */
+  public void setBranches(Map<String, int[]> branches) {
+    if (branches == null) {
+      branchStock = null;
+      return;
+    }
+    String[] codes = new String[branches.size()];
+    int[] copies = new int[2 * branches.size()];
+    int size = 0;
+    for (Map.Entry<String, int[]> entry : branches.entrySet()) {
+      if (entry.getKey() == null || entry.getKey().isBlank()) {
+        throw new IllegalArgumentException("Branch code must not be blank.");
+      }
+      String code = branchCode(entry.getKey());
+      int[] counts = entry.getValue();
+      if (counts == null || counts.length != 2 || counts[0] < 0 || counts[0] > counts[1]) {
+        throw new IllegalArgumentException("Copies at branch " + code
+            + " must be [available, total] with 0 <= available <= total.");
+      }
+      for (int i = 0; i < size; i++) {
+        if (codes[i].equals(code)) {
+          throw new IllegalArgumentException("Branch " + code + " is listed twice.");
+        }
+      }
+      codes[size] = code;
+      copies[2 * size] = counts[0];
+      copies[2 * size + 1] = counts[1];
+      size++;
+    }
+    branchStock = new BranchStock(codes, copies);
+  }
+
+  /**
+   * Checks that copies set per branch agree with the rest of the book: every branch must be in
+   * the shelving location, and the branches together may hold no more copies, available or in
+   * total, than the book, nor leave more available copies than copies outside any branch.
+   *
+   * @throws IllegalArgumentException If the copies per branch do not agree with the book.
+   */
+  public void validateBranches() {
+    BranchStock stock = branchStock;
+    if (stock == null) {
+      return;
+    }
+    List<String> listed = Arrays.asList(shelvingCodes());
+    int available = 0;
+    int total = 0;
+    for (int i = 0; i < stock.codes.length; i++) {
+      if (stock.copies[2 * i + 1] > 0 && !listed.contains(stock.codes[i])) {
+        throw new IllegalArgumentException("Branch " + stock.codes[i]
+            + " is not in the shelving location " + shelvingLocation + ".");
+      }
+      available += stock.copies[2 * i];
+      total += stock.copies[2 * i + 1];
+    }
+    if (total > totalCopies || available > copiesAvailable
+        || copiesAvailable - available > totalCopies - total) {
+      throw new IllegalArgumentException("Branches hold " + available + " of " + total
+          + " copies available, which does not fit the book's " + copiesAvailable + " of "
+          + totalCopies + ".");
+    }
+  }
 
   public String getTitle() {
     return title;
@@ -180,6 +498,23 @@ public class Book implements Comparable<Book> {
     this.authors = authors;
   }
 
+  /**
+   * Returns the ids of this book's authors in the author dictionary, in the order of
+   * {@link #getAuthors()} with duplicates removed. Assigned when the book is indexed; not part
+   * of the JSON representation.
+   *
+   * @return The author ids, empty until the book has been indexed.
+   */
+  @JsonIgnore
+  public int[] getAuthorIds() {
+    return authorIds;
+  }
+
+  @JsonIgnore
+  public void setAuthorIds(int[] authorIds) {
+    this.authorIds = authorIds != null ? authorIds : new int[0];
+  }
+
   public String getLanguage() {
     return language;
   }
@@ -192,6 +527,12 @@ public class Book implements Comparable<Book> {
     return shelvingLocation;
   }
 
+  /**
+   * Sets the comma-separated codes of the branches holding the book. Copies already assigned
+   * to branches are not moved.
+   *
+   * @param shelvingLocation The branch codes, such as {@code "off,glx"}.
+   */
   public void setShelvingLocation(String shelvingLocation) {
     this.shelvingLocation = shelvingLocation;
   }
@@ -202,6 +543,18 @@ public class Book implements Comparable<Book> {
 
   public void setPublicationDate(String publicationDate) {
     this.publicationDate = publicationDate;
+    this.publicationYear = CatalogText.parseYear(publicationDate);
+  }
+
+  /**
+   * Returns the year parsed from the free-form publication date, which is kept as is for
+   * output. Not part of the JSON representation.
+   *
+   * @return The year, or {@link #UNKNOWN_YEAR} if the date has none.
+   */
+  @JsonIgnore
+  public int getPublicationYear() {
+    return publicationYear;
   }
 
   public String getPublisher() {
@@ -244,6 +597,23 @@ public class Book implements Comparable<Book> {
     this.returnDates = returnDates != null ? returnDates : new ArrayList<>();
   }
 
+  /**
+   * Returns the branch each loan was checked out from, at the index of its due date in
+   * {@link #getReturnDates()}, so a returned copy goes back there. An entry is {@code null}
+   * for a copy that was not at any branch, and the list may be shorter than the due dates for
+   * loans recorded before branches were.
+   *
+   * @return The branch codes, left out of the JSON while there are none.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public List<String> getLoanBranches() {
+    return loanBranches;
+  }
+
+  public void setLoanBranches(List<String> loanBranches) {
+    this.loanBranches = loanBranches != null ? loanBranches : new ArrayList<>();
+  }
+
   public int getTotalCopies() {
     return totalCopies;
   }
@@ -252,6 +622,176 @@ public class Book implements Comparable<Book> {
     this.totalCopies = totalCopies;
   }
 
+  /**
+   * Returns the copies per branch, derived from the shelving location if they have not been
+   * set or changed. Reading does not store the derived copies, but keeps them until the
+   * shelving location or the book's counts change, so the location is not split again on
+   * every read.
+   */
+  private BranchStock stock() {
+    BranchStock stock = branchStock;
+    if (stock != null) {
+      return stock;
+    }
+    BranchStock derived = derivedStock;
+    if (derived == null || derived.derivedFrom != shelvingLocation
+        || derived.derivedTotal != totalCopies || derived.derivedAvailable != copiesAvailable) {
+      derived = distributeCopies();
+      derivedStock = derived;
+    }
+    return derived;
+  }
+
+  /**
+   * Returns the stored copies per branch for a mutation, storing the derived ones first. The
+   * caller holds the book's lock, so a concurrent mutation cannot be lost to a second derived
+   * stock.
+   */
+  private BranchStock mutableStock() {
+    synchronized (this) {
+      if (branchStock == null) {
+        branchStock = stock();
+        derivedStock = null;
+      }
+      return branchStock;
+    }
+  }
+
+  private BranchStock addBranch(BranchStock stock, String code) {
+    String[] codes = Arrays.copyOf(stock.codes, stock.codes.length + 1);
+    codes[stock.codes.length] = code;
+    BranchStock grown = new BranchStock(codes, Arrays.copyOf(stock.copies, 2 * codes.length));
+    if (!Arrays.asList(shelvingCodes()).contains(code)) {
+      shelvingLocation = shelvingLocation == null || shelvingLocation.isBlank()
+          ? code : shelvingLocation + "," + code;
+    }
+    branchStock = grown;
+    return grown;
+  }
+
+  private static int firstLent(BranchStock stock) {
+    for (int i = 0; i < stock.codes.length; i++) {
+      if (stock.copies[2 * i] < stock.copies[2 * i + 1]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Pads or resets the loan branches so they line up with the return dates again, e.g. after
+   * reading a book whose loans were recorded without them. Unknown branches are {@code null}.
+   */
+  private void alignLoanBranches() {
+    if (loanBranches.size() > returnDates.size()) {
+      loanBranches.clear();
+    }
+    while (loanBranches.size() < returnDates.size()) {
+      loanBranches.add(null);
+    }
+  }
+
+  private static int firstAvailable(BranchStock stock) {
+    for (int i = 0; i < stock.codes.length; i++) {
+      if (stock.copies[2 * i] > 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Map<String, int[]> toMap(BranchStock stock) {
+    Map<String, int[]> branches = new LinkedHashMap<>();
+    for (int i = 0; i < stock.codes.length; i++) {
+      if (stock.copies[2 * i + 1] > 0) {
+        branches.put(stock.codes[i], new int[] {stock.copies[2 * i], stock.copies[2 * i + 1]});
+      }
+    }
+    return branches;
+  }
+
+  private BranchStock distributeCopies() {
+    String location = shelvingLocation;
+    int total = totalCopies;
+    int available = copiesAvailable;
+    String[] codes = shelvingCodes(location);
+    int[] copies = new int[2 * codes.length];
+    if (codes.length == 0 || total <= 0) {
+      return new BranchStock(codes, copies, location, total, available);
+    }
+    for (int i = 0; i < codes.length; i++) {
+      int share = total / codes.length + (i < total % codes.length ? 1 : 0);
+      copies[2 * i] = share;
+      copies[2 * i + 1] = share;
+    }
+    int checkedOut = Math.min(total, total - Math.max(0, available));
+    for (int i = codes.length - 1; i >= 0 && checkedOut > 0; i--) {
+      int lent = Math.min(checkedOut, copies[2 * i]);
+      copies[2 * i] -= lent;
+      checkedOut -= lent;
+    }
+    return new BranchStock(codes, copies, location, total, available);
+  }
+
+  /**
+   * Returns the distinct branch codes of the shelving location, in the order listed.
+   */
+  private String[] shelvingCodes() {
+    return shelvingCodes(shelvingLocation);
+  }
+
+  private static String[] shelvingCodes(String shelvingLocation) {
+    if (shelvingLocation == null || shelvingLocation.isBlank()) {
+      return new String[0];
+    }
+    return Arrays.stream(shelvingLocation.split(","))
+        .filter(code -> !code.isBlank())
+        .map(Book::branchCode)
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+  /**
+   * Returns a branch code in its canonical form: trimmed and in lower case.
+   *
+   * @param code The code as given.
+   * @return The canonical code.
+   * @throws IllegalArgumentException If the code is blank.
+   */
+  public static String branchCode(String code) {
+    if (code == null || code.isBlank()) {
+      throw new IllegalArgumentException("Branch code must not be blank.");
+    }
+    return code.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns a copy of the book's JSON state that shares nothing mutable with it, e.g. to keep
+   * the state at one moment without serializing it. The caller should hold the book's lock.
+   *
+   * @return The copy.
+   */
+  public Book copy() {
+    Book copy = new Book();
+    copy.title = title;
+    copy.authors = authors == null ? null : new ArrayList<>(authors);
+    copy.language = language;
+    copy.shelvingLocation = shelvingLocation;
+    copy.publicationDate = publicationDate;
+    copy.publicationYear = publicationYear;
+    copy.publisher = publisher;
+    copy.subjects = subjects == null ? null : new ArrayList<>(subjects);
+    copy.id = id;
+    copy.amountOfTimesCheckedOut = amountOfTimesCheckedOut;
+    copy.copiesAvailable = copiesAvailable;
+    copy.returnDates = new ArrayList<>(returnDates);
+    copy.loanBranches = new ArrayList<>(loanBranches);
+    copy.totalCopies = totalCopies;
+    BranchStock stock = branchStock;
+    copy.branchStock = stock == null ? null : new BranchStock(stock.codes, stock.copies.clone());
+    return copy;
+  }
+
   @Override
   public int compareTo(Book other) {
     return Integer.compare(this.id, other.id);
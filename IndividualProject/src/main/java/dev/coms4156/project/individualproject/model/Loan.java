@@ -0,0 +1,40 @@
+package dev.coms4156.project.individualproject.model;
+
+/**
+ * This class defines a Loan, one copy of a book currently checked out by a patron.
+ */
+public class Loan {
+  private final int bookId;
+  private final int patronId;
+  private final String dueDate;
+
+  /**
+   * Loan constructor.
+   *
+   * @param bookId The id of the borrowed book.
+   * @param patronId The id of the borrowing patron.
+   * @param dueDate The due date of the copy in ISO format.
+   */
+  public Loan(int bookId, int patronId, String dueDate) {
+    this.bookId = bookId;
+    this.patronId = patronId;
+    this.dueDate = dueDate;
+  }
+
+  public int getBookId() {
+    return bookId;
+  }
+
+  public int getPatronId() {
+    return patronId;
+  }
+
+  public String getDueDate() {
+    return dueDate;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("(%d -> %d)\t%s", this.patronId, this.bookId, this.dueDate);
+  }
+}
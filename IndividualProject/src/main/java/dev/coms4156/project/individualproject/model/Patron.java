@@ -0,0 +1,67 @@
+package dev.coms4156.project.individualproject.model;
+
+/**
+ * This class defines the Patron model, a library member who can borrow books.
+ */
+public class Patron {
+  private int id;
+  private String name;
+
+  /**
+   * Patron constructor.
+   *
+   * @param id The unique id of the patron.
+   * @param name The name of the patron.
+   */
+  public Patron(int id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  /**
+   * No args constructor for Jackson.
+   */
+  public Patron() {
+    this.id = 0;
+    this.name = "";
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+
+    return ((Patron) obj).id == this.id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Integer.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("(%d)\t%s", this.id, this.name);
+  }
+}
@@ -0,0 +1,89 @@
+package dev.coms4156.project.individualproject.replication;
+
+import dev.coms4156.project.individualproject.model.Book;
+
+/**
+ * One entry of the primary's mutation log: the state of a book right after a mutation.
+ * Replicas apply events by replacing the book with the same id, so applying an event twice or
+ * applying a newer state early is harmless.
+ */
+public class InventoryEvent {
+
+  /**
+   * The mutation that produced the event.
+   */
+  public enum Type {
+    CHECKOUT,
+    RETURN,
+    ADD_COPY,
+    UPDATE_BOOK
+  }
+
+  private long sequence;
+  private Type type;
+  private int bookId;
+  private long timestamp;
+  private Book book;
+
+  /**
+   * Creates an event.
+   *
+   * @param sequence The position of the event in the primary's log, starting at 1.
+   * @param type The mutation that produced the event.
+   * @param timestamp The wall-clock time of the mutation in epoch milliseconds.
+   * @param book A snapshot of the book after the mutation.
+   */
+  public InventoryEvent(long sequence, Type type, long timestamp, Book book) {
+    this.sequence = sequence;
+    this.type = type;
+    this.bookId = book.getId();
+    this.timestamp = timestamp;
+    this.book = book;
+  }
+
+  /**
+   * No args constructor for Jackson.
+   */
+  public InventoryEvent() {
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public void setType(Type type) {
+    this.type = type;
+  }
+
+  public int getBookId() {
+    return bookId;
+  }
+
+  public void setBookId(int bookId) {
+    this.bookId = bookId;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public Book getBook() {
+    return book;
+  }
+
+  public void setBook(Book book) {
+    this.book = book;
+  }
+}
@@ -0,0 +1,151 @@
+package dev.coms4156.project.individualproject.replication;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogListener;
+import dev.coms4156.project.individualproject.service.EventBuffer;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ordered log of inventory events kept by a primary node for its replicas.
+ * Each mutation applied through {@link MockApiService} is appended with the next sequence
+ * number. Only the most recent {@code capacity} events are retained; a replica that falls
+ * further behind must bootstrap again from a full snapshot.
+ *
+ * <p>Mutations call this log while holding the book's lock, so they only take a
+ * {@link Book#copy()} of the book and publish it to an {@link EventBuffer}. Sequence numbers
+ * are assigned as the buffer is drained; a book's events are published under its lock, so
+ * they keep the order of its mutations.
+ */
+@Component
+public class MutationLog implements CatalogListener {
+
+  private final EventBuffer<InventoryEvent> buffer = new EventBuffer<>(1024, this::add);
+  private final boolean enabled;
+  private final InventoryEvent[] ring;
+  private long lastSequence;
+
+  /**
+   * Creates the log and, on a primary, subscribes it to catalog mutations.
+   *
+   * @param mockApiService The service whose mutations are logged.
+   * @param role The replication role of this node: {@code none}, {@code primary} or
+   *             {@code replica}.
+   * @param capacity The number of most recent events retained.
+   */
+  public MutationLog(MockApiService mockApiService,
+                     @Value("${catalog.replication.role:none}") String role,
+                     @Value("${catalog.replication.log-capacity:65536}") int capacity) {
+    this.enabled = "primary".equalsIgnoreCase(role);
+    this.ring = new InventoryEvent[Math.max(1, capacity)];
+    if (enabled) {
+      mockApiService.addListener(this);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the sequence number of the last event, counting every event appended before the
+   * call.
+   *
+   * @return The last sequence number, or 0 if nothing was logged.
+   */
+  public long getLastSequence() {
+    return buffer.read(() -> {
+      synchronized (this) {
+        return lastSequence;
+      }
+    });
+  }
+
+  /**
+   * Appends an event holding a copy of the book's current state.
+   *
+   * @param type The mutation that was applied.
+   * @param book The mutated book; the caller must hold its lock.
+   */
+  public void append(InventoryEvent.Type type, Book book) {
+    buffer.publish(new InventoryEvent(0, type, System.currentTimeMillis(), book.copy()));
+  }
+
+  /**
+   * Numbers a drained event and stores it. Called only while draining.
+   */
+  private synchronized void add(InventoryEvent event) {
+    lastSequence++;
+    event.setSequence(lastSequence);
+    ring[(int) (lastSequence % ring.length)] = event;
+    notifyAll();
+  }
+
+  /**
+   * Returns the events following {@code afterSequence}, waiting up to {@code waitMillis} for
+   * one to arrive if there are none yet.
+   *
+   * @param afterSequence The last sequence number the caller has applied.
+   * @param limit The maximum number of events to return.
+   * @param waitMillis How long to wait for a new event before returning an empty list.
+   * @return The events in sequence order, or {@code null} if events after
+   *         {@code afterSequence} are no longer retained.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public List<InventoryEvent> readAfter(long afterSequence, int limit, long waitMillis)
+      throws InterruptedException {
+    buffer.read(() -> null);
+    synchronized (this) {
+      return readRetained(afterSequence, limit, waitMillis);
+    }
+  }
+
+  private List<InventoryEvent> readRetained(long afterSequence, int limit, long waitMillis)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + waitMillis;
+    while (lastSequence <= afterSequence) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return Collections.emptyList();
+      }
+      wait(remaining);
+    }
+
+    long oldestRetained = Math.max(1, lastSequence - ring.length + 1);
+    if (afterSequence + 1 < oldestRetained) {
+      return null;
+    }
+    long end = Math.min(lastSequence, afterSequence + Math.max(1, limit));
+    List<InventoryEvent> events = new ArrayList<>((int) (end - afterSequence));
+    for (long seq = afterSequence + 1; seq <= end; seq++) {
+      events.add(ring[(int) (seq % ring.length)]);
+    }
+    return events;
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    append(InventoryEvent.Type.CHECKOUT, book);
+  }
+
+  @Override
+  public void onCopyReturned(Book book, int patronId, String dueDate) {
+    append(InventoryEvent.Type.RETURN, book);
+  }
+
+  @Override
+  public void onCopyAdded(Book book) {
+    append(InventoryEvent.Type.ADD_COPY, book);
+  }
+
+  @Override
+  public void onBookUpdated(Book oldBook, Book newBook) {
+    synchronized (newBook) {
+      append(InventoryEvent.Type.UPDATE_BOOK, newBook);
+    }
+  }
+}
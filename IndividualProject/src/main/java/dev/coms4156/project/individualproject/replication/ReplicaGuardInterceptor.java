@@ -0,0 +1,58 @@
+package dev.coms4156.project.individualproject.replication;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Enforces replica semantics: writes are refused with HTTP 403 because they must go to the
+ * primary, and reads are refused with HTTP 503 while the replica is stale.
+ * Does nothing on a node that is not a replica.
+ */
+@Component
+public class ReplicaGuardInterceptor implements HandlerInterceptor {
+
+  private final ReplicaSync replicaSync;
+
+  public ReplicaGuardInterceptor(ReplicaSync replicaSync) {
+    this.replicaSync = replicaSync;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) throws IOException {
+    if (!replicaSync.isEnabled()) {
+      return true;
+    }
+
+    if (isWrite(request)) {
+      reject(response, HttpStatus.FORBIDDEN,
+          "This node is a read-only replica, send updates to " + replicaSync.getPrimaryUrl());
+      return false;
+    }
+
+    if (replicaSync.isStale()) {
+      response.setHeader("Retry-After", "1");
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE,
+          "Replica is too far behind the primary, please retry.");
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    // PUT /books/available is a read despite its method
+    return !"GET".equals(request.getMethod())
+        && !"/books/available".equals(request.getRequestURI());
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setContentType("text/plain");
+    response.getWriter().write(message);
+  }
+}
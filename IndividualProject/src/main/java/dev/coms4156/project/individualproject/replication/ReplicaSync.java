@@ -0,0 +1,232 @@
+package dev.coms4156.project.individualproject.replication;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a replica's catalog in step with the primary's {@link MutationLog}.
+ * On a replica a background thread first loads a full snapshot from the primary and then
+ * long-polls {@code /replication/events}, applying each event in sequence order. The replica
+ * counts as stale, and refuses reads, when it has not heard from the primary for longer than
+ * the configured staleness bound.
+ */
+@Component
+public class ReplicaSync {
+
+  private static final int BATCH_LIMIT = 1000;
+  private static final long RETRY_MILLIS = 500;
+
+  private final MockApiService mockApiService;
+  private final boolean enabled;
+  private final String primaryUrl;
+  private final long maxStalenessMillis;
+  private final long pollWaitMillis;
+  private final ObjectReader reader;
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(2))
+      .build();
+  private final Thread syncThread;
+
+  private volatile boolean running;
+  private volatile boolean bootstrapped;
+  private volatile long appliedSequence;
+  private volatile long primarySequence;
+  private volatile long lastContactMillis;
+  private volatile long lastApplyDelayMillis;
+
+  /**
+   * Creates the replica synchronizer and, on a replica, starts its sync thread.
+   *
+   * @param mockApiService The service whose catalog is kept in sync.
+   * @param mapper The application's JSON mapper, used to read the primary's responses.
+   * @param role The replication role of this node.
+   * @param primaryUrl The base URL of the primary, e.g. {@code http://localhost:8080}.
+   * @param maxStalenessMillis How long the replica may go without contacting the primary
+   *                           before it stops serving reads.
+   * @param pollWaitMillis How long each long-poll waits on the primary for new events.
+   */
+  public ReplicaSync(MockApiService mockApiService, ObjectMapper mapper,
+                     @Value("${catalog.replication.role:none}") String role,
+                     @Value("${catalog.replication.primary-url:http://localhost:8080}")
+                     String primaryUrl,
+                     @Value("${catalog.replication.max-staleness-ms:5000}") long maxStalenessMillis,
+                     @Value("${catalog.replication.poll-wait-ms:1000}") long pollWaitMillis) {
+    this.mockApiService = mockApiService;
+    this.reader = mapper.reader().without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.enabled = "replica".equalsIgnoreCase(role);
+    this.primaryUrl = primaryUrl.endsWith("/")
+        ? primaryUrl.substring(0, primaryUrl.length() - 1) : primaryUrl;
+    this.maxStalenessMillis = maxStalenessMillis;
+    this.pollWaitMillis = pollWaitMillis;
+    this.syncThread = new Thread(this::syncLoop, "catalog-replica-sync");
+    this.syncThread.setDaemon(true);
+    if (enabled) {
+      running = true;
+      syncThread.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String getPrimaryUrl() {
+    return primaryUrl;
+  }
+
+  /**
+   * Returns whether reads on this replica may be too far behind the primary.
+   *
+   * @return {@code true} if the replica has never synced or has not reached the primary
+   *         within the staleness bound.
+   */
+  public boolean isStale() {
+    return !bootstrapped || System.currentTimeMillis() - lastContactMillis > maxStalenessMillis;
+  }
+
+  /**
+   * Replaces the local catalog with a snapshot taken on the primary.
+   *
+   * @param sequence The primary's last sequence number when the snapshot was taken.
+   * @param books The books in the snapshot.
+   */
+  public synchronized void bootstrap(long sequence, List<Book> books) {
+    mockApiService.replaceCatalog(books);
+    appliedSequence = sequence;
+    primarySequence = Math.max(primarySequence, sequence);
+    lastContactMillis = System.currentTimeMillis();
+    bootstrapped = true;
+  }
+
+  /**
+   * Applies events received from the primary, skipping any already applied.
+   *
+   * @param events The events in sequence order.
+   * @param latestPrimarySequence The primary's last sequence number when it sent the events.
+   */
+  public synchronized void applyEvents(List<InventoryEvent> events, long latestPrimarySequence) {
+    long now = System.currentTimeMillis();
+    for (InventoryEvent event : events) {
+      if (event.getSequence() <= appliedSequence) {
+        continue;
+      }
+      mockApiService.upsertBook(event.getBook());
+      appliedSequence = event.getSequence();
+      lastApplyDelayMillis = Math.max(0, now - event.getTimestamp());
+    }
+    primarySequence = Math.max(latestPrimarySequence, appliedSequence);
+    lastContactMillis = now;
+  }
+
+  /**
+   * Returns replication lag metrics for this replica.
+   *
+   * @return A map with the applied and primary sequence numbers, the lag in events, the delay
+   *         between the last applied mutation and its application, and the staleness state.
+   */
+  public Map<String, Object> getStatus() {
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("role", "replica");
+    status.put("primaryUrl", primaryUrl);
+    status.put("appliedSequence", appliedSequence);
+    status.put("primarySequence", primarySequence);
+    status.put("lagEvents", Math.max(0, primarySequence - appliedSequence));
+    status.put("lastApplyDelayMs", lastApplyDelayMillis);
+    status.put("millisSinceContact",
+        lastContactMillis == 0 ? -1 : System.currentTimeMillis() - lastContactMillis);
+    status.put("stale", isStale());
+    return status;
+  }
+
+  /**
+   * Stops the sync thread.
+   */
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    syncThread.interrupt();
+  }
+
+  private void syncLoop() {
+    while (running) {
+      try {
+        if (!bootstrapped) {
+          fetchSnapshot();
+        }
+        if (!fetchEvents()) {
+          bootstrapped = false;
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Replication from " + primaryUrl + " failed: " + e);
+        try {
+          Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void fetchSnapshot() throws IOException, InterruptedException {
+    JsonNode body = get("/replication/snapshot");
+    List<Book> books = new ArrayList<>();
+    for (JsonNode node : body.get("books")) {
+      books.add(reader.treeToValue(node, Book.class));
+    }
+    bootstrap(body.get("sequence").asLong(), books);
+  }
+
+  /**
+   * Long-polls the primary once.
+   *
+   * @return {@code false} if the primary no longer retains the events this replica needs.
+   */
+  private boolean fetchEvents() throws IOException, InterruptedException {
+    JsonNode body = get("/replication/events?after=" + appliedSequence
+        + "&limit=" + BATCH_LIMIT + "&waitMs=" + pollWaitMillis);
+    if (body == null) {
+      return false;
+    }
+    List<InventoryEvent> events = new ArrayList<>();
+    for (JsonNode node : body.get("events")) {
+      events.add(reader.treeToValue(node, InventoryEvent.class));
+    }
+    applyEvents(events, body.get("lastSequence").asLong());
+    return true;
+  }
+
+  private JsonNode get(String path) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(primaryUrl + path))
+        .timeout(Duration.ofMillis(pollWaitMillis + 5000))
+        .GET()
+        .build();
+    HttpResponse<byte[]> response = httpClient.send(request,
+        HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() == 410) {
+      return null;
+    }
+    if (response.statusCode() != 200) {
+      throw new IOException("HTTP " + response.statusCode() + " from " + path);
+    }
+    return reader.readTree(response.body());
+  }
+}
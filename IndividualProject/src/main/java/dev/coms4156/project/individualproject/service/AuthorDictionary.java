@@ -0,0 +1,98 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.util.CatalogText;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Dictionary assigning a dense {@code int} id to every distinct author.
+ * Names are matched ignoring case, repeated whitespace and trailing cataloguing punctuation,
+ * so {@code "Thomas, Ambroise,"} and {@code "thomas, ambroise"} share an id. The dictionary
+ * also hands out one shared {@code String} instance per spelling, so the author lists of many
+ * books reference the same strings instead of each holding a copy. Ids are never reused.
+ */
+public class AuthorDictionary {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final Map<String, Integer> idByKey = new HashMap<>();
+  private final Map<String, String> instances = new HashMap<>();
+  private String[] names = new String[64];
+  private int size;
+
+  /**
+   * Returns the id of an author, assigning the next id if the author is new.
+   *
+   * @param name The author's name as it appears in a book record.
+   * @return The author's id, or -1 for a blank name.
+   */
+  public synchronized int intern(String name) {
+    String key = key(name);
+    if (key == null) {
+      return -1;
+    }
+    Integer id = idByKey.get(key);
+    if (id != null) {
+      return id;
+    }
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+    }
+    names[size] = canonical(name.trim());
+    idByKey.put(key, size);
+    return size++;
+  }
+
+  /**
+   * Returns the id of an author without assigning one.
+   *
+   * @param name The author's name, matched as described above.
+   * @return The author's id, or -1 if no book has had this author.
+   */
+  public synchronized int idOf(String name) {
+    String key = key(name);
+    Integer id = key == null ? null : idByKey.get(key);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the name an author was first seen with.
+   *
+   * @param id The author's id.
+   * @return The name, or {@code null} if the id was never assigned.
+   */
+  public synchronized String nameOf(int id) {
+    return id >= 0 && id < size ? names[id] : null;
+  }
+
+  /**
+   * Returns the shared instance of a string equal to {@code name}.
+   *
+   * @param name An author name.
+   * @return An equal string; the same instance for every equal argument.
+   */
+  public synchronized String canonical(String name) {
+    String existing = instances.putIfAbsent(name, name);
+    return existing != null ? existing : name;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Normalizes a name into its lookup key.
+   *
+   * @return The key, or {@code null} if nothing is left of the name.
+   */
+  static String key(String name) {
+    if (name == null) {
+      return null;
+    }
+    String key = CatalogText.trimPunctuation(WHITESPACE.matcher(name).replaceAll(" "));
+    return key.isEmpty() ? null : key.toLowerCase(Locale.ROOT);
+  }
+}
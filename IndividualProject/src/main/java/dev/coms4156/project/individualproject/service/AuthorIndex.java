@@ -0,0 +1,281 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+
+/**
+ * Posting index from author ids to the ids of their books.
+ * Indexing a book interns its authors in the {@link AuthorDictionary}; then, holding only the
+ * book's lock, the index sets {@link Book#setAuthorIds(int[])} and swaps the book's author
+ * strings for the dictionary's shared instances. Each author's posting list is a growable
+ * {@code int[]} of book ids in catalog order, and the index keeps its own table from book id
+ * to {@code Book}, so listing an author's books costs O(result) rather than a scan of the
+ * catalog.
+ *
+ * <p>The index is built when the service starts, or on first use if the catalog is still
+ * hydrating, and rebuilt whenever the catalog is replaced. Edits and bulk upserts re-index
+ * only the changed book. When the catalog is tiered, the table keeps no books and results are
+ * looked up by id, so the index does not hold cold books in memory.
+ */
+@Service
+public class AuthorIndex implements CatalogListener {
+
+  private static final int[] EMPTY = new int[0];
+
+  private final MockApiService mockApiService;
+  private final boolean tiered;
+  private final AuthorDictionary dictionary = new AuthorDictionary();
+  private IntIntHashMap slotByBook;
+  private Book[] books;
+  private int[][] authorsBySlot;
+  private int slots;
+  private int[][] postings = new int[64][];
+  private int[] postingSizes = new int[64];
+  private volatile boolean built;
+
+  /**
+   * Creates the index and subscribes it to catalog changes.
+   *
+   * @param mockApiService The service holding the catalog.
+   */
+  public AuthorIndex(MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+    this.tiered = mockApiService.isTiered();
+    mockApiService.addListener(this);
+    if (mockApiService.isHydrated()) {
+      ensureBuilt();
+    }
+  }
+
+  /**
+   * Returns the books of an author.
+   *
+   * @param name The author's name, matched as described in {@link AuthorDictionary}.
+   * @param limit The maximum number of books to return.
+   * @return The author's books in catalog order, or {@code null} if no book in the catalog
+   *         has this author.
+   */
+  public List<Book> booksBy(String name, int limit) {
+    ensureBuilt();
+    int authorId = dictionary.idOf(name);
+    int[] ids;
+    synchronized (this) {
+      if (authorId < 0 || authorId >= postingSizes.length || postingSizes[authorId] == 0) {
+        return null;
+      }
+      int[] posting = postings[authorId];
+      int count = Math.min(limit, postingSizes[authorId]);
+      if (tiered) {
+        ids = Arrays.copyOf(posting, count);
+      } else {
+        List<Book> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          result.add(books[slotByBook.get(posting[i], -1)]);
+        }
+        return result;
+      }
+    }
+    // Outside the lock: a lookup in a tiered store may evict, which takes book locks
+    List<Book> result = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      Book book = mockApiService.findBook(id);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of books by an author.
+   *
+   * @param authorId The author's id in the dictionary.
+   * @return The length of the author's posting list.
+   */
+  public synchronized int bookCount(int authorId) {
+    return authorId >= 0 && authorId < postingSizes.length ? postingSizes[authorId] : 0;
+  }
+
+  public AuthorDictionary getDictionary() {
+    return dictionary;
+  }
+
+  private void ensureBuilt() {
+    if (built) {
+      return;
+    }
+    int expected = mockApiService.size();
+    synchronized (this) {
+      if (built) {
+        return;
+      }
+      rebuild(expected);
+    }
+    internAll();
+  }
+
+  /**
+   * Rebuilds every posting list from {@link MockApiService#streamBooks()}, so a tiered catalog
+   * is read one book at a time rather than copied into a list. Author lists are not touched by
+   * inventory mutations, so books are read without their locks; {@link #internAll} updates the
+   * books afterwards.
+   */
+  private void rebuild(int expected) {
+    slotByBook = new IntIntHashMap(expected);
+    books = new Book[Math.max(16, expected)];
+    authorsBySlot = new int[books.length][];
+    slots = 0;
+    Arrays.fill(postingSizes, 0);
+    try (Stream<Book> source = mockApiService.streamBooks()) {
+      source.forEach(this::index);
+    }
+    built = true;
+  }
+
+  private void index(Book book) {
+    int slot = slotByBook.get(book.getId(), -1);
+    if (slot < 0) {
+      if (slots == books.length) {
+        books = Arrays.copyOf(books, slots * 2);
+        authorsBySlot = Arrays.copyOf(authorsBySlot, slots * 2);
+      }
+      slot = slots++;
+      slotByBook.put(book.getId(), slot);
+    } else {
+      for (int authorId : authorsBySlot[slot]) {
+        removePosting(authorId, book.getId());
+      }
+    }
+    int[] authorIds = authorIdsOf(book);
+    books[slot] = tiered ? null : book;
+    authorsBySlot[slot] = authorIds;
+    for (int authorId : authorIds) {
+      addPosting(authorId, book.getId());
+    }
+  }
+
+  /**
+   * Interns a book's authors and returns their distinct ids, without changing the book.
+   */
+  private int[] authorIdsOf(Book book) {
+    List<String> authors = book.getAuthors();
+    if (authors == null || authors.isEmpty()) {
+      return EMPTY;
+    }
+    int[] ids = new int[authors.size()];
+    int count = 0;
+    for (String author : authors) {
+      int id = dictionary.intern(author);
+      boolean seen = id < 0;
+      for (int i = 0; i < count && !seen; i++) {
+        seen = ids[i] == id;
+      }
+      if (!seen) {
+        ids[count++] = id;
+      }
+    }
+    return count == ids.length ? ids : Arrays.copyOf(ids, count);
+  }
+
+  /**
+   * Sets a book's author ids and shared author strings under the book's lock. Must not be
+   * called while holding this index's lock, which is taken after book locks.
+   */
+  private void intern(Book book) {
+    synchronized (book) {
+      int[] ids = authorIdsOf(book);
+      List<String> authors = book.getAuthors();
+      if (authors != null) {
+        boolean shared = true;
+        for (String author : authors) {
+          shared &= author == null || dictionary.canonical(author) == author;
+        }
+        if (!shared) {
+          List<String> canonical = new ArrayList<>(authors.size());
+          for (String author : authors) {
+            canonical.add(author == null ? null : dictionary.canonical(author));
+          }
+          book.setAuthors(canonical);
+        }
+      }
+      book.setAuthorIds(ids);
+    }
+  }
+
+  private void internAll() {
+    try (Stream<Book> catalog = mockApiService.streamBooks()) {
+      catalog.forEach(this::intern);
+    }
+  }
+
+  private void addPosting(int authorId, int bookId) {
+    if (authorId >= postingSizes.length) {
+      int length = Math.max(authorId + 1, postingSizes.length * 2);
+      postings = Arrays.copyOf(postings, length);
+      postingSizes = Arrays.copyOf(postingSizes, length);
+    }
+    int[] posting = postings[authorId];
+    int size = postingSizes[authorId];
+    if (posting == null) {
+      posting = new int[2];
+    } else if (size == posting.length) {
+      posting = Arrays.copyOf(posting, size * 2);
+    }
+    posting[size] = bookId;
+    postings[authorId] = posting;
+    postingSizes[authorId] = size + 1;
+  }
+
+  private void removePosting(int authorId, int bookId) {
+    int[] posting = postings[authorId];
+    int size = postingSizes[authorId];
+    for (int i = 0; i < size; i++) {
+      if (posting[i] == bookId) {
+        System.arraycopy(posting, i + 1, posting, i, size - i - 1);
+        postingSizes[authorId] = size - 1;
+        return;
+      }
+    }
+  }
+
+  private void reindex(Book book) {
+    synchronized (book) {
+      intern(book);
+      synchronized (this) {
+        if (built) {
+          index(book);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void onBookUpdated(Book oldBook, Book newBook) {
+    reindex(newBook);
+  }
+
+  @Override
+  public void onBookReplicated(Book book) {
+    reindex(book);
+  }
+
+  /**
+   * Rebuilds from the catalog as it is now; reading it under this lock means that when two
+   * replacements race, the later rebuild always sees the later catalog. The books are updated
+   * by a second pass after the lock is released, and since each book's update depends only on
+   * its own authors, racing updates agree.
+   */
+  @Override
+  public void onCatalogReplaced() {
+    int expected = mockApiService.size();
+    synchronized (this) {
+      rebuild(expected);
+    }
+    internAll();
+  }
+}
@@ -0,0 +1,96 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage for the books of a catalog, keyed by id. {@link MockApiService} loads the catalog
+ * into a repository and applies every mutation to the instances it returns, holding the book's
+ * lock; a repository that keeps books outside the heap persists those mutations by listening
+ * to the service as a {@link CatalogListener}.
+ */
+public interface BookRepository {
+
+  /**
+   * Returns the book with the given id, loading it if the repository keeps it elsewhere.
+   *
+   * @param id The book's id.
+   * @return The stored instance, or {@code null} if there is no book with this id.
+   */
+  Book findById(int id);
+
+  /**
+   * Returns the book with the given id without counting it as a use, e.g. to compare it with
+   * a replacement.
+   *
+   * @param id The book's id.
+   * @return The stored instance or a copy of it, or {@code null} if there is no book with this
+   *         id.
+   */
+  default Book peek(int id) {
+    return findById(id);
+  }
+
+  /**
+   * Returns every book in the order it was first stored.
+   *
+   * @return The books, or {@code null} if nothing has been stored yet.
+   */
+  List<Book> findAll();
+
+  /**
+   * Returns a lazy stream of every book in the order it was first stored. Scans should use
+   * this rather than {@link #findAll()}, which a repository that keeps books outside the heap
+   * can only answer by loading all of them at once.
+   *
+   * @return The books, or an empty stream if nothing has been stored yet.
+   */
+  default Stream<Book> stream() {
+    List<Book> books = findAll();
+    return books == null ? Stream.empty() : books.stream();
+  }
+
+  /**
+   * Stores a book, replacing the book with the same id or adding it after the others.
+   *
+   * @param book The book to store.
+   */
+  void save(Book book);
+
+  /**
+   * Stores many books, each as by {@link #save(Book)}.
+   *
+   * @param books The books to store, with distinct ids.
+   * @return The books that were replaced, in the order of {@code books}, with {@code null} for
+   *         each book that was added.
+   */
+  default List<Book> saveAll(Collection<Book> books) {
+    List<Book> replaced = new ArrayList<>(books.size());
+    for (Book book : books) {
+      replaced.add(peek(book.getId()));
+      save(book);
+    }
+    return replaced;
+  }
+
+  /**
+   * Replaces every stored book.
+   *
+   * @param books The books that make up the new catalog.
+   */
+  void replaceAll(Collection<Book> books);
+
+  /**
+   * Returns whether mutating a book instance under its lock changes the stored book, i.e.
+   * whether it has not been evicted or replaced since it was found.
+   *
+   * @param book A book previously returned by {@link #findById(int)}.
+   * @return {@code true} if the instance is the stored one.
+   */
+  boolean holds(Book book);
+
+  int size();
+}
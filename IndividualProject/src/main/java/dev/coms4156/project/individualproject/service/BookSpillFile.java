@@ -0,0 +1,380 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only file of newline-terminated JSON book records with an in-memory index from book
+ * id to the offset and length of the book's latest record. Rewriting a book appends a new
+ * record, and the file is compacted once superseded records take up more than half of it.
+ * Reads are positional and share a read lock, so they run concurrently with each other.
+ *
+ * <p>A spill file is temporary and deleted when the JVM exits. A durable file is kept: opening
+ * it again rebuilds the index from its records, compaction replaces it with an atomic rename,
+ * and writes can be forced to the device before they return.
+ */
+final class BookSpillFile {
+
+  private static final long COMPACT_MIN_BYTES = 1 << 20;
+
+  private final ObjectMapper mapper;
+  private final Path directory;
+  private final boolean durable;
+  private final boolean sync;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Path path;
+  private FileChannel channel;
+  private long end;
+  private long liveBytes;
+  private final IntIntHashMap slotById = new IntIntHashMap();
+  private int[] ids = new int[64];
+  private long[] offsets = new long[64];
+  private int[] lengths = new int[64];
+  private int slots;
+
+  /**
+   * Creates an empty spill file.
+   *
+   * @param mapper The mapper used to write and read records.
+   * @param directory The directory to create the file in.
+   * @throws IOException If the file cannot be created.
+   */
+  BookSpillFile(ObjectMapper mapper, Path directory) throws IOException {
+    this.mapper = mapper;
+    this.directory = directory;
+    this.durable = false;
+    this.sync = false;
+    Files.createDirectories(directory);
+    this.path = newFile();
+    this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Opens a durable file, creating it if it does not exist.
+   *
+   * @param mapper The mapper used to write and read records.
+   * @param file The file.
+   * @param sync Whether each write is forced to the storage device before it returns.
+   * @throws IOException If the file cannot be created or read, or holds a corrupt record.
+   */
+  BookSpillFile(ObjectMapper mapper, Path file, boolean sync) throws IOException {
+    this.mapper = mapper;
+    this.path = file.toAbsolutePath();
+    this.directory = path.getParent();
+    this.durable = true;
+    this.sync = sync;
+    Files.createDirectories(directory);
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      recover();
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Appends a record of a book's current state. The caller holds the book's lock if other
+   * threads may be mutating it.
+   *
+   * @param book The book to write.
+   * @return The length of the record in bytes.
+   * @throws IOException If the record cannot be written.
+   */
+  int write(Book book) throws IOException {
+    return write(book, sync);
+  }
+
+  /**
+   * Appends records of many books, forcing a durable file to the device once at the end.
+   *
+   * @param books The books to write.
+   * @throws IOException If a record cannot be written.
+   */
+  void writeAll(Collection<Book> books) throws IOException {
+    for (Book book : books) {
+      write(book, false);
+    }
+    if (sync) {
+      lock.writeLock().lock();
+      try {
+        channel.force(false);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private int write(Book book, boolean force) throws IOException {
+    byte[] json = mapper.writeValueAsBytes(book);
+    byte[] record = Arrays.copyOf(json, json.length + 1);
+    record[json.length] = '\n';
+    lock.writeLock().lock();
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(record);
+      long position = end;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      if (force) {
+        channel.force(false);
+      }
+      index(book.getId(), end, record.length);
+      end = position;
+      if (end > COMPACT_MIN_BYTES && end > 2 * liveBytes) {
+        try {
+          compact();
+        } catch (IOException e) {
+          System.err.println("Compacting " + path + " failed: " + e);
+        }
+      }
+      return record.length;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the latest record of a book.
+   *
+   * @param id The book's id.
+   * @return A new {@code Book} parsed from the record, or {@code null} if the file has no
+   *         record for this id or it cannot be read.
+   */
+  Book read(int id) {
+    byte[] record;
+    lock.readLock().lock();
+    try {
+      int slot = slotById.get(id, -1);
+      if (slot < 0) {
+        return null;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(lengths[slot]);
+      long position = offsets[slot];
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of spill file");
+        }
+        position += read;
+      }
+      record = buffer.array();
+    } catch (IOException e) {
+      System.err.println("Failed to read book " + id + " from " + path + ": " + e);
+      return null;
+    } finally {
+      lock.readLock().unlock();
+    }
+    try {
+      return mapper.readValue(record, Book.class);
+    } catch (IOException e) {
+      System.err.println("Failed to parse book " + id + " from " + path + ": " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the length of a book's latest record.
+   *
+   * @param id The book's id.
+   * @return The length in bytes, or -1 if the file has no record for this id.
+   */
+  int length(int id) {
+    lock.readLock().lock();
+    try {
+      int slot = slotById.get(id, -1);
+      return slot < 0 ? -1 : lengths[slot];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of every book in the file, in the order they were first written.
+   *
+   * @return A new array of ids.
+   */
+  int[] ids() {
+    lock.readLock().lock();
+    try {
+      return Arrays.copyOf(ids, slots);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return slots;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long getFileBytes() {
+    lock.readLock().lock();
+    try {
+      return end;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long getLiveBytes() {
+    lock.readLock().lock();
+    try {
+      return liveBytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Removes every record.
+   *
+   * @throws IOException If the file cannot be truncated.
+   */
+  void clear() throws IOException {
+    lock.writeLock().lock();
+    try {
+      channel.truncate(0);
+      end = 0;
+      liveBytes = 0;
+      slotById.clear();
+      slots = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void index(int id, long offset, int length) {
+    int slot = slotById.get(id, -1);
+    if (slot < 0) {
+      if (slots == ids.length) {
+        ids = Arrays.copyOf(ids, slots * 2);
+        offsets = Arrays.copyOf(offsets, slots * 2);
+        lengths = Arrays.copyOf(lengths, slots * 2);
+      }
+      slot = slots++;
+      slotById.put(id, slot);
+      ids[slot] = id;
+    } else {
+      liveBytes -= lengths[slot];
+    }
+    offsets[slot] = offset;
+    lengths[slot] = length;
+    liveBytes += length;
+  }
+
+  /**
+   * Rebuilds the index from the records in a durable file, keeping the last record of each
+   * id. A final record without its newline, as left by a crash during a write, is truncated
+   * away; any other record that cannot be read means the file is corrupt.
+   *
+   * @throws IOException If a complete record cannot be parsed or has no integer id.
+   */
+  private void recover() throws IOException {
+    // Not closed: closing the stream would close the channel
+    InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)),
+        1 << 16);
+    ByteArrayOutputStream record = new ByteArrayOutputStream(1024);
+    long position = 0;
+    int next;
+    while ((next = in.read()) >= 0) {
+      record.write(next);
+      if (next != '\n') {
+        continue;
+      }
+      JsonNode id;
+      try {
+        id = mapper.readTree(record.toByteArray()).get("id");
+      } catch (IOException e) {
+        throw new IOException("Corrupt record at byte " + position + " of " + path + ".", e);
+      }
+      if (id == null || !id.isInt()) {
+        throw new IOException("Record at byte " + position + " of " + path
+            + " has no integer id.");
+      }
+      index(id.intValue(), position, record.size());
+      position += record.size();
+      record.reset();
+    }
+    end = position;
+    if (end < channel.size()) {
+      System.err.println("Truncating a torn record of " + (channel.size() - end)
+          + " bytes from " + path + ".");
+      channel.truncate(end);
+    }
+  }
+
+  /**
+   * Copies the latest record of every book into a new file and switches to it. Called with
+   * the write lock held.
+   */
+  private void compact() throws IOException {
+    Path compacted = newFile();
+    FileChannel target = FileChannel.open(compacted, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    long[] moved = new long[offsets.length];
+    long position = 0;
+    try {
+      for (int slot = 0; slot < slots; slot++) {
+        long copied = 0;
+        while (copied < lengths[slot]) {
+          copied += channel.transferTo(offsets[slot] + copied, lengths[slot] - copied, target);
+        }
+        moved[slot] = position;
+        position += lengths[slot];
+      }
+    } catch (IOException e) {
+      target.close();
+      Files.deleteIfExists(compacted);
+      throw e;
+    }
+    if (durable) {
+      try {
+        target.force(false);
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        target.close();
+        Files.deleteIfExists(compacted);
+        throw e;
+      }
+      channel.close();
+    } else {
+      channel.close();
+      Files.deleteIfExists(path);
+      path = compacted;
+    }
+    channel = target;
+    offsets = moved;
+    end = position;
+  }
+
+  private Path newFile() throws IOException {
+    Path file = Files.createTempFile(directory, "catalog-cold-", ".jsonl");
+    if (!durable) {
+      file.toFile().deleteOnExit();
+    }
+    return file;
+  }
+}
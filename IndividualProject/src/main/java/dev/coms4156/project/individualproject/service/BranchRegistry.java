@@ -0,0 +1,91 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The library's branches, from the {@code catalog.branches} property, each with a bit used to
+ * match books available at any of several branches with one {@code AND}. The set is fixed at
+ * startup: book data never adds branches, so branch queries and branch-scoped mutations only
+ * accept the configured codes.
+ */
+@Component
+public class BranchRegistry {
+
+  /**
+   * The most branches the registry can hold, one per bit of a {@code long}.
+   */
+  public static final int MAX_BRANCHES = Long.SIZE;
+
+  private final List<String> codes = new ArrayList<>();
+  private final Map<String, Integer> ordinals = new HashMap<>();
+  // One instance for every book, so each book caches its mask for it; book codes are canonical
+  private final ToIntFunction<String> ordinalOf = code -> ordinals.getOrDefault(code, -1);
+
+  /**
+   * Creates the registry from a comma-separated list of branch codes.
+   *
+   * @param branches The branch codes, such as {@code "glx,off"}, matched ignoring case and
+   *                 surrounding whitespace.
+   * @throws IllegalArgumentException If a code is blank or repeated, or there are more than
+   *         {@value #MAX_BRANCHES} codes.
+   */
+  public BranchRegistry(@Value("${catalog.branches:glx,off,eax,fax,ave,msr,glg,utn,sci,uts,"
+      + "mrlxxp,eal,rbx,eng,phy,hsl,bus}") String branches) {
+    for (String code : branches.split(",")) {
+      String key = Book.branchCode(code);
+      if (ordinals.putIfAbsent(key, codes.size()) != null) {
+        throw new IllegalArgumentException("Branch " + key + " is listed twice.");
+      }
+      codes.add(key);
+    }
+    if (codes.size() > MAX_BRANCHES) {
+      throw new IllegalArgumentException("At most " + MAX_BRANCHES + " branches are supported.");
+    }
+  }
+
+  /**
+   * Returns the ordinal of a branch.
+   *
+   * @param code The branch code, matched ignoring case and surrounding whitespace.
+   * @return The ordinal, or -1 for a blank or unknown code.
+   */
+  public int find(String code) {
+    if (code == null || code.isBlank()) {
+      return -1;
+    }
+    return ordinals.getOrDefault(Book.branchCode(code), -1);
+  }
+
+  /**
+   * Returns the code of a branch.
+   *
+   * @param ordinal The branch's ordinal.
+   * @return The code, or {@code null} if there is no branch with that ordinal.
+   */
+  public String code(int ordinal) {
+    return ordinal >= 0 && ordinal < codes.size() ? codes.get(ordinal) : null;
+  }
+
+  public List<String> codes() {
+    return List.copyOf(codes);
+  }
+
+  /**
+   * Returns the branches with an available copy of a book as a bit set, bit {@code i} being
+   * the branch with ordinal {@code i}. The book looks up its branches' ordinals once and then
+   * keeps the set up to date as copies are checked out, returned or added.
+   *
+   * @param book The book.
+   * @return The bit set, zero if no known branch has a copy available.
+   */
+  public long availableMask(Book book) {
+    return book.availableBranchMask(ordinalOf);
+  }
+}
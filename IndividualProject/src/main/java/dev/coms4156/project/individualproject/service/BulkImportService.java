@@ -0,0 +1,195 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams newline-delimited JSON {@code Book} records into the catalog.
+ * Lines are read in chunks and parsed on a pool of parser threads, with at most two chunks
+ * per thread in flight, so the unparsed backlog stays bounded however fast the stream
+ * arrives. Parsed chunks are staged in arrival order, keyed by id so a later record for the
+ * same book wins, and the staged books are published with a single
+ * {@link MockApiService#upsertAll} swap. Staging therefore holds every valid record until the
+ * swap, so memory is O(records); errors are only counted past
+ * {@value ImportReport#MAX_ERRORS}, in each chunk and in the report.
+ */
+@Service
+public class BulkImportService {
+
+  private final MockApiService mockApiService;
+  private final ObjectMapper mapper;
+  private final ExecutorService parsers;
+  private final int parserThreads;
+  private final int chunkSize;
+
+  /**
+   * Creates the import service.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param mapper The mapper used to parse records.
+   * @param parserThreads The number of parser threads, or 0 for one per available processor.
+   * @param chunkSize The number of lines handed to a parser thread at a time.
+   */
+  public BulkImportService(MockApiService mockApiService, ObjectMapper mapper,
+                           @Value("${catalog.import.parser-threads:0}") int parserThreads,
+                           @Value("${catalog.import.chunk-size:1000}") int chunkSize) {
+    this.mockApiService = mockApiService;
+    this.mapper = mapper;
+    this.parserThreads = parserThreads > 0
+        ? parserThreads : Runtime.getRuntime().availableProcessors();
+    this.chunkSize = Math.max(1, chunkSize);
+    this.parsers = Executors.newFixedThreadPool(this.parserThreads, r -> {
+      Thread thread = new Thread(r, "catalog-import");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Reads NDJSON book records and upserts them into the catalog. Blank lines are ignored.
+   *
+   * @param in The stream of records, one JSON object per line, in UTF-8.
+   * @param accept Returns whether a book id belongs in this catalog; rejected records are
+   *               counted as skipped.
+   * @return The import counts, errors and throughput.
+   * @throws IOException If reading the stream fails.
+   */
+  public ImportReport importNdjson(InputStream in, IntPredicate accept) throws IOException {
+    long start = System.nanoTime();
+    ImportReport report = new ImportReport();
+    Map<Integer, Book> staged = new LinkedHashMap<>();
+    ArrayDeque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    List<String> lines = new ArrayList<>(chunkSize);
+    int[] lineNumbers = new int[chunkSize];
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      lineNumbers[lines.size()] = lineNumber;
+      lines.add(line);
+      if (lines.size() == chunkSize) {
+        inFlight.add(submit(lines, lineNumbers, accept));
+        lines = new ArrayList<>(chunkSize);
+        lineNumbers = new int[chunkSize];
+        if (inFlight.size() >= 2 * parserThreads) {
+          stage(inFlight.poll(), staged, report);
+        }
+      }
+    }
+    if (!lines.isEmpty()) {
+      inFlight.add(submit(lines, lineNumbers, accept));
+    }
+    while (!inFlight.isEmpty()) {
+      stage(inFlight.poll(), staged, report);
+    }
+
+    int updated = mockApiService.upsertAll(staged.values());
+    long elapsed = System.nanoTime() - start;
+    report.finish(staged.size() - updated, updated, elapsed);
+    System.out.println("Imported " + report.getReceived() + " records in "
+        + report.getElapsedMillis() + " ms (" + report.getRecordsPerSecond()
+        + " records/sec): " + report.getInserted() + " inserted, " + report.getUpdated()
+        + " updated, " + report.getSkipped() + " skipped, " + report.getFailed() + " failed.");
+    return report;
+  }
+
+  private Future<ParsedChunk> submit(List<String> lines, int[] lineNumbers,
+                                     IntPredicate accept) {
+    return parsers.submit(() -> parse(lines, lineNumbers, accept));
+  }
+
+  private ParsedChunk parse(List<String> lines, int[] lineNumbers, IntPredicate accept) {
+    ParsedChunk chunk = new ParsedChunk(lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      try {
+        Book book = mapper.readValue(lines.get(i), Book.class);
+        if (book.getId() <= 0) {
+          chunk.fail(new ImportReport.RecordError(lineNumbers[i],
+              "Missing or non-positive id."));
+        } else if (!accept.test(book.getId())) {
+          chunk.skipped++;
+        } else {
+          book.validateBranches();
+          chunk.books.add(book);
+        }
+      } catch (JsonProcessingException e) {
+        chunk.fail(new ImportReport.RecordError(lineNumbers[i], e.getOriginalMessage()));
+      } catch (IllegalArgumentException e) {
+        chunk.fail(new ImportReport.RecordError(lineNumbers[i], e.getMessage()));
+      }
+    }
+    return chunk;
+  }
+
+  private void stage(Future<ParsedChunk> future, Map<Integer, Book> staged,
+                     ImportReport report) throws IOException {
+    ParsedChunk chunk;
+    try {
+      chunk = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while parsing records", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Parsing records failed", e.getCause());
+    }
+    report.addReceived(chunk.size);
+    report.addSkipped(chunk.skipped);
+    report.addErrors(chunk.errors, chunk.failed);
+    for (Book book : chunk.books) {
+      staged.put(book.getId(), book);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    parsers.shutdownNow();
+  }
+
+  /**
+   * The books, skips and errors parsed from one chunk of lines.
+   */
+  private static final class ParsedChunk {
+    final int size;
+    final List<Book> books;
+    final List<ImportReport.RecordError> errors = new ArrayList<>();
+    int skipped;
+    int failed;
+
+    ParsedChunk(int size) {
+      this.size = size;
+      this.books = new ArrayList<>(size);
+    }
+
+    void fail(ImportReport.RecordError error) {
+      failed++;
+      if (errors.size() < ImportReport.MAX_ERRORS) {
+        errors.add(error);
+      }
+    }
+  }
+}
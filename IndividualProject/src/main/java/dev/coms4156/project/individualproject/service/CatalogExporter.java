@@ -0,0 +1,77 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the catalog as newline-delimited JSON without building a copy of it.
+ * Books are read from {@link MockApiService#streamBooks()}: in memory every save publishes a
+ * new list, so the list current when the export starts fixes which books are exported; in
+ * tiered mode the ids are fixed at the start and each cold book is read from disk when it is
+ * reached. Each book is serialized to bytes while holding its lock, so every record reflects
+ * a state between two mutations, and is written after the lock is released, so a slow reader
+ * never holds up checkouts.
+ */
+@Service
+public class CatalogExporter {
+
+  private final MockApiService mockApiService;
+  private final ObjectMapper mapper;
+
+  public CatalogExporter(MockApiService mockApiService, ObjectMapper mapper) {
+    this.mockApiService = mockApiService;
+    this.mapper = mapper;
+  }
+
+  /**
+   * Writes every book in the catalog, one JSON object per line. Writes block while the
+   * destination is not accepting data, so at most one record is buffered here at a time.
+   *
+   * @param out The destination; it is not closed.
+   * @return The number of books written.
+   * @throws IOException If writing fails, e.g. because the client disconnected.
+   */
+  public int export(OutputStream out) throws IOException {
+    return write(out, false);
+  }
+
+  /**
+   * Writes every book in the catalog as one JSON array, reading and buffering them as
+   * {@link #export(OutputStream)} does.
+   *
+   * @param out The destination; it is not closed.
+   * @return The number of books written.
+   * @throws IOException If writing fails, e.g. because the client disconnected.
+   */
+  public int exportArray(OutputStream out) throws IOException {
+    out.write('[');
+    int written = write(out, true);
+    out.write(']');
+    return written;
+  }
+
+  private int write(OutputStream out, boolean array) throws IOException {
+    int written = 0;
+    Iterator<Book> books = mockApiService.streamBooks().iterator();
+    while (books.hasNext()) {
+      Book book = books.next();
+      byte[] record;
+      synchronized (book) {
+        record = mapper.writeValueAsBytes(book);
+      }
+      if (array && written > 0) {
+        out.write(',');
+      }
+      out.write(record);
+      if (!array) {
+        out.write('\n');
+      }
+      written++;
+    }
+    return written;
+  }
+}
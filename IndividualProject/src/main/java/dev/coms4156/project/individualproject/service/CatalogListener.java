@@ -0,0 +1,52 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+
+/**
+ * Callback for inventory mutations applied through {@link MockApiService}.
+ * Callbacks run on the mutating thread while it holds the lock on {@code book}, so they see
+ * the book exactly as the mutation left it and must not block.
+ */
+public interface CatalogListener {
+
+  default void onCheckout(Book book, int patronId, String dueDate) {
+  }
+
+  /**
+   * Called before a copy is returned, under the same lock as the return itself, so the answer
+   * cannot go stale before the copy is returned.
+   *
+   * @return {@code false} to reject the return.
+   */
+  default boolean allowsReturn(Book book, int patronId, String dueDate) {
+    return true;
+  }
+
+  default void onCopyReturned(Book book, int patronId, String dueDate) {
+  }
+
+  default void onCopyAdded(Book book) {
+  }
+
+  /**
+   * Called when a book's record is replaced, or added by a bulk upsert ({@code oldBook} is
+   * then {@code null}).
+   */
+  default void onBookUpdated(Book oldBook, Book newBook) {
+  }
+
+  /**
+   * Called after a record received from another node was stored with
+   * {@link MockApiService#upsertBook(Book)}. Unlike {@link #onBookUpdated}, this is not a
+   * local mutation and must not be replicated again.
+   */
+  default void onBookReplicated(Book book) {
+  }
+
+  /**
+   * Called after the whole catalog was swapped with {@link MockApiService#replaceCatalog},
+   * after which no per-book callbacks describe how it changed.
+   */
+  default void onCatalogReplaced() {
+  }
+}
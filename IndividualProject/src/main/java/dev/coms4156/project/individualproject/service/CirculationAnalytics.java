@@ -0,0 +1,489 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.CatalogText;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+
+/**
+ * Circulation statistics grouped by language, subject, publisher and shelving location,
+ * maintained incrementally from catalog callbacks so a query costs O(groups) rather than a
+ * pass over every book.
+ *
+ * <p>For each book the service remembers what it last contributed: its groups and copy
+ * counts. A callback subtracts that contribution and adds the book's current state, so a
+ * callback is idempotent and never double-counts a mutation that a rebuild already saw.
+ * Callbacks run under the book's lock, so they only capture the book's fields and publish
+ * them to an {@link EventBuffer}; the aggregates are updated as the buffer is drained, and
+ * mutations never wait on this service. The aggregates are built from the full catalog on
+ * first use and again after the catalog is replaced. {@link #verify()} recomputes everything
+ * with a parallel stream to check for drift.
+ */
+@Service
+public class CirculationAnalytics implements CatalogListener {
+
+  /** Group key for books with no value for a dimension. */
+  public static final String NONE = "(none)";
+
+  /**
+   * A book attribute that statistics can be grouped by.
+   */
+  public enum Dimension {
+    LANGUAGE("language"),
+    SUBJECTS("subjects"),
+    PUBLISHER("publisher"),
+    SHELVING_LOCATION("shelvingLocation");
+
+    private final String fieldName;
+
+    Dimension(String fieldName) {
+      this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+      return fieldName;
+    }
+
+    /**
+     * Parses a dimension by its {@code Book} field name, ignoring case.
+     *
+     * @param name A name such as {@code shelvingLocation}.
+     * @return The dimension, or {@code null} if the name is unknown.
+     */
+    public static Dimension parse(String name) {
+      for (Dimension dimension : values()) {
+        if (dimension.fieldName.equalsIgnoreCase(name.trim())) {
+          return dimension;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Totals for one group of books.
+   */
+  public static class GroupStats {
+    private final String key;
+    private long titles;
+    private long availableTitles;
+    private long totalCopies;
+    private long availableCopies;
+    private long checkouts;
+
+    GroupStats(String key) {
+      this.key = key;
+    }
+
+    private void add(Contribution contribution, int sign) {
+      titles += sign;
+      availableTitles += contribution.availableCopies > 0 ? sign : 0;
+      totalCopies += (long) sign * contribution.totalCopies;
+      availableCopies += (long) sign * contribution.availableCopies;
+      checkouts += (long) sign * contribution.checkouts;
+    }
+
+    private void add(GroupStats other) {
+      titles += other.titles;
+      availableTitles += other.availableTitles;
+      totalCopies += other.totalCopies;
+      availableCopies += other.availableCopies;
+      checkouts += other.checkouts;
+    }
+
+    private GroupStats copy() {
+      GroupStats copy = new GroupStats(key);
+      copy.add(this);
+      return copy;
+    }
+
+    boolean sameCounts(GroupStats other) {
+      return titles == other.titles && availableTitles == other.availableTitles
+          && totalCopies == other.totalCopies && availableCopies == other.availableCopies
+          && checkouts == other.checkouts;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public long getTitles() {
+      return titles;
+    }
+
+    public long getAvailableTitles() {
+      return availableTitles;
+    }
+
+    public long getTotalCopies() {
+      return totalCopies;
+    }
+
+    public long getAvailableCopies() {
+      return availableCopies;
+    }
+
+    public long getCheckedOutCopies() {
+      return totalCopies - availableCopies;
+    }
+
+    public long getCheckouts() {
+      return checkouts;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "{titles=%d, availableTitles=%d, totalCopies=%d, "
+          + "availableCopies=%d, checkouts=%d}", titles, availableTitles, totalCopies,
+          availableCopies, checkouts);
+    }
+  }
+
+  /**
+   * What one book adds to the aggregates: its group keys and copy counts at one moment.
+   */
+  private static final class Contribution {
+    private final int bookId;
+    private final String language;
+    private final String publisher;
+    private final String shelvingLocation;
+    private final List<String> subjects;
+    private final int totalCopies;
+    private final int availableCopies;
+    private final int checkouts;
+    private String[][] keys;
+
+    /**
+     * Captures a book's fields; the caller holds the book's lock. The group keys are derived
+     * later by {@link #resolveKeys}, off the book's lock.
+     */
+    private Contribution(Book book) {
+      bookId = book.getId();
+      language = book.getLanguage();
+      publisher = book.getPublisher();
+      shelvingLocation = book.getShelvingLocation();
+      subjects = book.getSubjects();
+      totalCopies = book.getTotalCopies();
+      availableCopies = book.getCopiesAvailable();
+      checkouts = book.getAmountOfTimesCheckedOut();
+    }
+
+    /**
+     * Derives the group keys, reusing those of {@code previous} when the book's descriptive
+     * fields are the same objects, as they are after a checkout or return.
+     */
+    private Contribution resolveKeys(Contribution previous) {
+      if (previous != null && previous.language == language
+          && previous.publisher == publisher && previous.shelvingLocation == shelvingLocation
+          && previous.subjects == subjects) {
+        keys = previous.keys;
+        return this;
+      }
+      keys = new String[Dimension.values().length][];
+      keys[Dimension.LANGUAGE.ordinal()] = new String[] {groupKey(language)};
+      keys[Dimension.PUBLISHER.ordinal()] = new String[] {groupKey(publisher)};
+      keys[Dimension.SHELVING_LOCATION.ordinal()] = new String[] {groupKey(shelvingLocation)};
+      keys[Dimension.SUBJECTS.ordinal()] = subjects == null || subjects.isEmpty()
+          ? new String[] {NONE}
+          : subjects.stream().map(CirculationAnalytics::groupKey).distinct()
+              .toArray(String[]::new);
+      return this;
+    }
+  }
+
+  /**
+   * Per-group totals for every dimension plus the catalog total. Not thread-safe.
+   */
+  private static final class Aggregates {
+    private final Map<Dimension, Map<String, GroupStats>> groups = new EnumMap<>(Dimension.class);
+    private final GroupStats total = new GroupStats("total");
+
+    private Aggregates() {
+      for (Dimension dimension : Dimension.values()) {
+        groups.put(dimension, new HashMap<>());
+      }
+    }
+
+    private void add(Contribution contribution, int sign) {
+      total.add(contribution, sign);
+      for (Dimension dimension : Dimension.values()) {
+        Map<String, GroupStats> byKey = groups.get(dimension);
+        for (String key : contribution.keys[dimension.ordinal()]) {
+          GroupStats stats = byKey.computeIfAbsent(key, GroupStats::new);
+          stats.add(contribution, sign);
+          if (stats.titles == 0) {
+            byKey.remove(key);
+          }
+        }
+      }
+    }
+
+    private void merge(Aggregates other) {
+      total.add(other.total);
+      for (Dimension dimension : Dimension.values()) {
+        Map<String, GroupStats> byKey = groups.get(dimension);
+        other.groups.get(dimension).forEach((key, stats) ->
+            byKey.computeIfAbsent(key, GroupStats::new).add(stats));
+      }
+    }
+  }
+
+  /**
+   * The aggregates and the contribution each book last made to them. Not thread-safe.
+   */
+  private static final class State {
+    private final Aggregates aggregates = new Aggregates();
+    private final IntIntHashMap slotByBook = new IntIntHashMap();
+    private Contribution[] contributions = new Contribution[16];
+    private int slots;
+
+    /**
+     * Replaces what the book last contributed with {@code contribution}.
+     */
+    private void reconcile(Contribution contribution) {
+      int slot = slotByBook.get(contribution.bookId, -1);
+      Contribution previous = null;
+      if (slot < 0) {
+        if (slots == contributions.length) {
+          contributions = Arrays.copyOf(contributions, slots * 2);
+        }
+        slot = slots++;
+        slotByBook.put(contribution.bookId, slot);
+      } else {
+        previous = contributions[slot];
+        aggregates.add(previous, -1);
+      }
+      aggregates.add(contribution.resolveKeys(previous), 1);
+      contributions[slot] = contribution;
+    }
+  }
+
+  private final MockApiService mockApiService;
+  private final EventBuffer<Contribution> events = new EventBuffer<>(1024, this::apply);
+  private final Object rebuildLock = new Object();
+  // Guarded by the event buffer's drain lock.
+  private State state = new State();
+  private List<Contribution> replay;
+  private volatile boolean stale = true;
+  private volatile long generation;
+
+  /**
+   * Creates the service and subscribes it to catalog changes. The aggregates are built on the
+   * first query, after the catalog has finished loading.
+   *
+   * @param mockApiService The service holding the catalog.
+   */
+  public CirculationAnalytics(MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+    mockApiService.addListener(this);
+  }
+
+  /**
+   * Returns the current statistics.
+   *
+   * @param dimension The only dimension to include, or {@code null} for all of them.
+   * @param limit The maximum number of groups per dimension.
+   * @return The catalog {@code total} and, per dimension field name, its groups ordered by
+   *         descending checkouts, then key.
+   */
+  public Map<String, Object> snapshot(Dimension dimension, int limit) {
+    ensureBuilt();
+    return events.read(() -> {
+      Aggregates aggregates = state.aggregates;
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("total", aggregates.total.copy());
+      for (Dimension d : Dimension.values()) {
+        if (dimension == null || dimension == d) {
+          result.put(d.getFieldName(), top(aggregates.groups.get(d), limit));
+        }
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Returns the statistics of one group.
+   *
+   * @param dimension The dimension of the group.
+   * @param key The group key, e.g. {@code eng} for the language dimension.
+   * @return A copy of the group's totals, or {@code null} if no book is in the group.
+   */
+  public GroupStats group(Dimension dimension, String key) {
+    ensureBuilt();
+    return events.read(() -> {
+      GroupStats stats = state.aggregates.groups.get(dimension).get(key);
+      return stats == null ? null : stats.copy();
+    });
+  }
+
+  /**
+   * Recomputes every statistic from the full catalog with a parallel stream and compares the
+   * result with the incremental aggregates. Books mutated during the check may show up as
+   * mismatches, so it is meaningful only while the catalog is quiet.
+   *
+   * @return Whether the two agree, the number of groups compared, up to 20 mismatches and
+   *         the time the recompute took.
+   */
+  public Map<String, Object> verify() {
+    ensureBuilt();
+    long start = System.nanoTime();
+    Aggregates recomputed = recompute(mockApiService.streamBooks());
+    long recomputeNanos = System.nanoTime() - start;
+
+    List<String> mismatches = new ArrayList<>();
+    int compared = events.read(() -> {
+      Aggregates aggregates = state.aggregates;
+      int groups = 0;
+      if (!aggregates.total.sameCounts(recomputed.total)) {
+        mismatches.add("total: incremental " + aggregates.total + " vs recomputed "
+            + recomputed.total);
+      }
+      for (Dimension dimension : Dimension.values()) {
+        Map<String, GroupStats> incremental = aggregates.groups.get(dimension);
+        Map<String, GroupStats> expected = recomputed.groups.get(dimension);
+        groups += expected.size();
+        for (Map.Entry<String, GroupStats> entry : expected.entrySet()) {
+          GroupStats actual = incremental.get(entry.getKey());
+          if (actual == null || !actual.sameCounts(entry.getValue())) {
+            mismatches.add(dimension.getFieldName() + "/" + entry.getKey() + ": incremental "
+                + actual + " vs recomputed " + entry.getValue());
+          }
+        }
+        for (String key : incremental.keySet()) {
+          if (!expected.containsKey(key)) {
+            mismatches.add(dimension.getFieldName() + "/" + key + ": not in the catalog");
+          }
+        }
+      }
+      return groups;
+    });
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("consistent", mismatches.isEmpty());
+    report.put("groups", compared);
+    report.put("mismatches", mismatches.subList(0, Math.min(20, mismatches.size())));
+    report.put("recomputeMillis", recomputeNanos / 1_000_000.0);
+    return report;
+  }
+
+  /**
+   * Builds the aggregates of a stream of books from scratch on the common fork-join pool.
+   * Each book is read under its own lock so its counts are consistent.
+   */
+  private static Aggregates recompute(Stream<Book> books) {
+    return books.parallel()
+        .map(CirculationAnalytics::capture)
+        .map(contribution -> contribution.resolveKeys(null))
+        .collect(Aggregates::new, (aggregates, c) -> aggregates.add(c, 1), Aggregates::merge);
+  }
+
+  private static Contribution capture(Book book) {
+    synchronized (book) {
+      return new Contribution(book);
+    }
+  }
+
+  /**
+   * Rebuilds the aggregates if the catalog was replaced since the last build. Each book is
+   * read under its own lock, outside the drain lock, since callbacks publish while holding a
+   * book's lock. Events drained during the rebuild are kept and applied on top of it, so a
+   * mutation the rebuild read too early is still counted; each event carries the book's full
+   * state, so applying one the rebuild already saw changes nothing.
+   */
+  private void ensureBuilt() {
+    while (stale) {
+      synchronized (rebuildLock) {
+        if (!stale) {
+          return;
+        }
+        long observed = generation;
+        events.read(() -> replay = new ArrayList<>());
+        State rebuilt = new State();
+        try (Stream<Book> books = mockApiService.streamBooks()) {
+          books.map(CirculationAnalytics::capture).forEach(rebuilt::reconcile);
+        }
+        events.read(() -> {
+          replay.forEach(rebuilt::reconcile);
+          replay = null;
+          state = rebuilt;
+          if (observed == generation) {
+            stale = false;
+          }
+          return null;
+        });
+      }
+    }
+  }
+
+  /**
+   * Applies one drained event. While the catalog is stale and no rebuild is running, events
+   * are dropped, since the next rebuild reads the books after them.
+   */
+  private void apply(Contribution contribution) {
+    if (replay != null) {
+      replay.add(contribution);
+    } else if (!stale) {
+      state.reconcile(contribution);
+    }
+  }
+
+  private static List<GroupStats> top(Map<String, GroupStats> groups, int limit) {
+    List<GroupStats> result = new ArrayList<>(groups.size());
+    for (GroupStats stats : groups.values()) {
+      result.add(stats.copy());
+    }
+    result.sort(Comparator.comparingLong(GroupStats::getCheckouts).reversed()
+        .thenComparing(GroupStats::getKey));
+    return result.subList(0, Math.min(limit, result.size()));
+  }
+
+  /**
+   * Normalizes a catalog value into a group key. Catalog records often end values with
+   * cataloguing punctuation, e.g. {@code "Penguin,"}, which is stripped.
+   */
+  static String groupKey(String value) {
+    String key = CatalogText.trimPunctuation(value);
+    return key.isEmpty() ? NONE : key;
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    events.publish(new Contribution(book));
+  }
+
+  @Override
+  public void onCopyReturned(Book book, int patronId, String dueDate) {
+    events.publish(new Contribution(book));
+  }
+
+  @Override
+  public void onCopyAdded(Book book) {
+    events.publish(new Contribution(book));
+  }
+
+  @Override
+  public void onBookUpdated(Book oldBook, Book newBook) {
+    events.publish(new Contribution(newBook));
+  }
+
+  @Override
+  public void onBookReplicated(Book book) {
+    events.publish(new Contribution(book));
+  }
+
+  @Override
+  public synchronized void onCatalogReplaced() {
+    generation++;
+    stale = true;
+  }
+}
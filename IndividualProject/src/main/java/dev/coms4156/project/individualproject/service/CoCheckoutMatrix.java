@@ -0,0 +1,136 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.Arrays;
+
+/**
+ * Sparse item-item matrix counting how often two books were borrowed by the same patron.
+ * Each book owns a fixed row of {@code 2 * neighbors} slots in flat {@code int[]} arrays. When
+ * a row is full, a new neighbor replaces the entry with the smallest count and inherits that
+ * count plus one (the Space-Saving scheme). Counts may therefore be overestimated by at most
+ * the evicted minimum, and any neighbor borrowed with the book more often than
+ * {@code 1 / (2 * neighbors)} of the row's total is never evicted. Memory is
+ * {@code 16 * neighbors} bytes per book with any co-checkout.
+ */
+public class CoCheckoutMatrix {
+
+  private final int neighbors;
+  private final int rowWidth;
+  private final IntIntHashMap rowByBook = new IntIntHashMap();
+  private int[] neighborIds;
+  private int[] counts;
+  private int[] rowSizes;
+  private int rows;
+
+  /**
+   * Creates an empty matrix.
+   *
+   * @param neighbors The number of neighbors returned per book; twice as many are tracked.
+   */
+  public CoCheckoutMatrix(int neighbors) {
+    this.neighbors = Math.max(1, neighbors);
+    this.rowWidth = this.neighbors * 2;
+    this.neighborIds = new int[16 * rowWidth];
+    this.counts = new int[16 * rowWidth];
+    this.rowSizes = new int[16];
+  }
+
+  /**
+   * Records one co-checkout of two distinct books in both of their rows.
+   *
+   * @param bookA The id of one book.
+   * @param bookB The id of the other book.
+   */
+  public synchronized void increment(int bookA, int bookB) {
+    if (bookA == bookB) {
+      return;
+    }
+    incrementRow(rowFor(bookA), bookB);
+    incrementRow(rowFor(bookB), bookA);
+  }
+
+  /**
+   * Returns the ids of the books most often borrowed together with a book.
+   *
+   * @param bookId The id of the book.
+   * @param limit The maximum number of ids to return, capped at the configured neighbors.
+   * @return The neighbor ids ordered by descending count, then ascending id.
+   */
+  public synchronized int[] top(int bookId, int limit) {
+    int row = rowByBook.get(bookId, -1);
+    if (row < 0) {
+      return new int[0];
+    }
+    int base = row * rowWidth;
+    int size = rowSizes[row];
+    // Pack (count, id) into one long so a primitive sort orders by count desc, then id asc
+    long[] packed = new long[size];
+    for (int i = 0; i < size; i++) {
+      packed[i] = ((long) -counts[base + i] << 32) | (neighborIds[base + i] & 0xFFFFFFFFL);
+    }
+    Arrays.sort(packed);
+    int[] result = new int[Math.min(size, Math.min(limit, neighbors))];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (int) packed[i];
+    }
+    return result;
+  }
+
+  /**
+   * Returns the recorded co-checkout count of two books.
+   *
+   * @param bookA The id of one book.
+   * @param bookB The id of the other book.
+   * @return The count in {@code bookA}'s row, or 0 if {@code bookB} is not tracked there.
+   */
+  public synchronized int count(int bookA, int bookB) {
+    int row = rowByBook.get(bookA, -1);
+    if (row < 0) {
+      return 0;
+    }
+    int base = row * rowWidth;
+    for (int i = 0; i < rowSizes[row]; i++) {
+      if (neighborIds[base + i] == bookB) {
+        return counts[base + i];
+      }
+    }
+    return 0;
+  }
+
+  private int rowFor(int bookId) {
+    int row = rowByBook.get(bookId, -1);
+    if (row >= 0) {
+      return row;
+    }
+    if (rows == rowSizes.length) {
+      rowSizes = Arrays.copyOf(rowSizes, rows * 2);
+      neighborIds = Arrays.copyOf(neighborIds, rows * 2 * rowWidth);
+      counts = Arrays.copyOf(counts, rows * 2 * rowWidth);
+    }
+    rowByBook.put(bookId, rows);
+    return rows++;
+  }
+
+  private void incrementRow(int row, int neighborId) {
+    int base = row * rowWidth;
+    int size = rowSizes[row];
+    int min = -1;
+    for (int i = 0; i < size; i++) {
+      if (neighborIds[base + i] == neighborId) {
+        counts[base + i]++;
+        return;
+      }
+      if (min < 0 || counts[base + i] < counts[base + min]) {
+        min = i;
+      }
+    }
+    if (size < rowWidth) {
+      neighborIds[base + size] = neighborId;
+      counts[base + size] = 1;
+      rowSizes[row] = size + 1;
+    } else {
+      neighborIds[base + min] = neighborId;
+      counts[base + min]++;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hands events recorded by many threads to state that only one thread may update at a time,
+ * without making the recording threads wait for each other.
+ * An event is published to a lock-free {@link MpscRingBuffer}; the publishing thread then
+ * applies every buffered event only if it gets the drain lock without waiting, and otherwise
+ * returns at once, leaving them to the thread that holds it, which checks the buffer again
+ * after releasing the lock so no event is left behind once publishing stops. Readers take
+ * the drain lock and apply what is buffered first, so they see every event published before
+ * they started. A producer only waits when the buffer is full, and then only until the
+ * thread draining it has made room.
+ *
+ * @param <E> The type of event.
+ */
+public final class EventBuffer<E> {
+
+  private final MpscRingBuffer<E> buffer;
+  private final Consumer<E> consumer;
+  private final ReentrantLock drainLock = new ReentrantLock();
+
+  /**
+   * Creates an empty buffer.
+   *
+   * @param capacity The most events buffered at once, rounded up to a power of two.
+   * @param consumer Applies one event; only ever called by one thread at a time.
+   */
+  public EventBuffer(int capacity, Consumer<E> consumer) {
+    this.buffer = new MpscRingBuffer<>(capacity);
+    this.consumer = consumer;
+  }
+
+  /**
+   * Records an event. Safe to call from any number of threads.
+   *
+   * @param event The event.
+   */
+  public void publish(E event) {
+    while (!buffer.offer(event)) {
+      if (!tryDrain()) {
+        Thread.onSpinWait();
+      }
+    }
+    tryDrain();
+  }
+
+  /**
+   * Applies every buffered event and then runs a reader, both under the drain lock.
+   *
+   * @param reader Reads the state the events are applied to.
+   * @return The reader's result.
+   */
+  public <T> T read(Supplier<T> reader) {
+    drainLock.lock();
+    try {
+      buffer.drain(consumer, buffer.capacity());
+      return reader.get();
+    } finally {
+      drainLock.unlock();
+      if (buffer.hasPending()) {
+        tryDrain();
+      }
+    }
+  }
+
+  /**
+   * Drains if the lock is free. A producer that failed to get the lock published before this
+   * thread released it, so the check after the release sees its event and drains again.
+   */
+  private boolean tryDrain() {
+    do {
+      if (!drainLock.tryLock()) {
+        return false;
+      }
+      try {
+        buffer.drain(consumer, buffer.capacity());
+      } finally {
+        drainLock.unlock();
+      }
+    } while (buffer.hasPending());
+    return true;
+  }
+}
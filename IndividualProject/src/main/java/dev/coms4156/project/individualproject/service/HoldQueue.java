@@ -0,0 +1,81 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+
+/**
+ * FIFO queue of patron ids holding one book.
+ * Patrons are stored in a circular {@code int[]}. Every hold gets a ticket number, which is the
+ * count of holds placed on this book before it, so a patron's position is their ticket minus
+ * the ticket at the head of the queue and never requires a scan.
+ */
+public class HoldQueue {
+
+  public static final int NO_PATRON = 0;
+
+  private int[] patrons = new int[4];
+  private int head;
+  private int size;
+  private int headTicket;
+  private final IntIntHashMap tickets = new IntIntHashMap(4);
+
+  /**
+   * Adds a patron at the tail of the queue unless they already hold this book.
+   *
+   * @param patronId The id of the patron placing the hold.
+   * @return The 1-based position of the patron in the queue.
+   */
+  public synchronized int enqueue(int patronId) {
+    int existing = position(patronId);
+    if (existing > 0) {
+      return existing;
+    }
+    if (size == patrons.length) {
+      grow();
+    }
+    patrons[(head + size) & (patrons.length - 1)] = patronId;
+    tickets.put(patronId, headTicket + size);
+    size++;
+    return size;
+  }
+
+  /**
+   * Returns the 1-based position of a patron in the queue.
+   *
+   * @param patronId The id of the patron.
+   * @return The patron's position, or {@code 0} if they hold no place in this queue.
+   */
+  public synchronized int position(int patronId) {
+    int ticket = tickets.get(patronId, -1);
+    return ticket < 0 ? 0 : ticket - headTicket + 1;
+  }
+
+  /**
+   * Removes and returns the patron at the head of the queue.
+   *
+   * @return The id of the head patron, or {@link #NO_PATRON} if the queue is empty.
+   */
+  public synchronized int poll() {
+    if (size == 0) {
+      return NO_PATRON;
+    }
+    int patronId = patrons[head];
+    head = (head + 1) & (patrons.length - 1);
+    size--;
+    headTicket++;
+    tickets.remove(patronId);
+    return patronId;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  private void grow() {
+    int[] larger = new int[patrons.length << 1];
+    for (int i = 0; i < size; i++) {
+      larger[i] = patrons[(head + i) & (patrons.length - 1)];
+    }
+    patrons = larger;
+    head = 0;
+  }
+}
@@ -0,0 +1,117 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+
+/**
+ * Manages per-book hold queues for books with no available copies.
+ * Whenever a copy of a held book is returned or added, it is immediately checked out to the
+ * patron at the head of that book's queue, and the due date is kept as the patron's allocation.
+ * The allocation is a regular checkout, so other listeners record it as the patron's loan. It
+ * is forgotten when the patron returns that loan or places a new hold on the book, so the map
+ * only holds allocations that are still on loan.
+ */
+@Service
+public class HoldService implements CatalogListener {
+
+  private final MockApiService mockApiService;
+  private final ConcurrentHashMap<Integer, HoldQueue> queues = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, String> allocations = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the hold service and subscribes it to copy returns and additions.
+   *
+   * @param mockApiService The service holding the catalog.
+   */
+  public HoldService(MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+    mockApiService.addListener(this);
+  }
+
+  /**
+   * Places a hold on a book for a patron.
+   *
+   * @param book The {@code Book} to hold.
+   * @param patronId The id of the patron placing the hold.
+   * @return The patron's 1-based position in the queue, or {@code 0} if the book has copies
+   *         available and no hold was placed.
+   */
+  public int placeHold(Book book, int patronId) {
+    Book current = book;
+    while (current != null) {
+      synchronized (current) {
+        if (mockApiService.isCurrent(current)) {
+          if (current.hasCopies()) {
+            return 0;
+          }
+          allocations.remove(key(current.getId(), patronId));
+          return queues.computeIfAbsent(current.getId(), id -> new HoldQueue())
+              .enqueue(patronId);
+        }
+      }
+      current = mockApiService.findBook(book.getId());
+    }
+    return 0;
+  }
+
+  /**
+   * Returns a patron's position in the hold queue of a book.
+   *
+   * @param bookId The id of the book.
+   * @param patronId The id of the patron.
+   * @return The 1-based position, or {@code 0} if the patron has no hold on the book.
+   */
+  public int getPosition(int bookId, int patronId) {
+    HoldQueue queue = queues.get(bookId);
+    return queue == null ? 0 : queue.position(patronId);
+  }
+
+  /**
+   * Returns the due date of a copy allocated to a patron from a hold.
+   *
+   * @param bookId The id of the book.
+   * @param patronId The id of the patron.
+   * @return The due date of the allocated copy, or {@code null} if none has been allocated.
+   */
+  public String getAllocation(int bookId, int patronId) {
+    return allocations.get(key(bookId, patronId));
+  }
+
+  public int getQueueLength(int bookId) {
+    HoldQueue queue = queues.get(bookId);
+    return queue == null ? 0 : queue.size();
+  }
+
+  @Override
+  public void onCopyReturned(Book book, int patronId, String dueDate) {
+    if (patronId != MockApiService.ANONYMOUS_PATRON) {
+      allocations.remove(key(book.getId(), patronId), dueDate);
+    }
+    allocate(book);
+  }
+
+  @Override
+  public void onCopyAdded(Book book) {
+    allocate(book);
+  }
+
+  private void allocate(Book book) {
+    HoldQueue queue = queues.get(book.getId());
+    if (queue == null) {
+      return;
+    }
+    while (book.hasCopies()) {
+      int patronId = queue.poll();
+      if (patronId == HoldQueue.NO_PATRON) {
+        return;
+      }
+      String dueDate = mockApiService.checkoutLocked(book, patronId).getDueDate();
+      allocations.put(key(book.getId(), patronId), dueDate);
+    }
+  }
+
+  private static long key(int bookId, int patronId) {
+    return ((long) bookId << 32) | (patronId & 0xFFFFFFFFL);
+  }
+}
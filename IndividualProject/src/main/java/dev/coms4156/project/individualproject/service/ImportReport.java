@@ -0,0 +1,106 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: record counts, the first per-record errors and throughput.
+ */
+public class ImportReport {
+
+  /**
+   * The most per-record errors a report lists; further failures are only counted.
+   */
+  public static final int MAX_ERRORS = 100;
+
+  /**
+   * A record that could not be imported.
+   */
+  public static class RecordError {
+    private final int line;
+    private final String message;
+
+    public RecordError(int line, String message) {
+      this.line = line;
+      this.message = message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  private int received;
+  private int inserted;
+  private int updated;
+  private int skipped;
+  private int failed;
+  private final List<RecordError> errors = new ArrayList<>();
+  private long elapsedMillis;
+  private long recordsPerSecond;
+
+  /**
+   * Counts a chunk's failed records and keeps their errors while the report has room.
+   */
+  void addErrors(List<RecordError> chunkErrors, int chunkFailed) {
+    failed += chunkFailed;
+    for (RecordError error : chunkErrors) {
+      if (errors.size() == MAX_ERRORS) {
+        return;
+      }
+      errors.add(error);
+    }
+  }
+
+  void addReceived(int count) {
+    received += count;
+  }
+
+  void addSkipped(int count) {
+    skipped += count;
+  }
+
+  void finish(int inserted, int updated, long elapsedNanos) {
+    this.inserted = inserted;
+    this.updated = updated;
+    this.elapsedMillis = elapsedNanos / 1_000_000;
+    this.recordsPerSecond = elapsedNanos == 0 ? 0 : received * 1_000_000_000L / elapsedNanos;
+  }
+
+  public int getReceived() {
+    return received;
+  }
+
+  public int getInserted() {
+    return inserted;
+  }
+
+  public int getUpdated() {
+    return updated;
+  }
+
+  public int getSkipped() {
+    return skipped;
+  }
+
+  public int getFailed() {
+    return failed;
+  }
+
+  public List<RecordError> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public long getRecordsPerSecond() {
+    return recordsPerSecond;
+  }
+}
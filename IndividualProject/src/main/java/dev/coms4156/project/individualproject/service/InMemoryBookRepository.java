@@ -0,0 +1,123 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Repository holding every book on the heap in one list, with an index from id to position.
+ * The repository is the only writer of the list: {@link #findAll()} returns a read-only view,
+ * and every save publishes a new list and index together in one swap, so code iterating a
+ * list without a lock never sees it change and the index answers every lookup, including
+ * misses, without a scan. Books are never evicted, but saves and replacements store new
+ * instances, so an instance a lookup returned may no longer be the stored one by the time it
+ * is locked; {@link #holds(Book)} tells the two apart.
+ */
+public class InMemoryBookRepository implements BookRepository {
+
+  /**
+   * A published list of books and the index of their positions.
+   */
+  private static final class Snapshot {
+    private final List<Book> books;
+    private final IntIntHashMap positions;
+
+    private Snapshot(List<Book> books, IntIntHashMap positions) {
+      this.books = Collections.unmodifiableList(books);
+      this.positions = positions;
+    }
+  }
+
+  private volatile Snapshot snapshot;
+
+  @Override
+  public Book findById(int id) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return null;
+    }
+    int position = current.positions.get(id, -1);
+    return position < 0 ? null : current.books.get(position);
+  }
+
+  /**
+   * Returns every book in the order it was first stored.
+   *
+   * @return A read-only list that later saves do not change, or {@code null} if nothing has
+   *         been stored yet.
+   */
+  @Override
+  public List<Book> findAll() {
+    Snapshot current = snapshot;
+    return current == null ? null : current.books;
+  }
+
+  /**
+   * Stores a book by publishing a copy of the list with the book replaced or appended.
+   */
+  @Override
+  public synchronized void save(Book book) {
+    saveAll(List.of(book));
+  }
+
+  /**
+   * Stores many books, publishing the new list in a single swap so readers see either none or
+   * all of the changes.
+   */
+  @Override
+  public synchronized List<Book> saveAll(Collection<Book> incoming) {
+    Snapshot current = snapshot;
+    List<Book> next = new ArrayList<>((current == null ? 0 : current.books.size())
+        + incoming.size());
+    if (current != null) {
+      next.addAll(current.books);
+    }
+    IntIntHashMap index = new IntIntHashMap(next.size() + incoming.size());
+    for (int i = 0; i < next.size(); i++) {
+      index.put(next.get(i).getId(), i);
+    }
+    List<Book> replaced = new ArrayList<>(incoming.size());
+    for (Book book : incoming) {
+      int position = index.get(book.getId(), -1);
+      if (position >= 0) {
+        replaced.add(next.set(position, book));
+      } else {
+        index.put(book.getId(), next.size());
+        next.add(book);
+        replaced.add(null);
+      }
+    }
+    snapshot = new Snapshot(next, index);
+    return replaced;
+  }
+
+  /**
+   * Replaces every stored book. If two books share an id, the first one is kept.
+   */
+  @Override
+  public synchronized void replaceAll(Collection<Book> newBooks) {
+    List<Book> next = new ArrayList<>(newBooks.size());
+    IntIntHashMap index = new IntIntHashMap(newBooks.size());
+    for (Book book : newBooks) {
+      if (index.get(book.getId(), -1) < 0) {
+        index.put(book.getId(), next.size());
+        next.add(book);
+      }
+    }
+    snapshot = new Snapshot(next, index);
+  }
+
+  @Override
+  public boolean holds(Book book) {
+    return findById(book.getId()) == book;
+  }
+
+  @Override
+  public int size() {
+    Snapshot current = snapshot;
+    return current == null ? 0 : current.books.size();
+  }
+}
@@ -0,0 +1,142 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index over the raw bytes of a JSON array of books, parsing each book on first access.
+ * Building the index only tokenizes the file to record every record's byte range and id, so
+ * it is much cheaper than binding all of the books. Each slot is filled at most once, so a
+ * book parsed for a request and the same book reached by the background hydration are the
+ * same object.
+ */
+final class LazyCatalog {
+
+  private final ObjectMapper mapper;
+  private final byte[] json;
+  private final int[] starts;
+  private final int[] ends;
+  private final IntIntHashMap slotById;
+  private final AtomicReferenceArray<Book> slots;
+
+  private LazyCatalog(ObjectMapper mapper, byte[] json, int[] starts, int[] ends,
+                      IntIntHashMap slotById) {
+    this.mapper = mapper;
+    this.json = json;
+    this.starts = starts;
+    this.ends = ends;
+    this.slotById = slotById;
+    this.slots = new AtomicReferenceArray<>(starts.length);
+  }
+
+  /**
+   * Tokenizes a JSON array of book objects and records where each one starts and ends.
+   *
+   * @param mapper The mapper used to parse individual books later.
+   * @param json The raw file contents.
+   * @return The index.
+   * @throws IOException If the file is not a JSON array of objects.
+   */
+  static LazyCatalog index(ObjectMapper mapper, byte[] json) throws IOException {
+    int[] starts = new int[64];
+    int[] ends = new int[64];
+    IntIntHashMap slotById = new IntIntHashMap();
+    int count = 0;
+    try (JsonParser parser = mapper.getFactory().createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Expected a JSON array of books");
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          boolean isId = "id".equals(parser.currentName());
+          parser.nextToken();
+          if (isId && !slotById.containsKey(parser.getIntValue())) {
+            slotById.put(parser.getIntValue(), count);
+          } else {
+            parser.skipChildren();
+          }
+        }
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+          ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = (int) parser.currentLocation().getByteOffset();
+        count++;
+      }
+    }
+    return new LazyCatalog(mapper, json, Arrays.copyOf(starts, count),
+        Arrays.copyOf(ends, count), slotById);
+  }
+
+  /**
+   * Returns the number of records in the file.
+   */
+  int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the book with the given id, parsing it if this is its first access.
+   *
+   * @param id The book id.
+   * @return The book, or {@code null} if the file has no record with that id.
+   */
+  Book get(int id) {
+    int slot = slotById.get(id, -1);
+    return slot < 0 ? null : hydrate(slot);
+  }
+
+  /**
+   * Returns the books parsed so far, in file order.
+   */
+  List<Book> hydrated() {
+    List<Book> result = new ArrayList<>();
+    for (int i = 0; i < slots.length(); i++) {
+      Book book = slots.get(i);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Parses every remaining book.
+   *
+   * @return All books in file order, leaving out records that failed to parse.
+   */
+  List<Book> hydrateAll() {
+    List<Book> result = new ArrayList<>(starts.length);
+    for (int i = 0; i < starts.length; i++) {
+      Book book = hydrate(i);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+    return result;
+  }
+
+  private Book hydrate(int slot) {
+    Book book = slots.get(slot);
+    if (book != null) {
+      return book;
+    }
+    try {
+      Book parsed = mapper.readValue(json, starts[slot], ends[slot] - starts[slot], Book.class);
+      return slots.compareAndSet(slot, null, parsed) ? parsed : slots.get(slot);
+    } catch (IOException e) {
+      System.err.println("Failed to parse book at offset " + starts[slot] + ": " + e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Loan;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry of active loans with patron and book indexes.
+ * Loans are stored column-wise in parallel {@code int[]} arrays (about 28 bytes per loan) and
+ * threaded onto two doubly linked lists, one per patron and one per book, so listing the loans
+ * of either side costs O(result) and adding or removing a loan is O(1) plus a walk of that
+ * book's outstanding copies.
+ */
+public class LoanRegistry {
+
+  private static final int NONE = -1;
+
+  private int[] patronIds;
+  private int[] bookIds;
+  private int[] dueDays;
+  private int[] nextByPatron;
+  private int[] prevByPatron;
+  private int[] nextByBook;
+  private int[] prevByBook;
+  private final IntIntHashMap patronHeads = new IntIntHashMap();
+  private final IntIntHashMap bookHeads = new IntIntHashMap();
+  private int used;
+  private int freeHead = NONE;
+  private int size;
+
+  public LoanRegistry() {
+    this(16);
+  }
+
+  /**
+   * Creates a registry with room for {@code initialCapacity} loans before growing.
+   *
+   * @param initialCapacity The number of loan slots to allocate up front.
+   */
+  public LoanRegistry(int initialCapacity) {
+    int capacity = Math.max(4, initialCapacity);
+    patronIds = new int[capacity];
+    bookIds = new int[capacity];
+    dueDays = new int[capacity];
+    nextByPatron = new int[capacity];
+    prevByPatron = new int[capacity];
+    nextByBook = new int[capacity];
+    prevByBook = new int[capacity];
+  }
+
+  /**
+   * Records a new loan.
+   *
+   * @param bookId The id of the borrowed book.
+   * @param patronId The id of the borrowing patron.
+   * @param dueDate The due date in ISO format.
+   */
+  public synchronized void add(int bookId, int patronId, String dueDate) {
+    int slot = allocateSlot();
+    patronIds[slot] = patronId;
+    bookIds[slot] = bookId;
+    dueDays[slot] = epochDay(dueDate);
+
+    int patronHead = patronHeads.get(patronId, NONE);
+    nextByPatron[slot] = patronHead;
+    prevByPatron[slot] = NONE;
+    if (patronHead != NONE) {
+      prevByPatron[patronHead] = slot;
+    }
+    patronHeads.put(patronId, slot);
+
+    int bookHead = bookHeads.get(bookId, NONE);
+    nextByBook[slot] = bookHead;
+    prevByBook[slot] = NONE;
+    if (bookHead != NONE) {
+      prevByBook[bookHead] = slot;
+    }
+    bookHeads.put(bookId, slot);
+    size++;
+  }
+
+  /**
+   * Removes one loan matching the given book, patron and due date.
+   *
+   * @param bookId The id of the borrowed book.
+   * @param patronId The id of the borrowing patron.
+   * @param dueDate The due date in ISO format.
+   * @return {@code true} if a matching loan was found and removed.
+   */
+  public synchronized boolean remove(int bookId, int patronId, String dueDate) {
+    int slot = find(bookId, patronId, dueDate);
+    if (slot == NONE) {
+      return false;
+    }
+    unlink(slot);
+    return true;
+  }
+
+  public synchronized boolean contains(int bookId, int patronId, String dueDate) {
+    return find(bookId, patronId, dueDate) != NONE;
+  }
+
+  /**
+   * Counts the loans of a book due on a date, whichever patron holds them.
+   *
+   * @param bookId The id of the borrowed book.
+   * @param dueDate The due date in ISO format.
+   * @return The number of matching loans.
+   */
+  public synchronized int countForBook(int bookId, String dueDate) {
+    int dueDay = epochDay(dueDate);
+    int count = 0;
+    for (int s = bookHeads.get(bookId, NONE); s != NONE; s = nextByBook[s]) {
+      if (dueDays[s] == dueDay) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public synchronized List<Loan> loansForPatron(int patronId) {
+    List<Loan> loans = new ArrayList<>();
+    for (int s = patronHeads.get(patronId, NONE); s != NONE; s = nextByPatron[s]) {
+      loans.add(toLoan(s));
+    }
+    return loans;
+  }
+
+  public synchronized List<Loan> loansForBook(int bookId) {
+    List<Loan> loans = new ArrayList<>();
+    for (int s = bookHeads.get(bookId, NONE); s != NONE; s = nextByBook[s]) {
+      loans.add(toLoan(s));
+    }
+    return loans;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  private int find(int bookId, int patronId, String dueDate) {
+    int dueDay = epochDay(dueDate);
+    for (int s = bookHeads.get(bookId, NONE); s != NONE; s = nextByBook[s]) {
+      if (patronIds[s] == patronId && dueDays[s] == dueDay) {
+        return s;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Converts an ISO due date such as {@code 2024-05-01} to its epoch day. The digits are read
+   * directly; anything else goes through {@link LocalDate#parse}, which rejects it as before.
+   *
+   * @param dueDate The due date.
+   * @return Days since 1970-01-01.
+   */
+  public static int epochDay(String dueDate) {
+    if (dueDate.length() == 10 && dueDate.charAt(4) == '-' && dueDate.charAt(7) == '-') {
+      int year = digits(dueDate, 0, 4);
+      int month = digits(dueDate, 5, 7);
+      int day = digits(dueDate, 8, 10);
+      if (year >= 0 && month >= 0 && day >= 0) {
+        try {
+          return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+          // Out of range: let the parser report it
+        }
+      }
+    }
+    return (int) LocalDate.parse(dueDate).toEpochDay();
+  }
+
+  private static int digits(String text, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private void unlink(int slot) {
+    int patronId = patronIds[slot];
+    if (prevByPatron[slot] != NONE) {
+      nextByPatron[prevByPatron[slot]] = nextByPatron[slot];
+    } else if (nextByPatron[slot] != NONE) {
+      patronHeads.put(patronId, nextByPatron[slot]);
+    } else {
+      patronHeads.remove(patronId);
+    }
+    if (nextByPatron[slot] != NONE) {
+      prevByPatron[nextByPatron[slot]] = prevByPatron[slot];
+    }
+
+    int bookId = bookIds[slot];
+    if (prevByBook[slot] != NONE) {
+      nextByBook[prevByBook[slot]] = nextByBook[slot];
+    } else if (nextByBook[slot] != NONE) {
+      bookHeads.put(bookId, nextByBook[slot]);
+    } else {
+      bookHeads.remove(bookId);
+    }
+    if (nextByBook[slot] != NONE) {
+      prevByBook[nextByBook[slot]] = prevByBook[slot];
+    }
+
+    // Freed slots are chained through nextByPatron for reuse
+    nextByPatron[slot] = freeHead;
+    freeHead = slot;
+    size--;
+  }
+
+  private int allocateSlot() {
+    if (freeHead != NONE) {
+      int slot = freeHead;
+      freeHead = nextByPatron[slot];
+      return slot;
+    }
+    if (used == patronIds.length) {
+      int capacity = patronIds.length << 1;
+      patronIds = Arrays.copyOf(patronIds, capacity);
+      bookIds = Arrays.copyOf(bookIds, capacity);
+      dueDays = Arrays.copyOf(dueDays, capacity);
+      nextByPatron = Arrays.copyOf(nextByPatron, capacity);
+      prevByPatron = Arrays.copyOf(prevByPatron, capacity);
+      nextByBook = Arrays.copyOf(nextByBook, capacity);
+      prevByBook = Arrays.copyOf(prevByBook, capacity);
+    }
+    return used++;
+  }
+
+  private Loan toLoan(int slot) {
+    return new Loan(bookIds[slot], patronIds[slot],
+        LocalDate.ofEpochDay(dueDays[slot]).toString());
+  }
+}
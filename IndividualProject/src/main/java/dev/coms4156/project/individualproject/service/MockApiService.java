@@ -1,11 +1,22 @@
 package dev.coms4156.project.individualproject.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.timing.StageTimings;
+import dev.coms4156.project.individualproject.timing.StageTimings.Stage;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
@@ -17,8 +28,18 @@ import org.springframework.stereotype.Service;
 @Service
 public class MockApiService {
 
-  private List<Book> books;
+  /**
+   * Patron id used for checkouts and returns that are not attributed to a patron.
+   */
+  public static final int ANONYMOUS_PATRON = 0;
+
+  private final BookRepository repository;
   private List<String> bags;
+  private final List<CatalogListener> listeners = new CopyOnWriteArrayList<>();
+  private final CountDownLatch hydration = new CountDownLatch(1);
+  private final boolean partialLists;
+  private volatile LazyCatalog lazyCatalog;
+  private final TieredBookStore tieredStore;
 
   /**
    * Constructs a new {@code MockApiService} and loads book data from a JSON file located at
@@ -27,23 +48,293 @@ public class MockApiService {
    * cannot be parsed, an error message is printed and no data is loaded.
    */
   public MockApiService() {
+    this(false, "wait");
+  }
+
+  /**
+   * Constructs a new {@code MockApiService} holding every book in memory, optionally serving
+   * books before the whole file has been parsed.
+   *
+   * @param lazy Whether to hydrate the catalog lazily.
+   * @param listMode {@code wait} for list endpoints to wait for full hydration, or
+   *                 {@code partial} for them to use the books parsed so far.
+   */
+  public MockApiService(boolean lazy, String listMode) {
+    this(lazy, listMode, false, 0, "");
+  }
+
+  /**
+   * Constructs a {@code MockApiService} holding the given books in memory, without reading
+   * {@code resources/mockdata/books.json}.
+   *
+   * @param books The catalog.
+   */
+  public MockApiService(List<Book> books) {
+    this.partialLists = false;
+    this.tieredStore = null;
+    this.repository = new InMemoryBookRepository();
+    repository.replaceAll(books);
+    hydration.countDown();
+  }
+
+  /**
+   * Constructs a new {@code MockApiService}, optionally serving books before the whole file
+   * has been parsed, or keeping only frequently used books in memory.
+   *
+   * @param lazy Whether to hydrate the catalog lazily.
+   * @param listMode {@code wait} for list endpoints to wait for full hydration, or
+   *                 {@code partial} for them to use the books parsed so far.
+   * @param tiered Whether to keep books in a {@link TieredBookStore}.
+   * @param maxResidentBytes The tiered store's budget for resident books, in estimated bytes.
+   * @param directory The directory for the tiered store's file, or empty for the system's
+   *                  temporary directory.
+   */
+  public MockApiService(boolean lazy, String listMode, boolean tiered, long maxResidentBytes,
+                        String directory) {
+    this(lazy, listMode, tiered, maxResidentBytes, directory, "memory", "", false);
+  }
+
+  /**
+   * Constructs a new {@code MockApiService} storing books in the configured
+   * {@link BookRepository}, optionally serving books before the whole file has been parsed,
+   * or keeping only frequently used books in memory.
+   * In lazy mode only an id-to-offset index is built up front. {@link #findBook(int)} parses
+   * single books on demand while a background thread parses the rest; {@link #getBooks()}
+   * waits for that thread to finish.
+   * In tiered mode the books are streamed from the file into a {@link TieredBookStore}, which
+   * keeps a bounded set of them resident and the rest on disk; lazy hydration does not apply.
+   * The {@code disk} repository is a tiered store over a file that is kept across restarts:
+   * books are only loaded from the resource if the file is empty, and every mutation is
+   * written to it as it is applied.
+   *
+   * @param lazy Whether to hydrate the catalog lazily.
+   * @param listMode {@code wait} for list endpoints to wait for full hydration, or
+   *                 {@code partial} for them to use the books parsed so far.
+   * @param tiered Whether to keep books in a {@link TieredBookStore}.
+   * @param maxResidentBytes The tiered store's budget for resident books, in estimated bytes.
+   * @param directory The directory for the tiered store's file, or empty for the system's
+   *                  temporary directory.
+   * @param repositoryType {@code memory} to keep the catalog on the heap, or {@code disk} for
+   *                       a persistent tiered store, which takes precedence over
+   *                       {@code tiered}.
+   * @param repositoryPath The {@code disk} repository's file.
+   * @param sync Whether the {@code disk} repository forces each write to the storage device.
+   * @throws IllegalArgumentException If the repository type is unknown.
+   */
+  @Autowired
+  public MockApiService(@Value("${catalog.hydration.lazy:false}") boolean lazy,
+                        @Value("${catalog.hydration.list-mode:wait}") String listMode,
+                        @Value("${catalog.tiered.enabled:false}") boolean tiered,
+                        @Value("${catalog.tiered.max-resident-bytes:67108864}")
+                        long maxResidentBytes,
+                        @Value("${catalog.tiered.directory:}") String directory,
+                        @Value("${catalog.repository.type:memory}") String repositoryType,
+                        @Value("${catalog.repository.path:data/catalog.jsonl}")
+                        String repositoryPath,
+                        @Value("${catalog.repository.sync:false}") boolean sync) {
+    boolean disk = "disk".equalsIgnoreCase(repositoryType);
+    if (!disk && !"memory".equalsIgnoreCase(repositoryType)) {
+      throw new IllegalArgumentException("Unknown catalog.repository.type " + repositoryType);
+    }
+    this.partialLists = lazy && !tiered && !disk && "partial".equalsIgnoreCase(listMode);
+    this.tieredStore = disk ? openDiskStore(maxResidentBytes, repositoryPath, sync)
+        : tiered ? createTieredStore(maxResidentBytes, directory) : null;
+    this.repository = tieredStore != null ? tieredStore : new InMemoryBookRepository();
+    if (disk && tieredStore.size() > 0) {
+      System.out.println("Opened " + tieredStore.size() + " books from " + repositoryPath
+          + ".");
+      hydration.countDown();
+      return;
+    }
     try (InputStream is = Thread.currentThread().getContextClassLoader()
         .getResourceAsStream("mockdata/books.json")) {
       if (is == null) {
         System.err.println("Failed to find mockdata/books.json in resources.");
-        books = new ArrayList<>(0);
+        repository.replaceAll(List.of());
+      } else if (tieredStore != null) {
+        int count = 0;
+        try (MappingIterator<Book> it = new ObjectMapper().readerFor(Book.class).readValues(is)) {
+          while (it.hasNext()) {
+            tieredStore.save(it.next());
+            count++;
+          }
+        }
+        System.out.println("Spilled " + count + " books from mockdata/books.json to disk.");
+      } else if (lazy) {
+        LazyCatalog catalog = LazyCatalog.index(new ObjectMapper(), is.readAllBytes());
+        lazyCatalog = catalog;
+        System.out.println("Indexed " + catalog.size()
+            + " books from mockdata/books.json; hydrating in background.");
+        Thread hydrator = new Thread(() -> hydrate(catalog), "catalog-hydration");
+        hydrator.setDaemon(true);
+        hydrator.start();
+        return;
       } else {
         ObjectMapper mapper = new ObjectMapper();
-        books = mapper.readValue(is, new TypeReference<List<Book>>(){});
+        repository.replaceAll(mapper.readValue(is, new TypeReference<List<Book>>(){}));
         System.out.println("Successfully loaded books from mockdata/books.json.");
       }
     } catch (Exception e) {
       System.err.println("Loading books failed: " + e.getMessage());
     }
+    hydration.countDown();
+  }
+
+  private TieredBookStore createTieredStore(long maxResidentBytes, String directory) {
+    Path path = Path.of(directory.isBlank() ? System.getProperty("java.io.tmpdir") : directory);
+    try {
+      TieredBookStore store = new TieredBookStore(new ObjectMapper(), maxResidentBytes, path);
+      listeners.add(store);
+      return store;
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot create tiered storage in " + path, e);
+    }
+  }
+
+  private TieredBookStore openDiskStore(long maxResidentBytes, String file, boolean sync) {
+    try {
+      TieredBookStore store = new TieredBookStore(new ObjectMapper(), maxResidentBytes,
+          Path.of(file), sync);
+      listeners.add(store);
+      return store;
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot open the book repository " + file, e);
+    }
+  }
+
+  private void hydrate(LazyCatalog catalog) {
+    long start = System.nanoTime();
+    List<Book> all = catalog.hydrateAll();
+    synchronized (this) {
+      // A snapshot installed by replaceCatalog in the meantime wins
+      if (lazyCatalog == catalog) {
+        repository.replaceAll(all);
+        lazyCatalog = null;
+      }
+    }
+    hydration.countDown();
+    System.out.println("Hydrated " + all.size() + " books in "
+        + (System.nanoTime() - start) / 1_000_000 + " ms.");
   }
 
+  /**
+   * Returns every book in the catalog, waiting for background hydration to finish first.
+   *
+   * In tiered mode this is a new list each call, holding copies of the books not resident.
+   *
+   * @return The list of books, or {@code null} if loading failed.
+   */
   public List<Book> getBooks() {
-    return books;
+    if (tieredStore == null) {
+      awaitHydration();
+    }
+    return repository.findAll();
+  }
+
+  /**
+   * Visits every book in the catalog, waiting for background hydration to finish first. In
+   * tiered mode books are read from disk one at a time instead of being copied into a list.
+   *
+   * @param visitor Called with each book.
+   * @return {@code false} if loading the catalog failed.
+   */
+  public boolean forEachBook(Consumer<Book> visitor) {
+    if (tieredStore != null) {
+      tieredStore.stream().forEach(visitor);
+      return true;
+    }
+    List<Book> books = getBooks();
+    if (books == null) {
+      return false;
+    }
+    books.forEach(visitor);
+    return true;
+  }
+
+  /**
+   * Returns a lazy stream of every book in the catalog, waiting for background hydration to
+   * finish first. In tiered mode books are read from disk as the stream reaches them, so a
+   * scan that stops early does not read the rest.
+   *
+   * @return The books, or an empty stream if loading failed.
+   */
+  public Stream<Book> streamBooks() {
+    if (tieredStore != null) {
+      return tieredStore.stream();
+    }
+    List<Book> books = getBooks();
+    return books == null ? Stream.empty() : books.stream();
+  }
+
+  /**
+   * Returns the number of books in the catalog, waiting for hydration like
+   * {@link #getBooks()}.
+   *
+   * @return The number of books, or 0 if loading failed.
+   */
+  public int size() {
+    if (tieredStore != null) {
+      return tieredStore.size();
+    }
+    List<Book> books = getBooks();
+    return books == null ? 0 : books.size();
+  }
+
+  private void awaitHydration() {
+    if (hydration.getCount() > 0) {
+      boolean interrupted = false;
+      while (hydration.getCount() > 0) {
+        try {
+          hydration.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public boolean isTiered() {
+    return tieredStore != null;
+  }
+
+  public BookRepository getRepository() {
+    return repository;
+  }
+
+  /**
+   * Returns the tiered store holding the catalog.
+   *
+   * @return The store, or {@code null} unless tiered mode or the {@code disk} repository is
+   *         enabled.
+   */
+  public TieredBookStore getTieredStore() {
+    return tieredStore;
+  }
+
+  public boolean isHydrated() {
+    return hydration.getCount() == 0;
+  }
+
+  /**
+   * Returns whether list endpoints should serve the books hydrated so far instead of waiting.
+   *
+   * @return {@code true} in lazy {@code partial} mode while hydration is still running.
+   */
+  public boolean isServingPartial() {
+    return partialLists && !isHydrated();
+  }
+
+  /**
+   * Returns the books parsed so far without waiting for hydration.
+   *
+   * @return The hydrated books in file order, or the whole catalog once hydration is done.
+   */
+  public List<Book> getHydratedBooks() {
+    LazyCatalog pending = lazyCatalog;
+    return pending != null ? pending.hydrated() : getBooks();
   }
 
   /**
@@ -55,19 +346,364 @@ public class MockApiService {
    */
 
   public void updateBook(Book newBook) {
-    List<Book> tmpBooks = new ArrayList<>();
-    for (Book book : books) {
-      if (book.equals(newBook)) {
-        tmpBooks.add(newBook);
-      } else {
-        tmpBooks.add(book);
+    if (tieredStore == null) {
+      awaitHydration();
+    }
+    while (true) {
+      Book oldBook = repository.peek(newBook.getId());
+      if (oldBook == null) {
+        return;
+      }
+      // Book locks come before the service lock, as on every other path. Holding the old
+      // book's lock lets a mutation that found it finish before the swap; one that locks it
+      // afterwards sees it is no longer current and looks the book up again.
+      synchronized (oldBook) {
+        synchronized (newBook) {
+          synchronized (this) {
+            if (!stillStored(oldBook, newBook.getId())) {
+              continue;
+            }
+            repository.save(newBook);
+            for (CatalogListener listener : listeners) {
+              listener.onBookUpdated(oldBook, newBook);
+            }
+            return;
+          }
+        }
       }
     }
+  }
+
+  /**
+   * Replaces the whole catalog, e.g. with a snapshot received from another node.
+   * Listeners receive only {@code onCatalogReplaced}.
+   *
+   * @param newBooks The books that make up the new catalog.
+   */
+  public void replaceCatalog(List<Book> newBooks) {
+    synchronized (this) {
+      repository.replaceAll(newBooks);
+      lazyCatalog = null;
+      hydration.countDown();
+    }
+    for (CatalogListener listener : listeners) {
+      listener.onCatalogReplaced();
+    }
+  }
 
-    this.books = tmpBooks;
+  /**
+   * Puts a book received from another node into the catalog, replacing the book with the same
+   * id in place or appending it if there is none. Listeners receive only
+   * {@code onBookReplicated}.
+   *
+   * @param book The {@code Book} to store.
+   */
+  public void upsertBook(Book book) {
+    if (tieredStore == null) {
+      awaitHydration();
+    }
+    while (true) {
+      Book oldBook = repository.peek(book.getId());
+      // As in updateBook, the replaced instance is locked so no mutation lands on it after
+      // the swap
+      synchronized (oldBook != null ? oldBook : book) {
+        synchronized (book) {
+          if (!stillStored(oldBook, book.getId())) {
+            continue;
+          }
+          repository.save(book);
+          for (CatalogListener listener : listeners) {
+            listener.onBookReplicated(book);
+          }
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether no other instance has been stored for an id since {@code oldBook} was
+   * peeked. A tiered store returns a fresh copy of a book that is not resident on every peek,
+   * so two such copies count as the same book.
+   */
+  private boolean stillStored(Book oldBook, int id) {
+    Book stored = repository.peek(id);
+    if (stored == oldBook) {
+      return true;
+    }
+    return oldBook != null && stored != null
+        && !repository.holds(oldBook) && !repository.holds(stored);
+  }
+
+  /**
+   * Inserts or replaces many books at once, publishing the new catalog in a single swap so
+   * readers see either none or all of the changes. Books are matched by id; unmatched books
+   * are appended in the given order. Listeners receive {@code onBookUpdated} for every book
+   * after the swap, with a {@code null} old book for insertions. In tiered mode books are
+   * stored one at a time, so readers may see part of the changes.
+   *
+   * @param incoming The books to store, with distinct ids.
+   * @return The number of existing books that were replaced.
+   */
+  public int upsertAll(Collection<Book> incoming) {
+    if (tieredStore == null) {
+      awaitHydration();
+    }
+    List<Book> replaced = repository.saveAll(incoming);
+
+    int updated = 0;
+    int i = 0;
+    for (Book book : incoming) {
+      Book oldBook = replaced.get(i++);
+      if (oldBook != null) {
+        updated++;
+      }
+      synchronized (book) {
+        for (CatalogListener listener : listeners) {
+          listener.onBookUpdated(oldBook, book);
+        }
+      }
+    }
+    return updated;
+  }
+
+  /**
+   * Registers a listener notified of every mutation applied through this service.
+   *
+   * @param listener The {@code CatalogListener} to notify.
+   */
+  public void addListener(CatalogListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Returns the book with the given id.
+   *
+   * @param id An {@code int} representing the unique identifier of the book.
+   * @return The matching {@code Book}, or {@code null} if no book has that id.
+   */
+  public Book findBook(int id) {
+    LazyCatalog pending = lazyCatalog;
+    if (pending != null) {
+      return pending.get(id);
+    }
+    if (tieredStore == null) {
+      awaitHydration();
+    }
+    return repository.findById(id);
+  }
+
+  /**
+   * Checks out a copy of the book with the given id.
+   *
+   * @param bookId An {@code int} representing the id of the book to check out.
+   * @return A {@code MutationResult} holding the updated book and its due date, or a
+   *         {@code NOT_FOUND} or {@code UNAVAILABLE} status.
+   */
+  public MutationResult checkoutBook(int bookId) {
+    return checkoutBook(bookId, ANONYMOUS_PATRON);
+  }
+
+  /**
+   * Checks out a copy of the book with the given id on behalf of a patron.
+   *
+   * @param bookId An {@code int} representing the id of the book to check out.
+   * @param patronId An {@code int} representing the borrowing patron, or
+   *                 {@link #ANONYMOUS_PATRON}.
+   * @return A {@code MutationResult} holding the updated book and its due date, or a
+   *         {@code NOT_FOUND} or {@code UNAVAILABLE} status.
+   */
+  public MutationResult checkoutBook(int bookId, int patronId) {
+    return checkoutBook(bookId, patronId, null);
+  }
+
+  /**
+   * Checks out a copy of the book with the given id from a branch on behalf of a patron.
+   *
+   * @param bookId An {@code int} representing the id of the book to check out.
+   * @param patronId An {@code int} representing the borrowing patron, or
+   *                 {@link #ANONYMOUS_PATRON}.
+   * @param branch The branch's code, or {@code null} for any branch.
+   * @return A {@code MutationResult} holding the updated book and its due date, or a
+   *         {@code NOT_FOUND} status, or an {@code UNAVAILABLE} status if the branch has no
+   *         copy available.
+   */
+  public MutationResult checkoutBook(int bookId, int patronId, String branch) {
+    while (true) {
+      long t = StageTimings.start();
+      Book book = findBook(bookId);
+      StageTimings.stop(Stage.LOOKUP, t);
+      if (book == null) {
+        return MutationResult.notFound();
+      }
+      t = StageTimings.start();
+      try {
+        synchronized (book) {
+          if (isCurrent(book)) {
+            return checkoutLocked(book, patronId, branch);
+          }
+        }
+      } finally {
+        StageTimings.stop(Stage.MUTATE, t);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a book found earlier is still the stored instance. Edits, bulk and
+   * replicated upserts and catalog replacement store new instances, and a tiered store also
+   * evicts them, between a lookup and the mutation that locks the book; the mutation then
+   * looks the book up again.
+   */
+  boolean isCurrent(Book book) {
+    return repository.holds(book);
+  }
+
+  /**
+   * Checks out a copy of a book whose lock the caller already holds.
+   */
+  MutationResult checkoutLocked(Book book, int patronId) {
+    return checkoutLocked(book, patronId, null);
+  }
+
+  private MutationResult checkoutLocked(Book book, int patronId, String branch) {
+    String dueDate = book.checkoutCopy(branch);
+    if (dueDate == null) {
+      return MutationResult.unavailable(book);
+    }
+    for (CatalogListener listener : listeners) {
+      listener.onCheckout(book, patronId, dueDate);
+    }
+    return MutationResult.ok(book, dueDate);
+  }
+
+  private MutationResult addCopyLocked(Book book, String branch) {
+    book.addCopy(branch);
+    for (CatalogListener listener : listeners) {
+      listener.onCopyAdded(book);
+    }
+    return MutationResult.ok(book, null);
+  }
+
+  /**
+   * Adds a copy to the book with the given id.
+   *
+   * @param bookId An {@code int} representing the id of the book.
+   * @return A {@code MutationResult} holding the updated book, or a {@code NOT_FOUND} status.
+   */
+  public MutationResult addCopy(int bookId) {
+    return addCopy(bookId, null);
+  }
+
+  /**
+   * Adds a copy to the book with the given id at a branch.
+   *
+   * @param bookId An {@code int} representing the id of the book.
+   * @param branch The branch's code, or {@code null} for the first branch already holding
+   *               the book.
+   * @return A {@code MutationResult} holding the updated book, or a {@code NOT_FOUND} status.
+   */
+  public MutationResult addCopy(int bookId, String branch) {
+    while (true) {
+      long t = StageTimings.start();
+      Book book = findBook(bookId);
+      StageTimings.stop(Stage.LOOKUP, t);
+      if (book == null) {
+        return MutationResult.notFound();
+      }
+      t = StageTimings.start();
+      try {
+        synchronized (book) {
+          if (isCurrent(book)) {
+            return addCopyLocked(book, branch);
+          }
+        }
+      } finally {
+        StageTimings.stop(Stage.MUTATE, t);
+      }
+    }
+  }
+
+  /**
+   * Returns a checked-out copy of the book with the given id.
+   *
+   * @param bookId An {@code int} representing the id of the book to return.
+   * @param patronId An {@code int} representing the patron returning the copy, or
+   *                 {@link #ANONYMOUS_PATRON}.
+   * @param dueDate A {@code String} representing the due date of the copy being returned.
+   * @return A {@code MutationResult} holding the updated book, a {@code NOT_FOUND} status, or
+   *         an {@code UNAVAILABLE} status if no copy with that due date is checked out or a
+   *         listener rejects the return.
+   */
+  public MutationResult returnBook(int bookId, int patronId, String dueDate) {
+    while (true) {
+      long t = StageTimings.start();
+      Book book = findBook(bookId);
+      StageTimings.stop(Stage.LOOKUP, t);
+      if (book == null) {
+        return MutationResult.notFound();
+      }
+      t = StageTimings.start();
+      try {
+        synchronized (book) {
+          if (!isCurrent(book)) {
+            continue;
+          }
+          for (CatalogListener listener : listeners) {
+            if (!listener.allowsReturn(book, patronId, dueDate)) {
+              return MutationResult.unavailable(book);
+            }
+          }
+          if (!book.returnCopy(dueDate)) {
+            return MutationResult.unavailable(book);
+          }
+          for (CatalogListener listener : listeners) {
+            listener.onCopyReturned(book, patronId, dueDate);
+          }
+          return MutationResult.ok(book, dueDate);
+        }
+      } finally {
+        StageTimings.stop(Stage.MUTATE, t);
+      }
+    }
+  }
+
+  /**
+   * Applies a mutation of the given type to the book with the given id.
+   *
+   * @param type The kind of mutation to apply.
+   * @param bookId An {@code int} representing the id of the book.
+   * @param patronId An {@code int} representing the patron the mutation is made for, or
+   *                 {@link #ANONYMOUS_PATRON}.
+   * @return The {@code MutationResult} of the mutation.
+   */
+  public MutationResult apply(MutationType type, int bookId, int patronId) {
+    switch (type) {
+      case CHECKOUT:
+        return checkoutBook(bookId, patronId);
+      case ADD_COPY:
+        return addCopy(bookId);
+      default:
+        throw new IllegalArgumentException("Unknown mutation type " + type);
+    }
+  }
+
+  /**
+   * Applies a mutation to a book whose lock the caller already holds and which
+   * {@link #isCurrent(Book)} has confirmed is the stored instance.
+   */
+  MutationResult applyLocked(MutationType type, Book book, int patronId) {
+    switch (type) {
+      case CHECKOUT:
+        return checkoutLocked(book, patronId, null);
+      case ADD_COPY:
+        return addCopyLocked(book, null);
+      default:
+        throw new IllegalArgumentException("Unknown mutation type " + type);
+    }
   }
 
   public void printBooks() {
-    books.forEach(System.out::println);
+    getBooks().forEach(System.out::println);
   }
 }
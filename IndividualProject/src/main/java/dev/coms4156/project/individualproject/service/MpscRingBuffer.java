@@ -0,0 +1,97 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring buffer.
+ * Producers claim a slot by CAS on the tail sequence and publish it through a per-slot
+ * sequence number, so the single consumer never takes a lock and never sees a half-written
+ * slot. The capacity is rounded up to a power of two.
+ *
+ * @param <E> The type of element held in the buffer.
+ */
+class MpscRingBuffer<E> {
+
+  private final Object[] buffer;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  MpscRingBuffer(int requestedCapacity) {
+    int capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+    this.buffer = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  int capacity() {
+    return buffer.length;
+  }
+
+  /**
+   * Publishes an element. Safe to call from any number of threads.
+   *
+   * @param element The element to publish.
+   * @return {@code true} if the element was published, {@code false} if the buffer is full.
+   */
+  boolean offer(E element) {
+    while (true) {
+      long claim = tail.get();
+      int index = (int) claim & mask;
+      long sequence = sequences.get(index);
+      if (sequence == claim) {
+        if (tail.compareAndSet(claim, claim + 1)) {
+          buffer[index] = element;
+          sequences.lazySet(index, claim + 1);
+          return true;
+        }
+      } else if (sequence < claim) {
+        return false;
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  /**
+   * Returns whether an element has been claimed but not yet drained. Any thread may call it;
+   * from a thread other than the consumer the answer may be {@code true} when it is not.
+   *
+   * @return {@code true} if the consumer may have elements to drain.
+   */
+  boolean hasPending() {
+    return tail.get() != head;
+  }
+
+  /**
+   * Hands up to {@code limit} published elements to {@code consumer} in publication order.
+   * Must only be called from the single consumer thread.
+   *
+   * @param consumer Receives each drained element.
+   * @param limit The maximum number of elements to drain.
+   * @return The number of elements drained.
+   */
+  @SuppressWarnings("unchecked")
+  int drain(Consumer<E> consumer, int limit) {
+    int drained = 0;
+    while (drained < limit) {
+      int index = (int) head & mask;
+      if (sequences.get(index) != head + 1) {
+        break;
+      }
+      E element = (E) buffer[index];
+      buffer[index] = null;
+      sequences.lazySet(index, head + buffer.length);
+      head++;
+      drained++;
+      consumer.accept(element);
+    }
+    return drained;
+  }
+}
@@ -0,0 +1,255 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional single-writer apply loop for catalog mutations.
+ * When enabled, request threads enqueue commands into a lock-free ring buffer and a single
+ * apply thread drains them in batches, mutates the catalog through {@link MockApiService} and
+ * then completes each caller's future. Request threads never contend on a hot {@code Book}.
+ *
+ * <p>Within a batch the commands for one book are applied together, in the order they were
+ * submitted, under a single acquisition of the book's lock. The lock is still taken because
+ * returns, holds, exports and the tiered store's write-back read or change the book outside
+ * the pipeline, but the apply thread takes it once per book and batch rather than once per
+ * command.
+ *
+ * <p>A caller that stops waiting can cancel its future. Cancelling succeeds only while the
+ * apply thread has not yet taken the command, and then the command is never applied, so a
+ * successful cancel means nothing changed.
+ */
+@Component
+public class MutationPipeline {
+
+  private static final int SPINS_BEFORE_PARK = 200;
+  private static final long PARK_NANOS = 50_000L;
+
+  private final MockApiService mockApiService;
+  private final boolean enabled;
+  private final int batchSize;
+  private final MpscRingBuffer<Command> ring;
+  private final Command[] batch;
+  private int batchCount;
+  private final Thread applyThread;
+  private volatile boolean running;
+  private final AtomicInteger submitting = new AtomicInteger();
+
+  /**
+   * Creates the pipeline and, if enabled, starts its apply thread.
+   *
+   * @param mockApiService The service whose catalog is mutated.
+   * @param enabled Whether mutations should be routed through the single writer.
+   * @param ringSize Number of slots in the command ring, rounded up to a power of two.
+   * @param batchSize Maximum number of commands applied per drain of the ring.
+   */
+  public MutationPipeline(MockApiService mockApiService,
+                          @Value("${catalog.mutation.single-writer:false}") boolean enabled,
+                          @Value("${catalog.mutation.ring-size:4096}") int ringSize,
+                          @Value("${catalog.mutation.batch-size:256}") int batchSize) {
+    this.mockApiService = mockApiService;
+    this.enabled = enabled;
+    this.batchSize = Math.max(1, batchSize);
+    this.ring = new MpscRingBuffer<>(ringSize);
+    this.batch = new Command[this.batchSize];
+    this.applyThread = new Thread(this::applyLoop, "catalog-mutation-writer");
+    this.applyThread.setDaemon(true);
+    if (enabled) {
+      running = true;
+      applyThread.start();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enqueues a mutation for the apply thread.
+   *
+   * @param type The kind of mutation to apply.
+   * @param bookId The id of the book to mutate.
+   * @return A {@code CompletableFuture} completed with the {@code MutationResult} once the
+   *         mutation has been applied, or completed exceptionally with a
+   *         {@code RejectedExecutionException} if the pipeline is stopped or the ring is full.
+   *         Its {@code cancel} returns {@code true} only if the mutation will not be applied.
+   */
+  public CompletableFuture<MutationResult> submit(MutationType type, int bookId) {
+    return submit(type, bookId, MockApiService.ANONYMOUS_PATRON);
+  }
+
+  /**
+   * Enqueues a mutation made on behalf of a patron for the apply thread.
+   *
+   * @param type The kind of mutation to apply.
+   * @param bookId The id of the book to mutate.
+   * @param patronId The id of the patron, or {@link MockApiService#ANONYMOUS_PATRON}.
+   * @return A {@code CompletableFuture} completed as for {@link #submit(MutationType, int)}.
+   */
+  public CompletableFuture<MutationResult> submit(MutationType type, int bookId, int patronId) {
+    Command command = new Command(type, bookId, patronId);
+    // The apply thread does not exit while a submitter that saw it running is still offering
+    submitting.incrementAndGet();
+    try {
+      if (!running || !ring.offer(command)) {
+        command.completeExceptionally(
+            new RejectedExecutionException("Mutation pipeline is not accepting commands."));
+      }
+    } finally {
+      submitting.decrementAndGet();
+    }
+    return command;
+  }
+
+  /**
+   * Stops the apply thread after it has drained every command accepted before the stop.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(applyThread);
+    try {
+      applyThread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void applyLoop() {
+    int idleSpins = 0;
+    while (true) {
+      // Once stopped with no submitter in flight, no command can enter the ring after this
+      // drain, so an empty drain means every accepted command has been completed
+      boolean stopping = !running && submitting.get() == 0;
+      if (drainBatch() > 0) {
+        idleSpins = 0;
+      } else if (stopping) {
+        return;
+      } else if (idleSpins++ < SPINS_BEFORE_PARK) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+  }
+
+  private int drainBatch() {
+    batchCount = 0;
+    ring.drain(this::stage, batchSize);
+    if (batchCount == 0) {
+      return 0;
+    }
+
+    for (int i = 0; i < batchCount; i++) {
+      if (!batch[i].applied) {
+        applyForBook(i);
+      }
+    }
+
+    // Complete callers only after the whole batch has been applied
+    for (int i = 0; i < batchCount; i++) {
+      Command command = batch[i];
+      batch[i] = null;
+      // Completing a cancelled command does nothing
+      if (command.failure != null) {
+        command.completeExceptionally(command.failure);
+      } else {
+        command.complete(command.result);
+      }
+    }
+    return batchCount;
+  }
+
+  /**
+   * Applies the command at {@code first} and every later command in the batch for the same
+   * book under one acquisition of the book's lock.
+   */
+  private void applyForBook(int first) {
+    int bookId = batch[first].bookId;
+    Book book = mockApiService.findBook(bookId);
+    if (book != null) {
+      synchronized (book) {
+        if (mockApiService.isCurrent(book)) {
+          for (int i = first; i < batchCount; i++) {
+            Command command = batch[i];
+            if (command.bookId == bookId) {
+              command.applied = true;
+              if (!command.take()) {
+                continue;
+              }
+              try {
+                command.result = mockApiService.applyLocked(command.type, book, command.patronId);
+              } catch (RuntimeException e) {
+                command.failure = e;
+              }
+            }
+          }
+          return;
+        }
+      }
+    }
+    // The book is missing or was replaced since the lookup; apply looks it up again
+    Command command = batch[first];
+    command.applied = true;
+    if (!command.take()) {
+      return;
+    }
+    try {
+      command.result = mockApiService.apply(command.type, bookId, command.patronId);
+    } catch (RuntimeException e) {
+      command.failure = e;
+    }
+  }
+
+  private void stage(Command command) {
+    batch[batchCount++] = command;
+  }
+
+  /**
+   * A queued mutation, which is also the future returned to its caller.
+   */
+  private static final class Command extends CompletableFuture<MutationResult> {
+    private final MutationType type;
+    private final int bookId;
+    private final int patronId;
+    private final AtomicBoolean taken = new AtomicBoolean();
+    private MutationResult result;
+    private RuntimeException failure;
+    private boolean applied;
+
+    private Command(MutationType type, int bookId, int patronId) {
+      this.type = type;
+      this.bookId = bookId;
+      this.patronId = patronId;
+    }
+
+    /**
+     * Claims the command for the apply thread.
+     *
+     * @return {@code false} if the caller cancelled it first.
+     */
+    private boolean take() {
+      return taken.compareAndSet(false, true);
+    }
+
+    /**
+     * Cancels the command if the apply thread has not taken it yet.
+     *
+     * @return {@code true} if the command will never be applied.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return taken.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+
+/**
+ * Outcome of applying a {@link MutationType} to a book in the catalog.
+ */
+public class MutationResult {
+
+  /**
+   * Status of an applied mutation. {@code UNAVAILABLE} means the book exists but the mutation
+   * cannot be applied in its current state.
+   */
+  public enum Status {
+    OK,
+    NOT_FOUND,
+    UNAVAILABLE
+  }
+
+  private final Status status;
+  private final Book book;
+  private final String dueDate;
+
+  private MutationResult(Status status, Book book, String dueDate) {
+    this.status = status;
+    this.book = book;
+    this.dueDate = dueDate;
+  }
+
+  public static MutationResult ok(Book book, String dueDate) {
+    return new MutationResult(Status.OK, book, dueDate);
+  }
+
+  public static MutationResult notFound() {
+    return new MutationResult(Status.NOT_FOUND, null, null);
+  }
+
+  public static MutationResult unavailable(Book book) {
+    return new MutationResult(Status.UNAVAILABLE, book, null);
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Book getBook() {
+    return book;
+  }
+
+  /**
+   * Returns the due date produced by a successful checkout.
+   *
+   * @return A {@code String} due date, or {@code null} for any other mutation or status.
+   */
+  public String getDueDate() {
+    return dueDate;
+  }
+}
@@ -0,0 +1,9 @@
+package dev.coms4156.project.individualproject.service;
+
+/**
+ * The kinds of inventory mutations that can be applied to a {@code Book} in the catalog.
+ */
+public enum MutationType {
+  CHECKOUT,
+  ADD_COPY
+}
@@ -0,0 +1,115 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.Loan;
+import dev.coms4156.project.individualproject.model.Patron;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the registered patrons and the {@link LoanRegistry} stripes of their active loans.
+ * Loans are recorded and cleared from the checkout and return events of
+ * {@link MockApiService}; anonymous checkouts are not tracked. Returns are checked under the
+ * book's lock: a patron can only return a copy they have on loan, and an anonymous return can
+ * only take a copy that no patron's loan accounts for.
+ *
+ * <p>Checkouts and returns reach this service while holding the book's lock, so the loans are
+ * split by book id over {@value #STRIPES} registries, each with its own lock. Mutations of
+ * different books rarely wait for each other, and a book's loans are always in one registry;
+ * a patron's loans are gathered from all of them.
+ */
+@Service
+public class PatronService implements CatalogListener {
+
+  private final ConcurrentHashMap<Integer, Patron> patrons = new ConcurrentHashMap<>();
+  private final AtomicInteger nextPatronId = new AtomicInteger(1);
+  private static final int STRIPES = 16;
+
+  private final LoanRegistry[] loans = new LoanRegistry[STRIPES];
+
+  /**
+   * Creates the patron service and subscribes it to checkouts and returns.
+   *
+   * @param mockApiService The service holding the catalog.
+   */
+  public PatronService(MockApiService mockApiService) {
+    for (int i = 0; i < STRIPES; i++) {
+      loans[i] = new LoanRegistry();
+    }
+    mockApiService.addListener(this);
+  }
+
+  /**
+   * Registers a new patron with the next free id.
+   *
+   * @param name The name of the patron.
+   * @return The registered {@code Patron}.
+   */
+  public Patron registerPatron(String name) {
+    Patron patron = new Patron(nextPatronId.getAndIncrement(), name);
+    patrons.put(patron.getId(), patron);
+    return patron;
+  }
+
+  public Patron getPatron(int patronId) {
+    return patrons.get(patronId);
+  }
+
+  /**
+   * Returns a patron's active loans.
+   *
+   * @param patronId The id of the patron.
+   * @return The loans, grouped by the registry that holds them.
+   */
+  public List<Loan> getLoans(int patronId) {
+    List<Loan> result = new ArrayList<>();
+    for (LoanRegistry stripe : loans) {
+      result.addAll(stripe.loansForPatron(patronId));
+    }
+    return result;
+  }
+
+  public List<Loan> getBookLoans(int bookId) {
+    return loansOf(bookId).loansForBook(bookId);
+  }
+
+  public boolean hasLoan(int bookId, int patronId, String dueDate) {
+    return loansOf(bookId).contains(bookId, patronId, dueDate);
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    if (patronId != MockApiService.ANONYMOUS_PATRON) {
+      loansOf(book.getId()).add(book.getId(), patronId, dueDate);
+    }
+  }
+
+  @Override
+  public boolean allowsReturn(Book book, int patronId, String dueDate) {
+    if (patronId != MockApiService.ANONYMOUS_PATRON) {
+      return loansOf(book.getId()).contains(book.getId(), patronId, dueDate);
+    }
+    int due = 0;
+    for (String date : book.getReturnDates()) {
+      if (date.equals(dueDate)) {
+        due++;
+      }
+    }
+    return due > loansOf(book.getId()).countForBook(book.getId(), dueDate);
+  }
+
+  @Override
+  public void onCopyReturned(Book book, int patronId, String dueDate) {
+    if (patronId != MockApiService.ANONYMOUS_PATRON) {
+      loansOf(book.getId()).remove(book.getId(), patronId, dueDate);
+    }
+  }
+
+  private LoanRegistry loansOf(int bookId) {
+    int h = bookId * 0x9E3779B9;
+    return loans[(h ^ (h >>> 16)) & (STRIPES - 1)];
+  }
+}
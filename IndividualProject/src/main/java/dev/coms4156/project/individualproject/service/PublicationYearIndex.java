@@ -0,0 +1,300 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sorted index of books by {@link Book#getPublicationYear()}.
+ * Each entry packs {@code (year, bookId)} into one {@code long} so a primitive sort orders by
+ * year, then id, and a range of years is found with two binary searches. When a book's year
+ * changes, the new entry goes into a pending buffer and the old one is left in place; the
+ * next query sorts the buffer and merges it in, dropping entries whose year no longer
+ * matches the book. A bulk import of {@code k} books therefore costs
+ * O(n + k log k) once instead of O(n) per book. When the catalog is tiered, the index keeps
+ * no books and pages are looked up by id.
+ */
+@Service
+public class PublicationYearIndex implements CatalogListener {
+
+  /**
+   * One page of a range query.
+   */
+  public static class Page {
+    private final List<Book> books;
+    private final int totalInRange;
+    private final String nextCursor;
+
+    Page(List<Book> books, int totalInRange, String nextCursor) {
+      this.books = books;
+      this.totalInRange = totalInRange;
+      this.nextCursor = nextCursor;
+    }
+
+    public List<Book> getBooks() {
+      return books;
+    }
+
+    /**
+     * Returns the number of books published within the range, before availability filtering.
+     *
+     * @return The size of the range in the index.
+     */
+    public int getTotalInRange() {
+      return totalInRange;
+    }
+
+    /**
+     * Returns the cursor for the next page.
+     *
+     * @return A cursor to pass as {@code after}, or {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+      return nextCursor;
+    }
+  }
+
+  private final MockApiService mockApiService;
+  private final boolean tiered;
+  private long[] sorted = new long[0];
+  private int size;
+  private long[] pending = new long[16];
+  private int pendingSize;
+  private IntIntHashMap yearByBook = new IntIntHashMap();
+  private IntIntHashMap slotByBook = new IntIntHashMap();
+  private Book[] books = new Book[16];
+  private int slots;
+  private volatile boolean built;
+
+  /**
+   * Creates the index and subscribes it to catalog changes.
+   *
+   * @param mockApiService The service holding the catalog.
+   */
+  public PublicationYearIndex(MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+    this.tiered = mockApiService.isTiered();
+    mockApiService.addListener(this);
+    if (mockApiService.isHydrated()) {
+      ensureBuilt();
+    }
+  }
+
+  /**
+   * Returns a page of books published within a range of years, ordered by year, then id.
+   *
+   * @param fromYear The first year of the range, inclusive.
+   * @param toYear The last year of the range, inclusive.
+   * @param availableOnly Whether to skip books with no copy available.
+   * @param pageSize The maximum number of books in the page.
+   * @param after The {@code nextCursor} of the previous page, or {@code null} for the first.
+   * @return The page.
+   * @throws IllegalArgumentException If the cursor is malformed.
+   */
+  public Page query(int fromYear, int toYear, boolean availableOnly, int pageSize,
+                    String after) {
+    long from = pack(fromYear, 0);
+    long position = after == null ? from : Math.max(from, parseCursor(after) + 1);
+    ensureBuilt();
+    List<Book> page = new ArrayList<>(Math.min(pageSize, 1024));
+    int total = -1;
+    boolean more = true;
+    while (more && page.size() < pageSize) {
+      // Collect a batch under the lock; a tiered lookup may evict, so it happens outside
+      long[] keys;
+      Book[] batch;
+      synchronized (this) {
+        mergePending();
+        int lo = lowerBound(from);
+        int hi = toYear == Integer.MAX_VALUE ? size : lowerBound(pack(toYear + 1, 0));
+        if (total < 0) {
+          total = Math.max(0, hi - lo);
+        }
+        int i = Math.max(lo, lowerBound(position));
+        int count = Math.max(0, Math.min(hi - i, pageSize - page.size()));
+        keys = Arrays.copyOfRange(sorted, i, i + count);
+        batch = new Book[count];
+        for (int k = 0; !tiered && k < count; k++) {
+          batch[k] = books[slotByBook.get((int) keys[k], -1)];
+        }
+        more = i + count < hi;
+      }
+      for (int k = 0; k < keys.length; k++) {
+        Book book = tiered ? mockApiService.findBook((int) keys[k]) : batch[k];
+        if (book != null && (!availableOnly || book.hasCopies())) {
+          page.add(book);
+        }
+        position = keys[k] + 1;
+      }
+    }
+    String next = more ? cursor(position - 1) : null;
+    return new Page(page, total, next);
+  }
+
+  /**
+   * Returns the number of indexed books.
+   *
+   * @return The number of books with an entry, including those of unknown year.
+   */
+  public synchronized int size() {
+    mergePending();
+    return size;
+  }
+
+  private void ensureBuilt() {
+    if (built) {
+      return;
+    }
+    int expected = mockApiService.size();
+    synchronized (this) {
+      if (!built) {
+        rebuild(expected);
+      }
+    }
+  }
+
+  /**
+   * Rebuilds from {@link MockApiService#streamBooks()}, so a tiered catalog is read one book at
+   * a time rather than copied into a list.
+   */
+  private void rebuild(int expected) {
+    yearByBook = new IntIntHashMap(expected);
+    slotByBook = new IntIntHashMap(expected);
+    books = new Book[Math.max(16, expected)];
+    slots = 0;
+    sorted = new long[Math.max(16, expected)];
+    size = 0;
+    pendingSize = 0;
+    try (Stream<Book> source = mockApiService.streamBooks()) {
+      source.forEach(book -> {
+        if (!slotByBook.containsKey(book.getId())) {
+          store(book);
+          if (size == sorted.length) {
+            sorted = Arrays.copyOf(sorted, size * 2);
+          }
+          sorted[size++] = pack(book.getPublicationYear(), book.getId());
+        }
+      });
+    }
+    Arrays.sort(sorted, 0, size);
+    built = true;
+  }
+
+  private void store(Book book) {
+    int slot = slotByBook.get(book.getId(), -1);
+    if (slot < 0) {
+      if (slots == books.length) {
+        books = Arrays.copyOf(books, slots * 2);
+      }
+      slot = slots++;
+      slotByBook.put(book.getId(), slot);
+    }
+    books[slot] = tiered ? null : book;
+    yearByBook.put(book.getId(), book.getPublicationYear());
+  }
+
+  private synchronized void reindex(Book book) {
+    if (!built) {
+      return;
+    }
+    boolean known = yearByBook.containsKey(book.getId());
+    int oldYear = yearByBook.get(book.getId(), Book.UNKNOWN_YEAR);
+    store(book);
+    if (!known || oldYear != book.getPublicationYear()) {
+      if (pendingSize == pending.length) {
+        pending = Arrays.copyOf(pending, pendingSize * 2);
+      }
+      pending[pendingSize++] = pack(book.getPublicationYear(), book.getId());
+    }
+  }
+
+  /**
+   * Merges the pending entries into the sorted array, dropping entries whose year is no
+   * longer the book's and duplicates left by a year that changed and changed back.
+   */
+  private void mergePending() {
+    if (pendingSize == 0) {
+      return;
+    }
+    Arrays.sort(pending, 0, pendingSize);
+    long[] merged = new long[size + pendingSize];
+    int count = 0;
+    int a = 0;
+    int b = 0;
+    while (a < size || b < pendingSize) {
+      long entry = b >= pendingSize || (a < size && sorted[a] <= pending[b])
+          ? sorted[a++] : pending[b++];
+      boolean current = yearByBook.get((int) entry, Book.UNKNOWN_YEAR) == (int) (entry >> 32);
+      if (current && (count == 0 || merged[count - 1] != entry)) {
+        merged[count++] = entry;
+      }
+    }
+    sorted = merged;
+    size = count;
+    pendingSize = 0;
+    if (pending.length > 1024) {
+      pending = new long[16];
+    }
+  }
+
+  private int lowerBound(long key) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (sorted[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static long pack(int year, int bookId) {
+    return ((long) year << 32) | (bookId & 0xFFFFFFFFL);
+  }
+
+  private static String cursor(long entry) {
+    return (int) (entry >> 32) + ":" + (int) entry;
+  }
+
+  private static long parseCursor(String cursor) {
+    int colon = cursor.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("Malformed cursor " + cursor);
+    }
+    try {
+      return pack(Integer.parseInt(cursor.substring(0, colon)),
+          Integer.parseInt(cursor.substring(colon + 1)));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed cursor " + cursor, e);
+    }
+  }
+
+  @Override
+  public void onBookUpdated(Book oldBook, Book newBook) {
+    reindex(newBook);
+  }
+
+  @Override
+  public void onBookReplicated(Book book) {
+    reindex(book);
+  }
+
+  /**
+   * Rebuilds from the catalog as it is now, under this lock so racing replacements leave the
+   * index on the later catalog.
+   */
+  @Override
+  public void onCatalogReplaced() {
+    int expected = mockApiService.size();
+    synchronized (this) {
+      rebuild(expected);
+    }
+  }
+}
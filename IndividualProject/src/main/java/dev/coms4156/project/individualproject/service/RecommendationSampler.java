@@ -0,0 +1,138 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Picks recommendation candidates from a stream of books in one pass and constant memory: the
+ * most popular books by number of checkouts (ties by ascending id) in a bounded heap, and a
+ * uniform random sample of every book by reservoir sampling. The sample is as large as the
+ * number of popular and random books wanted together, so it still holds enough random books
+ * once the popular ones are taken out of it.
+ */
+public class RecommendationSampler implements Consumer<Book> {
+
+  /**
+   * A book with the checkout count it was ranked by, which later checkouts do not change.
+   */
+  private static final class Ranked {
+    private final Book book;
+    private final int checkouts;
+
+    private Ranked(Book book) {
+      this.book = book;
+      this.checkouts = book.getAmountOfTimesCheckedOut();
+    }
+
+    /**
+     * Orders more popular books first, then by ascending id.
+     */
+    private int compareTo(Ranked other) {
+      int byCheckouts = Integer.compare(other.checkouts, checkouts);
+      return byCheckouts != 0 ? byCheckouts : Integer.compare(book.getId(), other.book.getId());
+    }
+  }
+
+  private final int popularCount;
+  private final int sampleSize;
+  private final PriorityQueue<Ranked> popular;
+  private final List<Book> sample;
+  private int count;
+
+  /**
+   * Creates an empty sampler.
+   *
+   * @param popularCount The number of most popular books to keep.
+   * @param sampleSize The number of random books to keep.
+   */
+  public RecommendationSampler(int popularCount, int sampleSize) {
+    this.popularCount = popularCount;
+    this.sampleSize = sampleSize;
+    // The least popular kept book is at the head, ready to be replaced
+    this.popular = new PriorityQueue<>(Math.max(1, popularCount) + 1,
+        (a, b) -> b.compareTo(a));
+    this.sample = new ArrayList<>(sampleSize);
+  }
+
+  @Override
+  public void accept(Book book) {
+    count++;
+    if (popularCount > 0) {
+      popular.add(new Ranked(book));
+      if (popular.size() > popularCount) {
+        popular.poll();
+      }
+    }
+    if (sample.size() < sampleSize) {
+      sample.add(book);
+    } else {
+      int slot = ThreadLocalRandom.current().nextInt(count);
+      if (slot < sampleSize) {
+        sample.set(slot, book);
+      }
+    }
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the most popular books seen.
+   *
+   * @return Up to {@code popularCount} books, most popular first.
+   */
+  public List<Book> getPopular() {
+    List<Ranked> ranked = new ArrayList<>(popular);
+    ranked.sort(Ranked::compareTo);
+    List<Book> books = new ArrayList<>(ranked.size());
+    for (Ranked r : ranked) {
+      books.add(r.book);
+    }
+    return books;
+  }
+
+  /**
+   * Returns the random sample of the books seen, in no particular order.
+   *
+   * @return Up to {@code sampleSize} books.
+   */
+  public List<Book> getSample() {
+    return new ArrayList<>(sample);
+  }
+
+  /**
+   * Returns the most popular books followed by random other books.
+   *
+   * @param randomCount The number of random books wanted.
+   * @return The popular books, most popular first, then up to {@code randomCount} distinct
+   *         books from the sample that are not among them.
+   */
+  public List<Book> candidates(int randomCount) {
+    List<Book> candidates = getPopular();
+    Set<Integer> taken = new HashSet<>();
+    for (Book book : candidates) {
+      taken.add(book.getId());
+    }
+    List<Book> rest = getSample();
+    Collections.shuffle(rest);
+    int added = 0;
+    for (Book book : rest) {
+      if (added == randomCount) {
+        break;
+      }
+      if (taken.add(book.getId())) {
+        candidates.add(book);
+        added++;
+      }
+    }
+    return candidates;
+  }
+}
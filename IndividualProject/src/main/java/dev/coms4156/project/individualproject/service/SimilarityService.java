@@ -0,0 +1,125 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains "patrons also borrowed" neighbors from checkout events.
+ * Each patron keeps a ring of the last {@code history} distinct books they checked out. A new
+ * checkout adds one co-checkout between the book and every book in that ring, so the cost per
+ * checkout is O(history). Anonymous checkouts carry no patron and are not counted.
+ *
+ * <p>Checkouts call this service while holding the book's lock, so they only publish the
+ * event to an {@link EventBuffer}; histories and the matrix are updated by one thread at a
+ * time as the buffer is drained, and never make a checkout of another book wait.
+ */
+@Service
+public class SimilarityService implements CatalogListener {
+
+  private final MockApiService mockApiService;
+  private final CoCheckoutMatrix matrix;
+  private final int history;
+  private final EventBuffer<long[]> events = new EventBuffer<>(1024,
+      event -> apply((int) event[0], (int) event[1]));
+  private final IntIntHashMap historyRowByPatron = new IntIntHashMap();
+  private int[] histories;
+  private int[] historyLengths;
+  private int patrons;
+
+  /**
+   * Creates the service and subscribes it to checkouts.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param neighbors The number of neighbors kept per book.
+   * @param history The number of recent books remembered per patron.
+   */
+  public SimilarityService(MockApiService mockApiService,
+                           @Value("${catalog.similar.neighbors:20}") int neighbors,
+                           @Value("${catalog.similar.history:32}") int history) {
+    this.mockApiService = mockApiService;
+    this.matrix = new CoCheckoutMatrix(neighbors);
+    this.history = Math.max(1, history);
+    this.histories = new int[16 * this.history];
+    this.historyLengths = new int[16];
+    mockApiService.addListener(this);
+  }
+
+  /**
+   * Records that a patron checked out a book. Borrowing a book already in the patron's
+   * recent history adds nothing. Queries made after this returns see the checkout.
+   *
+   * @param patronId The id of the patron.
+   * @param bookId The id of the book.
+   */
+  public void recordCheckout(int patronId, int bookId) {
+    events.publish(new long[] {patronId, bookId});
+  }
+
+  /**
+   * Applies one checkout to the patron's history and the matrix. Called only while draining.
+   */
+  private void apply(int patronId, int bookId) {
+    int row = historyRowByPatron.get(patronId, -1);
+    if (row < 0) {
+      if (patrons == historyLengths.length) {
+        historyLengths = Arrays.copyOf(historyLengths, patrons * 2);
+        histories = Arrays.copyOf(histories, patrons * 2 * history);
+      }
+      row = patrons++;
+      historyRowByPatron.put(patronId, row);
+    }
+    int base = row * history;
+    int length = historyLengths[row];
+    int filled = Math.min(length, history);
+    for (int i = 0; i < filled; i++) {
+      if (histories[base + i] == bookId) {
+        return;
+      }
+    }
+    for (int i = 0; i < filled; i++) {
+      matrix.increment(bookId, histories[base + i]);
+    }
+    histories[base + length % history] = bookId;
+    historyLengths[row] = length + 1;
+  }
+
+  /**
+   * Returns the books most often borrowed by patrons who also borrowed a book.
+   *
+   * @param bookId The id of the book.
+   * @param limit The maximum number of books to return.
+   * @return The similar books, most co-borrowed first; books no longer in the catalog are
+   *         skipped.
+   */
+  public List<Book> similarBooks(int bookId, int limit) {
+    List<Book> result = new ArrayList<>();
+    for (int neighborId : events.read(() -> matrix.top(bookId, limit))) {
+      Book book = mockApiService.findBook(neighborId);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the co-checkout matrix after applying every recorded checkout.
+   *
+   * @return The matrix.
+   */
+  public CoCheckoutMatrix getMatrix() {
+    return events.read(() -> matrix);
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    if (patronId != MockApiService.ANONYMOUS_PATRON) {
+      recordCheckout(patronId, book.getId());
+    }
+  }
+}
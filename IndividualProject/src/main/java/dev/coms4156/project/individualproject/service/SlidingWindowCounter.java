@@ -0,0 +1,154 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.util.CountMinSketch;
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.Arrays;
+
+/**
+ * Approximate per-book event counts over a sliding time window, with top-K queries.
+ * The window is split into fixed buckets. Each bucket has its own {@link CountMinSketch} and
+ * a Space-Saving summary of its {@code 2 * topK} heaviest books. A running sketch holds the
+ * sum of the live buckets; when a bucket expires, its sketch is subtracted from the sum and
+ * it is reused. Any book with more than {@code 1 / (2 * topK)} of the window's events is
+ * the heavy hitter of some bucket, so the union of the bucket summaries holds every such book.
+ * Memory depends only on the sketch dimensions, bucket count and {@code topK}, not on the
+ * size of the catalog.
+ */
+public class SlidingWindowCounter {
+
+  private final long bucketMillis;
+  private final int topK;
+  private final int summaryWidth;
+  private final CountMinSketch window;
+  private final CountMinSketch[] buckets;
+  private final int[] summaryIds;
+  private final int[] summaryCounts;
+  private final int[] summarySizes;
+  private long currentEpoch = Long.MIN_VALUE;
+
+  /**
+   * Creates an empty window.
+   *
+   * @param bucketCount The number of buckets the window is split into.
+   * @param bucketMillis The length of one bucket in milliseconds.
+   * @param topK The largest number of books a top query can return.
+   * @param sketchDepth The number of rows in each sketch.
+   * @param sketchWidth The number of counters per sketch row.
+   */
+  public SlidingWindowCounter(int bucketCount, long bucketMillis, int topK, int sketchDepth,
+                              int sketchWidth) {
+    this.bucketMillis = bucketMillis;
+    this.topK = Math.max(1, topK);
+    this.summaryWidth = this.topK * 2;
+    this.window = new CountMinSketch(sketchDepth, sketchWidth);
+    this.buckets = new CountMinSketch[bucketCount];
+    for (int i = 0; i < bucketCount; i++) {
+      buckets[i] = new CountMinSketch(sketchDepth, sketchWidth);
+    }
+    this.summaryIds = new int[bucketCount * summaryWidth];
+    this.summaryCounts = new int[bucketCount * summaryWidth];
+    this.summarySizes = new int[bucketCount];
+  }
+
+  /**
+   * Records one event for a book.
+   *
+   * @param bookId The id of the book.
+   * @param nowMillis The current time in milliseconds.
+   */
+  public synchronized void record(int bookId, long nowMillis) {
+    int bucket = advance(nowMillis);
+    buckets[bucket].add(bookId, 1);
+    window.add(bookId, 1);
+    summarize(bucket, bookId);
+  }
+
+  /**
+   * Returns the estimated number of events for a book within the window.
+   *
+   * @param bookId The id of the book.
+   * @param nowMillis The current time in milliseconds.
+   * @return An upper bound on the book's count.
+   */
+  public synchronized int estimate(int bookId, long nowMillis) {
+    advance(nowMillis);
+    return window.estimate(bookId);
+  }
+
+  /**
+   * Returns the books with the most events within the window.
+   *
+   * @param limit The maximum number of ids to return, capped at {@code topK}.
+   * @param nowMillis The current time in milliseconds.
+   * @return Book ids ordered by descending estimated count, then ascending id.
+   */
+  public synchronized int[] top(int limit, long nowMillis) {
+    advance(nowMillis);
+    IntIntHashMap seen = new IntIntHashMap();
+    long[] packed = new long[buckets.length * summaryWidth];
+    int candidates = 0;
+    for (int b = 0; b < buckets.length; b++) {
+      int base = b * summaryWidth;
+      for (int i = 0; i < summarySizes[b]; i++) {
+        int id = summaryIds[base + i];
+        if (!seen.containsKey(id)) {
+          seen.put(id, 1);
+          // Pack (count, id) into one long so a primitive sort orders by count desc, then id
+          packed[candidates++] = ((long) -window.estimate(id) << 32) | (id & 0xFFFFFFFFL);
+        }
+      }
+    }
+    Arrays.sort(packed, 0, candidates);
+    int[] result = new int[Math.min(candidates, Math.min(limit, topK))];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (int) packed[i];
+    }
+    return result;
+  }
+
+  /**
+   * Rolls the window forward to the bucket containing {@code nowMillis}, expiring buckets that
+   * fell out of it.
+   *
+   * @return The index of the current bucket.
+   */
+  private int advance(long nowMillis) {
+    long epoch = Math.floorDiv(nowMillis, bucketMillis);
+    if (epoch > currentEpoch) {
+      long first = currentEpoch == Long.MIN_VALUE
+          ? epoch : Math.max(currentEpoch + 1, epoch - buckets.length + 1);
+      for (long e = first; e <= epoch; e++) {
+        int bucket = (int) Math.floorMod(e, (long) buckets.length);
+        window.subtract(buckets[bucket]);
+        buckets[bucket].clear();
+        summarySizes[bucket] = 0;
+      }
+      currentEpoch = epoch;
+    }
+    // Events stamped before the current bucket (clock skew between threads) land in it
+    return (int) Math.floorMod(currentEpoch, (long) buckets.length);
+  }
+
+  private void summarize(int bucket, int bookId) {
+    int base = bucket * summaryWidth;
+    int size = summarySizes[bucket];
+    int min = -1;
+    for (int i = 0; i < size; i++) {
+      if (summaryIds[base + i] == bookId) {
+        summaryCounts[base + i]++;
+        return;
+      }
+      if (min < 0 || summaryCounts[base + i] < summaryCounts[base + min]) {
+        min = i;
+      }
+    }
+    if (size < summaryWidth) {
+      summaryIds[base + size] = bookId;
+      summaryCounts[base + size] = 1;
+      summarySizes[bucket] = size + 1;
+    } else {
+      summaryIds[base + min] = bookId;
+      summaryCounts[base + min]++;
+    }
+  }
+}
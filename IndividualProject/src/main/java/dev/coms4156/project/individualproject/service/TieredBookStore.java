@@ -0,0 +1,390 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.util.WTinyLfuPolicy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier book storage for catalogs larger than the heap should hold.
+ * Every book has a record in a {@link BookSpillFile}; only the books admitted by a
+ * {@link WTinyLfuPolicy} stay resident, up to a budget of estimated heap bytes. A lookup that
+ * misses parses the book from disk and offers it to the policy, which may evict colder books;
+ * an evicted book is written back first if it was mutated while resident.
+ *
+ * <p>A resident book is the one instance that mutations lock and change. Eviction takes the
+ * book's lock, so after it the instance is stale: mutators check {@link #holds(Book)} once
+ * they hold the lock and look the book up again if it fails. Loads, puts and evictions of the
+ * same id are serialized by a striped lock, so a book is never parsed from a record older than
+ * one being written. Hits take no lock other than the policy's.
+ *
+ * <p>Over a durable file the store is a persistent repository: the file is kept across
+ * restarts and every mutation is written through when it is applied, instead of when the book
+ * is evicted.
+ */
+public class TieredBookStore implements BookRepository, CatalogListener {
+
+  private static final int STRIPES = 64;
+
+  private final BookSpillFile spill;
+  private final WTinyLfuPolicy policy;
+  private final boolean writeThrough;
+  private final ConcurrentHashMap<Integer, Book> resident = new ConcurrentHashMap<>();
+  private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+  private final Object[] stripes = new Object[STRIPES];
+  private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder writeBacks = new LongAdder();
+
+  /**
+   * Creates an empty store.
+   *
+   * @param mapper The mapper used for the spill file's records.
+   * @param maxResidentBytes The budget for resident books, in estimated heap bytes.
+   * @param directory The directory to create the spill file in.
+   * @throws IOException If the spill file cannot be created.
+   */
+  public TieredBookStore(ObjectMapper mapper, long maxResidentBytes, Path directory)
+      throws IOException {
+    this(new BookSpillFile(mapper, directory), maxResidentBytes, false);
+  }
+
+  /**
+   * Opens a persistent store over a durable file, keeping the books already in it.
+   *
+   * @param mapper The mapper used for the file's records.
+   * @param maxResidentBytes The budget for resident books, in estimated heap bytes.
+   * @param file The file, created if it does not exist.
+   * @param sync Whether each write is forced to the storage device before it returns.
+   * @throws IOException If the file cannot be created or read.
+   */
+  public TieredBookStore(ObjectMapper mapper, long maxResidentBytes, Path file, boolean sync)
+      throws IOException {
+    this(new BookSpillFile(mapper, file, sync), maxResidentBytes, true);
+  }
+
+  private TieredBookStore(BookSpillFile spill, long maxResidentBytes, boolean writeThrough) {
+    this.spill = spill;
+    this.writeThrough = writeThrough;
+    this.policy = new WTinyLfuPolicy(maxResidentBytes,
+        (int) Math.max(1024, Math.min(1 << 22, maxResidentBytes / 1024)));
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Returns a book, loading it from disk and offering it to the resident set on a miss.
+   *
+   * @param id The book's id.
+   * @return The book, or {@code null} if the store has no book with this id.
+   */
+  @Override
+  public Book findById(int id) {
+    Book book = resident.get(id);
+    if (book != null) {
+      hits.increment();
+      synchronized (policy) {
+        policy.recordAccess(id);
+      }
+      return book;
+    }
+    misses.increment();
+    int[] victims;
+    catalogLock.readLock().lock();
+    try {
+      synchronized (stripe(id)) {
+        book = resident.get(id);
+        if (book == null) {
+          book = spill.read(id);
+          if (book == null) {
+            return null;
+          }
+          resident.put(id, book);
+        }
+        int weight = weigh(spill.length(id));
+        synchronized (policy) {
+          victims = policy.admit(id, weight);
+        }
+      }
+      for (int victim : victims) {
+        evict(victim);
+      }
+    } finally {
+      catalogLock.readLock().unlock();
+    }
+    return book;
+  }
+
+  /**
+   * Returns a book without counting an access or making it resident.
+   *
+   * @param id The book's id.
+   * @return The resident instance, a copy parsed from disk, or {@code null} if the store has
+   *         no book with this id.
+   */
+  @Override
+  public Book peek(int id) {
+    Book book = resident.get(id);
+    return book != null ? book : spill.read(id);
+  }
+
+  /**
+   * Returns whether a book instance is the resident one for its id, i.e. whether mutating it
+   * under its lock changes the stored book.
+   *
+   * @param book A book previously returned by {@link #findById(int)}.
+   * @return {@code true} if the instance has not been evicted or replaced.
+   */
+  @Override
+  public boolean holds(Book book) {
+    return resident.get(book.getId()) == book;
+  }
+
+  public boolean contains(int id) {
+    return spill.length(id) >= 0;
+  }
+
+  /**
+   * Stores a book, adding it or replacing the stored book with the same id. A resident book is
+   * replaced in place, keeping the weight it was admitted with; otherwise the book is only
+   * written to disk.
+   *
+   * @param book The book to store.
+   * @throws UncheckedIOException If the book cannot be written to disk.
+   */
+  @Override
+  public void save(Book book) {
+    int id = book.getId();
+    catalogLock.readLock().lock();
+    try {
+      synchronized (stripe(id)) {
+        Book current = resident.get(id);
+        if (current == null) {
+          write(book);
+          return;
+        }
+        synchronized (current) {
+          write(book);
+          resident.put(id, book);
+          dirty.remove(id);
+        }
+      }
+    } finally {
+      catalogLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces every stored book, leaving nothing resident.
+   *
+   * @param books The books that make up the new catalog.
+   * @throws UncheckedIOException If the books cannot be written to disk.
+   */
+  @Override
+  public void replaceAll(Collection<Book> books) {
+    catalogLock.writeLock().lock();
+    try {
+      spill.clear();
+      resident.clear();
+      dirty.clear();
+      synchronized (policy) {
+        policy.clear();
+      }
+      spill.writeAll(books);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      catalogLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns every book in the order it was first stored. Cold books are parsed from disk for
+   * the snapshot only and are not made resident, so a full scan does not displace hot books;
+   * mutating a cold copy does not change the store. This holds the whole catalog on the
+   * heap; scans should use {@link #stream()}.
+   *
+   * @return A new list of books.
+   */
+  @Override
+  public List<Book> findAll() {
+    catalogLock.readLock().lock();
+    try {
+      int[] ids = spill.ids();
+      List<Book> books = new ArrayList<>(ids.length);
+      for (int id : ids) {
+        Book book = peek(id);
+        if (book != null) {
+          books.add(book);
+        }
+      }
+      return books;
+    } finally {
+      catalogLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a lazy stream of every book in the order it was first stored. Only the ids are
+   * copied up front; cold books are parsed from disk as the stream reaches them and are not
+   * made resident, so a scan holds one cold book at a time. Books removed by a concurrent
+   * {@link #replaceAll} are skipped.
+   *
+   * @return The books.
+   */
+  @Override
+  public Stream<Book> stream() {
+    int[] ids;
+    catalogLock.readLock().lock();
+    try {
+      ids = spill.ids();
+    } finally {
+      catalogLock.readLock().unlock();
+    }
+    return Arrays.stream(ids).mapToObj(id -> {
+      catalogLock.readLock().lock();
+      try {
+        return peek(id);
+      } finally {
+        catalogLock.readLock().unlock();
+      }
+    }).filter(Objects::nonNull);
+  }
+
+  @Override
+  public int size() {
+    return spill.size();
+  }
+
+  /**
+   * Returns the store's counters.
+   *
+   * @return Whether the store is persistent, the number of stored and resident books, the
+   *         resident set's estimated and maximum bytes, the file's size, and hit, miss,
+   *         eviction and write-back counts.
+   */
+  public Map<String, Object> stats() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("durable", writeThrough);
+    stats.put("books", spill.size());
+    synchronized (policy) {
+      stats.put("residentBooks", policy.size());
+      stats.put("residentBytes", policy.getWeightedSize());
+      stats.put("maxResidentBytes", policy.getMaximumWeight());
+    }
+    stats.put("fileBytes", spill.getFileBytes());
+    stats.put("liveFileBytes", spill.getLiveBytes());
+    stats.put("hits", hitCount);
+    stats.put("misses", missCount);
+    stats.put("hitRatio", hitCount + missCount == 0 ? 0.0
+        : (double) hitCount / (hitCount + missCount));
+    stats.put("evictions", evictions.sum());
+    stats.put("writeBacks", writeBacks.sum());
+    return stats;
+  }
+
+  /**
+   * Removes an evicted book from the resident set, writing it back first if it is dirty. If
+   * the write fails the book stays resident, so no mutation is lost.
+   */
+  private void evict(int id) {
+    synchronized (stripe(id)) {
+      Book book = resident.get(id);
+      if (book == null) {
+        return;
+      }
+      synchronized (book) {
+        synchronized (policy) {
+          if (policy.contains(id)) {
+            return;
+          }
+        }
+        if (dirty.remove(id)) {
+          try {
+            spill.write(book);
+            writeBacks.increment();
+          } catch (IOException e) {
+            dirty.add(id);
+            System.err.println("Failed to write back book " + id + ", keeping it resident: "
+                + e);
+            return;
+          }
+        }
+        resident.remove(id, book);
+        evictions.increment();
+      }
+    }
+  }
+
+  private void write(Book book) {
+    try {
+      spill.write(book);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Object stripe(int id) {
+    return stripes[(id ^ (id >>> 16)) & (STRIPES - 1)];
+  }
+
+  /**
+   * Estimates the heap taken by a parsed book from the length of its JSON record: strings and
+   * lists take about twice their encoded size, plus the book's own object.
+   */
+  static int weigh(int recordBytes) {
+    return 2 * Math.max(0, recordBytes) + 64;
+  }
+
+  /**
+   * Records a mutation applied to a resident book under its lock: writes the book through in
+   * a persistent store, and otherwise marks it for write-back on eviction. A failed write
+   * through also falls back to write-back.
+   */
+  private void mutated(Book book) {
+    if (writeThrough) {
+      try {
+        spill.write(book);
+        return;
+      } catch (IOException e) {
+        System.err.println("Failed to write through book " + book.getId()
+            + ", keeping it for write-back: " + e);
+      }
+    }
+    dirty.add(book.getId());
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    mutated(book);
+  }
+
+  @Override
+  public void onCopyReturned(Book book, int patronId, String dueDate) {
+    mutated(book);
+  }
+
+  @Override
+  public void onCopyAdded(Book book) {
+    mutated(book);
+  }
+}
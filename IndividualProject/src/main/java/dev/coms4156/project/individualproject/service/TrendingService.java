@@ -0,0 +1,131 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tracks recent checkouts over sliding hour, day and week windows.
+ * Unlike {@link Book#getAmountOfTimesCheckedOut()}, these counts forget old checkouts, so
+ * a title that was popular years ago stops trending. Each window is a
+ * {@link SlidingWindowCounter}, so memory is fixed regardless of catalog size. Checkouts
+ * only publish to an {@link EventBuffer}, so they never wait on the counters' locks; the
+ * windows are updated as the buffer is drained.
+ */
+@Service
+public class TrendingService implements CatalogListener {
+
+  /**
+   * A sliding window and its bucket layout.
+   */
+  public enum Window {
+    HOUR(12, 5 * 60_000L),
+    DAY(24, 60 * 60_000L),
+    WEEK(14, 12 * 60 * 60_000L);
+
+    private final int buckets;
+    private final long bucketMillis;
+
+    Window(int buckets, long bucketMillis) {
+      this.buckets = buckets;
+      this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Parses a window name such as {@code hour}, ignoring case.
+     *
+     * @param name The name of the window.
+     * @return The window, or {@code null} if the name is unknown.
+     */
+    public static Window parse(String name) {
+      try {
+        return Window.valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException | NullPointerException e) {
+        return null;
+      }
+    }
+  }
+
+  private final MockApiService mockApiService;
+  private final Map<Window, SlidingWindowCounter> counters = new EnumMap<>(Window.class);
+  private final EventBuffer<long[]> events = new EventBuffer<>(1024,
+      event -> apply((int) event[0], event[1]));
+
+  /**
+   * Creates the service and subscribes it to checkouts.
+   *
+   * @param mockApiService The service holding the catalog.
+   * @param topK The largest number of trending books a query can return.
+   * @param sketchDepth The number of rows in each Count-Min sketch.
+   * @param sketchWidth The number of counters per sketch row.
+   */
+  public TrendingService(MockApiService mockApiService,
+                         @Value("${catalog.trending.top-k:20}") int topK,
+                         @Value("${catalog.trending.sketch-depth:4}") int sketchDepth,
+                         @Value("${catalog.trending.sketch-width:1024}") int sketchWidth) {
+    this.mockApiService = mockApiService;
+    for (Window window : Window.values()) {
+      counters.put(window, new SlidingWindowCounter(window.buckets, window.bucketMillis, topK,
+          sketchDepth, sketchWidth));
+    }
+    mockApiService.addListener(this);
+  }
+
+  /**
+   * Records a checkout of a book in every window.
+   *
+   * @param bookId The id of the book.
+   * @param nowMillis The time of the checkout in milliseconds.
+   */
+  public void recordCheckout(int bookId, long nowMillis) {
+    events.publish(new long[] {bookId, nowMillis});
+  }
+
+  /**
+   * Applies one checkout to every window. Called only while draining.
+   */
+  private void apply(int bookId, long nowMillis) {
+    for (SlidingWindowCounter counter : counters.values()) {
+      counter.record(bookId, nowMillis);
+    }
+  }
+
+  /**
+   * Returns the books checked out most within a window.
+   *
+   * @param window The window to rank by.
+   * @param limit The maximum number of books to return.
+   * @param nowMillis The current time in milliseconds.
+   * @return The trending books, most checked out first; books no longer in the catalog are
+   *         skipped.
+   */
+  public List<Book> trending(Window window, int limit, long nowMillis) {
+    List<Book> result = new ArrayList<>();
+    int[] top = events.read(() -> counters.get(window).top(limit, nowMillis));
+    for (int bookId : top) {
+      Book book = mockApiService.findBook(bookId);
+      if (book != null) {
+        result.add(book);
+      }
+    }
+    return result;
+  }
+
+  public List<Book> trending(Window window, int limit) {
+    return trending(window, limit, System.currentTimeMillis());
+  }
+
+  public int estimate(Window window, int bookId, long nowMillis) {
+    return events.read(() -> counters.get(window).estimate(bookId, nowMillis));
+  }
+
+  @Override
+  public void onCheckout(Book book, int patronId, String dueDate) {
+    recordCheckout(book.getId(), System.currentTimeMillis());
+  }
+}
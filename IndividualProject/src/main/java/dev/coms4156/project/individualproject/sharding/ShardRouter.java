@@ -0,0 +1,262 @@
+package dev.coms4156.project.individualproject.sharding;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.admission.IdempotencyCache;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.RecommendationSampler;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Hash partitioning of the catalog by book id across a fixed list of nodes.
+ * Each node keeps only the books it owns. Requests for a single book are forwarded to the
+ * owning node, and catalog-wide reads are gathered from every node. Requests that were already
+ * forwarded carry {@link #FORWARDED_HEADER} and are always served from local data. The header
+ * is only honored from the addresses of the configured nodes, so a client cannot send it to
+ * skip routing.
+ */
+@Component
+public class ShardRouter {
+
+  public static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+  private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() {};
+
+  private final List<String> nodes;
+  private final int selfIndex;
+  private final boolean enabled;
+  private final Set<InetAddress> peerAddresses = new HashSet<>();
+  private final ObjectMapper mapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(2))
+      .build();
+
+  /**
+   * Creates the router and, when sharding is configured, drops every book this node does not
+   * own from the local catalog.
+   *
+   * @param mockApiService The service holding this node's catalog.
+   * @param nodes Comma-separated base URLs of all shards in shard order; empty disables
+   *              sharding.
+   * @param selfIndex The position of this node in {@code nodes}.
+   */
+  public ShardRouter(MockApiService mockApiService,
+                     @Value("${catalog.sharding.nodes:}") String nodes,
+                     @Value("${catalog.sharding.self-index:0}") int selfIndex) {
+    this.nodes = Arrays.stream(nodes.split(","))
+        .map(String::trim)
+        .filter(url -> !url.isEmpty())
+        .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+        .collect(Collectors.toUnmodifiableList());
+    this.enabled = this.nodes.size() > 1;
+    this.selfIndex = selfIndex;
+    if (enabled) {
+      if (selfIndex < 0 || selfIndex >= this.nodes.size()) {
+        throw new IllegalArgumentException("catalog.sharding.self-index " + selfIndex
+            + " is outside the " + this.nodes.size() + " configured nodes.");
+      }
+      for (String url : this.nodes) {
+        String host = URI.create(url).getHost();
+        try {
+          peerAddresses.addAll(Arrays.asList(InetAddress.getAllByName(host)));
+        } catch (UnknownHostException e) {
+          System.err.println("Shard node " + url + " does not resolve; requests from it "
+              + "will not count as forwarded: " + e);
+        }
+      }
+      List<Book> owned = mockApiService.streamBooks()
+          .filter(book -> isLocal(book.getId()))
+          .collect(Collectors.toList());
+      mockApiService.replaceCatalog(owned);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public List<String> getNodes() {
+    return nodes;
+  }
+
+  public int getSelfIndex() {
+    return selfIndex;
+  }
+
+  /**
+   * Returns the index of the shard that owns a book.
+   *
+   * @param bookId The id of the book.
+   * @return The owning shard's position in the node list.
+   */
+  public int ownerOf(int bookId) {
+    if (!enabled) {
+      return selfIndex;
+    }
+    int h = bookId * 0x9E3779B9;
+    return Math.floorMod(h ^ (h >>> 16), nodes.size());
+  }
+
+  public boolean isLocal(int bookId) {
+    return ownerOf(bookId) == selfIndex;
+  }
+
+  /**
+   * Returns whether a request was forwarded by another shard: it carries
+   * {@link #FORWARDED_HEADER} and comes from the address of a configured node.
+   *
+   * @param request The request.
+   * @return {@code true} if the request should be served from local data.
+   */
+  public boolean isForwarded(HttpServletRequest request) {
+    return request.getHeader(FORWARDED_HEADER) != null && isPeer(request);
+  }
+
+  /**
+   * Returns whether a request comes from the address of a configured node.
+   *
+   * @param request The request.
+   * @return {@code true} if its remote address is one a shard node's host resolved to.
+   */
+  public boolean isPeer(HttpServletRequest request) {
+    String remote = request.getRemoteAddr();
+    if (!enabled || remote == null) {
+      return false;
+    }
+    try {
+      // A literal address is parsed without a lookup
+      return peerAddresses.contains(InetAddress.getByName(remote));
+    } catch (UnknownHostException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether the request being handled on this thread should gather results from
+   * every shard, i.e. sharding is enabled and the request did not come from another shard.
+   *
+   * @return {@code true} if the caller should scatter-gather.
+   */
+  public boolean shouldGather() {
+    if (!enabled) {
+      return false;
+    }
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return true;
+    }
+    return !isForwarded(((ServletRequestAttributes) attributes).getRequest());
+  }
+
+  /**
+   * Sends a request to another shard and returns its raw response.
+   *
+   * @param shard The index of the target shard.
+   * @param method The HTTP method.
+   * @param pathAndQuery The request path including any query string.
+   * @param clientKey The original client key, passed on for admission control.
+   * @param idempotencyKey The original {@value IdempotencyCache#HEADER}, passed on so the
+   *                       owning shard deduplicates retries, or {@code null}.
+   * @return The shard's response.
+   * @throws IOException If the shard cannot be reached.
+   * @throws InterruptedException If interrupted while waiting for the shard.
+   */
+  public HttpResponse<byte[]> forward(int shard, String method, String pathAndQuery,
+                                      String clientKey, String idempotencyKey)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder builder = request(shard, method, pathAndQuery);
+    if (clientKey != null) {
+      builder.header("X-Client-Id", clientKey);
+    }
+    if (idempotencyKey != null) {
+      builder.header(IdempotencyCache.HEADER, idempotencyKey);
+    }
+    return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  /**
+   * Collects the results of a list endpoint from every other shard and appends them to the
+   * local results.
+   *
+   * @param local The books this node contributes.
+   * @param method The HTTP method of the list endpoint.
+   * @param pathAndQuery The path of the list endpoint on the other shards.
+   * @return The local books followed by every other shard's books.
+   * @throws IOException If any shard fails to answer with HTTP 200.
+   */
+  public List<Book> gather(List<Book> local, String method, String pathAndQuery)
+      throws IOException {
+    List<CompletableFuture<HttpResponse<byte[]>>> pending = new ArrayList<>();
+    for (int shard = 0; shard < nodes.size(); shard++) {
+      if (shard != selfIndex) {
+        pending.add(httpClient.sendAsync(request(shard, method, pathAndQuery).build(),
+            HttpResponse.BodyHandlers.ofByteArray()));
+      }
+    }
+
+    List<Book> merged = new ArrayList<>(local);
+    for (CompletableFuture<HttpResponse<byte[]>> future : pending) {
+      HttpResponse<byte[]> response;
+      try {
+        response = future.join();
+      } catch (CompletionException e) {
+        throw new IOException("Shard request failed: " + e.getCause(), e.getCause());
+      }
+      if (response.statusCode() != 200) {
+        throw new IOException("Shard " + response.uri() + " answered " + response.statusCode());
+      }
+      merged.addAll(mapper.readValue(response.body(), BOOK_LIST));
+    }
+    return merged;
+  }
+
+  /**
+   * Picks the books a shard contributes to a global recommendation: its most popular books by
+   * number of checkouts (ties by ascending id) and a random sample of the rest. The union of
+   * every shard's candidates always contains the global most popular books.
+   *
+   * @param books The shard's books.
+   * @param popularCount The number of most popular books to include.
+   * @param randomCount The number of random other books to include.
+   * @return The candidate books.
+   */
+  public static List<Book> recommendationCandidates(List<Book> books, int popularCount,
+                                                    int randomCount) {
+    RecommendationSampler sampler =
+        new RecommendationSampler(popularCount, popularCount + randomCount);
+    books.forEach(sampler);
+    return sampler.candidates(randomCount);
+  }
+
+  private HttpRequest.Builder request(int shard, String method, String pathAndQuery) {
+    return HttpRequest.newBuilder(URI.create(nodes.get(shard) + pathAndQuery))
+        .timeout(TIMEOUT)
+        .header(FORWARDED_HEADER, "1")
+        .method(method, HttpRequest.BodyPublishers.noBody());
+  }
+}
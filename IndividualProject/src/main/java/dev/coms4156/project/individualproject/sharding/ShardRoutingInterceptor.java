@@ -0,0 +1,98 @@
+package dev.coms4156.project.individualproject.sharding;
+
+import dev.coms4156.project.individualproject.admission.AdmissionControlInterceptor;
+import dev.coms4156.project.individualproject.admission.IdempotencyCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Forwards requests that address a single book to the shard that owns the book.
+ * The book id is taken from the {@code id} or {@code bookId} path variable, or from the
+ * {@code id} query parameter of {@code /checkout} and {@code /return}. The owning shard's
+ * response is relayed unchanged. A request carrying {@link ShardRouter#FORWARDED_HEADER}
+ * from an address that is not a configured node is rejected with HTTP 403.
+ */
+@Component
+public class ShardRoutingInterceptor implements HandlerInterceptor {
+
+  private final ShardRouter shardRouter;
+
+  public ShardRoutingInterceptor(ShardRouter shardRouter) {
+    this.shardRouter = shardRouter;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) throws IOException {
+    if (!shardRouter.isEnabled()) {
+      return true;
+    }
+    if (request.getHeader(ShardRouter.FORWARDED_HEADER) != null) {
+      if (shardRouter.isPeer(request)) {
+        return true;
+      }
+      response.setStatus(HttpStatus.FORBIDDEN.value());
+      response.setContentType("text/plain");
+      response.getWriter().write(ShardRouter.FORWARDED_HEADER
+          + " is only accepted from shard nodes.");
+      return false;
+    }
+
+    Integer bookId = bookId(request);
+    if (bookId == null || shardRouter.isLocal(bookId)) {
+      return true;
+    }
+
+    String pathAndQuery = request.getRequestURI()
+        + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+    try {
+      HttpResponse<byte[]> forwarded = shardRouter.forward(shardRouter.ownerOf(bookId),
+          request.getMethod(), pathAndQuery,
+          AdmissionControlInterceptor.clientKey(request, shardRouter),
+          request.getHeader(IdempotencyCache.HEADER));
+      response.setStatus(forwarded.statusCode());
+      forwarded.headers().firstValue("Content-Type").ifPresent(response::setContentType);
+      forwarded.headers().firstValue("Retry-After")
+          .ifPresent(value -> response.setHeader("Retry-After", value));
+      forwarded.headers().firstValue(IdempotencyCache.REPLAYED_HEADER)
+          .ifPresent(value -> response.setHeader(IdempotencyCache.REPLAYED_HEADER, value));
+      response.getOutputStream().write(forwarded.body());
+    } catch (IOException e) {
+      response.setStatus(HttpStatus.BAD_GATEWAY.value());
+      response.setContentType("text/plain");
+      response.getWriter().write("Shard owning book " + bookId + " is unreachable.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+    return false;
+  }
+
+  private static Integer bookId(HttpServletRequest request) {
+    String raw = null;
+    Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    if (variables instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) variables;
+      raw = (String) (map.containsKey("id") ? map.get("id") : map.get("bookId"));
+    }
+    String uri = request.getRequestURI();
+    if (raw == null && ("/checkout".equals(uri) || "/return".equals(uri))) {
+      raw = request.getParameter("id");
+    }
+    if (raw == null) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(raw);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package dev.coms4156.project.individualproject.startup;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.Loan;
+import dev.coms4156.project.individualproject.model.Patron;
+import dev.coms4156.project.individualproject.replication.InventoryEvent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints needed by a GraalVM native image.
+ * Spring infers hints for controller return types, but the catalog file is read by a plain
+ * {@code ObjectMapper} and replication events are bound from HTTP responses, so those types
+ * and the bundled {@code books.json} are registered here.
+ */
+public class CatalogRuntimeHints implements RuntimeHintsRegistrar {
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+        Book.class, Patron.class, Loan.class, InventoryEvent.class);
+    hints.resources().registerPattern("mockdata/books.json");
+  }
+}
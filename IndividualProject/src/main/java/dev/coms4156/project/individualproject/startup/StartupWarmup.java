@@ -0,0 +1,224 @@
+package dev.coms4156.project.individualproject.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exercises the controller hot paths before the application reports ready.
+ * Spring Boot publishes {@code ApplicationReadyEvent} (and readiness
+ * {@code ACCEPTING_TRAFFIC}) only after every {@link ApplicationRunner} returns, so the JIT
+ * compiles the lookup, scan, sort and serialization paths before load balancers send traffic.
+ * Mutations run against throwaway copies of a small sample of the already loaded catalog,
+ * so startup neither parses the catalog again nor scans all of it each round; the live
+ * catalog is only read, through a few GET requests over the real HTTP stack. The timings are
+ * kept for {@link #getReport()}, which {@code GET /startup/warmup} serves.
+ */
+@Component
+@ImportRuntimeHints(CatalogRuntimeHints.class)
+public class StartupWarmup implements ApplicationRunner {
+
+  /** Rounds per block when checking whether the round time has settled. */
+  static final int BLOCK = 50;
+
+  private final ObjectMapper objectMapper;
+  private final MockApiService mockApiService;
+  private final Environment environment;
+  private final boolean enabled;
+  private final int sampleSize;
+  private final int maxRounds;
+  private final int httpRequests;
+  private volatile Map<String, Object> report = Collections.emptyMap();
+
+  /**
+   * Creates the warm-up runner.
+   *
+   * @param objectMapper The application's JSON mapper, used to serialize responses.
+   * @param mockApiService The live catalog, from which the scratch books are copied.
+   * @param environment Supplies {@code local.server.port} once the web server is up.
+   * @param enabled Whether to warm up at all.
+   * @param sampleSize The most books copied into the scratch catalog.
+   * @param maxRounds The most in-process rounds to run before giving up on a steady state.
+   * @param httpRequests The number of GET requests sent through the local web server.
+   */
+  public StartupWarmup(ObjectMapper objectMapper, MockApiService mockApiService,
+                       Environment environment,
+                       @Value("${catalog.warmup.enabled:true}") boolean enabled,
+                       @Value("${catalog.warmup.sample-size:32}") int sampleSize,
+                       @Value("${catalog.warmup.max-rounds:500}") int maxRounds,
+                       @Value("${catalog.warmup.http-requests:100}") int httpRequests) {
+    this.objectMapper = objectMapper;
+    this.mockApiService = mockApiService;
+    this.environment = environment;
+    this.enabled = enabled;
+    this.sampleSize = sampleSize;
+    this.maxRounds = maxRounds;
+    this.httpRequests = httpRequests;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      warmUp();
+    } catch (Exception e) {
+      System.err.println("Warm-up failed: " + e);
+    }
+  }
+
+  /**
+   * Returns the timings measured by the last warm-up, or an empty map if none has run.
+   *
+   * @return The rounds run, first and steady round times, HTTP timings and JVM uptime.
+   */
+  public Map<String, Object> getReport() {
+    return report;
+  }
+
+  /**
+   * Runs the in-process rounds until the median round time of two consecutive blocks stays
+   * within 20% of the block before, then sends the HTTP requests if a web server is running.
+   * Medians rather than totals keep a single GC pause or descheduled round from resetting
+   * the check.
+   *
+   * @throws Exception If serialization fails.
+   */
+  void warmUp() throws Exception {
+    long start = System.nanoTime();
+    List<Book> books = sample();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("sampleBooks", books.size());
+    if (!books.isEmpty()) {
+      RouteController controller = new RouteController(new MockApiService(books));
+      long firstRoundNanos = 0;
+      long previousMedian = -1;
+      long[] block = new long[BLOCK];
+      int steadyAfter = -1;
+      int settledBlocks = 0;
+      int round = 0;
+      while (round < maxRounds && steadyAfter < 0) {
+        long roundStart = System.nanoTime();
+        runRound(controller, books.get(round % books.size()).getId());
+        long elapsed = System.nanoTime() - roundStart;
+        if (round == 0) {
+          firstRoundNanos = elapsed;
+        }
+        block[round % BLOCK] = elapsed;
+        round++;
+        if (round % BLOCK == 0) {
+          Arrays.sort(block);
+          long median = block[BLOCK / 2];
+          boolean settled = previousMedian >= 0
+              && median * 10 >= previousMedian * 8 && median * 10 <= previousMedian * 12;
+          settledBlocks = settled ? settledBlocks + 1 : 0;
+          if (settledBlocks == 2) {
+            steadyAfter = round;
+          }
+          previousMedian = median;
+        }
+      }
+      result.put("rounds", round);
+      result.put("steadyAfterRounds", steadyAfter);
+      result.put("firstRoundMicros", firstRoundNanos / 1_000);
+      result.put("steadyRoundMicros", previousMedian < 0 ? -1 : previousMedian / 1_000);
+    }
+    result.put("inProcessMillis", (System.nanoTime() - start) / 1_000_000);
+
+    String port = environment.getProperty("local.server.port");
+    if (port != null && httpRequests > 0) {
+      long httpStart = System.nanoTime();
+      long firstRequestMicros = sendRequests(Integer.parseInt(port), books);
+      result.put("httpRequests", httpRequests);
+      result.put("firstHttpRequestMicros", firstRequestMicros);
+      result.put("httpMillis", (System.nanoTime() - httpStart) / 1_000_000);
+    }
+    result.put("jvmUptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+    report = Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Copies up to {@code sampleSize} books from the live catalog, each under its lock, without
+   * waiting for lazy hydration or reading every book of a tiered catalog.
+   */
+  private List<Book> sample() throws Exception {
+    List<Book> source = mockApiService.isTiered()
+        ? mockApiService.streamBooks().limit(sampleSize).toList()
+        : mockApiService.getHydratedBooks();
+    List<Book> copies = new ArrayList<>();
+    if (source == null) {
+      return copies;
+    }
+    for (Book book : source) {
+      if (copies.size() == sampleSize) {
+        break;
+      }
+      byte[] json;
+      synchronized (book) {
+        json = objectMapper.writeValueAsBytes(book);
+      }
+      copies.add(objectMapper.readValue(json, Book.class));
+    }
+    return copies;
+  }
+
+  private void runRound(RouteController controller, int bookId) throws Exception {
+    serialize(controller.getBook(bookId));
+    serialize(controller.getAvailableBooks());
+    serialize(controller.getRecommendations());
+    serialize(controller.addCopy(bookId));
+    serialize(controller.checkout(bookId));
+  }
+
+  private void serialize(ResponseEntity<?> response) throws Exception {
+    objectMapper.writeValueAsBytes(response.getBody());
+  }
+
+  /**
+   * Sends read-only requests through Tomcat, the interceptors and the message converters.
+   *
+   * @param port The local web server port.
+   * @param books The sampled books, used to pick book ids without waiting for the live
+   *              catalog to hydrate.
+   * @return The latency of the first request in microseconds.
+   */
+  private long sendRequests(int port, List<Book> books) throws Exception {
+    String base = "http://localhost:" + port;
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    long firstMicros = -1;
+    for (int i = 0; i < httpRequests; i++) {
+      String path = books.isEmpty() || i % 2 == 0
+          ? "/books/recommendation"
+          : "/book/" + books.get(i % books.size()).getId();
+      HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+          .timeout(Duration.ofSeconds(5)).GET().build();
+      long sent = System.nanoTime();
+      client.send(request, HttpResponse.BodyHandlers.discarding());
+      if (firstMicros < 0) {
+        firstMicros = (System.nanoTime() - sent) / 1_000;
+      }
+    }
+    return firstMicros;
+  }
+}
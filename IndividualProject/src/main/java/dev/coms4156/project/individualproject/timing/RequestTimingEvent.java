@@ -0,0 +1,47 @@
+package dev.coms4156.project.individualproject.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for one HTTP request with its stage breakdown.
+ * The event's duration is the whole request. It is only recorded while a recording with
+ * this event enabled is running, e.g. {@code -XX:StartFlightRecording}.
+ */
+@Name("dev.coms4156.catalog.Request")
+@Label("Catalog Request")
+@Category({"Catalog", "HTTP"})
+@Description("An HTTP request to the catalog with the time spent in each stage")
+@StackTrace(false)
+public class RequestTimingEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Path")
+  String path;
+
+  @Label("Status")
+  int status;
+
+  @Label("Lookup")
+  @Timespan(Timespan.NANOSECONDS)
+  long lookup;
+
+  @Label("Mutate")
+  @Timespan(Timespan.NANOSECONDS)
+  long mutate;
+
+  @Label("Sort")
+  @Timespan(Timespan.NANOSECONDS)
+  long sort;
+
+  @Label("Serialize")
+  @Timespan(Timespan.NANOSECONDS)
+  long serialize;
+}
@@ -0,0 +1,47 @@
+package dev.coms4156.project.individualproject.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the {@code Server-Timing} header to response bodies that are not written by
+ * {@link TimingJacksonConverter}, such as the plain-text messages of error responses.
+ * A {@link StageTimingInterceptor} only sees the response after such a body has been written
+ * and its headers sent, so the header is added here, just before the converter runs. These
+ * bodies are not timed as a serialize stage; JSON bodies get the header from the converter,
+ * which includes it.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+  private final StageTimingInterceptor interceptor;
+
+  public ServerTimingAdvice(StageTimingInterceptor interceptor) {
+    this.interceptor = interceptor;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType,
+                          Class<? extends HttpMessageConverter<?>> converterType) {
+    return interceptor.isEnabled()
+        && !TimingJacksonConverter.class.isAssignableFrom(converterType);
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType,
+                                MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    long[] nanos = StageTimings.current();
+    if (nanos != null) {
+      response.getHeaders().add(TimingJacksonConverter.SERVER_TIMING,
+          StageTimings.serverTiming(nanos));
+    }
+    return body;
+  }
+}
@@ -0,0 +1,141 @@
+package dev.coms4156.project.individualproject.timing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Times requests by stage when {@code catalog.timing.enabled} is set or a JFR recording
+ * includes {@link RequestTimingEvent}. The totals are sent in a {@code Server-Timing} header
+ * by {@link TimingJacksonConverter} for JSON bodies and {@link ServerTimingAdvice} for the
+ * rest, committed as a JFR event, and a sample of requests slower than the threshold is
+ * logged.
+ */
+@Component
+public class StageTimingInterceptor implements HandlerInterceptor {
+
+  private static final String EVENT_ATTRIBUTE = StageTimingInterceptor.class.getName() + ".event";
+
+  private final boolean enabled;
+  private final long slowThresholdNanos;
+  private final double slowSampleRate;
+  private final AtomicLong slowRequestsLogged = new AtomicLong();
+
+  /**
+   * Creates the interceptor.
+   *
+   * @param enabled Whether to time every request and send {@code Server-Timing} headers.
+   * @param slowThresholdMs Requests taking at least this long are candidates for the slow log.
+   * @param slowSampleRate The fraction of slow requests that are logged, from 0 to 1.
+   */
+  public StageTimingInterceptor(@Value("${catalog.timing.enabled:false}") boolean enabled,
+                                @Value("${catalog.timing.slow-threshold-ms:100}")
+                                long slowThresholdMs,
+                                @Value("${catalog.timing.slow-sample-rate:0.1}")
+                                double slowSampleRate) {
+    this.enabled = enabled;
+    this.slowThresholdNanos = slowThresholdMs * 1_000_000;
+    this.slowSampleRate = slowSampleRate;
+    StageTimings.setActive(enabled);
+    if (!enabled) {
+      // Time requests only while a JFR recording is running
+      try {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+          @Override
+          public void recordingStateChanged(Recording recording) {
+            StageTimings.setActive(isRecording());
+          }
+        });
+        if (FlightRecorder.isInitialized()) {
+          StageTimings.setActive(isRecording());
+        }
+      } catch (RuntimeException e) {
+        System.err.println("JFR request events unavailable: " + e);
+      }
+    }
+  }
+
+  private static boolean isRecording() {
+    for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+      if (recording.getState() == RecordingState.RUNNING) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler) {
+    if (!StageTimings.isActive()) {
+      return true;
+    }
+    RequestTimingEvent event = new RequestTimingEvent();
+    if (!enabled && !event.isEnabled()) {
+      return true;
+    }
+    if (event.isEnabled()) {
+      event.begin();
+      request.setAttribute(EVENT_ATTRIBUTE, event);
+    }
+    StageTimings.begin();
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                              Object handler, Exception ex) {
+    long[] nanos = StageTimings.end();
+    if (nanos == null) {
+      return;
+    }
+    long total = System.nanoTime() - nanos[StageTimings.BEGIN];
+
+    Object attribute = request.getAttribute(EVENT_ATTRIBUTE);
+    if (attribute instanceof RequestTimingEvent) {
+      RequestTimingEvent event = (RequestTimingEvent) attribute;
+      event.end();
+      if (event.shouldCommit()) {
+        event.method = request.getMethod();
+        event.path = request.getRequestURI();
+        event.status = response.getStatus();
+        event.lookup = nanos[StageTimings.Stage.LOOKUP.ordinal()];
+        event.mutate = nanos[StageTimings.Stage.MUTATE.ordinal()];
+        event.sort = nanos[StageTimings.Stage.SORT.ordinal()];
+        event.serialize = nanos[StageTimings.Stage.SERIALIZE.ordinal()];
+        event.commit();
+      }
+    }
+
+    if (enabled && total >= slowThresholdNanos
+        && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+      slowRequestsLogged.incrementAndGet();
+      StringBuilder line = new StringBuilder("Slow request: ")
+          .append(request.getMethod()).append(' ').append(request.getRequestURI())
+          .append(" -> ").append(response.getStatus()).append(" in ")
+          .append(StageTimings.millis(total)).append(" ms (");
+      for (StageTimings.Stage stage : StageTimings.Stage.values()) {
+        line.append(stage.getMetricName()).append('=')
+            .append(StageTimings.millis(nanos[stage.ordinal()])).append(" ms, ");
+      }
+      line.setLength(line.length() - 2);
+      System.err.println(line.append(')'));
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getSlowRequestsLogged() {
+    return slowRequestsLogged.get();
+  }
+}
@@ -0,0 +1,143 @@
+package dev.coms4156.project.individualproject.timing;
+
+import java.util.Locale;
+
+/**
+ * Per-request accumulation of time spent in each stage of request handling.
+ * A request is timed only between {@link #begin()} and {@link #end()} on its thread. Outside
+ * a timed request {@link #start()} returns 0 after one volatile read and {@link #stop} does
+ * nothing, so instrumented code costs next to nothing when timing is off.
+ *
+ * <pre>
+ *   long t = StageTimings.start();
+ *   Book book = findBook(id);
+ *   StageTimings.stop(StageTimings.Stage.LOOKUP, t);
+ * </pre>
+ */
+public final class StageTimings {
+
+  /**
+   * A stage of request handling.
+   */
+  public enum Stage {
+    LOOKUP("lookup"),
+    MUTATE("mutate"),
+    SORT("sort"),
+    SERIALIZE("serialize");
+
+    private final String metricName;
+
+    Stage(String metricName) {
+      this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+      return metricName;
+    }
+  }
+
+  /** Index of the request start time, after the per-stage totals. */
+  static final int BEGIN = Stage.values().length;
+
+  private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+  private static volatile boolean active;
+
+  private StageTimings() {
+  }
+
+  /**
+   * Turns stage timing on or off for the whole process. While off, the interceptor does not
+   * begin timing requests and {@link #start()} returns immediately.
+   *
+   * @param enabled Whether any request may be timed.
+   */
+  public static void setActive(boolean enabled) {
+    active = enabled;
+  }
+
+  public static boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Starts timing a stage.
+   *
+   * @return The current {@code System.nanoTime()}, or 0 if this thread is not timing a
+   *         request.
+   */
+  public static long start() {
+    if (!active || CURRENT.get() == null) {
+      return 0L;
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Adds the time since {@code startNanos} to a stage of the current request.
+   *
+   * @param stage The stage that just finished.
+   * @param startNanos The value returned by {@link #start()}.
+   */
+  public static void stop(Stage stage, long startNanos) {
+    if (startNanos == 0L) {
+      return;
+    }
+    long[] nanos = CURRENT.get();
+    if (nanos != null) {
+      nanos[stage.ordinal()] += System.nanoTime() - startNanos;
+    }
+  }
+
+  /**
+   * Starts timing a request on this thread.
+   *
+   * @return The array of per-stage totals in nanoseconds, indexed by {@link Stage#ordinal()}.
+   */
+  static long[] begin() {
+    long[] nanos = new long[BEGIN + 1];
+    nanos[BEGIN] = System.nanoTime();
+    CURRENT.set(nanos);
+    return nanos;
+  }
+
+  /**
+   * Returns the totals of the request being timed on this thread.
+   *
+   * @return The per-stage totals, or {@code null} if no request is being timed.
+   */
+  static long[] current() {
+    return active ? CURRENT.get() : null;
+  }
+
+  /**
+   * Stops timing the request on this thread.
+   *
+   * @return The per-stage totals, or {@code null} if no request was being timed.
+   */
+  static long[] end() {
+    long[] nanos = CURRENT.get();
+    CURRENT.remove();
+    return nanos;
+  }
+
+  /**
+   * Formats stage totals as a {@code Server-Timing} header value in milliseconds, followed by
+   * the total time so far as {@code app}.
+   *
+   * @param nanos The per-stage totals.
+   * @return For example {@code lookup;dur=0.120, sort;dur=0.031, app;dur=1.504}.
+   */
+  static String serverTiming(long[] nanos) {
+    StringBuilder header = new StringBuilder();
+    for (Stage stage : Stage.values()) {
+      header.append(stage.getMetricName()).append(";dur=")
+          .append(millis(nanos[stage.ordinal()])).append(", ");
+    }
+    return header.append("app;dur=").append(millis(System.nanoTime() - nanos[BEGIN]))
+        .toString();
+  }
+
+  static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+  }
+}
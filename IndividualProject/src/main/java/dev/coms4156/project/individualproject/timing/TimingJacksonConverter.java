@@ -0,0 +1,63 @@
+package dev.coms4156.project.individualproject.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * JSON message converter that times serialization as a request stage.
+ * Headers cannot change once the body starts, so while a request is timed the body is
+ * serialized into a buffer first; then the {@code Server-Timing} header, which now includes
+ * the serialize stage, is added and the buffer is copied out. Untimed requests are written
+ * straight through. Declaring this bean replaces Spring Boot's default Jackson converter.
+ */
+@Component
+public class TimingJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+  /**
+   * Name of the response header carrying the stage timings.
+   */
+  public static final String SERVER_TIMING = "Server-Timing";
+
+  private final StageTimingInterceptor interceptor;
+
+  public TimingJacksonConverter(ObjectMapper objectMapper, StageTimingInterceptor interceptor) {
+    super(objectMapper);
+    this.interceptor = interceptor;
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    long[] nanos = StageTimings.current();
+    if (nanos == null) {
+      super.writeInternal(object, type, outputMessage);
+      return;
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    long start = System.nanoTime();
+    super.writeInternal(object, type, new HttpOutputMessage() {
+      @Override
+      public OutputStream getBody() {
+        return buffer;
+      }
+
+      @Override
+      public HttpHeaders getHeaders() {
+        return outputMessage.getHeaders();
+      }
+    });
+    nanos[StageTimings.Stage.SERIALIZE.ordinal()] += System.nanoTime() - start;
+    if (interceptor.isEnabled()) {
+      outputMessage.getHeaders().add(SERVER_TIMING, StageTimings.serverTiming(nanos));
+    }
+    buffer.writeTo(outputMessage.getBody());
+  }
+}
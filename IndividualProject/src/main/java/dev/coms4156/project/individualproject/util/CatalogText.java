@@ -0,0 +1,56 @@
+package dev.coms4156.project.individualproject.util;
+
+/**
+ * Helpers for values copied from library catalog records.
+ */
+public final class CatalogText {
+
+  private static final String TRAILING_PUNCTUATION = " ,;:/.";
+
+  private CatalogText() {
+  }
+
+  /**
+   * Trims whitespace and the cataloguing punctuation that records often end values with, e.g.
+   * {@code "Penguin,"} or {@code "Pak, Yun-jae,"}.
+   *
+   * @param value A catalog value, possibly {@code null}.
+   * @return The trimmed value, or an empty string for {@code null}.
+   */
+  public static String trimPunctuation(String value) {
+    if (value == null) {
+      return "";
+    }
+    int end = value.length();
+    while (end > 0 && TRAILING_PUNCTUATION.indexOf(value.charAt(end - 1)) >= 0) {
+      end--;
+    }
+    return value.substring(0, end).trim();
+  }
+
+  /**
+   * Extracts the year from a free-form publication date such as {@code "2005."},
+   * {@code "[1964?]"} or {@code "[2004], c2004."}: the first run of exactly four digits.
+   *
+   * @param value A catalog publication date, possibly {@code null}.
+   * @return The year, or 0 if the value contains no four-digit year.
+   */
+  public static int parseYear(String value) {
+    if (value == null) {
+      return 0;
+    }
+    int run = 0;
+    for (int i = 0; i <= value.length(); i++) {
+      char c = i < value.length() ? value.charAt(i) : 0;
+      if (c >= '0' && c <= '9') {
+        run++;
+      } else {
+        if (run == 4) {
+          return Integer.parseInt(value.substring(i - 4, i));
+        }
+        run = 0;
+      }
+    }
+    return 0;
+  }
+}
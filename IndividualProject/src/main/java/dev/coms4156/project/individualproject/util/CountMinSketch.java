@@ -0,0 +1,109 @@
+package dev.coms4156.project.individualproject.util;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch over {@code int} keys.
+ * {@code depth} rows of {@code width} counters are kept in one flat array; an estimate is the
+ * minimum of the key's counter in each row, so it never undercounts and overcounts by at most
+ * {@code e * total / width} with probability {@code 1 - e^-depth}. Sketches with the same
+ * dimensions can be subtracted, which lets a sliding window drop an expired bucket. Not
+ * thread-safe.
+ */
+public class CountMinSketch {
+
+  private static final long[] SEEDS = {
+      0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+      0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27BB2EE687B0B0FDL, 0x94D049BB133111EBL
+  };
+
+  private final int depth;
+  private final int mask;
+  private final int[] counters;
+  private long total;
+
+  /**
+   * Creates an empty sketch.
+   *
+   * @param depth The number of rows, between 1 and 8.
+   * @param width The number of counters per row, rounded up to a power of two.
+   */
+  public CountMinSketch(int depth, int width) {
+    if (depth < 1 || depth > SEEDS.length) {
+      throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+    }
+    int w = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+    this.depth = depth;
+    this.mask = w - 1;
+    this.counters = new int[depth * w];
+  }
+
+  /**
+   * Adds {@code count} occurrences of a key.
+   *
+   * @param key The key.
+   * @param count The number of occurrences.
+   */
+  public void add(int key, int count) {
+    for (int row = 0; row < depth; row++) {
+      counters[index(row, key)] += count;
+    }
+    total += count;
+  }
+
+  /**
+   * Returns an upper bound on the number of occurrences of a key.
+   *
+   * @param key The key.
+   * @return The smallest of the key's counters.
+   */
+  public int estimate(int key) {
+    int min = Integer.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      min = Math.min(min, counters[index(row, key)]);
+    }
+    return min;
+  }
+
+  /**
+   * Subtracts another sketch's counts from this one.
+   *
+   * @param other A sketch with the same dimensions whose counts were also added to this one.
+   */
+  public void subtract(CountMinSketch other) {
+    if (other.counters.length != counters.length || other.depth != depth) {
+      throw new IllegalArgumentException("Sketch dimensions differ");
+    }
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] -= other.counters[i];
+    }
+    total -= other.total;
+  }
+
+  /**
+   * Halves every counter, so that old occurrences weigh less than recent ones.
+   */
+  public void halve() {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] >>>= 1;
+    }
+    total >>>= 1;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public void clear() {
+    Arrays.fill(counters, 0);
+    total = 0;
+  }
+
+  private int index(int row, int key) {
+    long h = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+    h ^= h >>> 31;
+    h *= 0x94D049BB133111EBL;
+    h ^= h >>> 29;
+    return row * (mask + 1) + ((int) h & mask);
+  }
+}
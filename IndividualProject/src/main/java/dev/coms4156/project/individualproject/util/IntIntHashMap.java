@@ -0,0 +1,209 @@
+package dev.coms4156.project.individualproject.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code int} keys to {@code int} values.
+ * Keys and values live in two flat primitive arrays with linear probing, so there is no boxing
+ * and no per-entry object. Not thread-safe.
+ */
+public class IntIntHashMap {
+
+  /**
+   * Receives the entries of the map during {@link #forEach(EntryVisitor)}.
+   */
+  @FunctionalInterface
+  public interface EntryVisitor {
+    void visit(int key, int value);
+  }
+
+  private static final int FREE = 0;
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private int[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasFreeKey;
+  private int freeKeyValue;
+
+  public IntIntHashMap() {
+    this(8);
+  }
+
+  /**
+   * Creates a map sized to hold {@code expectedSize} entries without resizing.
+   *
+   * @param expectedSize The number of entries expected.
+   */
+  public IntIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    allocate(capacity);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(int key) {
+    return key == FREE ? hasFreeKey : keys[slot(key)] != FREE;
+  }
+
+  /**
+   * Returns the value mapped to {@code key}, or {@code defaultValue} if there is none.
+   *
+   * @param key The key to look up.
+   * @param defaultValue The value returned when the key is absent.
+   * @return The mapped value or {@code defaultValue}.
+   */
+  public int get(int key, int defaultValue) {
+    if (key == FREE) {
+      return hasFreeKey ? freeKeyValue : defaultValue;
+    }
+    int slot = slot(key);
+    return keys[slot] == FREE ? defaultValue : values[slot];
+  }
+
+  /**
+   * Maps {@code key} to {@code value}.
+   *
+   * @param key The key.
+   * @param value The value.
+   */
+  public void put(int key, int value) {
+    if (key == FREE) {
+      if (!hasFreeKey) {
+        hasFreeKey = true;
+        size++;
+      }
+      freeKeyValue = value;
+      return;
+    }
+    int slot = slot(key);
+    if (keys[slot] == FREE) {
+      keys[slot] = key;
+      values[slot] = value;
+      if (++size >= resizeAt) {
+        allocateAndRehash(keys.length << 1);
+      }
+    } else {
+      values[slot] = value;
+    }
+  }
+
+  /**
+   * Adds {@code delta} to the value mapped to {@code key}, treating a missing key as zero.
+   *
+   * @param key The key.
+   * @param delta The amount to add.
+   * @return The new value.
+   */
+  public int addTo(int key, int delta) {
+    int updated = get(key, 0) + delta;
+    put(key, updated);
+    return updated;
+  }
+
+  /**
+   * Removes the mapping for {@code key}.
+   *
+   * @param key The key to remove.
+   * @return {@code true} if a mapping was removed.
+   */
+  public boolean remove(int key) {
+    if (key == FREE) {
+      if (!hasFreeKey) {
+        return false;
+      }
+      hasFreeKey = false;
+      size--;
+      return true;
+    }
+    int slot = slot(key);
+    if (keys[slot] == FREE) {
+      return false;
+    }
+    shiftKeysBack(slot);
+    size--;
+    return true;
+  }
+
+  /**
+   * Removes every mapping.
+   */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    hasFreeKey = false;
+    size = 0;
+  }
+
+  /**
+   * Visits every entry in unspecified order.
+   *
+   * @param visitor Receives each key and value.
+   */
+  public void forEach(EntryVisitor visitor) {
+    if (hasFreeKey) {
+      visitor.visit(FREE, freeKeyValue);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE) {
+        visitor.visit(keys[i], values[i]);
+      }
+    }
+  }
+
+  private int slot(int key) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != FREE && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void shiftKeysBack(int removed) {
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    int gap = removed;
+    int slot = (gap + 1) & mask;
+    while (keys[slot] != FREE) {
+      int home = mix(keys[slot]) & mask;
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        keys[gap] = keys[slot];
+        values[gap] = values[slot];
+        gap = slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[gap] = FREE;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    resizeAt = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private void allocateAndRehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
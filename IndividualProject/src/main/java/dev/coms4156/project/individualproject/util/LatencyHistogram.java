@@ -0,0 +1,115 @@
+package dev.coms4156.project.individualproject.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds with HdrHistogram-style log-linear buckets.
+ * Values below 256 get a bucket each; above that, every power-of-two range is split into 128
+ * equal buckets, so any recorded value is reported within 1/128 (under 0.8%) of its true value
+ * from 1 ns up to {@link #MAX_VALUE}. Larger values are clamped. Recording is one atomic
+ * increment, so many threads can share one histogram.
+ */
+public class LatencyHistogram {
+
+  /** Largest value tracked exactly; about 137 seconds. */
+  public static final long MAX_VALUE = (1L << 37) - 1;
+
+  private static final int SUB_BITS = 8;
+  private static final int HALF = 1 << (SUB_BITS - 1);
+  private static final int MAX_SHIFT = 63 - Long.numberOfLeadingZeros(MAX_VALUE) - SUB_BITS + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray((MAX_SHIFT + 2) * HALF);
+  private final AtomicLong max = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos The latency in nanoseconds; negative values are recorded as 0.
+   */
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0L), MAX_VALUE);
+    counts.incrementAndGet(index(value));
+    sum.addAndGet(value);
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Adds every value recorded in another histogram to this one.
+   *
+   * @param other The histogram to add.
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length(); i++) {
+      long count = other.counts.get(i);
+      if (count > 0) {
+        counts.addAndGet(i, count);
+      }
+    }
+    sum.addAndGet(other.sum.get());
+    max.accumulateAndGet(other.max.get(), Math::max);
+  }
+
+  public long getCount() {
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values.
+   *
+   * @return The mean in nanoseconds, or 0 if nothing was recorded.
+   */
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0.0 : (double) sum.get() / count;
+  }
+
+  /**
+   * Returns the value at or below which a percentage of the recorded values fall.
+   *
+   * @param percentile The percentile, from 0 to 100.
+   * @return The highest value equivalent to the bucket holding that rank, capped at the
+   *         largest recorded value, or 0 if nothing was recorded.
+   */
+  public long valueAtPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestEquivalent(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  private static int index(long value) {
+    if (value < 2 * HALF) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+    return shift * HALF + (int) (value >>> shift);
+  }
+
+  private static long highestEquivalent(int index) {
+    if (index < 2 * HALF) {
+      return index;
+    }
+    int shift = index / HALF - 1;
+    long sub = index % HALF + HALF;
+    return ((sub + 1) << shift) - 1;
+  }
+}
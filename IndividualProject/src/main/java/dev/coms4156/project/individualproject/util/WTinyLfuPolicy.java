@@ -0,0 +1,270 @@
+package dev.coms4156.project.individualproject.util;
+
+import java.util.Arrays;
+
+/**
+ * Weighted W-TinyLFU admission and eviction policy over {@code int} keys.
+ * New keys enter a small LRU window holding 1% of the weight budget. Keys pushed out of the
+ * window join the probation segment of the main SLRU area as candidates; while the policy is
+ * over budget, each candidate is compared with the least recently used probation key and
+ * whichever has been accessed less often, according to a Count-Min sketch that is halved
+ * every {@code 10 * sketchWidth} accesses, is evicted. A probation key accessed again moves
+ * to the protected segment, which holds at most 80% of the main area. So a key must be
+ * requested repeatedly to displace one that is, and a one-off scan cannot flush the hot set.
+ *
+ * <p>The segments are intrusive doubly linked lists over primitive node arrays, so the policy
+ * allocates nothing per access. Not thread-safe.
+ */
+public class WTinyLfuPolicy {
+
+  private static final int[] NONE = new int[0];
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  private static final int SENTINELS = 3;
+  private static final int[] EVICTION_ORDER = {PROBATION, PROTECTED, WINDOW};
+
+  private final long maximumWeight;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final CountMinSketch sketch;
+  private final int sampleSize;
+  private int samples;
+
+  private final IntIntHashMap nodeByKey = new IntIntHashMap();
+  private int[] keys = new int[64];
+  private int[] weights = new int[64];
+  private int[] prev = new int[64];
+  private int[] next = new int[64];
+  private byte[] segments = new byte[64];
+  private int nodes = SENTINELS;
+  private int freeNode = -1;
+  private final long[] segmentWeights = new long[SENTINELS];
+  private long totalWeight;
+
+  private int[] evicted = new int[8];
+  private int evictedCount;
+
+  /**
+   * Creates an empty policy.
+   *
+   * @param maximumWeight The total weight the admitted keys may have.
+   * @param sketchWidth The width of the frequency sketch, about the number of keys expected to
+   *                    fit within the budget.
+   */
+  public WTinyLfuPolicy(long maximumWeight, int sketchWidth) {
+    if (maximumWeight <= 0) {
+      throw new IllegalArgumentException("maximumWeight must be positive");
+    }
+    this.maximumWeight = maximumWeight;
+    this.windowMaximum = Math.max(1, maximumWeight / 100);
+    this.protectedMaximum = (maximumWeight - windowMaximum) * 8 / 10;
+    this.sketch = new CountMinSketch(4, sketchWidth);
+    this.sampleSize = 10 * Math.max(16, sketchWidth);
+    for (int s = 0; s < SENTINELS; s++) {
+      prev[s] = s;
+      next[s] = s;
+    }
+  }
+
+  public boolean contains(int key) {
+    return nodeByKey.containsKey(key);
+  }
+
+  /**
+   * Records an access to a key, admitted or not, and moves it up its segment if admitted.
+   *
+   * @param key The key accessed.
+   */
+  public void recordAccess(int key) {
+    increment(key);
+    int node = nodeByKey.get(key, -1);
+    if (node < 0) {
+      return;
+    }
+    if (segments[node] == PROBATION) {
+      move(node, PROTECTED);
+      while (segmentWeights[PROTECTED] > protectedMaximum) {
+        move(next[PROTECTED], PROBATION);
+      }
+    } else {
+      move(node, segments[node]);
+    }
+  }
+
+  /**
+   * Admits a key that has just been loaded, evicting keys until the budget is met again.
+   * The new key is never evicted by its own admission, so the caller can use what it loaded;
+   * if it alone is heavier than the window or the budget, the policy stays over budget until
+   * a later admission pushes it out. Admitting a key that is already present records an
+   * access.
+   *
+   * @param key The key.
+   * @param weight The key's weight, at least 1.
+   * @return The evicted keys, possibly empty.
+   */
+  public int[] admit(int key, int weight) {
+    if (nodeByKey.containsKey(key)) {
+      recordAccess(key);
+      return NONE;
+    }
+    increment(key);
+    int node = allocate(key, Math.max(1, weight));
+    link(node, WINDOW);
+    int candidates = 0;
+    while (segmentWeights[WINDOW] > windowMaximum && next[WINDOW] != node) {
+      move(next[WINDOW], PROBATION);
+      candidates++;
+    }
+    evictedCount = 0;
+    int candidate = candidates > 0 ? prev[PROBATION] : -1;
+    while (totalWeight > maximumWeight) {
+      int victim = leastRecent();
+      if (victim == node) {
+        break;
+      }
+      if (candidate < 0 || candidate == victim) {
+        evict(victim);
+        candidate = -1;
+      } else if (sketch.estimate(keys[candidate]) > sketch.estimate(keys[victim])) {
+        evict(victim);
+      } else {
+        int older = prev[candidate];
+        evict(candidate);
+        candidate = --candidates > 0 && older >= SENTINELS ? older : -1;
+      }
+    }
+    return evictedCount == 0 ? NONE : Arrays.copyOf(evicted, evictedCount);
+  }
+
+  /**
+   * Removes a key without counting it as an eviction.
+   *
+   * @param key The key.
+   */
+  public void remove(int key) {
+    int node = nodeByKey.get(key, -1);
+    if (node >= 0) {
+      release(node);
+    }
+  }
+
+  /**
+   * Removes every key and forgets every recorded access.
+   */
+  public void clear() {
+    nodeByKey.clear();
+    nodes = SENTINELS;
+    freeNode = -1;
+    for (int s = 0; s < SENTINELS; s++) {
+      prev[s] = s;
+      next[s] = s;
+      segmentWeights[s] = 0;
+    }
+    totalWeight = 0;
+    sketch.clear();
+    samples = 0;
+  }
+
+  public int size() {
+    return nodeByKey.size();
+  }
+
+  public long getWeightedSize() {
+    return totalWeight;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * Returns the estimated number of recent accesses to a key.
+   *
+   * @param key The key.
+   * @return The key's count in the frequency sketch.
+   */
+  public int frequency(int key) {
+    return sketch.estimate(key);
+  }
+
+  private void increment(int key) {
+    sketch.add(key, 1);
+    if (++samples >= sampleSize) {
+      sketch.halve();
+      samples /= 2;
+    }
+  }
+
+  private int leastRecent() {
+    for (int segment : EVICTION_ORDER) {
+      if (next[segment] != segment) {
+        return next[segment];
+      }
+    }
+    throw new IllegalStateException("Over budget with no keys admitted");
+  }
+
+  private void evict(int node) {
+    if (evictedCount == evicted.length) {
+      evicted = Arrays.copyOf(evicted, evictedCount * 2);
+    }
+    evicted[evictedCount++] = keys[node];
+    release(node);
+  }
+
+  private int allocate(int key, int weight) {
+    int node;
+    if (freeNode >= 0) {
+      node = freeNode;
+      freeNode = next[node];
+    } else {
+      if (nodes == keys.length) {
+        int length = nodes * 2;
+        keys = Arrays.copyOf(keys, length);
+        weights = Arrays.copyOf(weights, length);
+        prev = Arrays.copyOf(prev, length);
+        next = Arrays.copyOf(next, length);
+        segments = Arrays.copyOf(segments, length);
+      }
+      node = nodes++;
+    }
+    keys[node] = key;
+    weights[node] = weight;
+    nodeByKey.put(key, node);
+    totalWeight += weight;
+    return node;
+  }
+
+  private void release(int node) {
+    unlink(node);
+    nodeByKey.remove(keys[node]);
+    totalWeight -= weights[node];
+    next[node] = freeNode;
+    freeNode = node;
+  }
+
+  /**
+   * Moves a node to the most recently used end of a segment.
+   */
+  private void move(int node, int segment) {
+    unlink(node);
+    link(node, segment);
+  }
+
+  private void link(int node, int segment) {
+    int last = prev[segment];
+    prev[node] = last;
+    next[node] = segment;
+    next[last] = node;
+    prev[segment] = node;
+    segments[node] = (byte) segment;
+    segmentWeights[segment] += weights[node];
+  }
+
+  private void unlink(int node) {
+    next[prev[node]] = next[node];
+    prev[next[node]] = prev[node];
+    segmentWeights[segments[node]] -= weights[node];
+  }
+}
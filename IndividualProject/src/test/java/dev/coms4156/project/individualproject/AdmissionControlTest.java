@@ -0,0 +1,199 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.admission.AdmissionControlInterceptor;
+import dev.coms4156.project.individualproject.admission.ConcurrencyLimit;
+import dev.coms4156.project.individualproject.admission.TokenBucket;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the admission control layer.
+ */
+public class AdmissionControlTest {
+
+  private static MockHttpServletRequest checkoutRequest(String remoteAddr) {
+    MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/checkout");
+    request.setRemoteAddr(remoteAddr);
+    return request;
+  }
+
+  private static MockHttpServletRequest checkoutRequest(String remoteAddr, String clientId) {
+    MockHttpServletRequest request = checkoutRequest(remoteAddr);
+    request.addHeader(AdmissionControlInterceptor.CLIENT_ID_HEADER, clientId);
+    return request;
+  }
+
+  /**
+   * Tests that a token bucket grants exactly its burst and then refills over time.
+   * Context: 10 tokens/s, burst of 3.
+   * Arguments: fixed nanoTime values.
+   * Returns: 3 grants, then a wait of about 100ms, then a grant after 100ms have passed.
+   * Data I/O: none.
+   */
+  @Test
+  public void tokenBucket_burstAndRefill_test() {
+    TokenBucket bucket = new TokenBucket(10, 3);
+    long now = 1_000_000_000L;
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now));
+
+    long wait = bucket.tryAcquire(now);
+    assertEquals(100_000_000L, wait);
+
+    assertEquals(0, bucket.tryAcquire(now + wait));
+  }
+
+  /**
+   * Tests that the concurrency limit sheds once all permits are taken.
+   * Context: limit of 2 permits.
+   * Arguments: zero queueing delay.
+   * Returns: two grants, a shed, then a grant after a release.
+   * Data I/O: none.
+   */
+  @Test
+  public void concurrencyLimit_test() {
+    ConcurrencyLimit limit = new ConcurrencyLimit(2);
+    assertTrue(limit.tryAcquire(0));
+    assertTrue(limit.tryAcquire(0));
+    assertFalse(limit.tryAcquire(1_000_000L));
+    limit.release();
+    assertTrue(limit.tryAcquire(0));
+    assertEquals(2, limit.getInFlight());
+  }
+
+  /**
+   * Tests that one noisy client is limited with 429 while other clients are still admitted.
+   * Context: 1 request/s with a burst of 2 per client.
+   * Arguments: requests from 192.0.2.1 and 192.0.2.2.
+   * Returns: third 192.0.2.1 request gets 429 with Retry-After, 192.0.2.2 is admitted.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_perClientRateLimit_test() throws Exception {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(true, 1, 2, 100, 0, 100, null);
+
+    for (int i = 0; i < 2; i++) {
+      MockHttpServletRequest request = checkoutRequest("192.0.2.1");
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      assertTrue(interceptor.preHandle(request, response, null));
+      interceptor.afterCompletion(request, response, null, null);
+    }
+
+    MockHttpServletResponse limited = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(checkoutRequest("192.0.2.1"), limited, null));
+    assertEquals(429, limited.getStatus());
+    assertNotNull(limited.getHeader("Retry-After"));
+
+    assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.2"),
+        new MockHttpServletResponse(), null));
+  }
+
+  /**
+   * Tests that the client table stays within its cap however many clients there are.
+   * Context: 1 request/s with a burst of 1 per client, at most 4 clients tracked.
+   * Arguments: a limited client, then 1000 distinct addresses.
+   * Returns: at most 4 buckets are kept, and the limited client is dropped and admitted
+   *          again.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_clientCap_test() throws Exception {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(true, 1, 1, 10000, 0, 4, null);
+    assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.1"),
+        new MockHttpServletResponse(), null));
+    assertFalse(interceptor.preHandle(checkoutRequest("192.0.2.1"),
+        new MockHttpServletResponse(), null));
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(interceptor.preHandle(checkoutRequest("10.0." + (i / 256) + "." + (i % 256)),
+          new MockHttpServletResponse(), null));
+      assertTrue(interceptor.getTrackedClients() <= 4);
+    }
+    assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.1"),
+        new MockHttpServletResponse(), null));
+  }
+
+  /**
+   * Tests that the client id header is only trusted on requests forwarded by another shard.
+   * Context: 1 request/s with a burst of 1 per client, three shards on 127.0.0.1.
+   * Arguments: requests from 192.0.2.1 with a new client id each time, then requests
+   *            forwarded from 127.0.0.1 on behalf of two clients.
+   * Returns: the rotating ids share one bucket and get 429, while each forwarded client has
+   *          its own bucket.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_clientIdFromPeersOnly_test() throws Exception {
+    ShardRouter router = new ShardRouter(new MockApiService(),
+        "http://127.0.0.1:1,http://127.0.0.1:2,http://127.0.0.1:3", 0);
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(true, 1, 1, 100, 0, 100, null, router);
+
+    assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.1", "rotate-1"),
+        new MockHttpServletResponse(), null));
+    MockHttpServletResponse limited = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(checkoutRequest("192.0.2.1", "rotate-2"), limited, null));
+    assertEquals(429, limited.getStatus());
+
+    for (String client : new String[] {"192.0.2.8", "192.0.2.9"}) {
+      MockHttpServletRequest forwarded = checkoutRequest("127.0.0.1", client);
+      forwarded.addHeader(ShardRouter.FORWARDED_HEADER, "1");
+      assertEquals(client, AdmissionControlInterceptor.clientKey(forwarded, router));
+      assertTrue(interceptor.preHandle(forwarded, new MockHttpServletResponse(), null));
+    }
+    assertEquals("192.0.2.1",
+        AdmissionControlInterceptor.clientKey(checkoutRequest("192.0.2.1", "x"), router));
+  }
+
+  /**
+   * Tests that requests beyond the per-route concurrency limit are shed with 503.
+   * Context: one permit per route, no queueing delay allowed.
+   * Arguments: two overlapping requests, then a third after the first completes.
+   * Returns: first admitted, second 503, third admitted.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_loadShedding_test() throws Exception {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(true, 1000, 1000, 1, 0, 100, null);
+
+    MockHttpServletRequest first = checkoutRequest("192.0.2.1");
+    MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+    assertTrue(interceptor.preHandle(first, firstResponse, null));
+
+    MockHttpServletResponse shed = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(checkoutRequest("192.0.2.2"), shed, null));
+    assertEquals(503, shed.getStatus());
+
+    interceptor.afterCompletion(first, firstResponse, null, null);
+    assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.3"),
+        new MockHttpServletResponse(), null));
+  }
+
+  /**
+   * Tests that a disabled interceptor admits everything.
+   * Arguments: a burst of requests well above the configured rate.
+   * Returns: every request admitted.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_disabled_test() throws Exception {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(false, 1, 1, 1, 0, 1, null);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(interceptor.preHandle(checkoutRequest("192.0.2.1"),
+          new MockHttpServletResponse(), null));
+    }
+  }
+}
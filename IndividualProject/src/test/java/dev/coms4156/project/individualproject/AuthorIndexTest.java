@@ -0,0 +1,130 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.AuthorController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.AuthorIndex;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for AuthorIndex, AuthorDictionary and AuthorController.
+ */
+public class AuthorIndexTest {
+
+  private static Book book(int id, String... authors) {
+    return new Book("Book " + id, new ArrayList<>(List.of(authors)), "eng", "stacks", "2001",
+        "Penguin", List.of(), id, 1, 1);
+  }
+
+  private static List<Integer> ids(List<Book> books) {
+    return books.stream().map(Book::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Tests that authors shared across books get one id and one string instance.
+   * Context: two books by the same author, parsed separately so their names are distinct
+   *          String objects, one with a trailing comma.
+   * Arguments: the author name in a different case with extra whitespace.
+   * Returns: both books, with the same author id; equal spellings share one String instance;
+   *          the author ids are not part of the JSON representation.
+   * Data I/O: none.
+   */
+  @Test
+  public void sharedAuthorsAreDeduplicated_test() throws Exception {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(book(1, new String("Thomas, Ambroise")),
+        book(2, new String("Thomas, Ambroise")), book(3, "Thomas, Ambroise,")));
+    AuthorIndex index = new AuthorIndex(service);
+
+    List<Book> books = index.booksBy("thomas,  AMBROISE", 10);
+    assertEquals(List.of(1, 2, 3), ids(books));
+    int authorId = index.getDictionary().idOf("Thomas, Ambroise,");
+    for (Book book : books) {
+      assertArrayEquals(new int[] {authorId}, book.getAuthorIds());
+    }
+    assertSame(books.get(0).getAuthors().get(0), books.get(1).getAuthors().get(0));
+    assertEquals("Thomas, Ambroise", index.getDictionary().nameOf(authorId));
+    assertEquals(3, index.bookCount(authorId));
+    assertEquals(1, index.getDictionary().size());
+    assertFalse(new ObjectMapper().writeValueAsString(books.get(0)).contains("authorIds"));
+  }
+
+  /**
+   * Tests that edits move books between posting lists.
+   * Context: three books, two by Austen and one listing Austen twice and Bronte once.
+   * Arguments: an edit removing Austen from book 3, a limit of 1, and an unknown author.
+   * Returns: postings follow the edit, the limit truncates, unknown authors give null.
+   * Data I/O: none.
+   */
+  @Test
+  public void updatesMovePostings_test() {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(book(1, "Austen, Jane"), book(2, "Austen, Jane,"),
+        book(3, "Austen, Jane", "Bronte, Charlotte", "Austen, Jane")));
+    AuthorIndex index = new AuthorIndex(service);
+    assertEquals(List.of(1, 2, 3), ids(index.booksBy("Austen, Jane", 10)));
+    // Duplicate authors within one book get one id
+    assertEquals(2, index.booksBy("bronte, charlotte", 10).get(0).getAuthorIds().length);
+
+    service.updateBook(book(3, "Bronte, Charlotte"));
+    assertEquals(List.of(1, 2), ids(index.booksBy("Austen, Jane", 10)));
+    assertEquals(List.of(3), ids(index.booksBy("Bronte, Charlotte", 10)));
+    assertEquals(List.of(1), ids(index.booksBy("Austen, Jane", 1)));
+    assertNull(index.booksBy("Eliot, George", 10));
+  }
+
+  /**
+   * Tests that replicated records and catalog replacements are indexed.
+   * Context: a catalog with one book by Austen.
+   * Arguments: a replicated record adding book 2 by Eliot, then a replacement catalog.
+   * Returns: book 2 is found by Eliot; after replacement, only the new catalog is indexed.
+   * Data I/O: none.
+   */
+  @Test
+  public void replicationAndReplacement_test() {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(book(1, "Austen, Jane")));
+    AuthorIndex index = new AuthorIndex(service);
+
+    service.upsertBook(book(2, "Eliot, George"));
+    assertEquals(List.of(2), ids(index.booksBy("Eliot, George", 10)));
+
+    service.replaceCatalog(List.of(book(5, "Woolf, Virginia")));
+    assertNull(index.booksBy("Austen, Jane", 10));
+    assertEquals(List.of(5), ids(index.booksBy("Woolf, Virginia", 10)));
+    assertArrayEquals(new int[] {index.getDictionary().idOf("Woolf, Virginia")},
+        service.findBook(5).getAuthorIds());
+  }
+
+  /**
+   * Tests the author endpoint's responses.
+   * Context: the bundled catalog, where book 29 lists "Stockhausen, Karlheinz," twice.
+   * Arguments: a known author, an unknown author and a zero limit.
+   * Returns: 200 with book 29 listed once and two author ids, then 404 and 400.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void controllerResponses_test() {
+    AuthorController controller = new AuthorController(new AuthorIndex(new MockApiService()));
+    var response = controller.getBooksByAuthor("Stockhausen, Karlheinz", 100);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<?> books = (List<?>) response.getBody();
+    assertEquals(1, books.size());
+    assertEquals(2, ((Book) books.get(0)).getAuthorIds().length);
+    assertEquals(HttpStatus.NOT_FOUND,
+        controller.getBooksByAuthor("Nobody, Nemo", 100).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST,
+        controller.getBooksByAuthor("Stockhausen, Karlheinz", 0).getStatusCode());
+  }
+}
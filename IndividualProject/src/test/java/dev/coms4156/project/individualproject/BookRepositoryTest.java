@@ -0,0 +1,170 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.InMemoryBookRepository;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for InMemoryBookRepository and the disk repository of MockApiService.
+ */
+public class BookRepositoryTest {
+
+  private static MockApiService disk(Path file) {
+    return new MockApiService(false, "wait", false, 1 << 20, "", "disk", file.toString(), false);
+  }
+
+  /**
+   * Tests that saves publish new lists and keep lookups correct.
+   * Context: a repository of books 1 to 3.
+   * Arguments: an edit of the list returned by findAll, a replacing and an appending save, and
+   *            a batch save.
+   * Returns: the list cannot be edited, an earlier list does not change, lookups find the
+   *          latest books and nothing for unknown ids, and the batch save reports the book it
+   *          replaced.
+   * Data I/O: none.
+   */
+  @Test
+  public void inMemoryIndex_test() {
+    InMemoryBookRepository repository = new InMemoryBookRepository();
+    assertNull(repository.findAll());
+    assertNull(repository.findById(1));
+    repository.replaceAll(List.of(new Book("A", 1), new Book("B", 2), new Book("C", 3)));
+    assertEquals("B", repository.findById(2).getTitle());
+    List<Book> before = repository.findAll();
+    assertThrows(UnsupportedOperationException.class, () -> before.add(new Book("D", 4)));
+
+    repository.save(new Book("B2", 2));
+    repository.save(new Book("E", 5));
+    assertEquals("B", before.get(1).getTitle());
+    assertEquals(3, before.size());
+    assertEquals("B2", repository.findById(2).getTitle());
+    assertEquals("E", repository.findById(5).getTitle());
+    assertNull(repository.findById(4));
+
+    Book replacement = new Book("C2", 3);
+    List<Book> replaced = repository.saveAll(List.of(replacement, new Book("F", 6)));
+    assertEquals("C", replaced.get(0).getTitle());
+    assertNull(replaced.get(1));
+    assertSame(replacement, repository.findById(3));
+    assertEquals(5, repository.size());
+    assertEquals(List.of(1, 2, 3, 5, 6),
+        repository.findAll().stream().map(Book::getId).collect(Collectors.toList()));
+  }
+
+  /**
+   * Tests that the disk repository keeps the catalog and its mutations across restarts.
+   * Context: a disk repository in a new file, seeded from the bundled catalog.
+   * Arguments: a checkout, an added copy and a replicated new book, then a second service
+   *            opened on the same file.
+   * Returns: the second service serves the mutated books without reloading the bundled
+   *          catalog.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary file.
+   */
+  @Test
+  public void diskSurvivesRestart_test() throws Exception {
+    Path file = Files.createTempDirectory("repository-test").resolve("catalog.jsonl");
+    MockApiService first = disk(file);
+    int size = first.getBooks().size();
+    int id = first.getBooks().get(0).getId();
+    int available = first.findBook(id).getCopiesAvailable();
+    int total = first.findBook(id).getTotalCopies();
+    assertEquals(MutationResult.Status.OK, first.checkoutBook(id).getStatus());
+    first.addCopy(id);
+    first.upsertBook(new Book("Replicated", 900001));
+
+    MockApiService second = disk(file);
+    assertEquals(size + 1, second.getBooks().size());
+    Book reopened = second.findBook(id);
+    assertEquals(available, reopened.getCopiesAvailable());
+    assertEquals(total + 1, reopened.getTotalCopies());
+    assertEquals(1, reopened.getReturnDates().size());
+    assertEquals("Replicated", second.findBook(900001).getTitle());
+    assertTrue((boolean) second.getTieredStore().stats().get("durable"));
+  }
+
+  /**
+   * Tests that a record cut short by a crash is dropped when the file is opened.
+   * Context: a disk repository file holding the bundled catalog.
+   * Arguments: half a record appended to the file.
+   * Returns: the reopened service has every complete book and the partial record is
+   *          truncated away.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary file.
+   */
+  @Test
+  public void diskTruncatesTornRecord_test() throws Exception {
+    Path file = Files.createTempDirectory("repository-test").resolve("catalog.jsonl");
+    int size = disk(file).getBooks().size();
+    long length = Files.size(file);
+    Files.write(file, "{\"title\":\"Torn\",\"id\":9".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    MockApiService reopened = disk(file);
+    assertEquals(size, reopened.getBooks().size());
+    assertEquals(length, Files.size(file));
+  }
+
+  /**
+   * Tests that a damaged record before the end of the file stops startup instead of being
+   * truncated with everything after it.
+   * Context: a disk repository file holding the bundled catalog.
+   * Arguments: a complete but unparsable line, then a complete line with no id, each followed
+   *            by a valid record.
+   * Returns: opening the file fails both times and the file is left unchanged.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary file.
+   */
+  @Test
+  public void diskRejectsCorruptRecord_test() throws Exception {
+    for (String damaged : new String[] {"{\"title\":\"Torn\",\"id\":9\n",
+        "{\"title\":\"No id\"}\n"}) {
+      Path file = Files.createTempDirectory("repository-test").resolve("catalog.jsonl");
+      disk(file);
+      Files.write(file, (damaged + "{\"title\":\"After\",\"id\":900002}\n")
+          .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      long length = Files.size(file);
+
+      assertThrows(IllegalStateException.class, () -> disk(file));
+      assertEquals(length, Files.size(file));
+    }
+  }
+
+  /**
+   * Tests that compacting a durable file keeps it in place with the latest records.
+   * Context: a disk repository with three books.
+   * Arguments: enough added copies to make superseded records exceed half of a 1 MB file.
+   * Returns: the file shrinks back, and a service reopened on it has every added copy.
+   * Data I/O: Writes a temporary file.
+   */
+  @Test
+  public void diskCompaction_test() throws Exception {
+    Path file = Files.createTempDirectory("repository-test").resolve("catalog.jsonl");
+    MockApiService service = disk(file);
+    char[] padding = new char[2000];
+    Arrays.fill(padding, 'x');
+    service.replaceCatalog(List.of(
+        new Book(new String(padding), List.of(), "eng", "s", "2000", "P", List.of(), 1, 1, 1),
+        new Book("B", 2), new Book("C", 3)));
+    for (int i = 0; i < 1000; i++) {
+      service.addCopy(1);
+    }
+    assertTrue(Files.size(file) < 1 << 20);
+
+    MockApiService reopened = disk(file);
+    assertEquals(3, reopened.getBooks().size());
+    assertEquals(1001, reopened.findBook(1).getTotalCopies());
+  }
+}
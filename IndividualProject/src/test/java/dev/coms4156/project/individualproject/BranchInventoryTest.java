@@ -0,0 +1,225 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.BranchController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.BranchRegistry;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.PatronService;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for per-branch copies of books and the BranchController.
+ */
+public class BranchInventoryTest {
+
+  private MockApiService service;
+  private BranchController controller;
+  private BranchRegistry registry;
+  private int north;
+  private int south;
+
+  private static Book book(int id, String shelvingLocation, int available, int total) {
+    return new Book("Book " + id, List.of("Author"), "eng", shelvingLocation, "2000.", "P",
+        List.of(), id, available, total);
+  }
+
+  /**
+   * Sets up a catalog of three books at the test branches "tnorth" and "tsouth".
+   */
+  @BeforeEach
+  public void setUp() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(
+        book(1, "tnorth,tsouth", 2, 5),
+        book(2, "tsouth", 1, 1),
+        book(3, "tnorth", 0, 1)));
+    registry = new BranchRegistry("tnorth,tsouth");
+    controller = new BranchController(service, new PatronService(service), registry);
+    north = registry.find("tnorth");
+    south = registry.find("TSouth ");
+  }
+
+  /**
+   * Tests how copies are split across the branches of the shelving location.
+   * Context: book 1 has 2 of 5 copies available at "tnorth,tsouth".
+   * Arguments: none.
+   * Returns: 3 copies at the first branch and 2 at the second, with the checked-out copies
+   *          taken from the second branch first, and only the first branch marked available.
+   * Data I/O: none.
+   */
+  @Test
+  public void derivedCopies_test() {
+    Book book = service.findBook(1);
+    assertTrue(north >= 0 && south >= 0);
+    assertArrayEquals(new int[] {2, 3}, book.getCopiesAt("tnorth"));
+    assertArrayEquals(new int[] {0, 2}, book.getCopiesAt("tsouth"));
+    assertEquals(1L << north, registry.availableMask(book));
+    assertTrue(book.hasCopiesAt("tnorth"));
+  }
+
+  /**
+   * Tests branch-scoped checkouts and added copies.
+   * Context: book 1 with no copy available at "tsouth".
+   * Arguments: a checkout at "tsouth", a copy added there, then checkouts at "tsouth", any
+   *            branch, and a return.
+   * Returns: the first checkout is unavailable; afterwards branch and book totals and the
+   *          availability bits move together, and the returned copy goes back to the branch
+   *          it was checked out from even though another branch has a copy checked out.
+   * Data I/O: none.
+   */
+  @Test
+  public void scopedMutations_test() {
+    assertEquals(MutationResult.Status.UNAVAILABLE,
+        service.checkoutBook(1, MockApiService.ANONYMOUS_PATRON, "tsouth").getStatus());
+    service.addCopy(1, "tsouth");
+    Book book = service.findBook(1);
+    assertArrayEquals(new int[] {1, 3}, book.getCopiesAt("tsouth"));
+    assertEquals(3, book.getCopiesAvailable());
+    assertEquals(6, book.getTotalCopies());
+
+    MutationResult result = service.checkoutBook(1, MockApiService.ANONYMOUS_PATRON, "tsouth");
+    assertEquals(MutationResult.Status.OK, result.getStatus());
+    assertArrayEquals(new int[] {0, 3}, book.getCopiesAt("tsouth"));
+    assertEquals(1L << north, registry.availableMask(book));
+    assertEquals(MutationResult.Status.OK, service.checkoutBook(1).getStatus());
+    assertArrayEquals(new int[] {1, 3}, book.getCopiesAt("tnorth"));
+    assertEquals(1, book.getCopiesAvailable());
+
+    assertEquals(List.of("tsouth", "tnorth"), book.getLoanBranches().subList(
+        book.getLoanBranches().size() - 2, book.getLoanBranches().size()));
+
+    service.returnBook(1, MockApiService.ANONYMOUS_PATRON, result.getDueDate());
+    assertArrayEquals(new int[] {1, 3}, book.getCopiesAt("tsouth"));
+    assertArrayEquals(new int[] {1, 3}, book.getCopiesAt("tnorth"));
+    assertEquals(2, book.getCopiesAvailable());
+    assertEquals((1L << north) | (1L << south), registry.availableMask(book));
+  }
+
+  /**
+   * Tests that per-branch copies survive a JSON round trip, as used by replication and the
+   * tiered store.
+   * Context: book 1 after copies are added at "tsouth" and one is checked out there.
+   * Arguments: the parsed book's loan is returned.
+   * Returns: the parsed book has the same copies per branch and the same availability bits,
+   *          and its loan goes back to "tsouth".
+   * Data I/O: none.
+   */
+  @Test
+  public void jsonRoundTrip_test() throws Exception {
+    service.addCopy(1, "tsouth");
+    service.addCopy(1, "tsouth");
+    String dueDate = service.checkoutBook(1, MockApiService.ANONYMOUS_PATRON, "tsouth")
+        .getDueDate();
+    Book book = service.findBook(1);
+    ObjectMapper mapper = new ObjectMapper();
+    Book parsed = mapper.readValue(mapper.writeValueAsString(book), Book.class);
+    assertArrayEquals(book.getCopiesAt("tnorth"), parsed.getCopiesAt("tnorth"));
+    assertArrayEquals(book.getCopiesAt("tsouth"), parsed.getCopiesAt("tsouth"));
+    assertEquals(registry.availableMask(book), registry.availableMask(parsed));
+
+    assertTrue(parsed.returnCopy(dueDate));
+    assertArrayEquals(new int[] {2, 4}, parsed.getCopiesAt("tsouth"));
+  }
+
+  /**
+   * Tests how copies per branch are checked when they are read or set.
+   * Context: the three test books.
+   * Arguments: JSON records with malformed, unlisted and oversized branch counts, a copy added
+   *            at a branch the book is not shelved at, and registries with a repeated code or
+   *            too many codes.
+   * Returns: malformed counts fail to parse, unlisted branches and counts beyond the book's
+   *          totals fail validation, the added branch joins the shelving location, the bad
+   *          registries are rejected, and a book whose copies were never changed has no
+   *          branches in its JSON.
+   * Data I/O: none.
+   */
+  @Test
+  public void branchValidation_test() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    assertFalse(mapper.readTree(mapper.writeValueAsString(service.findBook(2)))
+        .has("branches"));
+
+    assertThrows(JsonProcessingException.class, () -> mapper.readValue(
+        "{\"id\":9,\"shelvingLocation\":\"tnorth\",\"branches\":{\"tnorth\":[3,2]}}",
+        Book.class));
+    assertThrows(JsonProcessingException.class, () -> mapper.readValue(
+        "{\"id\":9,\"shelvingLocation\":\"tnorth\",\"branches\":{\" \":[1,1]}}",
+        Book.class));
+    Book unlisted = mapper.readValue(
+        "{\"id\":9,\"shelvingLocation\":\"tsouth\",\"branches\":{\"tnorth\":[1,1]}}",
+        Book.class);
+    assertThrows(IllegalArgumentException.class, unlisted::validateBranches);
+    Book oversized = mapper.readValue("{\"id\":9,\"shelvingLocation\":\"tnorth\","
+        + "\"totalCopies\":1,\"copiesAvailable\":1,\"branches\":{\"tnorth\":[2,2]}}",
+        Book.class);
+    assertThrows(IllegalArgumentException.class, oversized::validateBranches);
+    mapper.readValue("{\"id\":9,\"shelvingLocation\":\"tnorth\",\"totalCopies\":1,"
+        + "\"copiesAvailable\":1,\"branches\":{\"tnorth\":[1,1]}}", Book.class)
+        .validateBranches();
+
+    service.addCopy(3, "tsouth");
+    Book book = service.findBook(3);
+    assertEquals("tnorth,tsouth", book.getShelvingLocation());
+    assertArrayEquals(new int[] {1, 1}, book.getCopiesAt("tsouth"));
+    book.validateBranches();
+
+    assertThrows(IllegalArgumentException.class, () -> new BranchRegistry("a, A"));
+    String tooMany = IntStream.rangeClosed(0, BranchRegistry.MAX_BRANCHES)
+        .mapToObj(i -> "b" + i).collect(Collectors.joining(","));
+    assertThrows(IllegalArgumentException.class, () -> new BranchRegistry(tooMany));
+  }
+
+  /**
+   * Tests the branch endpoints.
+   * Context: the three test books.
+   * Arguments: availability queries, branch-scoped checkouts and copies, and a lookup.
+   * Returns: matching books, 404 for unknown branches and books, 409 when the branch has no
+   *          copy, and 400 for a bad limit.
+   * Data I/O: none.
+   */
+  @Test
+  public void controllerResponses_test() {
+    var available = controller.getAvailableAt("tsouth", 10);
+    assertEquals(HttpStatus.OK, available.getStatusCode());
+    assertEquals(List.of(2), ((List<?>) available.getBody()).stream()
+        .map(book -> ((Book) book).getId()).collect(Collectors.toList()));
+    var either = controller.getAvailableAt("tnorth, tsouth", 1);
+    assertEquals(1, ((List<?>) either.getBody()).size());
+    assertEquals(HttpStatus.NOT_FOUND, controller.getAvailableAt("tnowhere", 10)
+        .getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getAvailableAt("tnorth", 0)
+        .getStatusCode());
+
+    assertEquals(HttpStatus.CONFLICT, controller.checkout("tnorth", 3, null).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, controller.checkout("tnorth", 99, null)
+        .getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, controller.checkout("tnorth", 2, 12345)
+        .getStatusCode());
+    assertEquals(HttpStatus.OK, controller.addCopy("tnorth", 3).getStatusCode());
+    assertEquals(HttpStatus.OK, controller.checkout("tnorth", 3, null).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, controller.addCopy("tnowhere", 3).getStatusCode());
+
+    var branches = controller.getBranches(1);
+    assertEquals(HttpStatus.OK, branches.getStatusCode());
+    Map<?, ?> body = (Map<?, ?>) branches.getBody();
+    assertEquals(List.of("tnorth"), body.get("availableAt"));
+    assertEquals(Map.of("available", 0, "total", 2),
+        ((Map<?, ?>) body.get("branches")).get("tsouth"));
+    assertEquals(HttpStatus.NOT_FOUND, controller.getBranches(99).getStatusCode());
+  }
+}
@@ -0,0 +1,196 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.ImportController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.BulkImportService;
+import dev.coms4156.project.individualproject.service.CatalogListener;
+import dev.coms4156.project.individualproject.service.ImportReport;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for BulkImportService and ImportController.
+ */
+public class BulkImportTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private MockApiService service;
+  private BulkImportService importer;
+
+  /**
+   * Creates a catalog of books 1 and 2 and an importer with 3 threads and 2-line chunks.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("One", 1), new Book("Two", 2)));
+    importer = new BulkImportService(service, mapper, 3, 2);
+  }
+
+  @AfterEach
+  public void teardown() {
+    importer.shutdown();
+  }
+
+  /**
+   * Tests a mix of inserts, updates and bad records.
+   * Context: catalog holds books 1 and 2.
+   * Arguments: an update of 2, a blank line, inserts of 3 and 4, malformed JSON, a record
+   *            without an id, a second record for 3, and a record with copies at a branch it
+   *            is not shelved at.
+   * Returns: 2 inserted, 1 updated, 3 failed with their line numbers; the last record for
+   *          book 3 wins; listeners see a null old book for inserts.
+   * Data I/O: none.
+   */
+  @Test
+  public void mixedRecords_test() throws Exception {
+    List<Book[]> events = new ArrayList<>();
+    service.addListener(new CatalogListener() {
+      @Override
+      public void onBookUpdated(Book oldBook, Book newBook) {
+        events.add(new Book[] {oldBook, newBook});
+      }
+    });
+    Book oldTwo = service.findBook(2);
+
+    String body = json(new Book("Two v2", 2)) + "\n"
+        + "\n"
+        + json(new Book("Three", 3)) + "\n"
+        + json(new Book("Four", 4)) + "\n"
+        + "{not json\n"
+        + "{\"title\":\"No id\"}\n"
+        + json(new Book("Three v2", 3)) + "\n"
+        + "{\"id\":5,\"shelvingLocation\":\"glx\",\"branches\":{\"off\":[1,1]}}\n";
+    ImportReport report = importer.importNdjson(stream(body), id -> true);
+
+    assertEquals(7, report.getReceived());
+    assertEquals(2, report.getInserted());
+    assertEquals(1, report.getUpdated());
+    assertEquals(3, report.getFailed());
+    assertEquals(5, report.getErrors().get(0).getLine());
+    assertEquals(6, report.getErrors().get(1).getLine());
+    assertEquals(8, report.getErrors().get(2).getLine());
+
+    assertEquals(4, service.getBooks().size());
+    assertEquals("Two v2", service.findBook(2).getTitle());
+    assertEquals("Three v2", service.findBook(3).getTitle());
+    assertEquals(List.of(1, 2, 3, 4), service.getBooks().stream().map(Book::getId).toList());
+
+    assertEquals(3, events.size());
+    assertSame(oldTwo, events.get(0)[0]);
+    assertNull(events.get(1)[0]);
+  }
+
+  /**
+   * Tests that records rejected by the accept predicate are skipped.
+   * Context: only even ids are accepted.
+   * Arguments: records for books 10 to 19.
+   * Returns: 5 inserted, 5 skipped.
+   * Data I/O: none.
+   */
+  @Test
+  public void skipsRejectedIds_test() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int id = 10; id < 20; id++) {
+      body.append(json(new Book("B" + id, id))).append('\n');
+    }
+    ImportReport report = importer.importNdjson(stream(body.toString()), id -> id % 2 == 0);
+    assertEquals(5, report.getInserted());
+    assertEquals(5, report.getSkipped());
+    assertEquals(7, service.getBooks().size());
+  }
+
+  /**
+   * Tests that a stream of bad records is counted in full but lists a bounded number of
+   * errors.
+   * Context: 2-line chunks on 3 parser threads, with a second importer using 500-line chunks.
+   * Arguments: 250 malformed lines, then one valid record.
+   * Returns: 250 failed and the first {@code MAX_ERRORS} errors listed in line order, with
+   *          either chunk size; the valid record is inserted.
+   * Data I/O: none.
+   */
+  @Test
+  public void capsErrors_test() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 250; i++) {
+      body.append("{not json\n");
+    }
+    body.append(json(new Book("Valid", 7))).append('\n');
+    BulkImportService wide = new BulkImportService(service, mapper, 1, 500);
+    try {
+      for (BulkImportService bulk : List.of(importer, wide)) {
+        ImportReport report = bulk.importNdjson(stream(body.toString()), id -> true);
+        assertEquals(251, report.getReceived());
+        assertEquals(250, report.getFailed());
+        assertEquals(ImportReport.MAX_ERRORS, report.getErrors().size());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertEquals(ImportReport.MAX_ERRORS,
+            report.getErrors().get(ImportReport.MAX_ERRORS - 1).getLine());
+      }
+    } finally {
+      wide.shutdown();
+    }
+    assertEquals("Valid", service.findBook(7).getTitle());
+  }
+
+  /**
+   * Tests that a long stream keeps file order across parallel chunks.
+   * Context: 2-line chunks on 3 parser threads.
+   * Arguments: 5000 records for books 1001 to 6000.
+   * Returns: all inserted, appended in file order.
+   * Data I/O: none.
+   */
+  @Test
+  public void preservesOrder_test() throws Exception {
+    StringBuilder body = new StringBuilder();
+    for (int id = 1001; id <= 6000; id++) {
+      body.append(json(new Book("B" + id, id))).append('\n');
+    }
+    ImportReport report = importer.importNdjson(stream(body.toString()), id -> true);
+    assertEquals(5000, report.getInserted());
+    List<Book> books = service.getBooks();
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(1001 + i, books.get(2 + i).getId());
+    }
+  }
+
+  /**
+   * Tests the /books/import responses.
+   * Context: no shard router.
+   * Arguments: one valid record, then a body of only invalid records.
+   * Returns: HTTP 200 with the report, then HTTP 400.
+   * Data I/O: none.
+   */
+  @Test
+  public void controller_test() throws Exception {
+    ImportController controller = new ImportController(importer, null);
+    ResponseEntity<?> ok = controller.importBooks(stream(json(new Book("Five", 5))));
+    assertEquals(HttpStatus.OK, ok.getStatusCode());
+    assertEquals(1, ((ImportReport) ok.getBody()).getInserted());
+
+    ResponseEntity<?> bad = controller.importBooks(stream("nope\n{\"id\":0}\n"));
+    assertEquals(HttpStatus.BAD_REQUEST, bad.getStatusCode());
+    assertEquals(2, ((ImportReport) bad.getBody()).getFailed());
+  }
+
+  private String json(Book book) throws Exception {
+    return mapper.writeValueAsString(book);
+  }
+
+  private static ByteArrayInputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
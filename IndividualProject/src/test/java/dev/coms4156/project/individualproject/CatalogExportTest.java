@@ -0,0 +1,139 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.ExportController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogExporter;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for CatalogExporter and ExportController.
+ */
+public class CatalogExportTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * Tests that every book is written as one JSON line, including live inventory.
+   * Context: the bundled catalog after one checkout of its first book.
+   * Arguments: an in-memory output stream.
+   * Returns: one line per book in catalog order, each parsing back to the same book state.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void exportsEveryBook_test() throws Exception {
+    MockApiService service = new MockApiService();
+    Book first = service.getBooks().get(0);
+    service.addCopy(first.getId());
+    service.checkoutBook(first.getId());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    int written = new CatalogExporter(service, mapper).export(out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(service.getBooks().size(), written);
+    assertEquals(written, lines.length);
+    Book parsed = mapper.readValue(lines[0], Book.class);
+    assertEquals(first.getId(), parsed.getId());
+    assertEquals(first.getCopiesAvailable(), parsed.getCopiesAvailable());
+    assertEquals(first.getReturnDates(), parsed.getReturnDates());
+  }
+
+  /**
+   * Tests that a tiered catalog is exported from disk without loading it into memory.
+   * Context: the bundled catalog in tiered mode, with its first book checked out.
+   * Arguments: an in-memory output stream.
+   * Returns: one line per book with the checked-out book's current state, and no book is
+   *          made resident by the export.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary spill file.
+   */
+  @Test
+  public void exportsTieredCatalog_test() throws Exception {
+    MockApiService service = new MockApiService(false, "wait", true, 1 << 20,
+        Files.createTempDirectory("export-test").toString());
+    int id = service.streamBooks().findFirst().get().getId();
+    service.checkoutBook(id);
+    Object resident = service.getTieredStore().stats().get("residentBooks");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    int written = new CatalogExporter(service, mapper).export(out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(service.size(), written);
+    assertEquals(written, lines.length);
+    assertEquals(service.findBook(id).getReturnDates(),
+        mapper.readValue(lines[0], Book.class).getReturnDates());
+    assertEquals(resident, service.getTieredStore().stats().get("residentBooks"));
+  }
+
+  /**
+   * Tests that the export iterates the catalog as it was when the export started.
+   * Context: a 2-book catalog; the first write triggers a bulk upsert of a third book.
+   * Arguments: an output stream that upserts on its first write.
+   * Returns: only the original 2 books are exported; the catalog then holds 3.
+   * Data I/O: none.
+   */
+  @Test
+  public void exportsSnapshot_test() throws Exception {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("One", 1), new Book("Two", 2)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      private boolean upserted;
+
+      @Override
+      public void write(byte[] b) throws IOException {
+        if (!upserted) {
+          upserted = true;
+          service.upsertAll(List.of(new Book("Three", 3)));
+        }
+        super.write(b);
+      }
+    };
+
+    assertEquals(2, new CatalogExporter(service, mapper).export(out));
+    assertEquals(2, out.toString(StandardCharsets.UTF_8).split("\n").length);
+    assertEquals(3, service.getBooks().size());
+  }
+
+  /**
+   * Tests the /books/export responses with and without compression.
+   * Context: the bundled catalog.
+   * Arguments: gzip false, then gzip true.
+   * Returns: NDJSON content type; with gzip, a Content-Encoding header and a body that
+   *          decompresses to the same lines.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void controller_test() throws Exception {
+    ExportController controller =
+        new ExportController(new CatalogExporter(new MockApiService(), mapper));
+
+    MockHttpServletResponse plain = new MockHttpServletResponse();
+    controller.exportBooks(false, plain);
+    assertTrue(plain.getContentType().startsWith(ExportController.NDJSON));
+    assertNull(plain.getHeader("Content-Encoding"));
+    String text = plain.getContentAsString(StandardCharsets.UTF_8);
+
+    MockHttpServletResponse gzip = new MockHttpServletResponse();
+    controller.exportBooks(true, gzip);
+    assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+    try (GZIPInputStream in =
+             new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+      assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertTrue(gzip.getContentAsByteArray().length < text.length());
+  }
+}
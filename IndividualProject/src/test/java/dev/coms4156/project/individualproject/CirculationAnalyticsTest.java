@@ -0,0 +1,176 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.AnalyticsController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CirculationAnalytics;
+import dev.coms4156.project.individualproject.service.CirculationAnalytics.Dimension;
+import dev.coms4156.project.individualproject.service.CirculationAnalytics.GroupStats;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for CirculationAnalytics and AnalyticsController.
+ */
+public class CirculationAnalyticsTest {
+
+  private static Book book(int id, String language, String publisher, List<String> subjects,
+                           int copies) {
+    return new Book("Book " + id, List.of("Author"), language, "stacks", "2001", publisher,
+        subjects, id, copies, copies);
+  }
+
+  private static MockApiService catalog(Book... books) {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(books));
+    return service;
+  }
+
+  /**
+   * Tests that mutations update the groups of the mutated book.
+   * Context: two English books and one French book, one sharing a subject with the others.
+   * Arguments: a checkout, an added copy and a return applied through MockApiService.
+   * Returns: language, subject and publisher groups reflect each change; cataloguing
+   *          punctuation is stripped from keys and the totals agree with a full recompute.
+   * Data I/O: none.
+   */
+  @Test
+  public void incrementalUpdates_test() {
+    Book first = book(1, "eng", "Penguin,", List.of("History", "Art"), 1);
+    MockApiService service = catalog(first,
+        book(2, "eng", "Penguin", List.of("History"), 2),
+        book(3, "fre", null, List.of(), 1));
+    CirculationAnalytics analytics = new CirculationAnalytics(service);
+
+    GroupStats english = analytics.group(Dimension.LANGUAGE, "eng");
+    assertEquals(2, english.getTitles());
+    assertEquals(3, english.getTotalCopies());
+    assertEquals(2, analytics.group(Dimension.PUBLISHER, "Penguin").getTitles());
+    assertEquals(1, analytics.group(Dimension.PUBLISHER, CirculationAnalytics.NONE)
+        .getTitles());
+
+    String dueDate = service.checkoutBook(1).getDueDate();
+    english = analytics.group(Dimension.LANGUAGE, "eng");
+    assertEquals(1, english.getCheckouts());
+    assertEquals(1, english.getCheckedOutCopies());
+    assertEquals(1, english.getAvailableTitles());
+    assertEquals(0, analytics.group(Dimension.SUBJECTS, "Art").getAvailableCopies());
+    assertEquals(1, analytics.group(Dimension.SUBJECTS, "History").getCheckouts());
+
+    service.addCopy(1);
+    service.returnBook(1, MockApiService.ANONYMOUS_PATRON, dueDate);
+    GroupStats art = analytics.group(Dimension.SUBJECTS, "Art");
+    assertEquals(2, art.getTotalCopies());
+    assertEquals(2, art.getAvailableCopies());
+    assertEquals(1, art.getCheckouts());
+    assertEquals(true, analytics.verify().get("consistent"));
+  }
+
+  /**
+   * Tests that replaced catalogs and replicated records are reflected.
+   * Context: a catalog with one English book whose statistics were already queried.
+   * Arguments: a replicated record moving the book to German, then a catalog replacement.
+   * Returns: the book moves between language groups, and the replacement rebuilds the groups.
+   * Data I/O: none.
+   */
+  @Test
+  public void replicationAndReplacement_test() {
+    MockApiService service = catalog(book(1, "eng", "Penguin", List.of("Art"), 1));
+    CirculationAnalytics analytics = new CirculationAnalytics(service);
+    assertEquals(1, analytics.group(Dimension.LANGUAGE, "eng").getTitles());
+
+    service.upsertBook(book(1, "ger", "Penguin", List.of("Art"), 4));
+    assertNull(analytics.group(Dimension.LANGUAGE, "eng"));
+    assertEquals(4, analytics.group(Dimension.LANGUAGE, "ger").getTotalCopies());
+
+    service.replaceCatalog(List.of(book(7, "spa", "Planeta", List.of("Poetry"), 2),
+        book(8, "spa", "Planeta", List.of("Poetry"), 3)));
+    assertNull(analytics.group(Dimension.LANGUAGE, "ger"));
+    assertEquals(5, analytics.group(Dimension.SUBJECTS, "Poetry").getTotalCopies());
+    assertEquals(true, analytics.verify().get("consistent"));
+  }
+
+  /**
+   * Tests that concurrent mutations and rebuilds leave the aggregates exact.
+   * Context: the bundled catalog.
+   * Arguments: 4 threads of random checkouts, added copies and returns, while the catalog is
+   *            repeatedly replaced with itself to force rebuilds.
+   * Returns: a parallel recompute agrees with the incremental aggregates once all are done.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void concurrentMutationsStayConsistent_test() throws Exception {
+    MockApiService service = new MockApiService();
+    CirculationAnalytics analytics = new CirculationAnalytics(service);
+    List<Book> books = new ArrayList<>(service.getBooks());
+    analytics.snapshot(null, 5);
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      futures.add(pool.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 2000; i++) {
+          int id = books.get(random.nextInt(books.size())).getId();
+          int op = random.nextInt(3);
+          if (op == 0) {
+            service.addCopy(id);
+          } else {
+            String dueDate = service.checkoutBook(id).getDueDate();
+            if (op == 2 && dueDate != null) {
+              service.returnBook(id, MockApiService.ANONYMOUS_PATRON, dueDate);
+            }
+          }
+        }
+      }));
+    }
+    for (int i = 0; i < 20; i++) {
+      service.replaceCatalog(books);
+      analytics.snapshot(Dimension.LANGUAGE, 1);
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    Map<String, Object> report = analytics.verify();
+    assertEquals(true, report.get("consistent"), report.toString());
+    assertTrue((int) report.get("groups") > 0);
+  }
+
+  /**
+   * Tests the analytics endpoint's parameters.
+   * Context: the bundled catalog.
+   * Arguments: one dimension with limit 3, an unknown dimension, and a zero limit.
+   * Returns: 200 with the total and at most 3 language groups; 400 for the others.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void controllerParameters_test() {
+    MockApiService service = new MockApiService();
+    AnalyticsController controller =
+        new AnalyticsController(new CirculationAnalytics(service));
+
+    var response = controller.getCirculation("LANGUAGE", 3);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    Map<?, ?> body = (Map<?, ?>) response.getBody();
+    assertEquals(service.getBooks().size(), ((GroupStats) body.get("total")).getTitles());
+    assertTrue(((List<?>) body.get("language")).size() <= 3);
+    assertEquals(2, body.size());
+
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getCirculation("author", 3).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getCirculation(null, 0).getStatusCode());
+    assertEquals(HttpStatus.OK, controller.verifyCirculation().getStatusCode());
+  }
+}
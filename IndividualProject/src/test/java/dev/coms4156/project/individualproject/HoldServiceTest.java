@@ -0,0 +1,163 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import dev.coms4156.project.individualproject.controller.HoldController;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.HoldQueue;
+import dev.coms4156.project.individualproject.service.HoldService;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.PatronService;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for HoldQueue, HoldService and HoldController.
+ */
+public class HoldServiceTest {
+
+  private MockApiService service;
+  private HoldService holdService;
+  private HoldController holdController;
+  private RouteController routeController;
+  private int patron;
+  private int otherPatron;
+
+  /**
+   * Seeds the service with one single-copy book that is already checked out, and registers
+   * two patrons.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("Held Book", 5)));
+    holdService = new HoldService(service);
+    PatronService patronService = new PatronService(service);
+    patron = patronService.registerPatron("Ada").getId();
+    otherPatron = patronService.registerPatron("Alan").getId();
+    holdController = new HoldController(service, holdService, patronService);
+    routeController = new RouteController(service);
+    service.checkoutBook(5);
+  }
+
+  /**
+   * Tests FIFO order, duplicate holds and positions in HoldQueue across growth.
+   * Arguments: patrons 1..10.
+   * Returns: positions in arrival order, shifting as the head is polled.
+   * Data I/O: none.
+   */
+  @Test
+  public void holdQueue_test() {
+    HoldQueue queue = new HoldQueue();
+    for (int p = 1; p <= 10; p++) {
+      assertEquals(p, queue.enqueue(p));
+    }
+    assertEquals(3, queue.enqueue(3));
+    assertEquals(10, queue.size());
+
+    assertEquals(1, queue.poll());
+    assertEquals(2, queue.poll());
+    assertEquals(0, queue.position(1));
+    assertEquals(1, queue.position(3));
+    assertEquals(8, queue.position(10));
+    assertEquals(9, queue.enqueue(11));
+  }
+
+  /**
+   * Tests that returning a copy allocates it to the head of the hold queue, and that the
+   * allocation is forgotten once the patron returns it.
+   * Context: book 5 has no copies, patrons 100 and 200 hold it in that order.
+   * Arguments: return of the checked-out copy, then patron 100's return of the allocation.
+   * Returns: patron 100 allocated, patron 200 moves to position 1, book still has 0 copies;
+   *          after patron 100's return, 100 has no allocation and 200 has one.
+   * Data I/O: Mutates book 5 via returnBook().
+   */
+  @Test
+  public void returnAllocatesToHead_test() {
+    Book book = service.findBook(5);
+    assertEquals(1, holdService.placeHold(book, 100));
+    assertEquals(2, holdService.placeHold(book, 200));
+
+    String dueDate = book.getReturnDates().get(0);
+    ResponseEntity<?> resp = routeController.returnBook(5, dueDate);
+    assertEquals(HttpStatus.OK, resp.getStatusCode());
+
+    assertEquals(0, book.getCopiesAvailable());
+    assertNotNull(holdService.getAllocation(5, 100));
+    assertEquals(0, holdService.getPosition(5, 100));
+    assertEquals(1, holdService.getPosition(5, 200));
+
+    service.returnBook(5, 100, holdService.getAllocation(5, 100));
+    assertNull(holdService.getAllocation(5, 100));
+    assertNotNull(holdService.getAllocation(5, 200));
+  }
+
+  /**
+   * Tests that adding copies allocates one copy per waiting patron and leaves the rest.
+   * Context: book 5 has no copies, patron 100 holds it.
+   * Arguments: two addCopy() calls.
+   * Returns: patron 100 allocated once, one copy left available.
+   * Data I/O: Mutates book 5 via addCopy().
+   */
+  @Test
+  public void addCopyAllocates_test() {
+    holdService.placeHold(service.findBook(5), 100);
+
+    routeController.addCopy(5);
+    assertNotNull(holdService.getAllocation(5, 100));
+    assertEquals(0, service.findBook(5).getCopiesAvailable());
+
+    routeController.addCopy(5);
+    assertEquals(1, service.findBook(5).getCopiesAvailable());
+    assertEquals(0, holdService.getQueueLength(5));
+  }
+
+  /**
+   * Tests all branches of HoldController.placeHold() and getHold().
+   * Context: book 5 has no copies.
+   * Arguments: valid and invalid book and patron ids, and an unregistered patron.
+   * Returns: 201, 400, 404, 409 for placeHold and 200/404 for getHold.
+   * Data I/O: Places holds on book 5.
+   */
+  @Test
+  public void holdController_test() {
+    assertEquals(HttpStatus.CREATED, holdController.placeHold(5, patron).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, holdController.placeHold(5, 0).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, holdController.placeHold(6, patron).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, holdController.placeHold(5, 999).getStatusCode());
+    assertEquals(0, holdService.getPosition(5, 999));
+
+    ResponseEntity<?> waiting = holdController.getHold(5, patron);
+    assertEquals(HttpStatus.OK, waiting.getStatusCode());
+    assertEquals(1, ((Map<?, ?>) waiting.getBody()).get("position"));
+    assertEquals(HttpStatus.NOT_FOUND, holdController.getHold(5, 999).getStatusCode());
+
+    routeController.addCopy(5);
+    ResponseEntity<?> allocated = holdController.getHold(5, patron);
+    assertEquals("ALLOCATED", ((Map<?, ?>) allocated.getBody()).get("status"));
+
+    routeController.addCopy(5);
+    assertEquals(HttpStatus.CONFLICT, holdController.placeHold(5, otherPatron)
+        .getStatusCode());
+    assertNull(holdService.getAllocation(5, otherPatron));
+  }
+
+  /**
+   * Tests returnBook() with an unknown book and with a due date that is not checked out.
+   * Arguments: book ids 5 and 6.
+   * Returns: 409 CONFLICT and 404 NOT_FOUND.
+   * Data I/O: none.
+   */
+  @Test
+  public void returnBook_errors_test() {
+    assertEquals(HttpStatus.CONFLICT, routeController.returnBook(5, "1900-01-01").getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, routeController.returnBook(6, "1900-01-01").getStatusCode());
+  }
+}
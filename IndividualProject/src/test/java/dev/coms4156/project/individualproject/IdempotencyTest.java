@@ -0,0 +1,236 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.admission.AdmissionControlInterceptor;
+import dev.coms4156.project.individualproject.admission.IdempotencyCache;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for IdempotencyCache and the Idempotency-Key handling of RouteController.
+ */
+public class IdempotencyTest {
+
+  private MockApiService service;
+  private IdempotencyCache cache;
+  private RouteController controller;
+
+  private static MockHttpServletRequest request(String client, String key) {
+    MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/checkout");
+    request.setRemoteAddr(client);
+    request.addHeader(IdempotencyCache.HEADER, key);
+    return request;
+  }
+
+  /**
+   * Seeds the service with a book of two available copies and one of none, and wires a cache
+   * into the controller.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("First", 1), new Book("Second", 2)));
+    service.getBooks().get(0).addCopy();
+    service.getBooks().get(1).checkoutCopy();
+    cache = new IdempotencyCache(new ObjectMapper(), true, 100, 600, 5000);
+    controller = new RouteController(service, null, null, null, null, cache);
+  }
+
+  /**
+   * Tests that a retried checkout returns the first response without taking another copy.
+   * Context: book 1 with two available copies.
+   * Arguments: the same checkout sent twice with one key.
+   * Returns: both responses are HTTP 200 with the same book state, the second marked as
+   *          replayed, and only one copy is checked out.
+   * Data I/O: none.
+   */
+  @Test
+  public void duplicateCheckout_test() throws Exception {
+    ResponseEntity<?> first = controller.checkout(1, null, "kiosk-7-0001");
+    ResponseEntity<?> retry = controller.checkout(1, null, "kiosk-7-0001");
+
+    assertEquals(HttpStatus.OK, first.getStatusCode());
+    assertEquals(HttpStatus.OK, retry.getStatusCode());
+    assertNull(first.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    assertEquals("true", retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    assertArrayEquals(new ObjectMapper().writeValueAsBytes(first.getBody()),
+        (byte[]) retry.getBody());
+    Book book = service.findBook(1);
+    assertEquals(1, book.getCopiesAvailable());
+    assertEquals(1, book.getAmountOfTimesCheckedOut());
+    assertEquals(1, cache.getReplays());
+
+    assertEquals(HttpStatus.OK, controller.checkout(1, null, "kiosk-7-0002").getStatusCode());
+    assertEquals(0, service.findBook(1).getCopiesAvailable());
+  }
+
+  /**
+   * Tests how keys that cannot be replayed are answered.
+   * Context: book 2 with its only copy checked out.
+   * Arguments: a checkout of book 2, its key reused for book 1, a copy added to book 2 before
+   *            the checkout is retried, and a blank key.
+   * Returns: the reused key gets HTTP 422, the retry gets the first HTTP 409 back although a
+   *          copy is now available, and the blank key gets HTTP 400.
+   * Data I/O: none.
+   */
+  @Test
+  public void keyReuse_test() {
+    assertEquals(HttpStatus.CONFLICT, controller.checkout(2, null, "k").getStatusCode());
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+        controller.checkout(1, null, "k").getStatusCode());
+    assertEquals(2, service.findBook(1).getCopiesAvailable());
+
+    assertEquals(HttpStatus.OK, controller.addCopy(2, "add-1").getStatusCode());
+    assertEquals(HttpStatus.OK, controller.addCopy(2, "add-1").getStatusCode());
+    assertEquals(2, service.findBook(2).getTotalCopies());
+    assertEquals(HttpStatus.CONFLICT, controller.checkout(2, null, "k").getStatusCode());
+    assertEquals(1, service.findBook(2).getCopiesAvailable());
+
+    assertEquals(HttpStatus.BAD_REQUEST, controller.checkout(1, null, " ").getStatusCode());
+  }
+
+  /**
+   * Tests that concurrent retries of one checkout apply it once.
+   * Context: book 1 with two available copies.
+   * Arguments: eight threads sending the same checkout with one key at once.
+   * Returns: every thread gets HTTP 200 and one copy is checked out.
+   * Data I/O: none.
+   */
+  @Test
+  public void concurrentDuplicates_test() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return controller.checkout(1, null, "storm");
+      }));
+    }
+    start.countDown();
+    for (Future<ResponseEntity<?>> future : futures) {
+      assertEquals(HttpStatus.OK, future.get().getStatusCode());
+    }
+    executor.shutdown();
+    assertEquals(1, service.findBook(1).getCopiesAvailable());
+    assertEquals(7, cache.getReplays());
+  }
+
+  /**
+   * Tests that the cache forgets the oldest keys past its size, expired keys, and failures.
+   * Context: a cache of two entries kept for one second.
+   * Arguments: three keys, a key repeated after the TTL, and a key whose request fails with
+   *            HTTP 503.
+   * Returns: the oldest key and the expired key run again, as does the failed request, while
+   *          the cache never holds more than two keys.
+   * Data I/O: none.
+   */
+  @Test
+  public void bounds_test() throws Exception {
+    IdempotencyCache small = new IdempotencyCache(new ObjectMapper(), true, 2, 1, 5000);
+    AtomicInteger runs = new AtomicInteger();
+    for (String key : new String[] {"a", "b", "c", "c", "a"}) {
+      small.execute("c", key, "r", () -> ResponseEntity.ok(runs.incrementAndGet()));
+    }
+    assertEquals(4, runs.get());
+    assertEquals(2, small.size());
+
+    Thread.sleep(1100);
+    small.execute("c", "a", "r", () -> ResponseEntity.ok(runs.incrementAndGet()));
+    assertEquals(5, runs.get());
+    assertEquals(1, small.size());
+
+    for (int i = 0; i < 2; i++) {
+      small.execute("c", "busy", "r", () -> {
+        runs.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+      });
+    }
+    assertEquals(7, runs.get());
+  }
+
+  /**
+   * Tests that a server error that may have applied the request is kept, unlike HTTP 503.
+   * Context: an empty cache.
+   * Arguments: a key whose request fails with HTTP 500, sent twice, and a key whose request
+   *            is withdrawn with HTTP 503, sent twice.
+   * Returns: the 500 runs once and its retry is replayed, while the 503 runs again.
+   * Data I/O: none.
+   */
+  @Test
+  public void serverErrorKept_test() {
+    AtomicInteger runs = new AtomicInteger();
+    ResponseEntity<?> retry = null;
+    for (int i = 0; i < 2; i++) {
+      retry = cache.execute("c", "failed", "r", () -> {
+        runs.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error occurred.");
+      });
+    }
+    assertEquals(1, runs.get());
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, retry.getStatusCode());
+    assertEquals("true", retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+
+    for (int i = 0; i < 2; i++) {
+      cache.execute("c", "withdrawn", "r", () -> {
+        runs.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+      });
+    }
+    assertEquals(3, runs.get());
+    assertEquals(1, cache.size());
+  }
+
+  /**
+   * Tests that keys are scoped per client and that a known key skips admission control.
+   * Context: one request per client allowed by admission control, and a shared cache.
+   * Arguments: two clients sending the same key, then a retry and a new request from the
+   *            first client once its token is spent.
+   * Returns: each client's request runs once, the retry is admitted and replayed, and the new
+   *          request gets HTTP 429.
+   * Data I/O: none.
+   */
+  @Test
+  public void clientScopeAndAdmission_test() throws Exception {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(true, 0.001, 1, 100, 0, 100, cache);
+    AtomicInteger runs = new AtomicInteger();
+    for (String client : new String[] {"192.0.2.1", "192.0.2.2"}) {
+      assertTrue(interceptor.preHandle(request(client, "same"), new MockHttpServletResponse(),
+          null));
+      cache.execute(client, "same", "r", () -> ResponseEntity.ok(runs.incrementAndGet()));
+    }
+    assertEquals(2, runs.get());
+
+    assertTrue(interceptor.preHandle(request("192.0.2.1", "same"), new MockHttpServletResponse(),
+        null));
+    ResponseEntity<?> retry = cache.execute("192.0.2.1", "same", "r",
+        () -> ResponseEntity.ok(runs.incrementAndGet()));
+    assertEquals("true", retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    assertEquals(2, runs.get());
+
+    MockHttpServletResponse limited = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(request("192.0.2.1", "other"), limited, null));
+    assertEquals(429, limited.getStatus());
+  }
+}
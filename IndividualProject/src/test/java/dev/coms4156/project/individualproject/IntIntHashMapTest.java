@@ -0,0 +1,76 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.util.IntIntHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for IntIntHashMap.
+ */
+public class IntIntHashMapTest {
+
+  /**
+   * Tests put, get, addTo and remove including the zero key.
+   * Arguments: keys 0, 1 and -5.
+   * Returns: stored values, defaults for absent keys.
+   * Data I/O: none.
+   */
+  @Test
+  public void basicOperations_test() {
+    IntIntHashMap map = new IntIntHashMap();
+    map.put(0, 10);
+    map.put(1, 11);
+    map.addTo(-5, 3);
+    map.addTo(-5, 4);
+
+    assertEquals(3, map.size());
+    assertEquals(10, map.get(0, -1));
+    assertEquals(11, map.get(1, -1));
+    assertEquals(7, map.get(-5, -1));
+    assertEquals(-1, map.get(2, -1));
+
+    assertTrue(map.remove(0));
+    assertFalse(map.remove(0));
+    assertFalse(map.containsKey(0));
+    assertEquals(2, map.size());
+  }
+
+  /**
+   * Tests the map against java.util.HashMap under random inserts and removals.
+   * Arguments: 20000 random operations over a small key range to force collisions.
+   * Returns: identical contents to the reference map.
+   * Data I/O: none.
+   */
+  @Test
+  public void randomizedAgainstHashMap_test() {
+    IntIntHashMap map = new IntIntHashMap(2);
+    Map<Integer, Integer> reference = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      int key = random.nextInt(500) - 250;
+      if (random.nextInt(3) == 0) {
+        assertEquals(reference.remove(key) != null, map.remove(key));
+      } else {
+        map.put(key, i);
+        reference.put(key, i);
+      }
+    }
+
+    assertEquals(reference.size(), map.size());
+    for (Map.Entry<Integer, Integer> e : reference.entrySet()) {
+      assertEquals(e.getValue().intValue(), map.get(e.getKey(), Integer.MIN_VALUE));
+    }
+    int[] visited = {0};
+    map.forEach((k, v) -> {
+      assertEquals(reference.get(k).intValue(), v);
+      visited[0]++;
+    });
+    assertEquals(reference.size(), visited[0]);
+  }
+}
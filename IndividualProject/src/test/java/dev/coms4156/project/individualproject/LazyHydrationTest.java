@@ -0,0 +1,107 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for lazy catalog hydration in MockApiService.
+ */
+public class LazyHydrationTest {
+
+  /**
+   * Tests that a lazily hydrated catalog ends up identical to an eagerly loaded one.
+   * Context: the bundled catalog loaded both ways.
+   * Arguments: lazy = true, list mode wait.
+   * Returns: the same ids in the same order, and all fields of the first book equal.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void matchesEagerLoad_test() {
+    List<Book> eager = new MockApiService().getBooks();
+    MockApiService lazy = new MockApiService(true, "wait");
+    List<Book> hydrated = lazy.getBooks();
+
+    assertTrue(lazy.isHydrated());
+    assertEquals(eager.size(), hydrated.size());
+    for (int i = 0; i < eager.size(); i++) {
+      assertEquals(eager.get(i).getId(), hydrated.get(i).getId());
+    }
+    assertEquals(eager.get(0).toString(), hydrated.get(0).toString());
+  }
+
+  /**
+   * Tests that a book parsed on first access is the instance the hydrated catalog holds, so
+   * mutations made before hydration finishes are kept.
+   * Context: a lazy catalog, checked out from before waiting on getBooks().
+   * Arguments: the id of the last book in the file.
+   * Returns: the same instance from findBook() and getBooks(), with the checkout applied.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void firstAccessIsShared_test() {
+    List<Book> eager = new MockApiService().getBooks();
+    Book expected = eager.get(eager.size() - 1);
+    MockApiService lazy = new MockApiService(true, "wait");
+
+    Book early = lazy.findBook(expected.getId());
+    lazy.addCopy(expected.getId());
+    assertNull(lazy.findBook(-1));
+
+    Book hydrated = lazy.getBooks().get(eager.size() - 1);
+    assertSame(early, hydrated);
+    assertSame(early, lazy.findBook(expected.getId()));
+    assertEquals(expected.getTotalCopies() + 1, hydrated.getTotalCopies());
+  }
+
+  /**
+   * Tests that partial list mode only applies while hydration is running.
+   * Context: lazy catalogs in wait and partial mode.
+   * Arguments: list modes wait and partial.
+   * Returns: hydrated books are a subset of the catalog; no partial flag once hydrated.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void partialListMode_test() {
+    MockApiService waiting = new MockApiService(true, "wait");
+    assertFalse(waiting.isServingPartial());
+
+    MockApiService partial = new MockApiService(true, "partial");
+    List<Book> soFar = partial.getHydratedBooks();
+    List<Book> all = partial.getBooks();
+    assertTrue(all.containsAll(soFar));
+    assertFalse(partial.isServingPartial());
+    assertSame(all, partial.getHydratedBooks());
+
+    ResponseEntity<?> response = new RouteController(partial).getAvailableBooks();
+    assertFalse(response.getHeaders().containsKey(RouteController.PARTIAL_HEADER));
+  }
+
+  /**
+   * Tests that a catalog installed by replaceCatalog() is not overwritten by hydration.
+   * Context: a lazy catalog replaced right after construction.
+   * Arguments: a single-book catalog.
+   * Returns: the replacement catalog from getBooks() and findBook().
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void replaceCatalogWins_test() throws Exception {
+    MockApiService lazy = new MockApiService(true, "wait");
+    Book only = new Book("Only", 9999);
+    lazy.replaceCatalog(List.of(only));
+    Thread.sleep(50);
+
+    assertEquals(1, lazy.getBooks().size());
+    assertSame(only, lazy.findBook(9999));
+    assertNull(lazy.findBook(lazy.getBooks().get(0).getId() + 1));
+  }
+}
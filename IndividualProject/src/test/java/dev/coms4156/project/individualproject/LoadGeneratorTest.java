@@ -0,0 +1,140 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.coms4156.project.individualproject.loadgen.LoadGenerator;
+import dev.coms4156.project.individualproject.loadgen.LoadReport;
+import dev.coms4156.project.individualproject.loadgen.Operation;
+import dev.coms4156.project.individualproject.loadgen.ZipfianSampler;
+import dev.coms4156.project.individualproject.util.LatencyHistogram;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the load generator, its Zipfian sampler and LatencyHistogram.
+ */
+public class LoadGeneratorTest {
+
+  /**
+   * Tests that percentiles are reported within the histogram's precision.
+   * Context: an empty histogram.
+   * Arguments: the values 1 to 100,000 microseconds, in nanoseconds.
+   * Returns: p50, p99 and max within 1% of the exact values, and the exact count.
+   * Data I/O: none.
+   */
+  @Test
+  public void histogramPercentiles_test() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+    assertEquals(100_000, histogram.getCount());
+    assertEquals(50_000_000, histogram.valueAtPercentile(50), 500_000);
+    assertEquals(99_000_000, histogram.valueAtPercentile(99), 990_000);
+    assertEquals(100_000_000, histogram.valueAtPercentile(100));
+    assertEquals(50_000_500, histogram.getMean(), 1.0);
+    assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+  }
+
+  /**
+   * Tests that the Zipfian sampler favours low ranks in the expected proportion.
+   * Context: 1,000 ranks with exponent 1.
+   * Arguments: 200,000 draws from a seeded random source.
+   * Returns: rank 0 is drawn about twice as often as rank 1 and ten times as often as rank 9.
+   * Data I/O: none.
+   */
+  @Test
+  public void zipfianSkew_test() {
+    ZipfianSampler sampler = new ZipfianSampler(1000, 1.0);
+    SplittableRandom random = new SplittableRandom(7);
+    int[] counts = new int[sampler.size()];
+    for (int i = 0; i < 200_000; i++) {
+      counts[sampler.next(random)]++;
+    }
+    assertEquals(2.0, (double) counts[0] / counts[1], 0.15);
+    assertEquals(10.0, (double) counts[0] / counts[9], 1.5);
+  }
+
+  /**
+   * Tests that traffic mixes are parsed and validated.
+   * Context: none.
+   * Arguments: a valid mix, one with an unknown operation and one with only zero weights.
+   * Returns: the valid weights; IllegalArgumentException for the others.
+   * Data I/O: none.
+   */
+  @Test
+  public void parseMix_test() {
+    Map<Operation, Integer> mix = LoadGenerator.Options.parseMix("get:80, checkout:20,add:0");
+    assertEquals(Map.of(Operation.GET_BOOK, 80, Operation.CHECKOUT, 20), mix);
+    assertThrows(IllegalArgumentException.class,
+        () -> LoadGenerator.Options.parseMix("get:50,delete:50"));
+    assertThrows(IllegalArgumentException.class,
+        () -> LoadGenerator.Options.parseMix("get:0"));
+    assertThrows(IllegalArgumentException.class,
+        () -> LoadGenerator.Options.parse("--threads=4"));
+  }
+
+  /**
+   * Tests a short load test end to end against a stub server.
+   * Context: a local HTTP server exporting books 1 to 3 and answering 409 to checkouts.
+   * Arguments: a 1 s closed-loop run with no warm-up and every operation in the mix.
+   * Returns: the catalog ids are read from the export, every operation is sent with the
+   *          right method, and checkouts are reported as client errors.
+   * Data I/O: HTTP requests to the stub server on a free local port.
+   */
+  @Test
+  public void runAgainstStubServer_test() throws Exception {
+    Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", exchange -> {
+      String path = exchange.getRequestURI().getPath();
+      String key = exchange.getRequestMethod() + " "
+          + (path.matches("/book/\\d+") ? "/book/{id}" : path.replaceAll("\\d+", "{id}"));
+      requests.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+      byte[] body = path.equals("/books/export")
+          ? "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n".getBytes(StandardCharsets.UTF_8)
+          : new byte[0];
+      exchange.sendResponseHeaders(path.equals("/checkout") ? 409 : 200,
+          body.length == 0 ? -1 : body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    try {
+      LoadGenerator generator = new LoadGenerator(LoadGenerator.Options.parse(
+          "--url=http://127.0.0.1:" + server.getAddress().getPort() + "/",
+          "--duration=1", "--warmup=0", "--concurrency=4",
+          "--mix=get:1,available:1,recommendation:1,checkout:1,add:1"));
+      int[] ids = generator.loadCatalog();
+      int[] sorted = ids.clone();
+      Arrays.sort(sorted);
+      assertArrayEquals(new int[] {1, 2, 3}, sorted);
+
+      LoadReport report = generator.run(ids);
+
+      for (String key : new String[] {"GET /book/{id}", "PUT /books/available",
+          "GET /books/recommendation", "PATCH /checkout", "PATCH /book/{id}/add"}) {
+        assertTrue(requests.containsKey(key), key + " in " + requests.keySet());
+      }
+      assertTrue(report.getCount(Operation.CHECKOUT, LoadReport.Outcome.CLIENT_ERROR) > 0);
+      assertEquals(0, report.getCount(Operation.CHECKOUT, LoadReport.Outcome.SUCCESS));
+      assertTrue(report.getCount(Operation.GET_BOOK, LoadReport.Outcome.SUCCESS) > 0);
+      assertTrue(report.getThroughput() > 0);
+      assertTrue(report.format().contains("checkout"));
+    } finally {
+      server.stop(0);
+    }
+  }
+}
@@ -6,8 +6,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogListener;
 import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -57,4 +61,59 @@ public class MockApiServiceTest {
     assertNotSame(beforeRef, afterRef);
     assertEquals(originalTitle + " new", afterRef.getTitle());
   }
+
+  /**
+   * Tests that a checkout racing an edit of the same book never lands on the replaced
+   * instance.
+   * Context: one book with plenty of copies; a listener checks that every checkout it sees
+   *          is on the stored instance.
+   * Arguments: 4 threads checking out the book 2000 times each while another thread replaces
+   *            it 200 times.
+   * Returns: every checkout succeeds, and none is applied to a book no longer stored.
+   * Data I/O: none.
+   */
+  @Test
+  public void updateRacesCheckout_test() throws Exception {
+    MockApiService svc = new MockApiService();
+    svc.replaceCatalog(List.of(copies("Original", 100_000)));
+    AtomicInteger orphaned = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    svc.addListener(new CatalogListener() {
+      @Override
+      public void onCheckout(Book book, int patronId, String dueDate) {
+        if (svc.getRepository().findById(book.getId()) != book) {
+          orphaned.incrementAndGet();
+        }
+      }
+    });
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 2000; i++) {
+          if (svc.checkoutBook(1).getStatus() != MutationResult.Status.OK) {
+            failed.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      for (int i = 0; i < 200; i++) {
+        svc.updateBook(copies("Edit " + i, 100_000));
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, failed.get());
+    assertEquals(0, orphaned.get());
+    assertEquals("Edit 199", svc.findBook(1).getTitle());
+  }
+
+  private static Book copies(String title, int copies) {
+    return new Book(title, List.of(), "eng", "s", "2000", "P", List.of(), 1, copies, copies);
+  }
 }
@@ -0,0 +1,237 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogListener;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationPipeline;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.MutationType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for the single-writer MutationPipeline.
+ */
+public class MutationPipelineTest {
+
+  private MockApiService service;
+  private MutationPipeline pipeline;
+
+  /**
+   * Seeds the service with a single book and starts an enabled pipeline.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("Hot Book", 7)));
+    pipeline = new MutationPipeline(service, true, 64, 16);
+  }
+
+  @AfterEach
+  public void teardown() {
+    pipeline.shutdown();
+  }
+
+  /**
+   * Tests that concurrent checkouts through the pipeline never over-allocate copies.
+   * Context: book 7 has 1 + 99 = 100 copies, 8 threads submit 50 checkouts each.
+   * Arguments: none.
+   * Returns: exactly 100 OK results and 300 UNAVAILABLE results.
+   * Data I/O: Mutates book 7 via the apply thread.
+   */
+  @Test
+  public void concurrentCheckouts_test() throws Exception {
+    for (int i = 0; i < 99; i++) {
+      service.addCopy(7);
+    }
+
+    List<CompletableFuture<MutationResult>> futures = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 50; i++) {
+          CompletableFuture<MutationResult> f;
+          do {
+            f = pipeline.submit(MutationType.CHECKOUT, 7);
+          } while (f.isCompletedExceptionally());
+          synchronized (futures) {
+            futures.add(f);
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    int ok = 0;
+    int unavailable = 0;
+    for (CompletableFuture<MutationResult> f : futures) {
+      MutationResult result = f.get(5, TimeUnit.SECONDS);
+      if (result.getStatus() == MutationResult.Status.OK) {
+        ok++;
+      } else if (result.getStatus() == MutationResult.Status.UNAVAILABLE) {
+        unavailable++;
+      }
+    }
+    assertEquals(100, ok);
+    assertEquals(300, unavailable);
+    assertEquals(0, service.findBook(7).getCopiesAvailable());
+    assertEquals(100, service.findBook(7).getAmountOfTimesCheckedOut());
+  }
+
+  /**
+   * Tests that commands submitted after shutdown are rejected.
+   * Arguments: none.
+   * Returns: exceptionally completed future.
+   * Data I/O: none.
+   */
+  @Test
+  public void submitAfterShutdown_test() {
+    pipeline.shutdown();
+    CompletableFuture<MutationResult> f = pipeline.submit(MutationType.ADD_COPY, 7);
+    assertTrue(f.isCompletedExceptionally());
+    assertThrows(ExecutionException.class, f::get);
+  }
+
+  /**
+   * Tests that every command accepted while the pipeline shuts down is still completed.
+   * Context: four threads submitting copies to book 7.
+   * Arguments: a shutdown while the threads are submitting, which they keep doing until it
+   *            has returned.
+   * Returns: every future completes, and the book has one copy per accepted command.
+   * Data I/O: Mutates book 7 via the apply thread.
+   */
+  @Test
+  public void shutdownCompletesAccepted_test() throws Exception {
+    AtomicBoolean stopped = new AtomicBoolean();
+    List<CompletableFuture<MutationResult>> futures = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(() -> {
+        while (!stopped.get()) {
+          CompletableFuture<MutationResult> f = pipeline.submit(MutationType.ADD_COPY, 7);
+          synchronized (futures) {
+            futures.add(f);
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    Thread.sleep(50);
+    pipeline.shutdown();
+    stopped.set(true);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    int accepted = 0;
+    for (CompletableFuture<MutationResult> f : futures) {
+      try {
+        f.get(5, TimeUnit.SECONDS);
+        accepted++;
+      } catch (ExecutionException e) {
+        // Rejected because the ring was full or the pipeline had stopped
+      }
+    }
+    assertTrue(accepted > 0);
+    assertEquals(1 + accepted, service.findBook(7).getTotalCopies());
+  }
+
+  /**
+   * Tests that a disabled pipeline never accepts commands.
+   * Arguments: none.
+   * Returns: isEnabled() false and an exceptionally completed future.
+   * Data I/O: none.
+   */
+  @Test
+  public void disabledPipeline_test() {
+    MutationPipeline disabled = new MutationPipeline(service, false, 64, 16);
+    assertFalse(disabled.isEnabled());
+    assertTrue(disabled.submit(MutationType.CHECKOUT, 7).isCompletedExceptionally());
+  }
+
+  /**
+   * Tests controller checkout() and addCopy() when mutations go through the pipeline.
+   * Context: book 7 has 1 copy.
+   * Arguments: none.
+   * Returns: 200 then 409 for checkout, 200 for addCopy, 404 and 418 for unknown ids.
+   * Data I/O: Mutates book 7 via the apply thread.
+   */
+  @Test
+  public void controllerThroughPipeline_test() {
+    RouteController controller = new RouteController(service, pipeline, null, null, null);
+
+    assertEquals(HttpStatus.OK, controller.checkout(7).getStatusCode());
+    assertEquals(HttpStatus.CONFLICT, controller.checkout(7).getStatusCode());
+    assertEquals(HttpStatus.OK, controller.addCopy(7).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, controller.checkout(8).getStatusCode());
+    assertEquals(HttpStatus.I_AM_A_TEAPOT, controller.addCopy(8).getStatusCode());
+    assertEquals(2, service.findBook(7).getTotalCopies());
+  }
+
+  /**
+   * Tests that cancelling a queued command succeeds only before the apply thread takes it.
+   * Context: book 7 with 1 copy; a listener can hold the apply thread inside an added copy.
+   * Arguments: a command cancelled while the apply thread is applying it, then a command
+   *            cancelled while the apply thread waits for the book's lock, then a third one.
+   * Returns: the first cancel fails and its copy is added, the second cancel succeeds and
+   *          adds nothing, and the third copy is added: 3 copies in all.
+   * Data I/O: Mutates book 7 via the apply thread.
+   */
+  @Test
+  public void cancelBeforeApply_test() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean hold = new AtomicBoolean(true);
+    service.addListener(new CatalogListener() {
+      @Override
+      public void onCopyAdded(Book book) {
+        if (hold.getAndSet(false)) {
+          entered.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+
+    CompletableFuture<MutationResult> applying = pipeline.submit(MutationType.ADD_COPY, 7);
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    assertFalse(applying.cancel(false));
+    release.countDown();
+    assertEquals(MutationResult.Status.OK, applying.get(5, TimeUnit.SECONDS).getStatus());
+
+    Book book = service.findBook(7);
+    CompletableFuture<MutationResult> withdrawn;
+    synchronized (book) {
+      withdrawn = pipeline.submit(MutationType.ADD_COPY, 7);
+      Thread.sleep(100);
+      assertTrue(withdrawn.cancel(false));
+    }
+    assertEquals(MutationResult.Status.OK,
+        pipeline.submit(MutationType.ADD_COPY, 7).get(5, TimeUnit.SECONDS).getStatus());
+    assertTrue(withdrawn.isCancelled());
+    assertEquals(3, service.findBook(7).getTotalCopies());
+  }
+}
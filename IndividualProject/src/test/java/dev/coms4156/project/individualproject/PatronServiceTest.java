@@ -0,0 +1,220 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.PatronController;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.Loan;
+import dev.coms4156.project.individualproject.model.Patron;
+import dev.coms4156.project.individualproject.service.HoldService;
+import dev.coms4156.project.individualproject.service.LoanRegistry;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.PatronService;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for LoanRegistry, PatronService and PatronController.
+ */
+public class PatronServiceTest {
+
+  private MockApiService service;
+  private PatronService patronService;
+  private RouteController controller;
+  private PatronController patronController;
+
+  /**
+   * Seeds the service with two books and wires patron tracking into the controller.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    service.replaceCatalog(List.of(new Book("First", 1), new Book("Second", 2)));
+    service.getBooks().get(0).addCopy();
+    patronService = new PatronService(service);
+    controller = new RouteController(service, null, patronService, null, null);
+    patronController = new PatronController(patronService);
+  }
+
+  /**
+   * Tests both indexes of LoanRegistry through adds, removals and slot reuse.
+   * Arguments: loans of books 1-3 to patrons 10 and 20.
+   * Returns: per-patron and per-book loan lists matching what is outstanding.
+   * Data I/O: none.
+   */
+  @Test
+  public void loanRegistry_test() {
+    LoanRegistry registry = new LoanRegistry(4);
+    registry.add(1, 10, "2030-01-01");
+    registry.add(2, 10, "2030-01-02");
+    registry.add(1, 20, "2030-01-03");
+    registry.add(3, 20, "2030-01-04");
+    registry.add(1, 10, "2030-01-05");
+    assertEquals(5, registry.size());
+
+    assertEquals(3, registry.loansForPatron(10).size());
+    assertEquals(3, registry.loansForBook(1).size());
+
+    assertTrue(registry.remove(1, 10, "2030-01-05"));
+    assertFalse(registry.remove(1, 10, "2030-01-05"));
+    assertTrue(registry.remove(1, 20, "2030-01-03"));
+    assertEquals(1, registry.loansForBook(1).size());
+    assertEquals(1, registry.loansForPatron(20).size());
+
+    registry.add(4, 30, "2030-02-01");
+    List<Loan> loans = registry.loansForPatron(30);
+    assertEquals(1, loans.size());
+    assertEquals(4, loans.get(0).getBookId());
+    assertEquals("2030-02-01", loans.get(0).getDueDate());
+    assertTrue(registry.loansForPatron(99).isEmpty());
+  }
+
+  /**
+   * Tests the due date conversion LoanRegistry uses instead of a full parse.
+   * Arguments: valid ISO dates, an out of range date and a malformed one.
+   * Returns: the same epoch days as LocalDate, and a parse error for bad input.
+   * Data I/O: none.
+   */
+  @Test
+  public void epochDay_test() {
+    for (String date : List.of("2030-01-01", "2024-02-29", "1970-01-01", "1969-12-31")) {
+      assertEquals(LocalDate.parse(date).toEpochDay(), LoanRegistry.epochDay(date));
+    }
+    assertThrows(DateTimeParseException.class, () -> LoanRegistry.epochDay("2030-13-01"));
+    assertThrows(DateTimeParseException.class, () -> LoanRegistry.epochDay("2030-1-01x"));
+  }
+
+  /**
+   * Tests that patron checkouts and returns maintain the patron's loans.
+   * Context: patron registered, book 1 has 2 copies.
+   * Arguments: checkout of books 1 and 2, return of book 1.
+   * Returns: 2 loans after checkouts, 1 after the return.
+   * Data I/O: Mutates books 1 and 2.
+   */
+  @Test
+  public void checkoutAndReturnWithPatron_test() {
+    Patron patron = patronService.registerPatron("Ada");
+
+    assertEquals(HttpStatus.OK, controller.checkout(1, patron.getId()).getStatusCode());
+    assertEquals(HttpStatus.OK, controller.checkout(2, patron.getId()).getStatusCode());
+    assertEquals(HttpStatus.OK, controller.checkout(1).getStatusCode());
+    assertEquals(2, patronService.getLoans(patron.getId()).size());
+    assertEquals(1, patronService.getBookLoans(1).size());
+
+    String dueDate = patronService.getBookLoans(1).get(0).getDueDate();
+    assertEquals(HttpStatus.OK,
+        controller.returnBook(1, dueDate, patron.getId()).getStatusCode());
+    assertEquals(HttpStatus.CONFLICT,
+        controller.returnBook(1, dueDate, patron.getId()).getStatusCode());
+    assertEquals(1, patronService.getLoans(patron.getId()).size());
+    assertEquals(2, patronService.getLoans(patron.getId()).get(0).getBookId());
+  }
+
+  /**
+   * Tests that returns cannot take a copy away from a patron's loan.
+   * Context: patron registered, book 2 has 1 copy.
+   * Arguments: a patron checkout of book 2, an anonymous return of its due date, a malformed
+   *            date, then the same patron return from eight threads at once.
+   * Returns: the anonymous return gets 409 and leaves the loan, the malformed date gets 400,
+   *          and exactly one of the concurrent patron returns succeeds.
+   * Data I/O: Mutates book 2.
+   */
+  @Test
+  public void returnGuardedByLoan_test() throws Exception {
+    Patron patron = patronService.registerPatron("Edsger");
+    assertEquals(HttpStatus.OK, controller.checkout(2, patron.getId()).getStatusCode());
+    String dueDate = patronService.getBookLoans(2).get(0).getDueDate();
+
+    assertEquals(HttpStatus.CONFLICT, controller.returnBook(2, dueDate).getStatusCode());
+    assertEquals(1, patronService.getBookLoans(2).size());
+    assertEquals(0, service.findBook(2).getCopiesAvailable());
+    assertEquals(HttpStatus.BAD_REQUEST,
+        controller.returnBook(2, "not-a-date", patron.getId()).getStatusCode());
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return controller.returnBook(2, dueDate, patron.getId());
+      }));
+    }
+    start.countDown();
+    int returned = 0;
+    for (Future<ResponseEntity<?>> future : futures) {
+      if (future.get().getStatusCode() == HttpStatus.OK) {
+        returned++;
+      }
+    }
+    executor.shutdown();
+    assertEquals(1, returned);
+    assertTrue(patronService.getBookLoans(2).isEmpty());
+    assertEquals(1, service.findBook(2).getCopiesAvailable());
+  }
+
+  /**
+   * Tests checkout() with a patron id that is not registered.
+   * Arguments: patron id 12345.
+   * Returns: 404 NOT_FOUND and no copy consumed.
+   * Data I/O: none.
+   */
+  @Test
+  public void checkoutUnknownPatron_test() {
+    assertEquals(HttpStatus.NOT_FOUND, controller.checkout(1, 12345).getStatusCode());
+    assertEquals(2, service.findBook(1).getCopiesAvailable());
+  }
+
+  /**
+   * Tests that a copy allocated from a hold shows up as the patron's loan.
+   * Context: book 2 checked out, registered patron holds it.
+   * Arguments: anonymous return of book 2.
+   * Returns: patron has one loan for book 2.
+   * Data I/O: Mutates book 2.
+   */
+  @Test
+  public void holdAllocationCreatesLoan_test() {
+    HoldService holdService = new HoldService(service);
+    Patron patron = patronService.registerPatron("Grace");
+    String dueDate = service.checkoutBook(2).getDueDate();
+    holdService.placeHold(service.findBook(2), patron.getId());
+
+    controller.returnBook(2, dueDate);
+
+    List<Loan> loans = patronService.getLoans(patron.getId());
+    assertEquals(1, loans.size());
+    assertEquals(2, loans.get(0).getBookId());
+  }
+
+  /**
+   * Tests all branches of PatronController.
+   * Arguments: blank and valid names, known and unknown patron ids.
+   * Returns: 201/400 for registration, 200/404 for lookups.
+   * Data I/O: Registers a patron.
+   */
+  @Test
+  public void patronController_test() {
+    assertEquals(HttpStatus.BAD_REQUEST, patronController.registerPatron(" ").getStatusCode());
+    Patron patron = (Patron) patronController.registerPatron("Linus").getBody();
+
+    assertEquals(HttpStatus.OK, patronController.getPatron(patron.getId()).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, patronController.getPatron(999).getStatusCode());
+    assertEquals(HttpStatus.OK, patronController.getPatronLoans(patron.getId()).getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND, patronController.getPatronLoans(999).getStatusCode());
+    assertEquals(HttpStatus.OK, patronController.getBookLoans(1).getStatusCode());
+  }
+}
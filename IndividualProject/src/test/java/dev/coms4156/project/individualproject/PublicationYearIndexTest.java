@@ -0,0 +1,163 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.BookQueryController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.PublicationYearIndex;
+import dev.coms4156.project.individualproject.service.PublicationYearIndex.Page;
+import dev.coms4156.project.individualproject.util.CatalogText;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for PublicationYearIndex and BookQueryController.
+ */
+public class PublicationYearIndexTest {
+
+  private static Book book(int id, String publicationDate, int copies) {
+    return new Book("Book " + id, List.of("Author"), "eng", "stacks", publicationDate,
+        "Penguin", List.of(), id, copies, copies);
+  }
+
+  private static List<Integer> ids(Page page) {
+    return page.getBooks().stream().map(Book::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Tests that free-form publication dates are normalized to years.
+   * Context: none.
+   * Arguments: dates in the formats of the bundled catalog, and dates without a year.
+   * Returns: the four-digit year, or 0; the raw string is kept and the year is not
+   *          serialized.
+   * Data I/O: none.
+   */
+  @Test
+  public void parseYear_test() throws Exception {
+    assertEquals(2005, CatalogText.parseYear("2005."));
+    assertEquals(1964, CatalogText.parseYear("[1964?]"));
+    assertEquals(2004, CatalogText.parseYear("[2004], c2004."));
+    assertEquals(0, CatalogText.parseYear("19th century"));
+    assertEquals(0, CatalogText.parseYear("12345"));
+    assertEquals(0, CatalogText.parseYear(null));
+
+    Book book = book(1, "[1972], [c1972]", 1);
+    assertEquals(1972, book.getPublicationYear());
+    book.setPublicationDate("n.d.");
+    assertEquals(Book.UNKNOWN_YEAR, book.getPublicationYear());
+    String json = new ObjectMapper().writeValueAsString(book);
+    assertFalse(json.contains("publicationYear"));
+  }
+
+  /**
+   * Tests range queries, paging and availability filtering.
+   * Context: five books from 1990 to 2010, one checked out, and one without a year.
+   * Arguments: several ranges, a page size of 2 followed by its cursor, and available=true.
+   * Returns: the books in range by year then id, with cursors covering the range exactly
+   *          once and unavailable books skipped.
+   * Data I/O: none.
+   */
+  @Test
+  public void rangePagingAndAvailability_test() {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(book(5, "2010.", 1), book(1, "1990.", 1),
+        book(3, "[2000?]", 0), book(2, "2000.", 1), book(4, "2005.", 1), book(6, "n.d.", 1)));
+    PublicationYearIndex index = new PublicationYearIndex(service);
+
+    assertEquals(List.of(2, 3, 4), ids(index.query(2000, 2005, false, 10, null)));
+    assertEquals(List.of(2, 4), ids(index.query(2000, 2005, true, 10, null)));
+    assertEquals(List.of(), ids(index.query(2011, 2020, false, 10, null)));
+    assertEquals(List.of(6, 1, 2, 3, 4, 5), ids(index.query(0, 9999, false, 10, null)));
+
+    Page first = index.query(1990, 2010, false, 2, null);
+    assertEquals(List.of(1, 2), ids(first));
+    assertEquals(5, first.getTotalInRange());
+    assertEquals("2000:2", first.getNextCursor());
+    Page second = index.query(1990, 2010, false, 2, first.getNextCursor());
+    assertEquals(List.of(3, 4), ids(second));
+    Page third = index.query(1990, 2010, false, 2, second.getNextCursor());
+    assertEquals(List.of(5), ids(third));
+    assertNull(third.getNextCursor());
+    assertThrows(IllegalArgumentException.class,
+        () -> index.query(1990, 2010, false, 2, "2000-2"));
+  }
+
+  /**
+   * Tests that edits, replicated records and replacements are reflected in the index.
+   * Context: three books from 1990, 2000 and 2010.
+   * Arguments: an edit moving a book to 1995 and back, a replicated new book, a burst of
+   *            edits, and a replacement catalog.
+   * Returns: each query sees the catalog as it is, with every book listed once.
+   * Data I/O: none.
+   */
+  @Test
+  public void updatesAreMerged_test() {
+    MockApiService service = new MockApiService();
+    service.replaceCatalog(List.of(book(1, "1990.", 1), book(2, "2000.", 1),
+        book(3, "2010.", 1)));
+    PublicationYearIndex index = new PublicationYearIndex(service);
+
+    service.updateBook(book(3, "1995.", 1));
+    assertEquals(List.of(1, 3, 2), ids(index.query(1990, 2010, false, 10, null)));
+    service.updateBook(book(3, "2010.", 1));
+    service.updateBook(book(3, "1995.", 1));
+    service.updateBook(book(3, "2010.", 1));
+    assertEquals(List.of(1, 2, 3), ids(index.query(1990, 2010, false, 10, null)));
+    assertEquals(3, index.size());
+
+    service.upsertBook(book(4, "1999.", 1));
+    for (int i = 0; i < 100; i++) {
+      service.upsertBook(book(1, (1900 + i) + ".", 1));
+    }
+    assertEquals(List.of(1, 4, 2, 3), ids(index.query(1990, 2010, false, 10, null)));
+
+    List<Book> replacement = new ArrayList<>();
+    replacement.add(book(8, "1850.", 1));
+    service.replaceCatalog(replacement);
+    assertEquals(List.of(8), ids(index.query(0, 9999, false, 10, null)));
+    assertEquals(1, index.size());
+  }
+
+  /**
+   * Tests the query endpoint's parameters.
+   * Context: the bundled catalog, where every publication date has a year.
+   * Arguments: no bounds, the 1900s, an inverted range, a zero size and a bad cursor.
+   * Returns: 200 with all books, then the books of the 1900s in year order; 400 for the rest.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void controllerParameters_test() {
+    MockApiService service = new MockApiService();
+    BookQueryController controller =
+        new BookQueryController(new PublicationYearIndex(service));
+
+    var response = controller.getBooksByYear(null, null, false, 100, null);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(service.getBooks().size(), ((Page) response.getBody()).getTotalInRange());
+
+    Page page = (Page) controller.getBooksByYear(1900, 1999, false, 100, null).getBody();
+    int previous = 1900;
+    for (Book book : page.getBooks()) {
+      assertFalse(book.getPublicationYear() < previous || book.getPublicationYear() > 1999);
+      previous = book.getPublicationYear();
+    }
+    long expected = service.getBooks().stream()
+        .filter(b -> b.getPublicationYear() >= 1900 && b.getPublicationYear() <= 1999).count();
+    assertEquals(expected, page.getBooks().size());
+
+    assertEquals(HttpStatus.BAD_REQUEST,
+        controller.getBooksByYear(2000, 1999, false, 10, null).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST,
+        controller.getBooksByYear(null, null, false, 0, null).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST,
+        controller.getBooksByYear(null, null, false, 10, "x:y").getStatusCode());
+  }
+}
@@ -0,0 +1,207 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.ReplicationController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.replication.InventoryEvent;
+import dev.coms4156.project.individualproject.replication.MutationLog;
+import dev.coms4156.project.individualproject.replication.ReplicaGuardInterceptor;
+import dev.coms4156.project.individualproject.replication.ReplicaSync;
+import dev.coms4156.project.individualproject.service.CatalogExporter;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for MutationLog, ReplicaSync and ReplicaGuardInterceptor.
+ */
+public class ReplicationTest {
+
+  private MockApiService primary;
+  private MockApiService replica;
+  private MutationLog log;
+  private ReplicaSync sync;
+
+  /**
+   * Creates a primary with a mutation log and a replica whose sync thread points nowhere.
+   */
+  @BeforeEach
+  public void setup() {
+    primary = new MockApiService();
+    primary.replaceCatalog(List.of(new Book("One", 1), new Book("Two", 2)));
+    log = new MutationLog(primary, "primary", 4);
+
+    replica = new MockApiService();
+    sync = new ReplicaSync(replica, new ObjectMapper(), "replica", "http://127.0.0.1:1", 60_000,
+        10);
+  }
+
+  @AfterEach
+  public void teardown() {
+    sync.shutdown();
+  }
+
+  /**
+   * Tests that mutations are logged in order as snapshots of the book.
+   * Arguments: checkout of book 1, addCopy of book 2, then another checkout of book 1.
+   * Returns: sequences 1..3 with the book state at each event.
+   * Data I/O: Mutates primary books.
+   */
+  @Test
+  public void mutationLog_ordersSnapshots_test() throws Exception {
+    primary.checkoutBook(1);
+    primary.addCopy(2);
+    primary.addCopy(1);
+
+    List<InventoryEvent> events = log.readAfter(0, 10, 0);
+    assertEquals(3, events.size());
+    assertEquals(InventoryEvent.Type.CHECKOUT, events.get(0).getType());
+    assertEquals(0, events.get(0).getBook().getCopiesAvailable());
+    assertEquals(1, events.get(2).getBook().getCopiesAvailable());
+    assertNotSame(primary.findBook(1), events.get(0).getBook());
+
+    assertEquals(2, log.readAfter(1, 10, 0).size());
+    assertTrue(log.readAfter(3, 10, 0).isEmpty());
+  }
+
+  /**
+   * Tests that a reader too far behind the retained window gets a gap signal.
+   * Context: log retains 4 events, 6 are appended.
+   * Arguments: readAfter(0) and readAfter(2).
+   * Returns: null for a gap, the last 4 events otherwise.
+   * Data I/O: Mutates primary book 2.
+   */
+  @Test
+  public void mutationLog_gap_test() throws Exception {
+    for (int i = 0; i < 6; i++) {
+      primary.addCopy(2);
+    }
+    assertNull(log.readAfter(0, 10, 0));
+    assertEquals(4, log.readAfter(2, 10, 0).size());
+  }
+
+  /**
+   * Tests that a replica converges to the primary by bootstrap plus event replay.
+   * Arguments: snapshot at sequence 0, then the primary's events twice.
+   * Returns: replica books match the primary, duplicates ignored, no lag.
+   * Data I/O: Mutates primary and replica catalogs.
+   */
+  @Test
+  public void replicaConverges_test() throws Exception {
+    assertTrue(sync.isStale());
+    sync.bootstrap(0, List.of(new Book("One", 1), new Book("Two", 2)));
+    assertFalse(sync.isStale());
+
+    primary.checkoutBook(1);
+    primary.addCopy(2);
+    Book updated = new Book("Two, revised", 2);
+    primary.updateBook(updated);
+
+    List<InventoryEvent> events = log.readAfter(0, 10, 0);
+    sync.applyEvents(events, log.getLastSequence());
+    sync.applyEvents(events, log.getLastSequence());
+
+    assertEquals(0, replica.findBook(1).getCopiesAvailable());
+    assertEquals("Two, revised", replica.findBook(2).getTitle());
+    assertEquals(2, replica.getBooks().size());
+    assertEquals(0L, sync.getStatus().get("lagEvents"));
+    assertEquals(3L, sync.getStatus().get("appliedSequence"));
+  }
+
+  /**
+   * Tests the replica guard for writes, stale reads and fresh reads.
+   * Arguments: PATCH /checkout, GET /book/1 and PUT /books/available.
+   * Returns: 403 for writes, 503 while stale, pass-through once synced.
+   * Data I/O: none.
+   */
+  @Test
+  public void replicaGuard_test() throws Exception {
+    ReplicaGuardInterceptor guard = new ReplicaGuardInterceptor(sync);
+
+    MockHttpServletResponse write = new MockHttpServletResponse();
+    assertFalse(guard.preHandle(new MockHttpServletRequest("PATCH", "/checkout"), write, null));
+    assertEquals(403, write.getStatus());
+
+    MockHttpServletResponse stale = new MockHttpServletResponse();
+    assertFalse(guard.preHandle(new MockHttpServletRequest("GET", "/book/1"), stale, null));
+    assertEquals(503, stale.getStatus());
+
+    sync.bootstrap(0, List.of(new Book("One", 1)));
+    assertTrue(guard.preHandle(new MockHttpServletRequest("GET", "/book/1"),
+        new MockHttpServletResponse(), null));
+    assertTrue(guard.preHandle(new MockHttpServletRequest("PUT", "/books/available"),
+        new MockHttpServletResponse(), null));
+  }
+
+  /**
+   * Tests that replicated upserts do not change a list a reader is iterating.
+   * Context: a primary with books 1 and 2.
+   * Arguments: an upsert of a new book and of a replacement for book 1 while iterating the
+   *            list returned before them.
+   * Returns: the iteration sees the two original books; the catalog afterwards has the
+   *          replacement and the new book.
+   * Data I/O: none.
+   */
+  @Test
+  public void upsertPublishesNewList_test() {
+    List<Book> before = primary.getBooks();
+    int seen = 0;
+    for (Book book : before) {
+      primary.upsertBook(new Book("Replica " + seen, 3 + seen));
+      primary.upsertBook(new Book("One v2", 1));
+      seen++;
+    }
+    assertEquals(2, seen);
+    assertEquals("One", before.get(0).getTitle());
+    assertEquals(4, primary.getBooks().size());
+    assertEquals("One v2", primary.findBook(1).getTitle());
+  }
+
+  /**
+   * Tests that the snapshot endpoint streams every book with the sequence it reflects, and
+   * that a replica can bootstrap from it.
+   * Context: a primary with two books and one logged checkout.
+   * Arguments: GET /replication/snapshot on the primary and on a node that is not one.
+   * Returns: sequence 1 and both books, the checkout reflected; 404 on the other node.
+   * Data I/O: Mutates primary book 1 and the replica catalog.
+   */
+  @Test
+  public void snapshotStreamsBooks_test() throws Exception {
+    primary.checkoutBook(1);
+    ObjectMapper mapper = new ObjectMapper();
+    ReplicationController controller = new ReplicationController(
+        new CatalogExporter(primary, mapper), log, sync);
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    controller.getSnapshot(response);
+    assertEquals(200, response.getStatus());
+    JsonNode body = mapper.readTree(response.getContentAsByteArray());
+    assertEquals(1, body.get("sequence").asLong());
+    assertEquals(2, body.get("books").size());
+    assertEquals(0, body.get("books").get(0).get("copiesAvailable").asInt());
+
+    List<Book> books = new ArrayList<>();
+    for (JsonNode node : body.get("books")) {
+      books.add(mapper.treeToValue(node, Book.class));
+    }
+    sync.bootstrap(body.get("sequence").asLong(), books);
+    assertEquals(0, replica.findBook(1).getCopiesAvailable());
+
+    MockHttpServletResponse notPrimary = new MockHttpServletResponse();
+    new ReplicationController(new CatalogExporter(primary, mapper),
+        new MutationLog(primary, "none", 4), sync).getSnapshot(notPrimary);
+    assertEquals(404, notPrimary.getStatus());
+  }
+}
@@ -9,6 +9,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import dev.coms4156.project.individualproject.controller.RouteController;
 import dev.coms4156.project.individualproject.model.Book;
 import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,7 +32,7 @@ public class RouteControllerTest {
     service = new MockApiService();
     controller = new RouteController(service);
     if (service.getBooks() == null || service.getBooks().isEmpty()) {
-      service.getBooks().add(new Book("Seed Book", 1));
+      service.replaceCatalog(List.of(new Book("Seed Book", 1)));
     }
   }
 
@@ -125,10 +126,11 @@ public class RouteControllerTest {
 
   // Helper methods for testing getRecommendations()
   private void seedBooks(int n) {
-    service.getBooks().clear();
+    List<Book> books = new ArrayList<>();
     for (int i = 1; i <= n; i++) {
-      service.getBooks().add(new Book("B" + i, i));
+      books.add(new Book("B" + i, i));
     }
+    service.replaceCatalog(books);
   }
 
   private void checkoutRange(int startId, int endId) {
@@ -246,8 +248,7 @@ public class RouteControllerTest {
    */
   @Test
   public void checkout_test() {
-    service.getBooks().clear();
-    service.getBooks().add(new Book("NewBook", 111));
+    service.replaceCatalog(List.of(new Book("NewBook", 111)));
     // add copy so it has 2 copies
     service.getBooks().get(0).addCopy();
   
@@ -276,8 +277,7 @@ public class RouteControllerTest {
    */
   @Test
   public void checkout_3checkouts_test() {
-    service.getBooks().clear();
-    service.getBooks().add(new Book("NewBook", 111));
+    service.replaceCatalog(List.of(new Book("NewBook", 111)));
     Book b = service.getBooks().get(0);
     // make it to have 2 copies
     b.addCopy();
@@ -296,8 +296,7 @@ public class RouteControllerTest {
    */
   @Test
   public void checkout_noId_test() {
-    service.getBooks().clear();
-    service.getBooks().add(new Book("NewBook", 111));
+    service.replaceCatalog(List.of(new Book("NewBook", 111)));
   
     ResponseEntity<?> resp = controller.checkout(10000);
     assertEquals(HttpStatus.NOT_FOUND, resp.getStatusCode());
@@ -314,8 +313,7 @@ public class RouteControllerTest {
   @Test
   public void checkout_0copies_test() {
     // 1 copy
-    service.getBooks().clear();
-    service.getBooks().add(new Book("NewBook", 111));
+    service.replaceCatalog(List.of(new Book("NewBook", 111)));
     // check out to make it to have 0 copies
     service.getBooks().get(0).checkoutCopy();
   
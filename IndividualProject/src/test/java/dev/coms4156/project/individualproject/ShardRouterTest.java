@@ -0,0 +1,164 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.sharding.ShardRouter;
+import dev.coms4156.project.individualproject.sharding.ShardRoutingInterceptor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Unit tests for ShardRouter and ShardRoutingInterceptor.
+ */
+public class ShardRouterTest {
+
+  private static final String NODES = "http://127.0.0.1:1,http://127.0.0.1:2,http://127.0.0.1:3";
+
+  /**
+   * Tests that the shards partition the catalog: every book is owned by exactly one shard.
+   * Context: the bundled 50-book catalog split over 3 shards.
+   * Arguments: self-index 0..2.
+   * Returns: disjoint local catalogs whose union is the full catalog.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void partitionsCatalog_test() {
+    int total = new MockApiService().getBooks().size();
+    Set<Integer> seen = new HashSet<>();
+    for (int self = 0; self < 3; self++) {
+      MockApiService service = new MockApiService();
+      ShardRouter router = new ShardRouter(service, NODES, self);
+      assertTrue(router.isEnabled());
+      for (Book book : service.getBooks()) {
+        assertEquals(self, router.ownerOf(book.getId()));
+        assertTrue(seen.add(book.getId()));
+      }
+    }
+    assertEquals(total, seen.size());
+  }
+
+  /**
+   * Tests that a single node or an empty node list disables sharding.
+   * Arguments: "" and one URL.
+   * Returns: isEnabled() false, every book local, full catalog kept.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void disabled_test() {
+    MockApiService service = new MockApiService();
+    int total = service.getBooks().size();
+    ShardRouter router = new ShardRouter(service, "", 0);
+    assertFalse(router.isEnabled());
+    assertFalse(router.shouldGather());
+    assertTrue(router.isLocal(12345));
+    assertEquals(total, service.getBooks().size());
+    assertFalse(new ShardRouter(service, "http://localhost:8080", 0).isEnabled());
+  }
+
+  /**
+   * Tests that an out-of-range self index is rejected.
+   * Arguments: self-index 3 with 3 nodes.
+   * Returns: IllegalArgumentException.
+   * Data I/O: none.
+   */
+  @Test
+  public void invalidSelfIndex_test() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ShardRouter(new MockApiService(), NODES, 3));
+  }
+
+  /**
+   * Tests recommendationCandidates() returns the top books plus distinct random others.
+   * Context: 12 books, book i checked out i times.
+   * Arguments: 5 popular, 5 random.
+   * Returns: books 12..8 first, then 5 distinct books from 1..7.
+   * Data I/O: none.
+   */
+  @Test
+  public void recommendationCandidates_test() {
+    List<Book> books = new ArrayList<>();
+    for (int i = 1; i <= 12; i++) {
+      Book book = new Book("B" + i, i);
+      for (int c = 0; c < i; c++) {
+        book.addCopy();
+        book.checkoutCopy();
+      }
+      books.add(book);
+    }
+
+    List<Book> candidates = ShardRouter.recommendationCandidates(books, 5, 5);
+    assertEquals(10, candidates.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(12 - i, candidates.get(i).getId());
+    }
+    Set<Integer> random = new HashSet<>();
+    for (Book b : candidates.subList(5, 10)) {
+      assertTrue(b.getId() <= 7);
+      random.add(b.getId());
+    }
+    assertEquals(5, random.size());
+    assertEquals(3, ShardRouter.recommendationCandidates(books.subList(0, 3), 5, 5).size());
+  }
+
+  /**
+   * Tests that the interceptor serves local and already-forwarded requests itself, rejects a
+   * forwarded header from a client that is not a shard, and answers 502 when the owning shard
+   * is unreachable.
+   * Context: 3 shards at unreachable addresses on 127.0.0.1, this node is shard 0.
+   * Arguments: GET /book/{id} for a local and a remote id, forwarded from 127.0.0.1 and from
+   *            another address.
+   * Returns: pass-through for local and forwarded requests, 403 for the forged header, 502
+   *          for the remote id.
+   * Data I/O: none.
+   */
+  @Test
+  public void interceptor_test() throws Exception {
+    MockApiService service = new MockApiService();
+    ShardRouter router = new ShardRouter(service, NODES, 0);
+    ShardRoutingInterceptor interceptor = new ShardRoutingInterceptor(router);
+
+    int localId = service.getBooks().get(0).getId();
+    int remoteId = 1;
+    while (router.isLocal(remoteId)) {
+      remoteId++;
+    }
+
+    assertTrue(interceptor.preHandle(bookRequest(localId), new MockHttpServletResponse(), null));
+
+    MockHttpServletRequest forwarded = bookRequest(remoteId);
+    forwarded.addHeader(ShardRouter.FORWARDED_HEADER, "1");
+    assertTrue(interceptor.preHandle(forwarded, new MockHttpServletResponse(), null));
+    assertTrue(router.isForwarded(forwarded));
+
+    MockHttpServletRequest forged = bookRequest(remoteId);
+    forged.setRemoteAddr("192.0.2.7");
+    forged.addHeader(ShardRouter.FORWARDED_HEADER, "1");
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(forged, rejected, null));
+    assertEquals(403, rejected.getStatus());
+    assertFalse(router.isForwarded(forged));
+
+    MockHttpServletResponse unreachable = new MockHttpServletResponse();
+    assertFalse(interceptor.preHandle(bookRequest(remoteId), unreachable, null));
+    assertEquals(502, unreachable.getStatus());
+  }
+
+  private static MockHttpServletRequest bookRequest(int id) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/" + id);
+    request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+        Map.of("id", Integer.toString(id)));
+    return request;
+  }
+}
@@ -0,0 +1,157 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.SimilarityController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CoCheckoutMatrix;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.SimilarityService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for CoCheckoutMatrix, SimilarityService and SimilarityController.
+ */
+public class SimilarityTest {
+
+  private MockApiService service;
+  private SimilarityService similarity;
+
+  /**
+   * Creates a catalog of 6 books with plenty of copies and a similarity service tracking
+   * 3 neighbors per book and 2 recent books per patron.
+   */
+  @BeforeEach
+  public void setup() {
+    service = new MockApiService();
+    List<Book> books = new ArrayList<>();
+    for (int id = 1; id <= 6; id++) {
+      Book book = new Book("Book " + id, id);
+      for (int c = 0; c < 10; c++) {
+        book.addCopy();
+      }
+      books.add(book);
+    }
+    service.replaceCatalog(books);
+    similarity = new SimilarityService(service, 3, 2);
+  }
+
+  /**
+   * Tests that the matrix orders neighbors by count, then id, and caps the limit.
+   * Context: book 1 co-borrowed with 4 twice and with 2, 3 and 5 once each.
+   * Arguments: limits 2 and 10.
+   * Returns: [4, 2] and [4, 2, 3]; counts are symmetric.
+   * Data I/O: none.
+   */
+  @Test
+  public void matrixOrdering_test() {
+    CoCheckoutMatrix matrix = new CoCheckoutMatrix(3);
+    matrix.increment(1, 5);
+    matrix.increment(1, 3);
+    matrix.increment(1, 4);
+    matrix.increment(1, 2);
+    matrix.increment(4, 1);
+    matrix.increment(1, 1);
+
+    assertArrayEquals(new int[] {4, 2}, matrix.top(1, 2));
+    assertArrayEquals(new int[] {4, 2, 3}, matrix.top(1, 10));
+    assertEquals(2, matrix.count(4, 1));
+    assertEquals(0, matrix.count(1, 1));
+    assertEquals(0, matrix.top(99, 5).length);
+  }
+
+  /**
+   * Tests that a frequent neighbor survives a flood of one-off neighbors in a full row.
+   * Context: 2 neighbors per book, so rows hold 4 entries.
+   * Arguments: book 2 co-borrowed with 1 thirty times, interleaved with 60 other books once
+   *            each, so book 2 has a third of the row's total.
+   * Returns: book 2 remains the top neighbor of book 1, counted at least 30 times.
+   * Data I/O: none.
+   */
+  @Test
+  public void boundedRowKeepsHeavyNeighbor_test() {
+    CoCheckoutMatrix matrix = new CoCheckoutMatrix(2);
+    for (int other = 100; other < 160; other++) {
+      matrix.increment(1, other);
+      if (other % 2 == 0) {
+        matrix.increment(1, 2);
+      }
+    }
+    assertArrayEquals(new int[] {2}, matrix.top(1, 1));
+    assertTrue(matrix.count(1, 2) >= 30);
+  }
+
+  /**
+   * Tests that checkouts by patrons build the neighbors, and anonymous or repeated checkouts
+   * add nothing.
+   * Context: patron 7 borrows 1, 2, 3; patron 8 borrows 1, 2, 2 again; anonymous borrows 1, 6.
+   * Arguments: book 1.
+   * Returns: [2, 3] for book 1, with count(1, 2) == 2.
+   * Data I/O: none.
+   */
+  @Test
+  public void checkoutsBuildNeighbors_test() {
+    service.checkoutBook(1, 7);
+    service.checkoutBook(2, 7);
+    service.checkoutBook(3, 7);
+    service.checkoutBook(1, 8);
+    service.checkoutBook(2, 8);
+    service.checkoutBook(2, 8);
+    service.checkoutBook(1);
+    service.checkoutBook(6);
+
+    assertEquals(List.of(2, 3), ids(similarity.similarBooks(1, 10)));
+    assertEquals(2, similarity.getMatrix().count(1, 2));
+  }
+
+  /**
+   * Tests that only the patron's most recent books are paired with a new checkout.
+   * Context: history of 2 books per patron.
+   * Arguments: patron 7 borrows 1, 2, 3, then 4.
+   * Returns: book 4 is paired with 2 and 3 but not 1.
+   * Data I/O: none.
+   */
+  @Test
+  public void historyIsBounded_test() {
+    similarity.recordCheckout(7, 1);
+    similarity.recordCheckout(7, 2);
+    similarity.recordCheckout(7, 3);
+    similarity.recordCheckout(7, 4);
+
+    assertEquals(List.of(2, 3), ids(similarity.similarBooks(4, 10)));
+    assertEquals(0, similarity.getMatrix().count(4, 1));
+  }
+
+  /**
+   * Tests the /book/{id}/similar responses.
+   * Context: patron 7 borrowed books 1 and 2.
+   * Arguments: book 1, an unknown book, and a non-positive limit.
+   * Returns: HTTP 200 with [2], HTTP 404, and HTTP 400.
+   * Data I/O: none.
+   */
+  @Test
+  public void controller_test() {
+    service.checkoutBook(1, 7);
+    service.checkoutBook(2, 7);
+    SimilarityController controller = new SimilarityController(service, similarity);
+
+    ResponseEntity<?> ok = controller.getSimilarBooks(1, 10);
+    assertEquals(HttpStatus.OK, ok.getStatusCode());
+    assertTrue(ok.getBody() instanceof List);
+    assertEquals(List.of(2), ids((List<?>) ok.getBody()));
+    assertEquals(HttpStatus.NOT_FOUND, controller.getSimilarBooks(99, 10).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getSimilarBooks(1, 0).getStatusCode());
+  }
+
+  private static List<Integer> ids(List<?> books) {
+    return books.stream().map(b -> ((Book) b).getId()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,161 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.timing.ServerTimingAdvice;
+import dev.coms4156.project.individualproject.timing.StageTimingInterceptor;
+import dev.coms4156.project.individualproject.timing.StageTimings;
+import dev.coms4156.project.individualproject.timing.TimingJacksonConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for StageTimings, StageTimingInterceptor and TimingJacksonConverter.
+ */
+public class StageTimingTest {
+
+  @AfterEach
+  public void tearDown() {
+    StageTimings.setActive(false);
+  }
+
+  /**
+   * Tests that stage timing is a no-op outside a timed request.
+   * Context: timing switched on for the process, but no request begun on this thread.
+   * Arguments: none.
+   * Returns: start() returns 0 with timing on or off.
+   * Data I/O: none.
+   */
+  @Test
+  public void untimedThreadIsNoOp_test() {
+    StageTimings.setActive(false);
+    assertEquals(0L, StageTimings.start());
+    StageTimings.setActive(true);
+    assertEquals(0L, StageTimings.start());
+    StageTimings.stop(StageTimings.Stage.LOOKUP, 0L);
+  }
+
+  /**
+   * Tests that a timed request reports its stages in a Server-Timing header.
+   * Context: an enabled interceptor around a recommendation request on the bundled catalog.
+   * Arguments: mock servlet request and response; the controller's response body.
+   * Returns: a Server-Timing header naming every stage plus app, with a valid JSON body.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void serverTimingHeader_test() throws Exception {
+    StageTimingInterceptor interceptor = new StageTimingInterceptor(true, 100, 0.0);
+    ObjectMapper mapper = new ObjectMapper();
+    TimingJacksonConverter converter = new TimingJacksonConverter(mapper, interceptor);
+    RouteController controller = new RouteController(new MockApiService());
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books/recommendation");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    interceptor.preHandle(request, response, null);
+    assertTrue(StageTimings.start() > 0);
+    Object body = controller.getRecommendations().getBody();
+    converter.write(body, MediaType.APPLICATION_JSON, new ServletServerHttpResponse(response));
+    interceptor.afterCompletion(request, response, null, null);
+
+    String header = response.getHeader(TimingJacksonConverter.SERVER_TIMING);
+    assertNotNull(header);
+    for (StageTimings.Stage stage : StageTimings.Stage.values()) {
+      assertTrue(header.contains(stage.getMetricName() + ";dur="), header);
+    }
+    assertTrue(header.contains("app;dur="), header);
+    assertEquals(10, mapper.readValue(response.getContentAsByteArray(), Book[].class).length);
+    assertEquals(0L, StageTimings.start());
+  }
+
+  /**
+   * Tests that plain-text bodies get a Server-Timing header too.
+   * Context: an enabled interceptor around a request answered with a String body.
+   * Arguments: mock servlet request and response; a not-found message.
+   * Returns: the advice applies to the String converter but not to the JSON one, and the
+   *          written response carries the header and the message.
+   * Data I/O: none.
+   */
+  @Test
+  public void stringBodyHeader_test() throws Exception {
+    StageTimingInterceptor interceptor = new StageTimingInterceptor(true, 100, 0.0);
+    ServerTimingAdvice advice = new ServerTimingAdvice(interceptor);
+    assertTrue(advice.supports(null, StringHttpMessageConverter.class));
+    assertFalse(advice.supports(null, TimingJacksonConverter.class));
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/999999");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    interceptor.preHandle(request, response, null);
+    ServletServerHttpResponse output = new ServletServerHttpResponse(response);
+    Object body = advice.beforeBodyWrite("Book not found.", null, MediaType.TEXT_PLAIN,
+        StringHttpMessageConverter.class, new ServletServerHttpRequest(request), output);
+    new StringHttpMessageConverter().write((String) body, MediaType.TEXT_PLAIN, output);
+    interceptor.afterCompletion(request, response, null, null);
+
+    String header = response.getHeader(TimingJacksonConverter.SERVER_TIMING);
+    assertNotNull(header);
+    assertTrue(header.contains("app;dur="), header);
+    assertEquals("Book not found.", response.getContentAsString());
+  }
+
+  /**
+   * Tests that requests are written straight through when timing is disabled.
+   * Context: a disabled interceptor and no JFR recording.
+   * Arguments: a mock response and a book to serialize.
+   * Returns: the body is written without a Server-Timing header.
+   * Data I/O: none.
+   */
+  @Test
+  public void disabledSendsNoHeader_test() throws Exception {
+    StageTimingInterceptor interceptor = new StageTimingInterceptor(false, 100, 0.0);
+    assertFalse(interceptor.isEnabled());
+    TimingJacksonConverter converter = new TimingJacksonConverter(new ObjectMapper(),
+        interceptor);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    interceptor.preHandle(request, response, null);
+    converter.write(new Book("One", 1), MediaType.APPLICATION_JSON,
+        new ServletServerHttpResponse(response));
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertNull(response.getHeader(TimingJacksonConverter.SERVER_TIMING));
+    assertTrue(response.getContentAsString().contains("\"One\""));
+  }
+
+  /**
+   * Tests that slow requests are logged at the configured sample rate.
+   * Context: a threshold of 0 ms, so every request is slow.
+   * Arguments: three requests at sample rate 1, then three at sample rate 0.
+   * Returns: all three are logged at rate 1 and none at rate 0.
+   * Data I/O: Writes slow-request lines to standard error.
+   */
+  @Test
+  public void slowRequestSampling_test() {
+    StageTimingInterceptor always = new StageTimingInterceptor(true, 0, 1.0);
+    StageTimingInterceptor never = new StageTimingInterceptor(true, 0, 0.0);
+    for (int i = 0; i < 3; i++) {
+      for (StageTimingInterceptor interceptor : new StageTimingInterceptor[] {always, never}) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/" + i);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+      }
+    }
+    assertEquals(3, always.getSlowRequestsLogged());
+    assertEquals(0, never.getSlowRequestsLogged());
+  }
+}
@@ -0,0 +1,88 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.WarmupController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.startup.CatalogRuntimeHints;
+import dev.coms4156.project.individualproject.startup.StartupWarmup;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for StartupWarmup, WarmupController and CatalogRuntimeHints.
+ */
+public class StartupWarmupTest {
+
+  /**
+   * Tests that the warm-up runs its in-process rounds on copies of a sample of the catalog
+   * and reports their timings.
+   * Context: no web server is running, so only the in-process rounds run.
+   * Arguments: a sample of 8 books and at most 100 rounds.
+   * Returns: a report of 8 sampled books and 100 or fewer rounds without HTTP timings, and
+   *          the live catalog is left unchanged.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void warmUp_test() {
+    MockApiService service = new MockApiService();
+    Book first = service.getBooks().get(0);
+    int available = first.getCopiesAvailable();
+    int checkedOut = first.getAmountOfTimesCheckedOut();
+    StartupWarmup warmup = new StartupWarmup(new ObjectMapper(), service,
+        new MockEnvironment(), true, 8, 100, 100);
+    warmup.run(null);
+
+    Map<String, Object> report = warmup.getReport();
+    assertEquals(8, report.get("sampleBooks"));
+    int rounds = (Integer) report.get("rounds");
+    assertTrue(rounds > 0 && rounds <= 100);
+    assertTrue(report.containsKey("firstRoundMicros"));
+    assertFalse(report.containsKey("httpRequests"));
+    assertEquals(available, first.getCopiesAvailable());
+    assertEquals(checkedOut, first.getAmountOfTimesCheckedOut());
+
+    ResponseEntity<?> response = new WarmupController(warmup).getWarmupReport();
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(report, response.getBody());
+  }
+
+  /**
+   * Tests that a disabled warm-up does nothing.
+   * Arguments: enabled = false.
+   * Returns: an empty report, and HTTP 404 from the report endpoint.
+   * Data I/O: Reads resources/mockdata/books.json.
+   */
+  @Test
+  public void disabled_test() {
+    StartupWarmup warmup = new StartupWarmup(new ObjectMapper(), new MockApiService(),
+        new MockEnvironment(), false, 8, 100, 100);
+    warmup.run(null);
+    assertTrue(warmup.getReport().isEmpty());
+    assertEquals(HttpStatus.NOT_FOUND,
+        new WarmupController(warmup).getWarmupReport().getStatusCode());
+  }
+
+  /**
+   * Tests that the native image hints cover Book binding and the catalog resource.
+   * Arguments: none.
+   * Returns: reflection hints on Book and a resource hint for mockdata/books.json.
+   * Data I/O: none.
+   */
+  @Test
+  public void runtimeHints_test() {
+    RuntimeHints hints = new RuntimeHints();
+    new CatalogRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    assertTrue(RuntimeHintsPredicates.reflection().onType(Book.class).test(hints));
+    assertTrue(RuntimeHintsPredicates.resource().forResource("mockdata/books.json").test(hints));
+  }
+}
@@ -0,0 +1,259 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.controller.StorageController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.AuthorIndex;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.MutationResult;
+import dev.coms4156.project.individualproject.service.PublicationYearIndex;
+import dev.coms4156.project.individualproject.util.WTinyLfuPolicy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unit tests for WTinyLfuPolicy, TieredBookStore and tiered mode of MockApiService.
+ */
+public class TieredStorageTest {
+
+  private static MockApiService tiered(long maxResidentBytes) throws Exception {
+    String directory = Files.createTempDirectory("tiered-test").toString();
+    return new MockApiService(false, "wait", true, maxResidentBytes, directory);
+  }
+
+  private static int access(WTinyLfuPolicy policy, int key) {
+    if (policy.contains(key)) {
+      policy.recordAccess(key);
+      return 0;
+    }
+    return policy.admit(key, 1).length;
+  }
+
+  /**
+   * Tests that a scan of one-off keys does not flush frequently used keys.
+   * Context: a policy with room for 100 keys of weight 1.
+   * Arguments: 10,000 keys accessed once each, interleaved with accesses to 50 hot keys.
+   * Returns: every hot key is still admitted at the end, and the policy stays within its
+   *          budget.
+   * Data I/O: none.
+   */
+  @Test
+  public void scanResistance_test() {
+    WTinyLfuPolicy policy = new WTinyLfuPolicy(100, 1024);
+    int evicted = 0;
+    for (int i = 0; i < 10000; i++) {
+      evicted += access(policy, i % 50);
+      evicted += access(policy, 1000 + i);
+    }
+    for (int key = 0; key < 50; key++) {
+      assertTrue(policy.contains(key), "hot key " + key + " was evicted");
+    }
+    assertTrue(policy.getWeightedSize() <= 100);
+    assertEquals(50 + 10000, policy.size() + evicted);
+  }
+
+  /**
+   * Tests that a key heavier than the budget is admitted until the next admission.
+   * Context: a policy with a budget of 10.
+   * Arguments: a key of weight 50, then a key of weight 1.
+   * Returns: the heavy key is not evicted by its own admission but by the next one.
+   * Data I/O: none.
+   */
+  @Test
+  public void oversizedKey_test() {
+    WTinyLfuPolicy policy = new WTinyLfuPolicy(10, 16);
+    assertEquals(0, policy.admit(1, 50).length);
+    assertTrue(policy.contains(1));
+    int[] evicted = policy.admit(2, 1);
+    assertEquals(1, evicted.length);
+    assertEquals(1, evicted[0]);
+    assertEquals(1, policy.getWeightedSize());
+  }
+
+  /**
+   * Tests that evicted books are written back and reloaded with their mutations.
+   * Context: the bundled catalog in a tiered store with room for about three books.
+   * Arguments: a checkout of the first book, three rounds of lookups of every other book,
+   *            then the first book again.
+   * Returns: the first book is evicted, reloaded as a new instance with the checkout applied,
+   *          and the counters record the misses, evictions and write-back.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary spill file.
+   */
+  @Test
+  public void evictedBooksKeepMutations_test() throws Exception {
+    MockApiService service = tiered(4000);
+    List<Book> books = service.getBooks();
+    assertEquals(new MockApiService().getBooks().size(), books.size());
+    int firstId = books.get(0).getId();
+    Book first = service.findBook(firstId);
+    int available = first.getCopiesAvailable();
+    int checkouts = first.getAmountOfTimesCheckedOut();
+    assertTrue(service.checkoutBook(firstId).getStatus() == MutationResult.Status.OK);
+
+    for (int round = 0; round < 3; round++) {
+      for (Book book : books.subList(1, books.size())) {
+        service.findBook(book.getId());
+      }
+    }
+    Book reloaded = service.findBook(firstId);
+    assertNotSame(first, reloaded);
+    assertEquals(available - 1, reloaded.getCopiesAvailable());
+    assertEquals(checkouts + 1, reloaded.getAmountOfTimesCheckedOut());
+
+    Map<String, Object> stats = service.getTieredStore().stats();
+    assertTrue((long) stats.get("evictions") > 0);
+    assertTrue((long) stats.get("writeBacks") >= 1);
+    assertTrue((long) stats.get("misses") >= books.size());
+    assertTrue((int) stats.get("residentBooks") < books.size());
+  }
+
+  /**
+   * Tests that concurrent mutations are not lost while books are evicted.
+   * Context: the bundled catalog in a tiered store with room for about five books.
+   * Arguments: 4 threads of random checkouts and added copies.
+   * Returns: every successful checkout and added copy is reflected in the stored books.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary spill file.
+   */
+  @Test
+  public void concurrentMutationsSurviveEviction_test() throws Exception {
+    MockApiService service = tiered(6000);
+    List<Integer> ids = service.getBooks().stream().map(Book::getId)
+        .collect(Collectors.toList());
+    int copiesBefore = service.getBooks().stream().mapToInt(Book::getTotalCopies).sum();
+    int checkoutsBefore = service.getBooks().stream()
+        .mapToInt(Book::getAmountOfTimesCheckedOut).sum();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Future<int[]>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      futures.add(pool.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] counts = new int[2];
+        for (int i = 0; i < 1000; i++) {
+          int id = ids.get(random.nextInt(ids.size()));
+          if (random.nextBoolean()) {
+            service.addCopy(id);
+            counts[0]++;
+          } else if (service.checkoutBook(id).getStatus() == MutationResult.Status.OK) {
+            counts[1]++;
+          }
+        }
+        return counts;
+      }));
+    }
+    int added = 0;
+    int checkedOut = 0;
+    for (Future<int[]> future : futures) {
+      added += future.get()[0];
+      checkedOut += future.get()[1];
+    }
+    pool.shutdown();
+
+    List<Book> after = service.getBooks();
+    assertEquals(copiesBefore + added, after.stream().mapToInt(Book::getTotalCopies).sum());
+    assertEquals(checkoutsBefore + checkedOut,
+        after.stream().mapToInt(Book::getAmountOfTimesCheckedOut).sum());
+    assertTrue((long) service.getTieredStore().stats().get("evictions") > 0);
+  }
+
+  /**
+   * Tests that updates, replicated records and secondary indexes work on a tiered catalog.
+   * Context: a tiered store with room for about two books holding three constructed books.
+   * Arguments: an update, a replicated new book, checkouts, and author and year queries.
+   * Returns: queries see the stored state of each book, including cold ones.
+   * Data I/O: Writes a temporary spill file.
+   */
+  @Test
+  public void updatesAndIndexes_test() throws Exception {
+    MockApiService service = tiered(2500);
+    service.replaceCatalog(List.of(
+        new Book("A", List.of("Austen, Jane"), "eng", "s", "1990.", "P", List.of(), 1, 1, 1),
+        new Book("B", List.of("Austen, Jane"), "eng", "s", "2000.", "P", List.of(), 2, 1, 1),
+        new Book("C", List.of("Eliot, George"), "eng", "s", "2010.", "P", List.of(), 3, 1, 1)));
+    AuthorIndex authors = new AuthorIndex(service);
+    PublicationYearIndex years = new PublicationYearIndex(service);
+
+    service.updateBook(
+        new Book("B2", List.of("Eliot, George"), "eng", "s", "2001.", "P", List.of(), 2, 2, 2));
+    service.upsertBook(
+        new Book("D", List.of("Austen, Jane"), "eng", "s", "1995.", "P", List.of(), 4, 1, 1));
+    assertEquals("B2", service.findBook(2).getTitle());
+    assertTrue(service.checkoutBook(1).getStatus() == MutationResult.Status.OK);
+    for (int i = 0; i < 3; i++) {
+      service.findBook(3);
+      service.findBook(4);
+    }
+
+    assertEquals(List.of("A", "D"), authors.booksBy("Austen, Jane", 10).stream()
+        .map(Book::getTitle).collect(Collectors.toList()));
+    PublicationYearIndex.Page available = years.query(1990, 2010, true, 10, null);
+    assertEquals(List.of(4, 2, 3), available.getBooks().stream().map(Book::getId)
+        .collect(Collectors.toList()));
+    assertEquals(4, available.getTotalInRange());
+    assertEquals(List.of(1, 2, 3, 4), service.getBooks().stream().map(Book::getId)
+        .collect(Collectors.toList()));
+    assertFalse(service.findBook(1).hasCopies());
+  }
+
+  /**
+   * Tests that scans stream books from disk without making them resident.
+   * Context: a tiered service holding the bundled catalog, with one book checked out until
+   *          it has no copies left.
+   * Arguments: a full scan, a scan stopped after three books, and the available books
+   *            endpoint.
+   * Returns: the scans see every book in order, including the checked-out book's current
+   *          state, and leave the store's resident books and misses unchanged.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary spill file.
+   */
+  @Test
+  public void streamScan_test() throws Exception {
+    MockApiService service = tiered(1 << 20);
+    int id = service.streamBooks().findFirst().get().getId();
+    while (service.checkoutBook(id).getStatus() == MutationResult.Status.OK) {
+      continue;
+    }
+    Map<String, Object> before = service.getTieredStore().stats();
+
+    List<Integer> ids = service.streamBooks().map(Book::getId).collect(Collectors.toList());
+    assertEquals(service.size(), ids.size());
+    assertEquals(ids.subList(0, 3),
+        service.streamBooks().limit(3).map(Book::getId).collect(Collectors.toList()));
+    List<?> available = (List<?>) new RouteController(service).getAvailableBooks().getBody();
+    assertEquals(service.streamBooks().filter(Book::hasCopies).count(), available.size());
+    assertFalse(available.stream().anyMatch(book -> ((Book) book).getId() == id));
+
+    Map<String, Object> after = service.getTieredStore().stats();
+    assertEquals(before.get("residentBooks"), after.get("residentBooks"));
+    assertEquals(before.get("misses"), after.get("misses"));
+  }
+
+  /**
+   * Tests the tiered storage endpoint.
+   * Context: one service in tiered mode and one in memory.
+   * Arguments: none.
+   * Returns: 200 with the counters in tiered mode, 404 otherwise.
+   * Data I/O: Reads resources/mockdata/books.json and writes a temporary spill file.
+   */
+  @Test
+  public void controllerResponses_test() throws Exception {
+    var response = new StorageController(tiered(1 << 20)).getTieredStats();
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertTrue(((Map<?, ?>) response.getBody()).containsKey("hitRatio"));
+    assertEquals(HttpStatus.NOT_FOUND,
+        new StorageController(new MockApiService()).getTieredStats().getStatusCode());
+  }
+}
@@ -0,0 +1,222 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.controller.TrendingController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.SlidingWindowCounter;
+import dev.coms4156.project.individualproject.service.TrendingService;
+import dev.coms4156.project.individualproject.util.CountMinSketch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for CountMinSketch, SlidingWindowCounter and TrendingService.
+ */
+public class TrendingTest {
+
+  private static final long MINUTE = 60_000L;
+  private static final long HOUR = 60 * MINUTE;
+
+  /**
+   * Tests that sketch estimates never undercount and that subtraction removes counts.
+   * Context: 1000 keys added to a 4 x 256 sketch, key 7 added 50 extra times.
+   * Arguments: keys 0..999.
+   * Returns: estimates at least the true counts; key 7 at 51 or more; 0 after subtracting.
+   * Data I/O: none.
+   */
+  @Test
+  public void countMinSketch_test() {
+    CountMinSketch sketch = new CountMinSketch(4, 256);
+    CountMinSketch copy = new CountMinSketch(4, 256);
+    for (int key = 0; key < 1000; key++) {
+      sketch.add(key, 1);
+      copy.add(key, 1);
+    }
+    sketch.add(7, 50);
+    copy.add(7, 50);
+    for (int key = 0; key < 1000; key++) {
+      assertTrue(sketch.estimate(key) >= 1);
+    }
+    assertTrue(sketch.estimate(7) >= 51);
+    assertEquals(1050, sketch.getTotal());
+
+    sketch.subtract(copy);
+    assertEquals(0, sketch.estimate(7));
+    assertEquals(0, sketch.getTotal());
+  }
+
+  /**
+   * Tests that events fall out of the window once their bucket expires.
+   * Context: a 1-hour window of 12 five-minute buckets.
+   * Arguments: book 1 at minute 0, book 2 three times at minute 30.
+   * Returns: both counted at minute 50; only book 2 at minute 70; nothing at minute 100.
+   * Data I/O: none.
+   */
+  @Test
+  public void windowExpiry_test() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(12, 5 * MINUTE, 5, 4, 256);
+    counter.record(1, 0);
+    for (int i = 0; i < 3; i++) {
+      counter.record(2, 30 * MINUTE);
+    }
+
+    assertArrayEquals(new int[] {2, 1}, counter.top(5, 50 * MINUTE));
+    assertEquals(1, counter.estimate(1, 50 * MINUTE));
+    assertArrayEquals(new int[] {2}, counter.top(5, 70 * MINUTE));
+    assertEquals(0, counter.estimate(1, 70 * MINUTE));
+    assertEquals(0, counter.top(5, 100 * MINUTE).length);
+  }
+
+  /**
+   * Tests that a heavy hitter is found among many one-off events.
+   * Context: 2000 distinct books checked out once each, spread over the window.
+   * Arguments: book 5000 checked out 200 times, book 5001 100 times.
+   * Returns: [5000, 5001] as the top 2.
+   * Data I/O: none.
+   */
+  @Test
+  public void heavyHitters_test() {
+    SlidingWindowCounter counter = new SlidingWindowCounter(12, 5 * MINUTE, 5, 4, 1024);
+    for (int i = 0; i < 2000; i++) {
+      long now = i * (HOUR / 2000);
+      counter.record(10_000 + i, now);
+      if (i % 10 == 0) {
+        counter.record(5000, now);
+      }
+      if (i % 20 == 0) {
+        counter.record(5001, now);
+      }
+    }
+    assertArrayEquals(new int[] {5000, 5001}, counter.top(2, HOUR - 1));
+  }
+
+  /**
+   * Tests that the hour, day and week windows rank different recent checkouts.
+   * Context: book 2 checked out 3 times two days ago, book 1 twice three hours ago and
+   *          book 3 once just now.
+   * Arguments: each window.
+   * Returns: hour [3], day [1, 3], week [2, 1, 3].
+   * Data I/O: none.
+   */
+  @Test
+  public void trendingWindows_test() {
+    MockApiService service = catalog();
+    TrendingService trending = new TrendingService(service, 10, 4, 256);
+    long now = 30 * 24 * HOUR;
+    for (int i = 0; i < 3; i++) {
+      trending.recordCheckout(2, now - 48 * HOUR);
+    }
+    trending.recordCheckout(1, now - 3 * HOUR);
+    trending.recordCheckout(1, now - 3 * HOUR);
+    trending.recordCheckout(3, now);
+
+    assertEquals(List.of(3), ids(trending.trending(TrendingService.Window.HOUR, 10, now)));
+    assertEquals(List.of(1, 3), ids(trending.trending(TrendingService.Window.DAY, 10, now)));
+    assertEquals(List.of(2, 1, 3), ids(trending.trending(TrendingService.Window.WEEK, 10, now)));
+  }
+
+  /**
+   * Tests that checkouts recorded from many threads at once are all counted.
+   * Context: an empty hour window.
+   * Arguments: 8 threads recording 2000 checkouts of book 7 each, more than the event
+   *            buffer holds.
+   * Returns: the hour window estimates exactly 16000 checkouts of book 7.
+   * Data I/O: none.
+   */
+  @Test
+  public void concurrentCheckouts_test() throws Exception {
+    TrendingService trending = new TrendingService(catalog(), 10, 4, 256);
+    long now = 30 * 24 * HOUR;
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 2000; i++) {
+          trending.recordCheckout(7, now);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(16000, trending.estimate(TrendingService.Window.HOUR, 7, now));
+  }
+
+  /**
+   * Tests that a trending recommendation puts recently borrowed books in the popular half.
+   * Context: 12 books; book 12 has the most all-time checkouts, book 1 was just checked out.
+   * Arguments: window hour, then an unknown window.
+   * Returns: book 1 first followed by all-time favourites; HTTP 400 for the unknown window.
+   * Data I/O: none.
+   */
+  @Test
+  public void trendingRecommendation_test() {
+    MockApiService service = catalog();
+    for (Book book : service.getBooks()) {
+      for (int i = 0; i < book.getId(); i++) {
+        book.checkoutCopy();
+      }
+    }
+    TrendingService trending = new TrendingService(service, 10, 4, 256);
+    RouteController controller = new RouteController(service, null, null, null, trending);
+    service.checkoutBook(1);
+
+    ResponseEntity<?> response = controller.getRecommendations("hour");
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<Integer> ids = ids((List<?>) response.getBody());
+    assertEquals(List.of(1, 12, 11, 10, 9), ids.subList(0, 5));
+    assertEquals(10, ids.stream().distinct().count());
+
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getRecommendations("year").getStatusCode());
+    assertEquals(12, ids((List<?>) controller.getRecommendations().getBody()).get(0));
+  }
+
+  /**
+   * Tests the /books/trending responses.
+   * Context: book 4 checked out once.
+   * Arguments: window day; an unknown window; a non-positive limit.
+   * Returns: HTTP 200 with [4], then HTTP 400 twice.
+   * Data I/O: none.
+   */
+  @Test
+  public void trendingController_test() {
+    MockApiService service = catalog();
+    TrendingService trending = new TrendingService(service, 10, 4, 256);
+    TrendingController controller = new TrendingController(trending);
+    service.checkoutBook(4);
+
+    ResponseEntity<?> ok = controller.getTrendingBooks("day", 10);
+    assertEquals(HttpStatus.OK, ok.getStatusCode());
+    assertEquals(List.of(4), ids((List<?>) ok.getBody()));
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getTrendingBooks("year", 10).getStatusCode());
+    assertEquals(HttpStatus.BAD_REQUEST, controller.getTrendingBooks("day", 0).getStatusCode());
+  }
+
+  private static MockApiService catalog() {
+    MockApiService service = new MockApiService();
+    List<Book> books = new ArrayList<>();
+    for (int id = 1; id <= 12; id++) {
+      Book book = new Book("Book " + id, id);
+      for (int c = 0; c < 20; c++) {
+        book.addCopy();
+      }
+      books.add(book);
+    }
+    service.replaceCatalog(books);
+    return service;
+  }
+
+  private static List<Integer> ids(List<?> books) {
+    return books.stream().map(b -> ((Book) b).getId()).collect(Collectors.toList());
+  }
+}